@@ -8,40 +8,131 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
- * Configuration for async media processing
- * Handles background processing of images and videos
+ * Configuration for async background work
+ * Media processing runs on MediaJobScheduler's own workers
  */
 @Configuration
 @EnableAsync
 @Slf4j
 public class AsyncProcessingConfig {
 
-    @Value("${media.processing.async.core-pool-size:2}")
-    private int corePoolSize;
+    @Value("${notifications.outbox.workers:4}")
+    private int notificationWorkers;
 
-    @Value("${media.processing.async.max-pool-size:4}")
-    private int maxPoolSize;
+    @Value("${worship.engine.threads:4}")
+    private int worshipRoomThreads;
 
-    @Value("${media.processing.async.queue-capacity:100}")
-    private int queueCapacity;
+    @Value("${metrics.job.parallelism:4}")
+    private int metricsJobThreads;
 
-    @Bean(name = "mediaProcessingExecutor")
-    public Executor mediaProcessingExecutor() {
+    @Value("${media.cleanup.workers:4}")
+    private int mediaCleanupWorkers;
+
+    @Value("${moderation.bulk.workers:2}")
+    private int moderationWorkers;
+
+    /**
+     * Workers for notification outbox deliveries.
+     * A full queue runs the task on the polling thread, which slows claiming instead of dropping work.
+     */
+    @Bean(name = "notificationExecutor")
+    public Executor notificationExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(corePoolSize);
-        executor.setMaxPoolSize(maxPoolSize);
-        executor.setQueueCapacity(queueCapacity);
-        executor.setThreadNamePrefix("media-processing-");
+        executor.setCorePoolSize(notificationWorkers);
+        executor.setMaxPoolSize(notificationWorkers);
+        executor.setQueueCapacity(notificationWorkers * 10);
+        executor.setThreadNamePrefix("push-fanout-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(60);
+        executor.setAwaitTerminationSeconds(30);
         executor.initialize();
-        
-        log.info("Media processing executor configured: corePoolSize={}, maxPoolSize={}, queueCapacity={}",
-                corePoolSize, maxPoolSize, queueCapacity);
-        
+
+        log.info("Notification executor configured: workers={}", notificationWorkers);
+
         return executor;
     }
-}
 
+    /**
+     * Runs worship room actors (see WorshipRoomEngine). Each room uses at most one thread
+     * at a time, so a few threads serve many rooms.
+     */
+    @Bean(name = "worshipRoomExecutor")
+    public Executor worshipRoomExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(worshipRoomThreads);
+        executor.setMaxPoolSize(worshipRoomThreads);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("worship-room-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("Worship room executor configured: threads={}", worshipRoomThreads);
+
+        return executor;
+    }
+
+    /**
+     * Runs partitions of the nightly organization metrics job (see OrganizationMetricsBatchJob).
+     * Each thread holds one database connection while its partition runs.
+     */
+    @Bean(name = "metricsJobExecutor")
+    public Executor metricsJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(metricsJobThreads);
+        executor.setMaxPoolSize(metricsJobThreads);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("org-metrics-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("Organization metrics job executor configured: threads={}", metricsJobThreads);
+
+        return executor;
+    }
+
+    /**
+     * Workers for batches of the original media cleanup (see FileCleanupService).
+     * A full queue runs the batch on the reading thread, so paging never runs far ahead of deletes.
+     */
+    @Bean(name = "mediaCleanupExecutor")
+    public Executor mediaCleanupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(mediaCleanupWorkers);
+        executor.setMaxPoolSize(mediaCleanupWorkers);
+        executor.setQueueCapacity(mediaCleanupWorkers);
+        executor.setThreadNamePrefix("media-cleanup-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("Media cleanup executor configured: workers={}", mediaCleanupWorkers);
+
+        return executor;
+    }
+
+    /**
+     * Runs bulk moderation jobs (see BulkModerationEngine), one job per thread.
+     * The queue is bounded; a rejected job is marked FAILED rather than run on the request thread.
+     */
+    @Bean(name = "moderationExecutor")
+    public Executor moderationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(moderationWorkers);
+        executor.setMaxPoolSize(moderationWorkers);
+        executor.setQueueCapacity(moderationWorkers * 25);
+        executor.setThreadNamePrefix("bulk-moderation-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("Bulk moderation executor configured: workers={}", moderationWorkers);
+
+        return executor;
+    }
+}
@@ -0,0 +1,265 @@
+package com.churchapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes actually read from the request body and written to the response body,
+ * so OrganizationMetricsInterceptor can report real data transfer instead of estimates.
+ *
+ * Unlike ContentCachingResponseWrapper nothing is buffered - bytes pass straight through.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ByteCountingFilter extends OncePerRequestFilter {
+
+    private static final String ATTRIBUTE = ByteCountingFilter.class.getName() + ".counts";
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        ByteCounts counts = new ByteCounts();
+        request.setAttribute(ATTRIBUTE, counts);
+        filterChain.doFilter(new CountingRequest(request, counts.requestBytes),
+                             new CountingResponse(response, counts.responseBytes));
+    }
+
+    /**
+     * Bytes transferred for the given request so far, or null if the filter did not run.
+     */
+    public static ByteCounts getCounts(HttpServletRequest request) {
+        Object counts = request.getAttribute(ATTRIBUTE);
+        return counts instanceof ByteCounts ? (ByteCounts) counts : null;
+    }
+
+    public static final class ByteCounts {
+        private final AtomicLong requestBytes = new AtomicLong();
+        private final AtomicLong responseBytes = new AtomicLong();
+
+        public long getRequestBytes() {
+            return requestBytes.get();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.get();
+        }
+    }
+
+    private static final class CountingRequest extends HttpServletRequestWrapper {
+        private final AtomicLong counter;
+        private ServletInputStream inputStream;
+
+        CountingRequest(HttpServletRequest request, AtomicLong counter) {
+            super(request);
+            this.counter = counter;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new CountingInputStream(super.getInputStream(), counter);
+            }
+            return inputStream;
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private final AtomicLong counter;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response, AtomicLong counter) {
+            super(response);
+            this.counter = counter;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream(), counter);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                // The encoding is fixed once the container's writer has been obtained
+                writer = new PrintWriter(new CountingWriter(super.getWriter(), counter, responseCharset()));
+            }
+            return writer;
+        }
+
+        private Charset responseCharset() {
+            try {
+                String encoding = getCharacterEncoding();
+                return encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+            } catch (IllegalArgumentException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+    }
+
+    private static final class CountingInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private final AtomicLong counter;
+
+        CountingInputStream(ServletInputStream delegate, AtomicLong counter) {
+            this.delegate = delegate;
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b != -1) {
+                counter.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            if (read > 0) {
+                counter.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final AtomicLong counter;
+
+        CountingOutputStream(ServletOutputStream delegate, AtomicLong counter) {
+            this.delegate = delegate;
+            this.counter = counter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            counter.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            counter.addAndGet(len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    /**
+     * Counts the encoded length of what is written, not the number of chars
+     */
+    private static final class CountingWriter extends Writer {
+        private final Writer delegate;
+        private final AtomicLong counter;
+        private final Charset charset;
+
+        CountingWriter(Writer delegate, AtomicLong counter, Charset charset) {
+            this.delegate = delegate;
+            this.counter = counter;
+            this.charset = charset;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            delegate.write(cbuf, off, len);
+            counter.addAndGet(encodedLength(cbuf, off, len));
+        }
+
+        private long encodedLength(char[] cbuf, int off, int len) {
+            if (!StandardCharsets.UTF_8.equals(charset)) {
+                return new String(cbuf, off, len).getBytes(charset).length;
+            }
+            long bytes = 0;
+            for (int i = off; i < off + len; i++) {
+                char c = cbuf[i];
+                if (c < 0x80) {
+                    bytes += 1;
+                } else if (c < 0x800 || Character.isSurrogate(c)) {
+                    // Each half of a surrogate pair counts 2 of the pair's 4 bytes
+                    bytes += 2;
+                } else {
+                    bytes += 3;
+                }
+            }
+            return bytes;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
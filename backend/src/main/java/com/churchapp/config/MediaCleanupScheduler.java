@@ -10,7 +10,7 @@ import org.springframework.stereotype.Component;
  * Scheduled job to clean up original media files after processing
  * Implements the Facebook/X approach: delete originals after optimized versions are ready
  * 
- * Schedule: Daily at 2:00 AM (can be configured via application.properties)
+ * Schedule: Daily at 1:00 AM (media.cleanup.schedule-cron), ahead of the 2:00 AM metrics job
  */
 @Component
 @RequiredArgsConstructor
@@ -21,12 +21,12 @@ public class MediaCleanupScheduler {
     
     /**
      * Clean up original files that have been processed
-     * Runs daily at 2:00 AM
+     * Runs daily at 1:00 AM
      * 
      * Cron format: second, minute, hour, day, month, weekday
-     * "0 0 2 * * *" = Every day at 2:00 AM
+     * "0 0 1 * * *" = Every day at 1:00 AM
      */
-    @Scheduled(cron = "0 0 2 * * *")
+    @Scheduled(cron = "${media.cleanup.schedule-cron:0 0 1 * * *}")
     public void cleanupProcessedOriginals() {
         log.info("Starting scheduled cleanup of processed original media files");
         try {
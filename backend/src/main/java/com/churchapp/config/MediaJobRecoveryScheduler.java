@@ -0,0 +1,34 @@
+package com.churchapp.config;
+
+import com.churchapp.service.FileUploadService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-queues media processing that was refused, lost in a restart, or interrupted mid-job.
+ * MediaFile.processingStatus is the durable record of pending work; this job turns it back
+ * into MediaJobScheduler jobs. The first run shortly after startup picks up anything the
+ * previous instance left behind.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MediaJobRecoveryScheduler {
+
+    private final FileUploadService fileUploadService;
+
+    /**
+     * Runs every minute by default (media.processing.recovery.interval-ms)
+     */
+    @Scheduled(initialDelayString = "${media.processing.recovery.initial-delay-ms:30000}",
+               fixedDelayString = "${media.processing.recovery.interval-ms:60000}")
+    public void resumeStalledProcessing() {
+        try {
+            fileUploadService.resumeStalledProcessing();
+        } catch (Exception e) {
+            log.error("Error during media processing recovery sweep", e);
+        }
+    }
+}
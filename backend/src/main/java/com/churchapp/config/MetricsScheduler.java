@@ -1,7 +1,7 @@
 package com.churchapp.config;
 
 import com.churchapp.service.MetricsSnapshotService;
-import com.churchapp.service.OrganizationMetricsService;
+import com.churchapp.service.OrganizationMetricsBatchJob;
 import com.churchapp.service.StorageLimitService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,28 +10,28 @@ import org.springframework.stereotype.Component;
 
 /**
  * Scheduled job to update organization metrics periodically.
- * Runs daily at 2:00 AM to calculate metrics for all organizations.
- * Creates historical snapshots at 2:30 AM.
+ * Runs daily at 2:00 AM to calculate metrics and create historical snapshots for all organizations,
+ * and resumes that run if it was interrupted.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class MetricsScheduler {
 
-    private final OrganizationMetricsService metricsService;
+    private final OrganizationMetricsBatchJob metricsBatchJob;
     private final StorageLimitService storageLimitService;
     private final MetricsSnapshotService metricsSnapshotService;
 
     /**
-     * Update metrics for all organizations daily at 2:00 AM
+     * Update metrics and snapshots for all organizations daily at 2:00 AM
      * Cron format: second, minute, hour, day, month, weekday
      * 0 0 2 * * * = Every day at 2:00 AM
      */
-    @Scheduled(cron = "0 0 2 * * *")
+    @Scheduled(cron = "${metrics.job.cron:0 0 2 * * *}")
     public void updateAllOrganizationMetrics() {
         log.info("Starting scheduled metrics update for all organizations");
         try {
-            metricsService.updateAllOrganizationsMetrics();
+            metricsBatchJob.run();
             storageLimitService.evaluateStorageLimits();
             log.info("Scheduled metrics update completed successfully");
         } catch (Exception e) {
@@ -40,17 +40,17 @@ public class MetricsScheduler {
     }
 
     /**
-     * Create metrics snapshots for all organizations daily at 2:30 AM
-     * Runs after metrics update to capture the latest data
+     * Finish today's metrics run from its checkpoint if a restart or failed partition cut it short
      */
-    @Scheduled(cron = "0 30 2 * * *")
-    public void createDailyMetricsSnapshots() {
-        log.info("Starting daily metrics snapshot creation for all organizations");
+    @Scheduled(initialDelayString = "${metrics.job.resume-initial-delay-ms:120000}",
+               fixedDelayString = "${metrics.job.resume-interval-ms:900000}")
+    public void resumeInterruptedMetricsUpdate() {
         try {
-            metricsSnapshotService.createSnapshotsForAllOrganizations();
-            log.info("Daily metrics snapshot creation completed successfully");
+            if (metricsBatchJob.resumeInterrupted() > 0) {
+                storageLimitService.evaluateStorageLimits();
+            }
         } catch (Exception e) {
-            log.error("Error during metrics snapshot creation", e);
+            log.error("Error resuming organization metrics job", e);
         }
     }
 
@@ -68,4 +68,3 @@ public class MetricsScheduler {
         }
     }
 }
-
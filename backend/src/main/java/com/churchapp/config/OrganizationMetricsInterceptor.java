@@ -1,8 +1,9 @@
 package com.churchapp.config;
 
-import com.churchapp.entity.User;
 import com.churchapp.repository.UserRepository;
-import com.churchapp.service.OrganizationMetricsService;
+import com.churchapp.service.OrganizationApiMetricsAggregator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -13,26 +14,33 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Interceptor to track API requests and data transfer per organization.
  * Tracks network traffic metrics for the metrics system.
+ *
+ * Byte counts come from ByteCountingFilter; counts are accumulated in memory by
+ * OrganizationApiMetricsAggregator and written to the database in batches.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrganizationMetricsInterceptor implements HandlerInterceptor {
 
-    private final OrganizationMetricsService metricsService;
+    private final OrganizationApiMetricsAggregator metricsAggregator;
     private final UserRepository userRepository;
 
+    // email -> church primary org id; a short TTL is fine for metrics attribution
+    private final Cache<String, Optional<UUID>> organizationIdByEmail = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        // Note: We can't wrap request/response here as they're already passed by reference
-        // ContentCachingRequestWrapper/ResponseWrapper would need to be added via Filter
-        // For now, we'll calculate sizes from headers and estimate
         return true;
     }
 
@@ -54,21 +62,12 @@ public class OrganizationMetricsInterceptor implements HandlerInterceptor {
                 return;
             }
 
-            // Calculate request and response sizes
-            // Note: For accurate sizes, ContentCachingRequestWrapper/ResponseWrapper 
-            // would need to be added via a Filter. For now, we estimate from headers.
             long requestSize = calculateRequestSize(request);
-            long responseSize = calculateResponseSize(response);
+            long responseSize = calculateResponseSize(request, response);
             long totalDataTransfer = requestSize + responseSize;
-            
-            // If we can't determine size from headers, use a minimum estimate
-            // This ensures we still track the request count
-            if (totalDataTransfer == 0) {
-                totalDataTransfer = 1024; // 1KB minimum estimate per request
-            }
 
-            // Increment metrics
-            metricsService.incrementApiRequest(organizationId.get(), totalDataTransfer);
+            // Accumulate in memory; flushed to organization_metrics in batches
+            metricsAggregator.recordRequest(organizationId.get(), totalDataTransfer);
 
             log.debug("Tracked API request for organization {}: {} bytes (req: {}, resp: {})",
                 organizationId.get(), totalDataTransfer, requestSize, responseSize);
@@ -99,21 +98,9 @@ public class OrganizationMetricsInterceptor implements HandlerInterceptor {
             UserDetails userDetails = (UserDetails) principal;
             String email = userDetails.getUsername();
 
-            // Get User entity to find primary organization
-            Optional<User> userOpt = userRepository.findByEmail(email);
-            
-            if (userOpt.isEmpty()) {
-                return Optional.empty();
-            }
-
-            User user = userOpt.get();
-            
-            // Return primary organization ID if exists
-            if (user.getPrimaryOrganization() != null) {
-                return Optional.of(user.getPrimaryOrganization().getId());
-            }
-
-            return Optional.empty();
+            // Primary organization lookup is cached so tracking adds no query per request
+            return organizationIdByEmail.get(email,
+                key -> Optional.ofNullable(userRepository.findChurchPrimaryOrgIdByEmail(key)));
 
         } catch (Exception e) {
             log.debug("Could not extract organization ID from request", e);
@@ -123,60 +110,36 @@ public class OrganizationMetricsInterceptor implements HandlerInterceptor {
 
     /**
      * Calculate request size in bytes
-     * Estimates from Content-Length header
+     * Uses Content-Length when declared (multipart bodies are parsed by the container),
+     * otherwise the bytes actually read from the body
      */
     private long calculateRequestSize(HttpServletRequest request) {
-        try {
-            String contentLength = request.getHeader("Content-Length");
-            if (contentLength != null && !contentLength.isEmpty()) {
-                try {
-                    return Long.parseLong(contentLength);
-                } catch (NumberFormatException e) {
-                    // Ignore invalid content-length
-                }
-            }
-            
-            // Estimate based on method and path
-            String method = request.getMethod();
-            if ("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method)) {
-                // Estimate 2KB for POST/PUT/PATCH requests without content-length
-                return 2048;
-            }
-            
-            return 0;
-        } catch (Exception e) {
-            log.debug("Error calculating request size", e);
-            return 0;
+        long contentLength = request.getContentLengthLong();
+        if (contentLength >= 0) {
+            return contentLength;
         }
+        ByteCountingFilter.ByteCounts counts = ByteCountingFilter.getCounts(request);
+        return counts != null ? counts.getRequestBytes() : 0;
     }
 
     /**
      * Calculate response size in bytes
-     * Estimates from Content-Length header
+     * Uses the bytes actually written to the response body
      */
-    private long calculateResponseSize(HttpServletResponse response) {
-        try {
-            String contentLength = response.getHeader("Content-Length");
-            if (contentLength != null && !contentLength.isEmpty()) {
-                try {
-                    return Long.parseLong(contentLength);
-                } catch (NumberFormatException e) {
-                    // Ignore invalid content-length
-                }
-            }
-            
-            // Estimate based on status code
-            int status = response.getStatus();
-            if (status >= 200 && status < 300) {
-                // Successful responses: estimate 5KB average
-                return 5120;
+    private long calculateResponseSize(HttpServletRequest request, HttpServletResponse response) {
+        ByteCountingFilter.ByteCounts counts = ByteCountingFilter.getCounts(request);
+        if (counts != null) {
+            return counts.getResponseBytes();
+        }
+        String contentLength = response.getHeader("Content-Length");
+        if (contentLength != null && !contentLength.isEmpty()) {
+            try {
+                return Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                // Ignore invalid content-length
             }
-            
-            return 0;
-        } catch (Exception e) {
-            log.debug("Error calculating response size", e);
-            return 0;
         }
+        return 0;
     }
 
     /**
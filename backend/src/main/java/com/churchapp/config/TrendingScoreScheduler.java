@@ -0,0 +1,44 @@
+package com.churchapp.config;
+
+import com.churchapp.entity.Post;
+import com.churchapp.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background sweeper for posts.trending_score.
+ *
+ * Scores are set on insert and refreshed by every PostEngagementCounters flush, in the same UPDATE
+ * as the counters. This job recomputes every post inside the trending window in a single UPDATE
+ * so scores drift-correct after bulk counter updates that bypass both.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingScoreScheduler {
+
+    private final PostRepository postRepository;
+
+    @Value("${feed.trending.sweep-window-days:8}")
+    private int sweepWindowDays;
+
+    /**
+     * Runs every 15 minutes by default (feed.trending.sweep-interval-ms)
+     */
+    @Scheduled(initialDelayString = "${feed.trending.sweep-initial-delay-ms:60000}",
+               fixedDelayString = "${feed.trending.sweep-interval-ms:900000}")
+    public void recomputeTrendingScores() {
+        LocalDateTime since = LocalDateTime.now().minusDays(sweepWindowDays);
+        try {
+            int updated = postRepository.recomputeTrendingScores(since, Post.TRENDING_HALF_LIFE_SECONDS);
+            log.debug("Recomputed trending scores for {} posts created since {}", updated, since);
+        } catch (Exception e) {
+            log.error("Error during trending score sweep", e);
+        }
+    }
+}
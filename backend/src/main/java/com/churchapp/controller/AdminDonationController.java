@@ -14,6 +14,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -80,10 +81,10 @@ public class AdminDonationController {
     }
 
     /**
-     * Export donation data as CSV or Excel
+     * Export donation data as CSV or Excel, streamed
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportDonations(
+    public ResponseEntity<StreamingResponseBody> exportDonations(
             @RequestParam(defaultValue = "csv") String format,
             @RequestParam(defaultValue = "30d") String dateRange,
             @RequestParam(required = false) String startDate,
@@ -92,7 +93,8 @@ public class AdminDonationController {
         try {
             log.info("Exporting donations: format={}, dateRange={}", format, dateRange);
 
-            byte[] exportData = donationAnalyticsService.exportDonations(
+            // Rows are written to the response as they are read, not buffered
+            StreamingResponseBody exportData = donationAnalyticsService.exportDonations(
                 format, dateRange, startDate, endDate);
 
             String filename = String.format("donations_%s_%s.%s",
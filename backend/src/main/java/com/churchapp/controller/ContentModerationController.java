@@ -1,5 +1,6 @@
 package com.churchapp.controller;
 
+import com.churchapp.dto.BulkModerationJobResponse;
 import com.churchapp.dto.ModerationResponse;
 import com.churchapp.entity.User;
 import com.churchapp.repository.UserRepository;
@@ -182,10 +183,11 @@ public class ContentModerationController {
     }
 
     /**
-     * Bulk moderate multiple content items
+     * Bulk moderate multiple content items.
+     * Runs as a background job; returns 202 with the job to poll for progress.
      */
     @PostMapping("/bulk-moderate")
-    public ResponseEntity<Map<String, Object>> bulkModerate(
+    public ResponseEntity<?> bulkModerate(
             @RequestBody Map<String, Object> request,
             Authentication auth,
             HttpServletRequest httpRequest) {
@@ -195,6 +197,7 @@ public class ContentModerationController {
             java.util.List<String> contentIds = (java.util.List<String>) request.get("contentIds");
             String action = (String) request.get("action");
             String reason = (String) request.get("reason");
+            String contentType = (String) request.get("contentType"); // Optional: POST, MESSAGE or MARKETPLACE
 
             // Get user ID from email (auth.getName() returns email)
             String email = auth.getName();
@@ -204,20 +207,36 @@ public class ContentModerationController {
             UUID moderatorId = user.getId();
 
             log.info("Bulk moderating {} items with action: {} by admin: {} (email: {})",
-                contentIds.size(), action, moderatorId, email);
+                contentIds != null ? contentIds.size() : 0, action, moderatorId, email);
 
-            Map<String, Object> result = contentModerationService.bulkModerate(
-                contentIds, action, reason,
+            BulkModerationJobResponse job = contentModerationService.bulkModerate(
+                contentIds, contentType, action, reason,
                 moderatorId, httpRequest);
 
-            return ResponseEntity.ok(result);
+            return ResponseEntity.accepted().body(job);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected bulk moderation request: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
         } catch (Exception e) {
             log.error("Error in bulk moderation: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to perform bulk moderation", e);
         }
     }
 
+    /**
+     * Progress of a bulk moderation job
+     */
+    @GetMapping("/bulk-moderate/{jobId}")
+    public ResponseEntity<BulkModerationJobResponse> getBulkModerationJob(@PathVariable UUID jobId) {
+
+        return contentModerationService.getBulkModerationJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Update moderation settings
      */
@@ -4,13 +4,13 @@ import com.churchapp.dto.*;
 import com.churchapp.entity.Post;
 import com.churchapp.entity.PostReactionType;
 import com.churchapp.entity.PostComment;
-import com.churchapp.repository.PostRepository;
 import com.churchapp.repository.UserRepository;
 import com.churchapp.service.FeedService;
 import com.churchapp.service.FileUploadService;
 import com.churchapp.service.MediaUrlService;
 import com.churchapp.service.NotificationService;
 import com.churchapp.service.PostAnalyticsService;
+import com.churchapp.service.PostEngagementCounters;
 import com.churchapp.service.PostInteractionService;
 import com.churchapp.service.PostResponseMapper;
 import com.churchapp.service.PostService;
@@ -39,6 +39,8 @@ import java.util.UUID;
 @Slf4j
 public class PostController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final PostService postService;
     private final PostInteractionService postInteractionService;
     private final FeedService feedService;
@@ -47,7 +49,7 @@ public class PostController {
     private final PostResponseMapper postResponseMapper;
     private final PostAnalyticsService postAnalyticsService;
     private final UserRepository userRepository;
-    private final PostRepository postRepository;
+    private final PostEngagementCounters engagementCounters;
     private final MediaUrlService mediaUrlService;
     private final com.churchapp.service.PostCommentReadStatusService postCommentReadStatusService;
 
@@ -342,6 +344,35 @@ public class PostController {
         }
     }
 
+    /**
+     * Cursor-paginated multi-tenant feed (community feed)
+     * Same posts and order as /feed, but pages are addressed by the opaque nextCursor
+     * from the previous response, so infinite scroll stays fast and never repeats posts.
+     */
+    @GetMapping("/feed/cursor")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getFeedByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User user) {
+
+        try {
+            UUID viewerId = resolveUserId(user);
+            int sliceSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+
+            CursorPageResponse<Post> posts = postService.getMultiTenantFeedSlice(viewerId, cursor, sliceSize);
+            List<PostResponse> responses = postResponseMapper.mapList(posts.getContent(), viewerId);
+            return ResponseEntity.ok(new CursorPageResponse<>(responses, posts.getNextCursor(), posts.isHasMore()));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid feed cursor request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error loading cursor feed for user {}: {}", user != null ? user.getUsername() : "unknown",
+                    e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Get posts for a specific organization
      */
@@ -1088,9 +1119,9 @@ public class PostController {
             }
 
             if (!postIds.isEmpty()) {
-                // Single batch UPDATE query - highly efficient
+                // Buffered in memory and flushed with the other engagement counters
                 log.info("👁️ [Impressions] Incrementing views_count for {} posts: {}", postIds.size(), postIds);
-                postRepository.incrementViewsCounts(postIds);
+                engagementCounters.viewed(postIds);
                 log.info("👁️ [Impressions] Successfully recorded {} impressions", postIds.size());
             }
 
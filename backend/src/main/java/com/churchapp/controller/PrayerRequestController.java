@@ -1,5 +1,6 @@
 package com.churchapp.controller;
 
+import com.churchapp.dto.CursorPageResponse;
 import com.churchapp.dto.PrayerRequestRequest;
 import com.churchapp.dto.PrayerRequestUpdateRequest;
 import com.churchapp.dto.PrayerRequestResponse;
@@ -33,6 +34,8 @@ public class PrayerRequestController {
     private final PrayerRequestService prayerRequestService;
     private final PrayerInteractionService prayerInteractionService;
     private final UserProfileService userProfileService;
+
+    private static final int MAX_SHEET_PAGE_SIZE = 100;
     
     @PostMapping
     public ResponseEntity<?> createPrayerRequest(@AuthenticationPrincipal User user,
@@ -319,6 +322,28 @@ public class PrayerRequestController {
         }
     }
     
+    /**
+     * Cursor-paginated prayer sheet: same prayers and order as /sheet, addressed by the opaque
+     * nextCursor from the previous response.
+     */
+    @GetMapping("/sheet/cursor")
+    public ResponseEntity<?> getPrayerSheetByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User user) {
+        try {
+            UserProfileResponse currentProfile = userProfileService.getUserProfileByEmail(user.getUsername());
+            int sliceSize = Math.min(Math.max(size, 1), MAX_SHEET_PAGE_SIZE);
+            CursorPageResponse<PrayerRequestResponse> slice = prayerRequestService.getActivePrayerSheetSlice(
+                currentProfile.getUserId(), cursor, sliceSize);
+            return ResponseEntity.ok(slice);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     // Helper method to enrich prayer request responses with interaction summaries
     private PrayerRequestResponse enrichWithInteractions(PrayerRequestResponse prayerResponse) {
         try {
@@ -3,13 +3,13 @@ package com.churchapp.controller;
 import com.churchapp.dto.MessageRequest;
 import com.churchapp.dto.MessageResponse;
 import com.churchapp.service.ChatService;
+import com.churchapp.service.RealtimeMessageBus;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -23,7 +23,7 @@ import java.util.UUID;
 public class WebSocketChatController {
     
     private final ChatService chatService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
     
     @MessageMapping("/chat/send/{groupId}")
     @SendTo("/topic/group/{groupId}/messages")
@@ -44,7 +44,7 @@ public class WebSocketChatController {
             return response;
         } catch (Exception e) {
             // Send error back to sender
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 principal.getName(),
                 "/queue/errors",
                 createErrorMessage("Failed to send message: " + e.getMessage())
@@ -80,10 +80,10 @@ public class WebSocketChatController {
             notification.put("timestamp", LocalDateTime.now());
             notification.put("userId", principal.getName());
             
-            messagingTemplate.convertAndSend("/topic/group/" + groupId, notification);
+            messageBus.publish("/topic/group/" + groupId, notification);
             
         } catch (Exception e) {
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 principal.getName(),
                 "/queue/errors",
                 createErrorMessage("Failed to join group: " + e.getMessage())
@@ -106,10 +106,10 @@ public class WebSocketChatController {
             notification.put("timestamp", LocalDateTime.now());
             notification.put("userId", principal.getName());
             
-            messagingTemplate.convertAndSend("/topic/group/" + groupId, notification);
+            messageBus.publish("/topic/group/" + groupId, notification);
             
         } catch (Exception e) {
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 principal.getName(),
                 "/queue/errors",
                 createErrorMessage("Failed to leave group: " + e.getMessage())
@@ -135,7 +135,7 @@ public class WebSocketChatController {
             readStatus.put("userId", principal.getName());
             readStatus.put("timestamp", timestamp);
             
-            messagingTemplate.convertAndSend("/topic/group/" + groupId + "/read", readStatus);
+            messageBus.publish("/topic/group/" + groupId + "/read", readStatus);
             
         } catch (Exception e) {
             // Ignore read status errors
@@ -151,13 +151,13 @@ public class WebSocketChatController {
             MessageResponse response = chatService.editMessage(principal.getName(), messageId, newContent);
             
             // Broadcast the edited message
-            messagingTemplate.convertAndSend(
+            messageBus.publish(
                 "/topic/group/" + response.getChatGroupId() + "/messages",
                 response
             );
             
         } catch (Exception e) {
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 principal.getName(),
                 "/queue/errors",
                 createErrorMessage("Failed to edit message: " + e.getMessage())
@@ -180,10 +180,10 @@ public class WebSocketChatController {
             deletion.put("timestamp", LocalDateTime.now());
             
             // Broadcast to all subscribers (they'll filter by message ID)
-            messagingTemplate.convertAndSend("/topic/messages/deleted", deletion);
+            messageBus.publish("/topic/messages/deleted", deletion);
             
         } catch (Exception e) {
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 principal.getName(),
                 "/queue/errors",
                 createErrorMessage("Failed to delete message: " + e.getMessage())
@@ -204,7 +204,7 @@ public class WebSocketChatController {
             presence.put("status", status);
             presence.put("timestamp", LocalDateTime.now());
             
-            messagingTemplate.convertAndSend("/topic/presence", presence);
+            messageBus.publish("/topic/presence", presence);
             
         } catch (Exception e) {
             // Ignore presence errors
@@ -219,7 +219,7 @@ public class WebSocketChatController {
         typingStatus.put("isTyping", isTyping);
         typingStatus.put("timestamp", LocalDateTime.now());
         
-        messagingTemplate.convertAndSend("/topic/group/" + groupId + "/typing", typingStatus);
+        messageBus.publish("/topic/group/" + groupId + "/typing", typingStatus);
     }
     
     private Map<String, Object> createErrorMessage(String message) {
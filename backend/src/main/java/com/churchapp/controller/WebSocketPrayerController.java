@@ -1,11 +1,11 @@
 package com.churchapp.controller;
 
 import com.churchapp.dto.PrayerNotificationEvent;
+import com.churchapp.service.RealtimeMessageBus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -23,7 +23,7 @@ import java.util.UUID;
 @Slf4j
 public class WebSocketPrayerController {
     
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
     
     /**
      * Subscribe to general prayer request updates
@@ -40,7 +40,7 @@ public class WebSocketPrayerController {
             response.put("message", "Successfully subscribed to prayer notifications");
             response.put("timestamp", LocalDateTime.now().toString());
             
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 principal.getName(),
                 "/queue/prayers",
                 response
@@ -74,7 +74,7 @@ public class WebSocketPrayerController {
             response.put("message", "Successfully subscribed to prayer interactions");
             response.put("timestamp", LocalDateTime.now().toString());
             
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 principal.getName(),
                 "/queue/prayers",
                 response
@@ -109,7 +109,7 @@ public class WebSocketPrayerController {
             interaction.put("timestamp", LocalDateTime.now().toString());
             interaction.putAll(payload);
             
-            messagingTemplate.convertAndSend(
+            messageBus.publish(
                 "/topic/prayer-interactions/" + prayerRequestId,
                 interaction
             );
@@ -129,7 +129,7 @@ public class WebSocketPrayerController {
         try {
             log.info("Sending personal prayer notification to user: {}", userEmail);
             
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 userEmail,
                 "/queue/prayers",
                 event
@@ -150,7 +150,7 @@ public class WebSocketPrayerController {
             log.info("Broadcasting prayer event: {} for prayer {}", 
                 event.getEventType(), event.getPrayerRequestId());
             
-            messagingTemplate.convertAndSend("/topic/prayers", event);
+            messageBus.publish("/topic/prayers", event);
             
         } catch (Exception e) {
             log.error("Error broadcasting prayer event: {}", e.getMessage());
@@ -166,7 +166,7 @@ public class WebSocketPrayerController {
             log.info("Broadcasting prayer interaction for prayer {}: {}", 
                 prayerRequestId, event.getEventType());
             
-            messagingTemplate.convertAndSend("/topic/prayer-interactions/" + prayerRequestId, event);
+            messageBus.publish("/topic/prayer-interactions/" + prayerRequestId, event);
             
         } catch (Exception e) {
             log.error("Error broadcasting prayer interaction for {}: {}", 
@@ -184,7 +184,7 @@ public class WebSocketPrayerController {
             error.put("message", message);
             error.put("timestamp", LocalDateTime.now().toString());
             
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 userEmail,
                 "/queue/errors",
                 error
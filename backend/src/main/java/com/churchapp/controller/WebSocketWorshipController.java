@@ -1,14 +1,13 @@
 package com.churchapp.controller;
 
 import com.churchapp.dto.WorshipPlaybackCommand;
+import com.churchapp.service.RealtimeMessageBus;
 import com.churchapp.service.WorshipQueueService;
-import com.churchapp.service.WorshipRoomService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -23,9 +22,8 @@ import java.util.UUID;
 @Slf4j
 public class WebSocketWorshipController {
 
-    private final WorshipRoomService roomService;
     private final WorshipQueueService queueService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
 
     // ==================== PLAYBACK CONTROL ====================
 
@@ -107,7 +105,7 @@ public class WebSocketWorshipController {
             update.put("username", principal.getName());
             update.put("timestamp", LocalDateTime.now());
 
-            messagingTemplate.convertAndSend(
+            messageBus.publish(
                 "/topic/worship/rooms/" + roomId,
                 update
             );
@@ -127,31 +125,29 @@ public class WebSocketWorshipController {
         try {
             log.info("Sync request from {} for room {}", principal.getName(), roomId);
 
-            // Get current room state
-            var roomResponse = roomService.getRoomById(principal.getName(), roomId);
+            // Get current room state from the worship room engine (authoritative playback clock)
+            var playback = queueService.getPlaybackSnapshot(roomId);
 
             // Send current state to requesting user
             Map<String, Object> syncData = new HashMap<>();
             syncData.put("type", "SYNC_STATE");
-            syncData.put("playbackStatus", roomResponse.getPlaybackStatus());
-            double playbackPosition = roomResponse.getPlaybackPosition() != null
-                ? roomResponse.getPlaybackPosition()
-                : 0.0;
-            if ("playing".equalsIgnoreCase(roomResponse.getPlaybackStatus())
-                && roomResponse.getPlaybackStartedAt() != null) {
-                Duration elapsed = Duration.between(roomResponse.getPlaybackStartedAt(), LocalDateTime.now());
+            syncData.put("playbackStatus", playback.playbackStatus());
+            double playbackPosition = playback.playbackPosition();
+            if ("playing".equalsIgnoreCase(playback.playbackStatus())
+                && playback.playbackStartedAt() != null) {
+                Duration elapsed = Duration.between(playback.playbackStartedAt(), LocalDateTime.now());
                 if (!elapsed.isNegative()) {
                     playbackPosition += elapsed.toMillis() / 1000.0;
                 }
             }
             syncData.put("playbackPosition", Math.max(0.0, playbackPosition));
-            syncData.put("currentVideoId", roomResponse.getCurrentVideoId());
-            syncData.put("currentVideoTitle", roomResponse.getCurrentVideoTitle());
-            syncData.put("currentVideoThumbnail", roomResponse.getCurrentVideoThumbnail());
-            syncData.put("playbackStartedAt", roomResponse.getPlaybackStartedAt());
+            syncData.put("currentVideoId", playback.currentVideoId());
+            syncData.put("currentVideoTitle", playback.currentVideoTitle());
+            syncData.put("currentVideoThumbnail", playback.currentVideoThumbnail());
+            syncData.put("playbackStartedAt", playback.playbackStartedAt());
             syncData.put("timestamp", System.currentTimeMillis());
 
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 principal.getName(),
                 "/queue/worship/sync",
                 syncData
@@ -179,7 +175,7 @@ public class WebSocketWorshipController {
             presenceUpdate.put("status", status);
             presenceUpdate.put("timestamp", LocalDateTime.now());
 
-            messagingTemplate.convertAndSend(
+            messageBus.publish(
                 "/topic/worship/rooms/" + roomId,
                 presenceUpdate
             );
@@ -202,7 +198,7 @@ public class WebSocketWorshipController {
         broadcast.put("scheduledPlayTime", command.getScheduledPlayTime());
         broadcast.put("timestamp", System.currentTimeMillis());
 
-        messagingTemplate.convertAndSend(
+        messageBus.publish(
             "/topic/worship/rooms/" + roomId + "/playback",
             broadcast
         );
@@ -213,7 +209,7 @@ public class WebSocketWorshipController {
         error.put("error", errorMessage);
         error.put("timestamp", LocalDateTime.now().toString());
 
-        messagingTemplate.convertAndSendToUser(
+        messageBus.publishToUser(
             username,
             "/queue/errors",
             error
@@ -222,6 +222,18 @@ public class WorshipController {
         }
     }
 
+    @GetMapping("/rooms/{roomId}/queue/snapshot")
+    public ResponseEntity<?> getQueueSnapshot(@AuthenticationPrincipal UserDetails userDetails,
+                                              @PathVariable UUID roomId) {
+        try {
+            WorshipQueueSnapshotResponse snapshot = queueService.getQueueSnapshot(userDetails.getUsername(), roomId);
+            return ResponseEntity.ok(snapshot);
+        } catch (RuntimeException e) {
+            log.error("Error fetching queue snapshot", e);
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/rooms/{roomId}/queue/now-playing")
     public ResponseEntity<?> getCurrentlyPlaying(@AuthenticationPrincipal UserDetails userDetails,
                                                 @PathVariable UUID roomId) {
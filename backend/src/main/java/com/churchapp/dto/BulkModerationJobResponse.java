@@ -0,0 +1,52 @@
+package com.churchapp.dto;
+
+import com.churchapp.entity.BulkModerationJob;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkModerationJobResponse {
+    private UUID jobId;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private String action;
+    private String contentType;
+    private int totalItems;
+    private int processedItems;
+    private int succeededItems;
+    private int failedItems;
+    private List<String> errors;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startedAt;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime completedAt;
+
+    public static BulkModerationJobResponse fromJob(BulkModerationJob job) {
+        return BulkModerationJobResponse.builder()
+            .jobId(job.getId())
+            .status(job.getStatus().name())
+            .action(job.getAction())
+            .contentType(job.getContentType())
+            .totalItems(job.getTotalItems())
+            .processedItems(job.getProcessedItems())
+            .succeededItems(job.getSucceededItems())
+            .failedItems(job.getFailedItems())
+            .errors(job.getErrors() == null || job.getErrors().isEmpty()
+                ? List.of() : List.of(job.getErrors().split("\n")))
+            .createdAt(job.getCreatedAt())
+            .startedAt(job.getStartedAt())
+            .completedAt(job.getCompletedAt())
+            .build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.churchapp.dto;
 
 import com.churchapp.entity.ChatGroup;
+import com.churchapp.entity.ChatGroupMember;
+import com.churchapp.entity.User;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -74,6 +76,33 @@ public class ChatGroupResponse {
         return response;
     }
     
+    // Inbox factory: built from set-based query results, never touches the lazy members/messages collections
+    public static ChatGroupResponse forInbox(ChatGroup chatGroup, User createdBy, Long memberCount,
+            ChatGroupMember.MemberRole memberRole, Long unreadCount) {
+        ChatGroupResponse response = new ChatGroupResponse();
+        response.setId(chatGroup.getId());
+        response.setName(chatGroup.getName());
+        response.setType(chatGroup.getType());
+        response.setDescription(chatGroup.getDescription());
+        response.setImageUrl(chatGroup.getImageUrl());
+        response.setCreatedBy(createdBy != null ? createdBy.getId() : null);
+        response.setCreatedByName(createdBy != null ? createdBy.getName() : null);
+        response.setCreatedByProfilePic(createdBy != null ? createdBy.getProfilePicUrl() : null);
+        response.setIsPrivate(chatGroup.getIsPrivate());
+        response.setIsActive(chatGroup.getIsActive());
+        response.setMaxMembers(chatGroup.getMaxMembers());
+        response.setMemberCount(memberCount != null ? memberCount : 0L);
+        response.setCreatedAt(chatGroup.getCreatedAt());
+        response.setUpdatedAt(chatGroup.getUpdatedAt());
+        response.setLastMessageTime(chatGroup.getLastMessageTime());
+        response.setIsMember(true);
+        response.setCanPost(memberRole.canPost());
+        response.setCanModerate(memberRole.canModerate());
+        response.setUserRole(memberRole.name());
+        response.setUnreadCount(unreadCount != null ? unreadCount : 0L);
+        return response;
+    }
+    
     // Helper methods
     public boolean isMainChat() {
         return type == ChatGroup.GroupType.MAIN;
@@ -0,0 +1,21 @@
+package com.churchapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated list.
+ * Pass nextCursor back as ?cursor= to get the following slice; it is null on the last one.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasMore;
+}
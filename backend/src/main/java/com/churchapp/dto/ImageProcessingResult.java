@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Result of image processing operation
  */
@@ -11,7 +13,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ImageProcessingResult {
-    private byte[] processedImageData;
+    private byte[] processedImageData; // The "full" variant
     private String contentType; // Should be "image/jpeg"
     private long originalSize;
     private long processedSize;
@@ -20,5 +22,32 @@ public class ImageProcessingResult {
     private int processedWidth;
     private int processedHeight;
     private double compressionRatio; // processedSize / originalSize
-}
+    private List<Variant> variants; // full, feed, thumbnail - all from one decode
+
+    public Variant getVariant(String name) {
+        if (variants == null) {
+            return null;
+        }
+        return variants.stream()
+            .filter(variant -> variant.getName().equals(name))
+            .findFirst()
+            .orElse(null);
+    }
 
+    /**
+     * One rendition of the processed image
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Variant {
+        public static final String FULL = "full";
+        public static final String FEED = "feed";
+        public static final String THUMBNAIL = "thumbnail";
+
+        private String name;
+        private byte[] data;
+        private int width;
+        private int height;
+    }
+}
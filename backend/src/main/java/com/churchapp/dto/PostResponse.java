@@ -24,6 +24,7 @@ public class PostResponse {
     private List<String> mediaUrls;
     private List<String> mediaTypes;
     private List<String> thumbnailUrls;
+    private List<String> feedMediaUrls; // Feed-size renditions, same order as mediaUrls
     private UUID parentPostId;
     private UUID quotedPostId;
     private boolean isReply;
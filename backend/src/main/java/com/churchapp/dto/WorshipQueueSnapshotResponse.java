@@ -0,0 +1,20 @@
+package com.churchapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorshipQueueSnapshotResponse {
+
+    // Epoch of the delta numbering; seq is meaningless across epochs
+    private String epoch;
+    // Sequence of the last QUEUE_DELTA included in this snapshot
+    private long seq;
+    private List<WorshipQueueEntryResponse> queue;
+    private WorshipQueueEntryResponse nowPlaying;
+}
@@ -0,0 +1,77 @@
+package com.churchapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of one bulk moderation request, one row per job.
+ * Maintained by BulkModerationEngine; counts are updated after every committed chunk.
+ */
+@Entity
+@Table(name = "bulk_moderation_jobs")
+@Data
+@NoArgsConstructor
+public class BulkModerationJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "moderator_id", nullable = false, updatable = false)
+    private UUID moderatorId;
+
+    @Column(name = "action", length = 20, nullable = false, updatable = false)
+    private String action; // HIDE, UNHIDE, REMOVE, APPROVE
+
+    @Column(name = "reason", columnDefinition = "TEXT", updatable = false)
+    private String reason;
+
+    @Column(name = "content_type", length = 50, updatable = false)
+    private String contentType; // Optional hint; null means the type of each ID is looked up
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private Status status = Status.QUEUED;
+
+    @Column(name = "total_items", nullable = false)
+    private Integer totalItems = 0;
+
+    @Column(name = "processed_items", nullable = false)
+    private Integer processedItems = 0;
+
+    @Column(name = "succeeded_items", nullable = false)
+    private Integer succeededItems = 0;
+
+    @Column(name = "failed_items", nullable = false)
+    private Integer failedItems = 0;
+
+    @Column(name = "errors", columnDefinition = "TEXT")
+    private String errors;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
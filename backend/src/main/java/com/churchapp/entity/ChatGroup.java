@@ -58,6 +58,16 @@ public class ChatGroup {
     @Column(name = "max_members")
     private Integer maxMembers;
     
+    /**
+     * Denormalized pointer to the latest non-deleted message, maintained by ChatService.
+     * Plain UUID (no association/FK) because retention cleanup bulk-deletes messages.
+     */
+    @Column(name = "last_message_id")
+    private UUID lastMessageId;
+    
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -123,9 +133,6 @@ public class ChatGroup {
     }
     
     public LocalDateTime getLastMessageTime() {
-        return messages.stream()
-            .map(Message::getTimestamp)
-            .max(LocalDateTime::compareTo)
-            .orElse(createdAt);
+        return lastMessageAt != null ? lastMessageAt : createdAt;
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.churchapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Keyset checkpoint of a batched retention cleanup, one row per cleanup job.
+ * A run with completedAt == null is resumed from (lastTimestamp, lastId) with its original cutoff.
+ */
+@Entity
+@Table(name = "cleanup_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CleanupCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100, nullable = false, updatable = false)
+    private String jobName;
+
+    @Column(name = "cutoff", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "last_timestamp")
+    private LocalDateTime lastTimestamp;
+
+    @Column(name = "last_id")
+    private UUID lastId;
+
+    @Column(name = "processed_count", nullable = false)
+    private Long processedCount = 0L; // Rows deleted (or cleaned) by the current run
+
+    @Column(name = "retained_count", nullable = false)
+    private Long retainedCount = 0L; // Rows kept for the next run because their S3 delete failed
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public CleanupCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public boolean isInProgress() {
+        return startedAt != null && completedAt == null;
+    }
+
+    /**
+     * Reset for a new run that cleans up rows older than cutoff
+     */
+    public void start(LocalDateTime cutoff, LocalDateTime startedAt) {
+        this.cutoff = cutoff;
+        this.startedAt = startedAt;
+        this.lastTimestamp = null;
+        this.lastId = null;
+        this.processedCount = 0L;
+        this.retainedCount = 0L;
+        this.completedAt = null;
+    }
+
+    /**
+     * Move the cursor past a committed batch
+     */
+    public void advance(LocalDateTime lastTimestamp, UUID lastId, int processed, int retained) {
+        this.lastTimestamp = lastTimestamp;
+        this.lastId = lastId;
+        this.processedCount += processed;
+        this.retainedCount += retained;
+    }
+}
@@ -1,6 +1,7 @@
 package com.churchapp.entity;
 
 import com.churchapp.dto.ProcessingStatus;
+import com.churchapp.util.MediaKeyUtil;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,7 +20,9 @@ import java.util.UUID;
 @Table(name = "media_files", indexes = {
     @Index(name = "idx_media_files_status", columnList = "processing_status"),
     @Index(name = "idx_media_files_created_at", columnList = "created_at"),
-    @Index(name = "idx_media_files_file_type", columnList = "file_type")
+    @Index(name = "idx_media_files_file_type", columnList = "file_type"),
+    @Index(name = "idx_media_files_original_key", columnList = "original_key"),
+    @Index(name = "idx_media_files_optimized_key", columnList = "optimized_key")
 })
 @Data
 @NoArgsConstructor
@@ -46,6 +49,19 @@ public class MediaFile {
     @Column(name = "optimized_url", length = 500)
     private String optimizedUrl;
 
+    /**
+     * Canonical S3 key of originalUrl (URL path without host/query)
+     * Derived on save; used for batched, format-independent lookups
+     */
+    @Column(name = "original_key", length = 500)
+    private String originalKey;
+
+    /**
+     * Canonical S3 key of optimizedUrl, derived on save
+     */
+    @Column(name = "optimized_key", length = 500)
+    private String optimizedKey;
+
     /**
      * Thumbnail URL (stored in S3 /thumbnails/ folder)
      * This is a JPEG image extracted from the first frame of videos
@@ -53,6 +69,13 @@ public class MediaFile {
      */
     @Column(name = "thumbnail_url", length = 500)
     private String thumbnailUrl;
+
+    /**
+     * Feed-sized image rendition (stored next to the optimized image)
+     * Null for videos and until image processing completes
+     */
+    @Column(name = "feed_url", length = 500)
+    private String feedUrl;
     
     /**
      * Type of media file: 'image' or 'video'
@@ -91,6 +114,13 @@ public class MediaFile {
      */
     @Column(name = "processing_completed_at")
     private LocalDateTime processingCompletedAt;
+
+    /**
+     * When FileCleanupService deleted the original from S3; null while it is still stored.
+     * Set only through MediaFileRepository.markOriginalsDeleted
+     */
+    @Column(name = "original_deleted_at", insertable = false, updatable = false)
+    private LocalDateTime originalDeletedAt;
     
     /**
      * Error message if processing failed
@@ -151,6 +181,16 @@ public class MediaFile {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * Keep the canonical keys in sync with the URLs they are derived from
+     */
+    @PrePersist
+    @PreUpdate
+    public void syncStorageKeys() {
+        this.originalKey = MediaKeyUtil.toStorageKey(originalUrl);
+        this.optimizedKey = MediaKeyUtil.toStorageKey(optimizedUrl);
+    }
+    
     /**
      * Calculate compression ratio (0.0 to 1.0)
      * Returns null if not yet processed
@@ -200,7 +240,15 @@ public class MediaFile {
      * Mark processing as completed successfully with thumbnail URL
      */
     public void markProcessingCompleted(String optimizedUrl, Long optimizedSize, String thumbnailUrl) {
+        markProcessingCompleted(optimizedUrl, optimizedSize, thumbnailUrl, null);
+    }
+
+    /**
+     * Mark processing as completed successfully with thumbnail and feed-sized renditions
+     */
+    public void markProcessingCompleted(String optimizedUrl, Long optimizedSize, String thumbnailUrl, String feedUrl) {
         this.processingStatus = ProcessingStatus.COMPLETED;
+        this.feedUrl = feedUrl;
         this.optimizedUrl = optimizedUrl;
         this.optimizedSize = optimizedSize;
         this.thumbnailUrl = thumbnailUrl;
@@ -0,0 +1,69 @@
+package com.churchapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Checkpoint of a daily batch job over all organizations, one row per job.
+ * Maintained by OrganizationMetricsBatchJob.
+ */
+@Entity
+@Table(name = "metrics_job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsJobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100, nullable = false, updatable = false)
+    private String jobName;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "last_organization_id")
+    private UUID lastOrganizationId; // Every organization up to this ID is done; null before the first partition
+
+    @Column(name = "organizations_processed", nullable = false)
+    private Integer organizationsProcessed = 0;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public MetricsJobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    /**
+     * Reset for a new run of the job
+     */
+    public void start(LocalDate runDate, LocalDateTime startedAt) {
+        this.runDate = runDate;
+        this.startedAt = startedAt;
+        this.lastOrganizationId = null;
+        this.organizationsProcessed = 0;
+        this.completedAt = null;
+    }
+
+    public boolean isCompleted(LocalDate date) {
+        return date.equals(runDate) && completedAt != null;
+    }
+
+    public boolean isInterrupted(LocalDate date) {
+        return date.equals(runDate) && completedAt == null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.churchapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A push notification waiting to be fanned out to an audience.
+ * Written in the same transaction as the post/message that triggers it, then drained
+ * asynchronously by NotificationOutboxProcessor, so authors never wait on FCM.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+    @Index(name = "idx_notification_outbox_status_available", columnList = "status, available_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "audience_type", nullable = false, length = 30)
+    private AudienceType audienceType;
+
+    @Column(name = "audience_id", nullable = false)
+    private UUID audienceId; // Organization, group or chat group ID depending on audienceType
+
+    @Column(name = "exclude_user_id")
+    private UUID excludeUserId; // Usually the author/sender
+
+    @Column(name = "title", nullable = false, length = 255)
+    private String title;
+
+    @Column(name = "body", columnDefinition = "TEXT")
+    private String body;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "data", columnDefinition = "jsonb")
+    private Map<String, String> data = new HashMap<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt = LocalDateTime.now();
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "tokens_sent")
+    private Integer tokensSent;
+
+    @Column(name = "tokens_failed")
+    private Integer tokensFailed;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum AudienceType {
+        ORGANIZATION_MEMBERS, // Users whose church primary is the organization
+        GROUP_MEMBERS,        // Members of a group
+        CHAT_GROUP_MEMBERS    // Active members of a chat group
+    }
+
+    public enum Status {
+        PENDING,
+        PROCESSING,
+        SENT,
+        FAILED
+    }
+}
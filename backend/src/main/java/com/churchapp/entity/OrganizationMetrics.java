@@ -32,23 +32,27 @@ public class OrganizationMetrics {
     private Organization organization;
 
     // Storage metrics (in bytes)
-    @Column(name = "storage_used", nullable = false)
+    // Running totals of the storage ledger, changed only through OrganizationMetricsRepository.adjustStorage
+    // and setStorage so saving this entity never overwrites a concurrent upload's increment
+    @Column(name = "storage_used", nullable = false, updatable = false)
     private Long storageUsed = 0L;
 
-    @Column(name = "storage_media_files", nullable = false)
+    @Column(name = "storage_media_files", nullable = false, updatable = false)
     private Long storageMediaFiles = 0L;
 
-    @Column(name = "storage_documents", nullable = false)
+    @Column(name = "storage_documents", nullable = false, updatable = false)
     private Long storageDocuments = 0L;
 
-    @Column(name = "storage_profile_pics", nullable = false)
+    @Column(name = "storage_profile_pics", nullable = false, updatable = false)
     private Long storageProfilePics = 0L;
 
     // Network metrics
-    @Column(name = "api_requests_count", nullable = false)
+    // Running totals flushed by OrganizationApiMetricsAggregator as relative UPDATEs; not updatable here
+    // so saving this entity never writes back a stale value over a concurrent flush
+    @Column(name = "api_requests_count", nullable = false, updatable = false)
     private Integer apiRequestsCount = 0;
 
-    @Column(name = "data_transfer_bytes", nullable = false)
+    @Column(name = "data_transfer_bytes", nullable = false, updatable = false)
     private Long dataTransferBytes = 0L;
 
     // Activity metrics
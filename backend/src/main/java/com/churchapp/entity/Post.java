@@ -9,8 +9,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Entity
@@ -95,21 +98,50 @@ public class Post {
     @Column(name = "location", length = 255)
     private String location;
 
-    @Column(name = "likes_count", nullable = false)
+    // Engagement counters are written only by PostEngagementCounters (relative UPDATEs), never by
+    // entity saves, so saving a post can't overwrite counts flushed since it was loaded
+    @Column(name = "likes_count", nullable = false, updatable = false)
     private Integer likesCount = 0;
 
-    @Column(name = "comments_count", nullable = false)
+    @Column(name = "comments_count", nullable = false, updatable = false)
     private Integer commentsCount = 0;
 
-    @Column(name = "shares_count", nullable = false)
+    @Column(name = "shares_count", nullable = false, updatable = false)
     private Integer sharesCount = 0;
 
-    @Column(name = "bookmarks_count", nullable = false)
+    @Column(name = "bookmarks_count", nullable = false, updatable = false)
     private Integer bookmarksCount = 0;
 
-    @Column(name = "views_count", nullable = false)
+    @Column(name = "views_count", nullable = false, updatable = false)
     private Integer viewsCount = 0;
 
+    // Per-reaction breakdown of likes_count (see getReactionCounts)
+    @Column(name = "heart_reactions_count", insertable = false, updatable = false)
+    private Integer heartReactionsCount = 0;
+
+    @Column(name = "like_reactions_count", insertable = false, updatable = false)
+    private Integer likeReactionsCount = 0;
+
+    @Column(name = "dislike_reactions_count", insertable = false, updatable = false)
+    private Integer dislikeReactionsCount = 0;
+
+    @Column(name = "laugh_reactions_count", insertable = false, updatable = false)
+    private Integer laughReactionsCount = 0;
+
+    @Column(name = "wow_reactions_count", insertable = false, updatable = false)
+    private Integer wowReactionsCount = 0;
+
+    @Column(name = "sad_reactions_count", insertable = false, updatable = false)
+    private Integer sadReactionsCount = 0;
+
+    @Column(name = "angry_reactions_count", insertable = false, updatable = false)
+    private Integer angryReactionsCount = 0;
+
+    // Time-decayed engagement score used to order trending feeds (see computeTrendingScore).
+    // Set on insert, then refreshed alongside the counters by PostEngagementCounters
+    @Column(name = "trending_score", nullable = false, updatable = false)
+    private Double trendingScore = 0.0;
+
     // Multi-tenant organization/group fields
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "organization_id")
@@ -151,45 +183,50 @@ public class Post {
         ORG_ONLY
     }
 
-    // Helper methods for managing counts
-    public void incrementLikesCount() {
-        this.likesCount = this.likesCount + 1;
-    }
-
-    public void decrementLikesCount() {
-        if (this.likesCount > 0) {
-            this.likesCount = this.likesCount - 1;
-        }
-    }
-
-    public void incrementCommentsCount() {
-        this.commentsCount = this.commentsCount + 1;
-    }
-
-    public void decrementCommentsCount() {
-        if (this.commentsCount > 0) {
-            this.commentsCount = this.commentsCount - 1;
-        }
-    }
-
-    public void incrementSharesCount() {
-        this.sharesCount = this.sharesCount + 1;
+    /**
+     * Reaction counts as materialized on the row, every type present
+     */
+    public Map<PostReactionType, Integer> getReactionCounts() {
+        Map<PostReactionType, Integer> counts = new EnumMap<>(PostReactionType.class);
+        counts.put(PostReactionType.HEART, nullToZero(heartReactionsCount));
+        counts.put(PostReactionType.LIKE, nullToZero(likeReactionsCount));
+        counts.put(PostReactionType.DISLIKE, nullToZero(dislikeReactionsCount));
+        counts.put(PostReactionType.LAUGH, nullToZero(laughReactionsCount));
+        counts.put(PostReactionType.WOW, nullToZero(wowReactionsCount));
+        counts.put(PostReactionType.SAD, nullToZero(sadReactionsCount));
+        counts.put(PostReactionType.ANGRY, nullToZero(angryReactionsCount));
+        return counts;
     }
 
-    public void decrementSharesCount() {
-        if (this.sharesCount > 0) {
-            this.sharesCount = this.sharesCount - 1;
-        }
+    /**
+     * Half-life of trending engagement: a post needs twice the engagement of one
+     * created 24 hours later to rank alongside it. Must match V55 and
+     * PostRepository.recomputeTrendingScores.
+     */
+    public static final long TRENDING_HALF_LIFE_SECONDS = 24 * 60 * 60;
+
+    /**
+     * log2(1 + engagement) + createdAt / half-life.
+     *
+     * Equivalent to ranking by engagement * 2^(-age / half-life), but expressed relative to the
+     * epoch so the stored value never goes stale as time passes - it only changes when the
+     * counters do, which keeps (organization_id, trending_score) indexable.
+     */
+    public static double computeTrendingScore(long engagement, LocalDateTime createdAt) {
+        LocalDateTime created = createdAt != null ? createdAt : LocalDateTime.now();
+        double engagementTerm = Math.log1p(Math.max(engagement, 0)) / Math.log(2);
+        return engagementTerm + (double) created.toEpochSecond(ZoneOffset.UTC) / TRENDING_HALF_LIFE_SECONDS;
     }
 
-    public void incrementBookmarksCount() {
-        this.bookmarksCount = this.bookmarksCount + 1;
+    // Initial score; later changes come with the counter flushes
+    @PrePersist
+    public void refreshTrendingScore() {
+        long engagement = (long) nullToZero(likesCount) + nullToZero(commentsCount) + nullToZero(sharesCount);
+        this.trendingScore = computeTrendingScore(engagement, createdAt);
     }
 
-    public void decrementBookmarksCount() {
-        if (this.bookmarksCount > 0) {
-            this.bookmarksCount = this.bookmarksCount - 1;
-        }
+    private static int nullToZero(Integer value) {
+        return value != null ? value : 0;
     }
 
     public enum PostType {
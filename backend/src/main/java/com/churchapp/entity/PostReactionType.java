@@ -1,5 +1,6 @@
 package com.churchapp.entity;
 
+// Each type has a posts.<type>_reactions_count column (see V65 and Post.getReactionCounts)
 public enum PostReactionType {
     HEART,
     LIKE,
@@ -0,0 +1,73 @@
+package com.churchapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Storage ledger entry: one S3 object, its size and the organization it is charged to.
+ * Maintained by StorageLedgerService; organization_metrics holds the running totals.
+ */
+@Entity
+@Table(name = "storage_objects", indexes = {
+    @Index(name = "idx_storage_objects_organization", columnList = "organization_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageObject {
+
+    public enum Category {
+        MEDIA,
+        DOCUMENT,
+        PROFILE_PIC
+    }
+
+    @Id
+    @Column(name = "object_key", length = 1024, nullable = false, updatable = false)
+    private String objectKey;
+
+    @Column(name = "organization_id")
+    private UUID organizationId; // Null until the object can be attributed (e.g. found by reconciliation)
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false, length = 20)
+    private Category category;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "verified_at")
+    private LocalDateTime verifiedAt; // Last reconciliation run that saw the object in S3
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public StorageObject(String objectKey, UUID organizationId, Category category, long sizeBytes) {
+        this.objectKey = objectKey;
+        this.organizationId = organizationId;
+        this.category = category;
+        this.sizeBytes = sizeBytes;
+    }
+
+    /**
+     * Category for an object key, from its media/{folder}/ prefix
+     */
+    public static Category categoryFor(String objectKey) {
+        if (objectKey.startsWith("media/resources/")) {
+            return Category.DOCUMENT;
+        }
+        if (objectKey.startsWith("media/profile-pictures/")
+                || objectKey.startsWith("media/banner-images/")
+                || objectKey.startsWith("media/banners/")) {
+            return Category.PROFILE_PIC;
+        }
+        return Category.MEDIA;
+    }
+}
@@ -71,6 +71,13 @@ public class WorshipQueueEntry {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    // Written by WorshipRoomEngine alongside the vote rows, never through the entity
+    @Column(name = "upvote_count", nullable = false, updatable = false)
+    private Integer upvotes = 0;
+
+    @Column(name = "skip_vote_count", nullable = false, updatable = false)
+    private Integer skipVotes = 0;
+
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
@@ -122,20 +129,11 @@ public class WorshipQueueEntry {
     }
 
     public long getUpvoteCount() {
-        return votes.stream()
-            .filter(vote -> vote.getVoteType() == WorshipSongVote.VoteType.UPVOTE)
-            .count();
+        return upvotes != null ? upvotes : 0;
     }
 
     public long getSkipVoteCount() {
-        return votes.stream()
-            .filter(vote -> vote.getVoteType() == WorshipSongVote.VoteType.SKIP)
-            .count();
-    }
-
-    public boolean hasUserVoted(User user, WorshipSongVote.VoteType voteType) {
-        return votes.stream()
-            .anyMatch(vote -> vote.getUser().equals(user) && vote.getVoteType() == voteType);
+        return skipVotes != null ? skipVotes : 0;
     }
 
     public void markAsPlaying() {
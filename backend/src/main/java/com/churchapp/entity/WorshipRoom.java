@@ -92,6 +92,10 @@ public class WorshipRoom {
     @Column(name = "max_participants")
     private Integer maxParticipants;
 
+    // Maintained with conditional UPDATEs by WorshipRoomService, never written through the entity
+    @Column(name = "active_participant_count", nullable = false, updatable = false)
+    private Integer activeParticipants = 0;
+
     @Column(name = "skip_threshold")
     private Double skipThreshold = 0.5; // 50% of participants needed to skip
 
@@ -152,11 +156,6 @@ public class WorshipRoom {
     private Set<WorshipPlayHistory> playHistory = new HashSet<>();
 
     // Helper methods
-    public boolean isParticipant(User user) {
-        return participants.stream()
-            .anyMatch(participant -> participant.getUser().equals(user) && participant.getIsActive());
-    }
-
     public boolean isCreator(User user) {
         return createdBy != null && createdBy.equals(user);
     }
@@ -165,17 +164,8 @@ public class WorshipRoom {
         return currentLeader != null && currentLeader.equals(user);
     }
 
-    public boolean canUserJoin(User user) {
-        if (!isActive) return false;
-        if (isPrivate && !isCreator(user)) return false;
-        if (maxParticipants != null && getActiveParticipantCount() >= maxParticipants) return false;
-        return !isParticipant(user);
-    }
-
     public long getActiveParticipantCount() {
-        return participants.stream()
-            .filter(participant -> participant.getIsActive())
-            .count();
+        return activeParticipants != null ? activeParticipants : 0;
     }
 
     public boolean isPlaying() {
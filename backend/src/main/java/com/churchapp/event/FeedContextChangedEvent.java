@@ -0,0 +1,23 @@
+package com.churchapp.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever something that decides which posts appear in a user's feed changes:
+ * feed preference, organization or group membership/mute state, follows or blocks.
+ * A null userId means the change can affect any user (e.g. a group was deleted).
+ */
+public record FeedContextChangedEvent(UUID userId, String reason) {
+
+    public static FeedContextChangedEvent forUser(UUID userId, String reason) {
+        return new FeedContextChangedEvent(userId, reason);
+    }
+
+    public static FeedContextChangedEvent forAllUsers(String reason) {
+        return new FeedContextChangedEvent(null, reason);
+    }
+
+    public boolean affectsAllUsers() {
+        return userId == null;
+    }
+}
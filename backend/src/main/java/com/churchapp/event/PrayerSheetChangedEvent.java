@@ -0,0 +1,14 @@
+package com.churchapp.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever an organization's set of active prayers, or what the prayer sheet shows for one
+ * of them, changes: a prayer was created, edited, answered/archived or deleted.
+ */
+public record PrayerSheetChangedEvent(UUID organizationId, String reason) {
+
+    public static PrayerSheetChangedEvent forOrganization(UUID organizationId, String reason) {
+        return new PrayerSheetChangedEvent(organizationId, reason);
+    }
+}
@@ -0,0 +1,9 @@
+package com.churchapp.event;
+
+/**
+ * Published whenever something that is baked into an authenticated principal
+ * changes for a user (role, active/banned state, email or password).
+ * Listeners use it to drop any cached copy of that user's principal.
+ */
+public record UserPrincipalChangedEvent(String email, String reason) {
+}
@@ -140,6 +140,11 @@ public interface AnnouncementRepository extends JpaRepository<Announcement, UUID
     @Query("SELECT COUNT(a) FROM Announcement a WHERE a.organization.id IN :orgIds AND a.deletedAt IS NULL")
     long countByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds);
 
+    // Per-organization counts for a batch of organizations: rows of [organizationId, count]
+    @Query("SELECT a.organization.id, COUNT(a) FROM Announcement a WHERE a.organization.id IN :orgIds " +
+           "AND a.deletedAt IS NULL GROUP BY a.organization.id")
+    List<Object[]> countGroupedByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds);
+
     // ========================================================================
     // SYSTEM-WIDE AND ORGANIZATION ANNOUNCEMENTS (for multi-tenant filtering)
     // ========================================================================
@@ -0,0 +1,44 @@
+package com.churchapp.repository;
+
+import com.churchapp.entity.BulkModerationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BulkModerationJobRepository extends JpaRepository<BulkModerationJob, UUID> {
+
+    // Jobs whose worker died with the instance stop reporting progress
+    @Modifying
+    @Query("UPDATE BulkModerationJob j SET j.status = :failed, j.completedAt = :now, j.updatedAt = :now " +
+           "WHERE j.status IN :active AND j.updatedAt < :staleBefore")
+    int failStalledJobs(@Param("active") List<BulkModerationJob.Status> active,
+                        @Param("failed") BulkModerationJob.Status failed,
+                        @Param("staleBefore") LocalDateTime staleBefore,
+                        @Param("now") LocalDateTime now);
+
+    // Only while the job is still in the status its worker last wrote, so a job the stalled job
+    // sweep has already failed is never set back to RUNNING or COMPLETED
+    @Modifying
+    @Query("UPDATE BulkModerationJob j SET j.status = :status, j.totalItems = :totalItems, " +
+           "j.processedItems = :processedItems, j.succeededItems = :succeededItems, j.failedItems = :failedItems, " +
+           "j.errors = :errors, j.startedAt = :startedAt, j.completedAt = :completedAt, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = :expected")
+    int updateProgress(@Param("id") UUID id,
+                       @Param("expected") BulkModerationJob.Status expected,
+                       @Param("status") BulkModerationJob.Status status,
+                       @Param("totalItems") Integer totalItems,
+                       @Param("processedItems") Integer processedItems,
+                       @Param("succeededItems") Integer succeededItems,
+                       @Param("failedItems") Integer failedItems,
+                       @Param("errors") String errors,
+                       @Param("startedAt") LocalDateTime startedAt,
+                       @Param("completedAt") LocalDateTime completedAt,
+                       @Param("now") LocalDateTime now);
+}
@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -65,6 +66,13 @@ public interface ChatGroupMemberRepository extends JpaRepository<ChatGroupMember
            "cgm.lastReadAt > :since ORDER BY cgm.lastReadAt DESC")
     List<ChatGroupMember> findRecentlyActiveMemembers(@Param("chatGroup") ChatGroup chatGroup, @Param("since") LocalDateTime since);
     
+    // Active members of several groups except the given user (DM "other participant" for the inbox)
+    @Query("SELECT cgm FROM ChatGroupMember cgm JOIN FETCH cgm.user " +
+           "WHERE cgm.chatGroup.id IN :groupIds AND cgm.isActive = true AND cgm.user <> :user " +
+           "ORDER BY cgm.joinedAt ASC")
+    List<ChatGroupMember> findActiveMembersInGroupsExcludingUser(@Param("groupIds") Collection<UUID> groupIds,
+                                                                 @Param("user") User user);
+    
     // Update last read timestamp
     @Modifying
     @Query("UPDATE ChatGroupMember cgm SET cgm.lastReadAt = :timestamp WHERE cgm.user = :user AND cgm.chatGroup = :chatGroup")
@@ -101,4 +109,12 @@ public interface ChatGroupMemberRepository extends JpaRepository<ChatGroupMember
     @Query("SELECT cgm.user, COUNT(cgm) as groupCount FROM ChatGroupMember cgm WHERE cgm.isActive = true " +
            "GROUP BY cgm.user ORDER BY COUNT(cgm) DESC")
     List<Object[]> findMostActiveMembers(Pageable pageable);
-}
\ No newline at end of file
+
+    // FCM tokens of active chat group members (projection - no User entities)
+    @Query("SELECT cgm.user.fcmToken FROM ChatGroupMember cgm WHERE cgm.chatGroup.id = :chatGroupId " +
+           "AND cgm.isActive = true " +
+           "AND cgm.user.fcmToken IS NOT NULL AND cgm.user.fcmToken <> '' " +
+           "AND (:excludeUserId IS NULL OR cgm.user.id <> :excludeUserId)")
+    List<String> findActiveMemberFcmTokensByChatGroupId(@Param("chatGroupId") UUID chatGroupId,
+                                                        @Param("excludeUserId") UUID excludeUserId);
+}
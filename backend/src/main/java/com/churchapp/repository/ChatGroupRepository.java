@@ -1,10 +1,13 @@
 package com.churchapp.repository;
 
 import com.churchapp.entity.ChatGroup;
+import com.churchapp.entity.ChatGroupMember;
+import com.churchapp.entity.Message;
 import com.churchapp.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +20,47 @@ import java.util.UUID;
 @Repository
 public interface ChatGroupRepository extends JpaRepository<ChatGroup, UUID> {
     
+    /**
+     * One chat inbox row: the group, the viewer's role in it, its last message and counts.
+     */
+    interface InboxRowView {
+        ChatGroup getChatGroup();
+        User getCreatedBy();
+        ChatGroupMember.MemberRole getMemberRole();
+        Message getLastMessage();
+        User getLastMessageAuthor();
+        Long getUnreadCount();
+        Long getMemberCount();
+    }
+    
+    // Chat inbox for a user in a single set-based query (uses the denormalized last_message_id)
+    @Query("SELECT g AS chatGroup, cb AS createdBy, cgm.memberRole AS memberRole, " +
+           "lm AS lastMessage, lmu AS lastMessageAuthor, " +
+           "(SELECT COUNT(m) FROM Message m WHERE m.chatGroup = g AND m.isDeleted = false " +
+           "   AND (cgm.lastReadAt IS NULL OR m.timestamp > cgm.lastReadAt)) AS unreadCount, " +
+           "(SELECT COUNT(om) FROM ChatGroupMember om WHERE om.chatGroup = g AND om.isActive = true) AS memberCount " +
+           "FROM ChatGroupMember cgm " +
+           "JOIN cgm.chatGroup g " +
+           "LEFT JOIN g.createdBy cb " +
+           "LEFT JOIN Message lm ON lm.id = g.lastMessageId AND lm.isDeleted = false " +
+           "LEFT JOIN lm.user lmu " +
+           "WHERE cgm.user = :user AND cgm.isActive = true AND g.isActive = true " +
+           "ORDER BY g.updatedAt DESC")
+    List<InboxRowView> findInboxRows(@Param("user") User user);
+    
+    // Advance the last-message pointer; never moves it backwards under concurrent sends
+    @Modifying
+    @Query("UPDATE ChatGroup g SET g.lastMessageId = :messageId, g.lastMessageAt = :sentAt " +
+           "WHERE g.id = :groupId AND (g.lastMessageAt IS NULL OR g.lastMessageAt <= :sentAt)")
+    int advanceLastMessage(@Param("groupId") UUID groupId, @Param("messageId") UUID messageId,
+                           @Param("sentAt") LocalDateTime sentAt);
+    
+    // Overwrite the last-message pointer (used when the current last message is deleted)
+    @Modifying
+    @Query("UPDATE ChatGroup g SET g.lastMessageId = :messageId, g.lastMessageAt = :sentAt WHERE g.id = :groupId")
+    int setLastMessage(@Param("groupId") UUID groupId, @Param("messageId") UUID messageId,
+                       @Param("sentAt") LocalDateTime sentAt);
+    
     // Find by name
     Optional<ChatGroup> findByNameAndIsActiveTrue(String name);
     
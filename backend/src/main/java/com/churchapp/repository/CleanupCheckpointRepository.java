@@ -0,0 +1,9 @@
+package com.churchapp.repository;
+
+import com.churchapp.entity.CleanupCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CleanupCheckpointRepository extends JpaRepository<CleanupCheckpoint, String> {
+}
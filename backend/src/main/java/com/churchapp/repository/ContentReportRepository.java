@@ -1,13 +1,16 @@
 package com.churchapp.repository;
 
 import com.churchapp.entity.ContentReport;
+import com.churchapp.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -57,5 +60,18 @@ public interface ContentReportRepository extends JpaRepository<ContentReport, UU
            "WHEN 'MEDIUM' THEN 3 " +
            "WHEN 'LOW' THEN 4 END ASC, r.createdAt ASC")
     Page<ContentReport> findPendingReportsOrderedByPriority(Pageable pageable);
-}
 
+    // Resolve every open report on a set of content items at once (see BulkModerationEngine)
+    @Modifying
+    @Query("UPDATE ContentReport r SET r.status = 'RESOLVED', r.moderationAction = :action, " +
+           "r.moderationReason = :reason, r.moderatedBy = :moderator, r.moderatedAt = :moderatedAt, " +
+           "r.updatedAt = :moderatedAt " +
+           "WHERE r.contentType = :contentType AND r.contentId IN :contentIds " +
+           "AND r.status IN ('PENDING', 'REVIEWING')")
+    int resolveOpenReports(@Param("contentType") String contentType,
+                           @Param("contentIds") List<UUID> contentIds,
+                           @Param("action") String action,
+                           @Param("reason") String reason,
+                           @Param("moderator") User moderator,
+                           @Param("moderatedAt") LocalDateTime moderatedAt);
+}
@@ -125,15 +125,61 @@ public interface DonationRepository extends JpaRepository<Donation, UUID> {
            "FROM Donation d WHERE d.user = :user")
     Object[] getUserDonationStats(@Param("user") User user);
 
-    // Additional analytics methods
-    List<Donation> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate);
+    // ========== AGGREGATE PROJECTIONS (for DonationAnalyticsService) ==========
+
+    // [count, total, distinct donors, recurring count, recurring total]; always exactly one row
+    @Query("SELECT COUNT(d), COALESCE(SUM(d.amount), 0), COUNT(DISTINCT d.user.id), " +
+           "COALESCE(SUM(CASE WHEN d.isRecurring = true THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN d.isRecurring = true THEN d.amount ELSE 0 END), 0) " +
+           "FROM Donation d WHERE d.timestamp BETWEEN :startDate AND :endDate")
+    List<Object[]> summarizeByDateRange(@Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT COUNT(d), COALESCE(SUM(d.amount), 0), COUNT(DISTINCT d.user.id), " +
+           "COALESCE(SUM(CASE WHEN d.isRecurring = true THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN d.isRecurring = true THEN d.amount ELSE 0 END), 0) " +
+           "FROM Donation d WHERE d.timestamp BETWEEN :startDate AND :endDate AND d.category = :category")
+    List<Object[]> summarizeByDateRangeAndCategory(@Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate,
+                                                   @Param("category") DonationCategory category);
+
+    // [category, count, total, distinct donors]
+    @Query("SELECT d.category, COUNT(d), SUM(d.amount), COUNT(DISTINCT d.user.id) " +
+           "FROM Donation d WHERE d.timestamp BETWEEN :startDate AND :endDate " +
+           "GROUP BY d.category ORDER BY SUM(d.amount) DESC")
+    List<Object[]> summarizeByCategory(@Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate);
 
-    List<Donation> findByTimestampBetweenAndCategory(LocalDateTime startDate, LocalDateTime endDate, DonationCategory category);
+    // [year, month, count, total, distinct donors, recurring total]
+    @Query("SELECT YEAR(d.timestamp), MONTH(d.timestamp), COUNT(d), SUM(d.amount), COUNT(DISTINCT d.user.id), " +
+           "COALESCE(SUM(CASE WHEN d.isRecurring = true THEN d.amount ELSE 0 END), 0) " +
+           "FROM Donation d WHERE d.timestamp BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(d.timestamp), MONTH(d.timestamp) " +
+           "ORDER BY YEAR(d.timestamp), MONTH(d.timestamp)")
+    List<Object[]> summarizeByMonth(@Param("startDate") LocalDateTime startDate,
+                                    @Param("endDate") LocalDateTime endDate);
 
+    // [userId, name, total, count, last donation, has recurring (0/1)], largest total first
     @Query("SELECT d.user.id, d.user.name, SUM(d.amount), COUNT(d), MAX(d.timestamp), " +
-           "CASE WHEN COUNT(CASE WHEN d.isRecurring = true THEN 1 END) > 0 THEN true ELSE false END " +
-           "FROM Donation d GROUP BY d.user.id, d.user.name ORDER BY SUM(d.amount) DESC")
-    List<Object[]> findDonorStatistics();
+           "MAX(CASE WHEN d.isRecurring = true THEN 1 ELSE 0 END) " +
+           "FROM Donation d WHERE d.timestamp BETWEEN :startDate AND :endDate " +
+           "GROUP BY d.user.id, d.user.name ORDER BY SUM(d.amount) DESC")
+    List<Object[]> summarizeTopDonors(@Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate,
+                                      Pageable pageable);
+
+    // Same projection over all time, paged in the database; pass an unsorted Pageable
+    @Query(value = "SELECT d.user.id, d.user.name, SUM(d.amount), COUNT(d), MAX(d.timestamp), " +
+                   "MAX(CASE WHEN d.isRecurring = true THEN 1 ELSE 0 END) " +
+                   "FROM Donation d GROUP BY d.user.id, d.user.name ORDER BY SUM(d.amount) DESC",
+           countQuery = "SELECT COUNT(DISTINCT d.user.id) FROM Donation d")
+    Page<Object[]> findDonorStatistics(Pageable pageable);
+
+    @Query("SELECT d FROM Donation d JOIN FETCH d.user " +
+           "WHERE d.timestamp BETWEEN :startDate AND :endDate ORDER BY d.timestamp DESC")
+    List<Donation> findRecentByDateRange(@Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate,
+                                         Pageable pageable);
 
     // Delete all donations by organization
     @Modifying
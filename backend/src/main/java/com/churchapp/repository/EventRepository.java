@@ -221,4 +221,9 @@ public interface EventRepository extends JpaRepository<Event, UUID> {
     
     @Query("SELECT COUNT(e) FROM Event e WHERE e.organization.id IN :orgIds")
     long countByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds);
+
+    // Per-organization counts for a batch of organizations: rows of [organizationId, count]
+    @Query("SELECT e.organization.id, COUNT(e) FROM Event e WHERE e.organization.id IN :orgIds " +
+           "GROUP BY e.organization.id")
+    List<Object[]> countGroupedByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds);
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -67,4 +68,29 @@ public interface MarketplaceListingRepository extends JpaRepository<MarketplaceL
     @Modifying
     @Query("UPDATE MarketplaceListing l SET l.viewCount = l.viewCount + 1 WHERE l.id = :listingId")
     int incrementViewCount(@Param("listingId") UUID listingId);
+
+    // Bulk moderation (see BulkModerationEngine); updatedAt is set explicitly since bulk updates skip @UpdateTimestamp
+    @Query("SELECT l.id FROM MarketplaceListing l WHERE l.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") List<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE MarketplaceListing l SET l.isDeleted = true, l.status = :status, l.updatedAt = :now WHERE l.id IN :ids")
+    int removeByIds(@Param("ids") List<UUID> ids, @Param("status") MarketplaceListingStatus status,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE MarketplaceListing l SET l.status = :status, l.updatedAt = :now WHERE l.id IN :ids")
+    int updateStatusByIds(@Param("ids") List<UUID> ids, @Param("status") MarketplaceListingStatus status,
+                          @Param("now") LocalDateTime now);
+
+    // Restores only listings that weren't deleted
+    @Modifying
+    @Query("UPDATE MarketplaceListing l SET l.status = :status, l.updatedAt = :now " +
+           "WHERE l.id IN :ids AND l.isDeleted = false")
+    int restoreByIds(@Param("ids") List<UUID> ids, @Param("status") MarketplaceListingStatus status,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE MarketplaceListing l SET l.isFlagged = true WHERE l.id IN :ids")
+    int flagByIds(@Param("ids") List<UUID> ids);
 }
@@ -2,13 +2,16 @@ package com.churchapp.repository;
 
 import com.churchapp.dto.ProcessingStatus;
 import com.churchapp.entity.MediaFile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,6 +24,13 @@ public interface MediaFileRepository extends JpaRepository<MediaFile, UUID> {
      */
     Optional<MediaFile> findByOriginalUrl(String originalUrl);
     
+    /**
+     * Find media files whose original or optimized S3 key is in the given set
+     * Backs batched URL resolution (one query per feed page instead of several per URL)
+     */
+    @Query("SELECT m FROM MediaFile m WHERE m.originalKey IN :keys OR m.optimizedKey IN :keys")
+    List<MediaFile> findByStorageKeys(@Param("keys") Collection<String> keys);
+    
     /**
      * Find media file by optimized URL
      */
@@ -39,16 +49,47 @@ public interface MediaFileRepository extends JpaRepository<MediaFile, UUID> {
     List<MediaFile> findByProcessingStatusAndJobIdIsNotNull(@Param("status") ProcessingStatus status);
     
     /**
-     * Find all media files that are ready for cleanup
-     * (completed processing, created more than retention hours ago)
+     * Keyset batches of originals ready for cleanup: completed more than the retention period ago,
+     * an optimized version exists, the original is still in S3 and its folder isn't protected.
+     * Rows of [id, processingCompletedAt, originalKey] in (processingCompletedAt, id) order.
      */
-    @Query("SELECT m FROM MediaFile m WHERE m.processingStatus = :status " +
-           "AND m.processingCompletedAt < :cutoffTime " +
-           "AND m.optimizedUrl IS NOT NULL")
-    List<MediaFile> findReadyForCleanup(
+    @Query("SELECT m.id, m.processingCompletedAt, m.originalKey FROM MediaFile m " +
+           "WHERE m.processingStatus = :status AND m.processingCompletedAt < :cutoffTime " +
+           "AND m.optimizedUrl IS NOT NULL AND m.originalDeletedAt IS NULL AND m.originalKey IS NOT NULL " +
+           "AND (m.optimizedKey IS NULL OR m.optimizedKey <> m.originalKey) " +
+           "AND m.folder NOT IN :protectedFolders " +
+           "ORDER BY m.processingCompletedAt ASC, m.id ASC")
+    List<Object[]> findCleanupBatch(
         @Param("status") ProcessingStatus status,
-        @Param("cutoffTime") LocalDateTime cutoffTime
+        @Param("cutoffTime") LocalDateTime cutoffTime,
+        @Param("protectedFolders") Collection<String> protectedFolders,
+        Pageable pageable
     );
+
+    @Query("SELECT m.id, m.processingCompletedAt, m.originalKey FROM MediaFile m " +
+           "WHERE m.processingStatus = :status AND m.processingCompletedAt < :cutoffTime " +
+           "AND m.optimizedUrl IS NOT NULL AND m.originalDeletedAt IS NULL AND m.originalKey IS NOT NULL " +
+           "AND (m.optimizedKey IS NULL OR m.optimizedKey <> m.originalKey) " +
+           "AND m.folder NOT IN :protectedFolders " +
+           "AND (m.processingCompletedAt > :afterCompletedAt " +
+           "     OR (m.processingCompletedAt = :afterCompletedAt AND m.id > :afterId)) " +
+           "ORDER BY m.processingCompletedAt ASC, m.id ASC")
+    List<Object[]> findCleanupBatchAfter(
+        @Param("status") ProcessingStatus status,
+        @Param("cutoffTime") LocalDateTime cutoffTime,
+        @Param("protectedFolders") Collection<String> protectedFolders,
+        @Param("afterCompletedAt") LocalDateTime afterCompletedAt,
+        @Param("afterId") UUID afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Record that the originals of a batch were deleted from S3
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.originalDeletedAt = :deletedAt WHERE m.id IN :ids")
+    int markOriginalsDeleted(@Param("ids") Collection<UUID> ids, @Param("deletedAt") LocalDateTime deletedAt);
     
     /**
      * Find failed processing jobs that can be retried
@@ -57,6 +98,38 @@ public interface MediaFileRepository extends JpaRepository<MediaFile, UUID> {
            "AND m.retryCount < m.maxRetries")
     List<MediaFile> findFailedProcessingRetryable(@Param("status") ProcessingStatus status);
     
+    /**
+     * Media whose processing never started or never finished: PENDING since before pendingBefore,
+     * or PROCESSING since before processingBefore. MediaConvert jobs (jobId set) are tracked by
+     * MediaConvertPollingScheduler instead.
+     */
+    @Query("SELECT m FROM MediaFile m WHERE m.jobId IS NULL AND (" +
+           "(m.processingStatus = :pending AND m.createdAt < :pendingBefore) OR " +
+           "(m.processingStatus = :processing AND m.processingStartedAt < :processingBefore)) " +
+           "ORDER BY m.createdAt")
+    List<MediaFile> findStalledProcessing(
+        @Param("pending") ProcessingStatus pending,
+        @Param("pendingBefore") LocalDateTime pendingBefore,
+        @Param("processing") ProcessingStatus processing,
+        @Param("processingBefore") LocalDateTime processingBefore,
+        Pageable pageable
+    );
+    
+    /**
+     * Atomically move a PENDING file to PROCESSING. Returns 0 if another worker or instance
+     * already claimed it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.processingStatus = :processing, m.processingStartedAt = :now " +
+           "WHERE m.id = :id AND m.processingStatus = :pending")
+    int claimForProcessing(
+        @Param("id") UUID id,
+        @Param("pending") ProcessingStatus pending,
+        @Param("processing") ProcessingStatus processing,
+        @Param("now") LocalDateTime now
+    );
+    
     /**
      * Find media files by folder
      */
@@ -131,20 +131,46 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
 
     // ==================== CHAT CLEANUP QUERIES ====================
 
-    // Find old messages for cleanup (returns media URLs for S3 deletion)
-    @Query("SELECT m FROM Message m WHERE m.timestamp < :before AND m.mediaUrl IS NOT NULL")
-    List<Message> findOldMessagesWithMedia(@Param("before") LocalDateTime before);
-
     // Count old messages for reporting
     @Query("SELECT COUNT(m) FROM Message m WHERE m.timestamp < :before")
     long countOldMessages(@Param("before") LocalDateTime before);
 
-    // Hard delete all old messages (both deleted and non-deleted)
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.timestamp < :before AND m.mediaUrl IS NOT NULL")
+    long countOldMessagesWithMedia(@Param("before") LocalDateTime before);
+
+    // Keyset batches of old messages for cleanup: rows of [id, timestamp, mediaUrl] in (timestamp, id) order
+    @Query("SELECT m.id, m.timestamp, m.mediaUrl FROM Message m WHERE m.timestamp < :before " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<Object[]> findCleanupBatch(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Query("SELECT m.id, m.timestamp, m.mediaUrl FROM Message m WHERE m.timestamp < :before " +
+           "AND (m.timestamp > :afterTimestamp OR (m.timestamp = :afterTimestamp AND m.id > :afterId)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<Object[]> findCleanupBatchAfter(@Param("before") LocalDateTime before,
+                                         @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                         @Param("afterId") UUID afterId,
+                                         Pageable pageable);
+
+    // Newer replies keep their content when the message they answer is removed by retention cleanup
     @Modifying
-    @Query("DELETE FROM Message m WHERE m.timestamp < :before")
-    int deleteMessagesOlderThan(@Param("before") LocalDateTime before);
+    @Query("UPDATE Message m SET m.parentMessage = NULL WHERE m.parentMessage.id IN :ids AND m.id NOT IN :ids")
+    int detachReplies(@Param("ids") List<UUID> ids);
+
+    // Hard delete a batch of messages (both deleted and non-deleted)
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<UUID> ids);
 
     // Find messages by IDs (for batch processing)
     @Query("SELECT m FROM Message m WHERE m.id IN :ids")
     List<Message> findByIds(@Param("ids") List<UUID> ids);
-}
\ No newline at end of file
+
+    // Bulk moderation (see BulkModerationEngine): same effect as Message.delete(null) on each message
+    @Query("SELECT m.id FROM Message m WHERE m.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") List<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.isDeleted = true, m.deletedAt = :deletedAt, m.deletedBy = NULL, m.content = NULL " +
+           "WHERE m.id IN :ids")
+    int softDeleteByIds(@Param("ids") List<UUID> ids, @Param("deletedAt") LocalDateTime deletedAt);
+}
@@ -0,0 +1,9 @@
+package com.churchapp.repository;
+
+import com.churchapp.entity.MetricsJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MetricsJobCheckpointRepository extends JpaRepository<MetricsJobCheckpoint, String> {
+}
@@ -0,0 +1,57 @@
+package com.churchapp.repository;
+
+import com.churchapp.entity.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, UUID> {
+
+    /**
+     * Lock the oldest due rows, skipping rows another instance has already locked
+     * (lock timeout -2 = SKIP LOCKED), so several app instances can drain concurrently.
+     * Must run inside a transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status = :status AND o.availableAt <= :now ORDER BY o.availableAt ASC")
+    List<NotificationOutbox> findDueForUpdate(
+        @Param("status") NotificationOutbox.Status status,
+        @Param("now") LocalDateTime now,
+        Pageable limit
+    );
+
+    /**
+     * Return rows stuck in PROCESSING (instance died mid-delivery) to the queue.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox o SET o.status = :pending, o.claimedAt = NULL " +
+           "WHERE o.status = :processing AND o.claimedAt < :claimedBefore")
+    int releaseStaleClaims(
+        @Param("pending") NotificationOutbox.Status pending,
+        @Param("processing") NotificationOutbox.Status processing,
+        @Param("claimedBefore") LocalDateTime claimedBefore
+    );
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status IN :statuses AND o.processedAt < :processedBefore")
+    int deleteProcessedBefore(
+        @Param("statuses") List<NotificationOutbox.Status> statuses,
+        @Param("processedBefore") LocalDateTime processedBefore
+    );
+}
@@ -55,6 +55,16 @@ public interface OrganizationMetricsHistoryRepository extends JpaRepository<Orga
         @Param("since") LocalDateTime since
     );
 
+    /**
+     * Organizations among orgIds that already have a snapshot recorded since a date
+     */
+    @Query("SELECT DISTINCT h.organization.id FROM OrganizationMetricsHistory h " +
+           "WHERE h.organization.id IN :orgIds AND h.recordedAt >= :since")
+    List<UUID> findOrganizationIdsWithSnapshotSince(
+        @Param("orgIds") List<UUID> orgIds,
+        @Param("since") LocalDateTime since
+    );
+
     /**
      * Find history records for the last N days
      */
@@ -2,6 +2,7 @@ package com.churchapp.repository;
 
 import com.churchapp.entity.OrganizationMetrics;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,5 +24,41 @@ public interface OrganizationMetricsRepository extends JpaRepository<Organizatio
      */
     @Query("SELECT m FROM OrganizationMetrics m WHERE m.organization.id IN :orgIds")
     List<OrganizationMetrics> findByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds);
-}
 
+    /**
+     * All metrics with their organization, for sweeps over every organization
+     */
+    @Query("SELECT m FROM OrganizationMetrics m JOIN FETCH m.organization")
+    List<OrganizationMetrics> findAllWithOrganization();
+
+    /**
+     * Apply storage ledger deltas (bytes, may be negative) to the running totals.
+     * Returns 0 if the organization has no metrics row yet.
+     */
+    @Modifying
+    @Query("UPDATE OrganizationMetrics m SET " +
+           "m.storageMediaFiles = m.storageMediaFiles + :media, " +
+           "m.storageDocuments = m.storageDocuments + :documents, " +
+           "m.storageProfilePics = m.storageProfilePics + :profilePics, " +
+           "m.storageUsed = m.storageUsed + :media + :documents + :profilePics " +
+           "WHERE m.organization.id = :orgId")
+    int adjustStorage(@Param("orgId") UUID organizationId,
+                      @Param("media") long media,
+                      @Param("documents") long documents,
+                      @Param("profilePics") long profilePics);
+
+    /**
+     * Overwrite the storage totals, used by ledger reconciliation
+     */
+    @Modifying
+    @Query("UPDATE OrganizationMetrics m SET " +
+           "m.storageMediaFiles = :media, " +
+           "m.storageDocuments = :documents, " +
+           "m.storageProfilePics = :profilePics, " +
+           "m.storageUsed = :media + :documents + :profilePics " +
+           "WHERE m.organization.id = :orgId")
+    int setStorage(@Param("orgId") UUID organizationId,
+                   @Param("media") long media,
+                   @Param("documents") long documents,
+                   @Param("profilePics") long profilePics);
+}
@@ -75,4 +75,11 @@ public interface OrganizationRepository extends JpaRepository<Organization, UUID
            "o.metadata @> CAST(:metadataJson AS jsonb)",
            nativeQuery = true)
     List<Organization> findByMetadataContains(@Param("metadataJson") String metadataJson);
+
+    // IDs of non-deleted organizations in ID order, paged by keyset for batch jobs
+    @Query("SELECT o.id FROM Organization o WHERE o.deletedAt IS NULL ORDER BY o.id")
+    List<UUID> findActiveIds(Pageable pageable);
+
+    @Query("SELECT o.id FROM Organization o WHERE o.deletedAt IS NULL AND o.id > :afterId ORDER BY o.id")
+    List<UUID> findActiveIdsAfter(@Param("afterId") UUID afterId, Pageable pageable);
 }
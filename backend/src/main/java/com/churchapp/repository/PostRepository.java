@@ -1,6 +1,7 @@
 package com.churchapp.repository;
 
 import com.churchapp.entity.Post;
+import com.churchapp.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -67,13 +68,14 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
     );
 
     // Trending posts (posts with high engagement in last 7 days)
+    // Ordered by the precomputed time-decayed trending_score (idx_posts_trending_score)
     // Excludes posts from blocked users and hidden posts
     // Shows anonymous posts only to their author
     @Query("SELECT p FROM Post p WHERE p.createdAt >= :since " +
            "AND (p.isAnonymous = false OR p.user.id = :currentUserId) " +
-           "AND (p.isHidden = false OR p.isHidden IS NULL) " +
+           "AND p.isHidden = false " +
            "AND (:blockedUserIds IS NULL OR p.user.id NOT IN :blockedUserIds) " +
-           "ORDER BY (p.likesCount + p.commentsCount + p.sharesCount) DESC")
+           "ORDER BY p.trendingScore DESC")
     Page<Post> findTrendingPosts(
         @Param("since") LocalDateTime since,
         @Param("blockedUserIds") List<UUID> blockedUserIds,
@@ -81,39 +83,46 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
         Pageable pageable
     );
 
-    // Search posts by content, author name, category, location, and hashtags
+    // Full-text search over posts.search_vector (content, hashtags, author name, category, location)
+    // Ranked by relevance, then recency; backed by idx_posts_search_vector (GIN)
     // Optionally filter by post type
     // Shows anonymous posts only to their author
+    @Query(value = "SELECT p.* FROM posts p " +
+                   "WHERE p.search_vector @@ to_tsquery('simple', :tsQuery) " +
+                   "AND (p.is_anonymous = false OR CAST(p.user_id AS VARCHAR) = :currentUserId) " +
+                   "AND (CAST(:postType AS VARCHAR) IS NULL OR p.post_type = CAST(:postType AS VARCHAR)) " +
+                   "ORDER BY ts_rank_cd(p.search_vector, to_tsquery('simple', :tsQuery)) DESC, p.created_at DESC",
+           countQuery = "SELECT COUNT(*) FROM posts p " +
+                   "WHERE p.search_vector @@ to_tsquery('simple', :tsQuery) " +
+                   "AND (p.is_anonymous = false OR CAST(p.user_id AS VARCHAR) = :currentUserId) " +
+                   "AND (CAST(:postType AS VARCHAR) IS NULL OR p.post_type = CAST(:postType AS VARCHAR))",
+           nativeQuery = true)
+    Page<Post> searchFullText(
+        @Param("tsQuery") String tsQuery,
+        @Param("postType") String postType,
+        @Param("currentUserId") String currentUserId,
+        Pageable pageable
+    );
+
+    // Portable substring search (H2/local runs) over the same fields as searchFullText
+    // Optionally filter by post type
+    // Shows anonymous posts only to their author; anonymous posts never match on author name
     @Query("SELECT p FROM Post p " +
            "WHERE (p.isAnonymous = false OR p.user.id = :currentUserId) " +
            "AND (:postType IS NULL OR p.postType = :postType) " +
            "AND (" +
            "     LOWER(p.content) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "     OR LOWER(p.user.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "     OR (p.isAnonymous = false AND LOWER(p.user.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
            "     OR (p.category IS NOT NULL AND LOWER(p.category) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-           "     OR (p.location IS NOT NULL AND LOWER(p.location) LIKE LOWER(CONCAT('%', :searchTerm, '%')))" +
+           "     OR (p.location IS NOT NULL AND LOWER(p.location) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
+           "     OR EXISTS (SELECT ph FROM PostHashtag ph, Hashtag h " +
+           "                WHERE ph.id.postId = p.id AND h.id = ph.id.hashtagId " +
+           "                AND LOWER(h.tag) LIKE LOWER(CONCAT('%', :searchTerm, '%')))" +
            ") " +
            "ORDER BY p.createdAt DESC")
-    Page<Post> findByContentContaining(
-        @Param("searchTerm") String searchTerm, 
-        @Param("postType") Post.PostType postType, 
-        @Param("currentUserId") UUID currentUserId,
-        Pageable pageable
-    );
-    
-    // Separate query for hashtag search
-    // Optionally filter by post type
-    // Shows anonymous posts only to their author
-    @Query("SELECT DISTINCT p FROM Post p " +
-           "JOIN PostHashtag ph ON ph.id.postId = p.id " +
-           "JOIN Hashtag h ON h.id = ph.id.hashtagId " +
-           "WHERE (p.isAnonymous = false OR p.user.id = :currentUserId) " +
-           "AND (:postType IS NULL OR p.postType = :postType) " +
-           "AND LOWER(h.tag) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "ORDER BY p.createdAt DESC")
-    Page<Post> findByHashtagContaining(
-        @Param("searchTerm") String searchTerm, 
-        @Param("postType") Post.PostType postType, 
+    Page<Post> searchByTerm(
+        @Param("searchTerm") String searchTerm,
+        @Param("postType") Post.PostType postType,
         @Param("currentUserId") UUID currentUserId,
         Pageable pageable
     );
@@ -267,20 +276,110 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
     @Query("SELECT COUNT(p) FROM Post p WHERE p.organization.id = :orgId")
     Long countByOrganizationId(@Param("orgId") UUID orgId);
 
+    // Feed stats (see FeedStatsCounters): main-feed posts as findMainPostsForFeed shows them to everyone.
+    // Both are range scans on idx_posts_created_at.
+    @Query("SELECT COUNT(p) FROM Post p WHERE p.createdAt >= :since AND p.isReply = false " +
+           "AND p.isAnonymous = false AND (p.isHidden = false OR p.isHidden IS NULL)")
+    long countMainPostsCreatedSince(@Param("since") LocalDateTime since);
+
+    // Rows of [slot (epoch second / bucketSeconds), organization_id, post_type, count]
+    @Query(value = "SELECT CAST(FLOOR(EXTRACT(EPOCH FROM created_at) / :bucketSeconds) AS BIGINT), " +
+                   "organization_id, post_type, COUNT(*) FROM posts " +
+                   "WHERE created_at >= :since AND is_reply = false AND is_anonymous = false " +
+                   "AND (is_hidden = false OR is_hidden IS NULL) " +
+                   "GROUP BY 1, 2, 3", nativeQuery = true)
+    List<Object[]> countMainPostsByBucketSince(@Param("since") LocalDateTime since,
+                                               @Param("bucketSeconds") long bucketSeconds);
+
     // Count posts by group
     @Query("SELECT COUNT(p) FROM Post p WHERE p.group.id = :groupId")
     Long countByGroupId(@Param("groupId") UUID groupId);
 
+    // ========== KEYSET (CURSOR) FEED QUERIES ==========
+    // Same filters as findMainPostsForFeed / findMultiTenantFeed / findGlobalUserFeed, but positioned
+    // by (createdAt, id) < cursor instead of OFFSET, and returning a List so no COUNT query runs.
+    // "createdAt <= c AND (createdAt < c OR id < cursorId)" keeps created_at as an index range bound.
+    // Pass PageRequest.of(0, size + 1) to detect whether another slice exists.
+
+    @Query("SELECT p FROM Post p WHERE p.isReply = false " +
+           "AND (p.isAnonymous = false OR p.user.id = :currentUserId) " +
+           "AND p.isHidden = false " +
+           "AND (:blockedUserIds IS NULL OR p.user.id NOT IN :blockedUserIds) " +
+           "AND p.createdAt <= :cursorCreatedAt " +
+           "AND (p.createdAt < :cursorCreatedAt OR p.id < :cursorId) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findMainPostsForFeedBefore(
+        @Param("blockedUserIds") List<UUID> blockedUserIds,
+        @Param("currentUserId") UUID currentUserId,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") UUID cursorId,
+        Pageable limit
+    );
+
+    @Query("SELECT p FROM Post p WHERE " +
+           "(" +
+           "  (p.organization.id IN :primaryOrgIds AND p.group IS NULL) " +
+           "  OR (p.organization.id IN :secondaryOrgIds AND p.visibility = 'PUBLIC' AND p.group IS NULL) " +
+           "  OR (p.group.id IN :groupIds)" +
+           "  OR (p.organization.id IN :orgAsGroupIds AND p.group IS NULL) " +
+           "  OR (:followingIds IS NOT NULL AND p.user.id IN :followingIds)" +
+           ") " +
+           "AND p.isReply = false " +
+           "AND (p.isAnonymous = false OR p.user.id = :currentUserId) " +
+           "AND p.isHidden = false " +
+           "AND (:blockedUserIds IS NULL OR p.user.id NOT IN :blockedUserIds) " +
+           "AND p.createdAt <= :cursorCreatedAt " +
+           "AND (p.createdAt < :cursorCreatedAt OR p.id < :cursorId) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findMultiTenantFeedBefore(
+        @Param("primaryOrgIds") List<UUID> primaryOrgIds,
+        @Param("secondaryOrgIds") List<UUID> secondaryOrgIds,
+        @Param("groupIds") List<UUID> groupIds,
+        @Param("orgAsGroupIds") List<UUID> orgAsGroupIds,
+        @Param("blockedUserIds") List<UUID> blockedUserIds,
+        @Param("followingIds") List<UUID> followingIds,
+        @Param("currentUserId") UUID currentUserId,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") UUID cursorId,
+        Pageable limit
+    );
+
+    @Query("SELECT p FROM Post p WHERE " +
+           "(p.group.id IN :groupIds " +
+           " OR (p.organization.id = :globalOrgId AND p.group IS NULL) " +
+           " OR (p.organization.id IN :orgAsGroupIds AND p.group IS NULL) " +
+           " OR (:followingIds IS NOT NULL AND p.user.id IN :followingIds)) " +
+           "AND p.isReply = false " +
+           "AND (p.isAnonymous = false OR p.user.id = :currentUserId) " +
+           "AND (p.organization.id IN :orgAsGroupIds OR p.organization.id = :globalOrgId OR p.visibility = 'PUBLIC' OR p.group IS NOT NULL) " +
+           "AND p.isHidden = false " +
+           "AND (:blockedUserIds IS NULL OR p.user.id NOT IN :blockedUserIds) " +
+           "AND p.createdAt <= :cursorCreatedAt " +
+           "AND (p.createdAt < :cursorCreatedAt OR p.id < :cursorId) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findGlobalUserFeedBefore(
+        @Param("groupIds") List<UUID> groupIds,
+        @Param("globalOrgId") UUID globalOrgId,
+        @Param("orgAsGroupIds") List<UUID> orgAsGroupIds,
+        @Param("blockedUserIds") List<UUID> blockedUserIds,
+        @Param("followingIds") List<UUID> followingIds,
+        @Param("currentUserId") UUID currentUserId,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") UUID cursorId,
+        Pageable limit
+    );
+
     // Trending posts within an organization
+    // Ordered by the precomputed time-decayed trending_score (idx_posts_org_trending_score)
     // Excludes posts from blocked users and hidden posts
     // Shows anonymous posts only to their author (currentUserId)
     @Query("SELECT p FROM Post p WHERE " +
            "p.organization.id = :orgId " +
            "AND p.createdAt >= :since " +
            "AND (p.isAnonymous = false OR p.user.id = :currentUserId) " +
-           "AND (p.isHidden = false OR p.isHidden IS NULL) " +
+           "AND p.isHidden = false " +
            "AND (:blockedUserIds IS NULL OR p.user.id NOT IN :blockedUserIds) " +
-           "ORDER BY (p.likesCount + p.commentsCount + p.sharesCount) DESC")
+           "ORDER BY p.trendingScore DESC")
     Page<Post> findTrendingPostsByOrganization(
         @Param("orgId") UUID orgId,
         @Param("since") LocalDateTime since,
@@ -307,19 +406,53 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
     
     @Query("SELECT COUNT(p) FROM Post p WHERE p.organization.id IN :orgIds")
     long countByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds);
+
+    // Per-organization counts for a batch of organizations: rows of [organizationId, count]
+    @Query("SELECT p.organization.id, COUNT(p) FROM Post p WHERE p.organization.id IN :orgIds " +
+           "GROUP BY p.organization.id")
+    List<Object[]> countGroupedByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds);
     
     @Query("SELECT COUNT(p) FROM Post p WHERE p.organization.id IN :orgIds AND p.createdAt >= :since")
     long countByOrganizationIdInAndCreatedAtAfter(@Param("orgIds") List<UUID> orgIds, @Param("since") LocalDateTime since);
 
-    // ========== IMPRESSION TRACKING (Batched view counter) ==========
+    // ========== TRENDING SCORE ==========
 
     /**
-     * Batch increment views_count for multiple posts in a single query.
-     * Used for high-volume impression tracking with minimal server load.
-     * No deduplication - every impression counts (like early Twitter).
+     * Recompute trending_score for every post created since the given time in one statement.
+     * Same formula as Post.computeTrendingScore and the PostEngagementCounters flush; repairs scores
+     * for counters changed by bulk updates that bypass both.
      */
     @Modifying
     @Transactional
-    @Query("UPDATE Post p SET p.viewsCount = p.viewsCount + 1 WHERE p.id IN :postIds")
-    void incrementViewsCounts(@Param("postIds") List<UUID> postIds);
+    @Query(value = "UPDATE posts SET trending_score = " +
+                   "LN(1 + COALESCE(likes_count, 0) + COALESCE(comments_count, 0) + COALESCE(shares_count, 0)) / LN(2) " +
+                   "+ EXTRACT(EPOCH FROM created_at) / :halfLifeSeconds " +
+                   "WHERE created_at >= :since", nativeQuery = true)
+    int recomputeTrendingScores(@Param("since") LocalDateTime since, @Param("halfLifeSeconds") double halfLifeSeconds);
+
+    // ========== BULK MODERATION (see BulkModerationEngine) ==========
+
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") List<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.isHidden = true, p.hiddenAt = :hiddenAt, p.hiddenBy = :moderator WHERE p.id IN :ids")
+    int hideByIds(@Param("ids") List<UUID> ids, @Param("hiddenAt") LocalDateTime hiddenAt, @Param("moderator") User moderator);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.isHidden = false, p.hiddenAt = NULL, p.hiddenBy = NULL WHERE p.id IN :ids")
+    int unhideByIds(@Param("ids") List<UUID> ids);
+
+    // A JPQL bulk delete doesn't touch element collections; post_media_thumbnail_urls cascades on its own
+    @Modifying
+    @Query(value = "DELETE FROM post_media_urls WHERE post_id IN (:ids)", nativeQuery = true)
+    void deleteMediaUrlsByPostIds(@Param("ids") List<UUID> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_media_types WHERE post_id IN (:ids)", nativeQuery = true)
+    void deleteMediaTypesByPostIds(@Param("ids") List<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<UUID> ids);
 }
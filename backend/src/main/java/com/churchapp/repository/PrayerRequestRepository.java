@@ -43,12 +43,16 @@ public interface PrayerRequestRepository extends JpaRepository<PrayerRequest, UU
     @Query("SELECT pr FROM PrayerRequest pr WHERE pr.status = 'ACTIVE' ORDER BY pr.createdAt DESC")
     List<PrayerRequest> findAllActivePrayersList();
     
-    // Find all active prayers by organization as list (for prayer sheet)
-    @Query("SELECT pr FROM PrayerRequest pr WHERE " +
+    // Active prayers of an organization as flat rows for the prayer sheet (see PrayerSheetCache):
+    // [id, userId, userName, userProfilePicUrl, title, description, imageUrl, isAnonymous, category,
+    //  status, createdAt, updatedAt], newest first. Served by idx_prayers_org_created.
+    @Query("SELECT pr.id, u.id, u.name, u.profilePicUrl, pr.title, pr.description, pr.imageUrl, " +
+           "pr.isAnonymous, pr.category, pr.status, pr.createdAt, pr.updatedAt " +
+           "FROM PrayerRequest pr JOIN pr.user u WHERE " +
            "pr.organization.id = :orgId " +
            "AND pr.status = 'ACTIVE' " +
            "ORDER BY pr.createdAt DESC")
-    List<PrayerRequest> findAllActiveByOrganizationId(@Param("orgId") UUID orgId);
+    List<Object[]> findActiveSheetRowsByOrganizationId(@Param("orgId") UUID orgId);
     
     // Search prayers by title or description
     @Query("SELECT pr FROM PrayerRequest pr WHERE " +
@@ -128,6 +132,11 @@ public interface PrayerRequestRepository extends JpaRepository<PrayerRequest, UU
     @Query("SELECT COUNT(pr) FROM PrayerRequest pr WHERE pr.organization.id = :orgId")
     Long countByOrganizationId(@Param("orgId") UUID orgId);
 
+    // Per-organization counts for a batch of organizations: rows of [organizationId, count]
+    @Query("SELECT pr.organization.id, COUNT(pr) FROM PrayerRequest pr WHERE pr.organization.id IN :orgIds " +
+           "GROUP BY pr.organization.id")
+    List<Object[]> countGroupedByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds);
+
     // Count active prayers by organization
     @Query("SELECT COUNT(pr) FROM PrayerRequest pr WHERE " +
            "pr.organization.id = :orgId AND pr.status = 'ACTIVE'")
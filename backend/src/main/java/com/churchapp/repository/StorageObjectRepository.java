@@ -0,0 +1,46 @@
+package com.churchapp.repository;
+
+import com.churchapp.entity.StorageObject;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StorageObjectRepository extends JpaRepository<StorageObject, String> {
+
+    /**
+     * Ledger rows not seen by the reconciliation run that started at runStart.
+     * Rows created after the run started are skipped, they may not have been listed yet.
+     */
+    @Query("SELECT s FROM StorageObject s WHERE (s.verifiedAt IS NULL OR s.verifiedAt < :runStart) " +
+           "AND s.createdAt < :runStart")
+    List<StorageObject> findNotVerifiedSince(@Param("runStart") LocalDateTime runStart, Pageable pageable);
+
+    long countByOrganizationIdIsNull();
+
+    @Query("SELECT s FROM StorageObject s WHERE s.objectKey IN :keys AND s.organizationId IS NULL")
+    List<StorageObject> findUnattributedByKeys(@Param("keys") Collection<String> keys);
+
+    /**
+     * Per-organization byte totals by category: rows of [organizationId, category, bytes]
+     */
+    @Query("SELECT s.organizationId, s.category, SUM(s.sizeBytes) FROM StorageObject s " +
+           "WHERE s.organizationId IS NOT NULL GROUP BY s.organizationId, s.category")
+    List<Object[]> sumBytesByOrganizationAndCategory();
+
+    @Modifying
+    @Query("UPDATE StorageObject s SET s.verifiedAt = :verifiedAt WHERE s.objectKey IN :keys")
+    int markVerified(@Param("keys") Collection<String> keys, @Param("verifiedAt") LocalDateTime verifiedAt);
+
+    @Modifying
+    @Query("UPDATE StorageObject s SET s.organizationId = :orgId WHERE s.objectKey IN :keys AND s.organizationId IS NULL")
+    int attribute(@Param("keys") Collection<String> keys, @Param("orgId") UUID organizationId);
+}
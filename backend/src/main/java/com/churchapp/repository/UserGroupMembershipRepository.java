@@ -70,4 +70,11 @@ public interface UserGroupMembershipRepository extends JpaRepository<UserGroupMe
     @Modifying
     @Query("DELETE FROM UserGroupMembership m WHERE m.group.id = :groupId")
     void deleteByGroupId(@Param("groupId") UUID groupId);
+
+    // FCM tokens of group members (projection - no User entities)
+    @Query("SELECT m.user.fcmToken FROM UserGroupMembership m WHERE m.group.id = :groupId " +
+           "AND m.user.fcmToken IS NOT NULL AND m.user.fcmToken <> '' " +
+           "AND (:excludeUserId IS NULL OR m.user.id <> :excludeUserId)")
+    List<String> findMemberFcmTokensByGroupId(@Param("groupId") UUID groupId,
+                                              @Param("excludeUserId") UUID excludeUserId);
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -50,6 +51,13 @@ public interface UserOrganizationMembershipRepository extends JpaRepository<User
     @Query("SELECT COUNT(m) FROM UserOrganizationMembership m WHERE m.organization.id = :orgId")
     Long countByOrganizationId(@Param("orgId") UUID orgId);
 
+    // Members who logged in after :since, per organization: rows of [organizationId, count]
+    @Query("SELECT m.organization.id, COUNT(m) FROM UserOrganizationMembership m " +
+           "WHERE m.organization.id IN :orgIds AND m.user.lastLogin > :since " +
+           "GROUP BY m.organization.id")
+    List<Object[]> countActiveGroupedByOrganizationIdIn(@Param("orgIds") List<UUID> orgIds,
+                                                        @Param("since") LocalDateTime since);
+
     @Query("SELECT COUNT(m) FROM UserOrganizationMembership m WHERE " +
            "m.organization.id = :orgId AND m.isPrimary = true")
     Long countPrimaryMembersByOrganizationId(@Param("orgId") UUID orgId);
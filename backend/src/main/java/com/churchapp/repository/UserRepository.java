@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -117,6 +118,15 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
     @Query("SELECT u.familyPrimaryOrganization.id FROM User u WHERE u.id = :userId")
     UUID findFamilyPrimaryOrgIdByUserId(@Param("userId") UUID userId);
 
+    // [churchPrimaryOrgId, familyPrimaryOrgId], either may be null; empty if the user doesn't exist
+    @Query("SELECT c.id, f.id FROM User u " +
+           "LEFT JOIN u.churchPrimaryOrganization c LEFT JOIN u.familyPrimaryOrganization f " +
+           "WHERE u.id = :userId")
+    List<Object[]> findPrimaryOrgIdsByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT u.churchPrimaryOrganization.id FROM User u WHERE u.email = :email")
+    UUID findChurchPrimaryOrgIdByEmail(@Param("email") String email);
+
     /**
      * Find all users who share either church or family primary organization with the requester.
      * Returns users from the requester's church org (if they have one) AND family org (if they have one).
@@ -195,4 +205,19 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
     @Modifying
     @Query("UPDATE User u SET u.lastCommentsTabViewedAt = :timestamp WHERE u.id = :userId")
     void updateLastCommentsTabViewedAt(@Param("userId") UUID userId, @Param("timestamp") LocalDateTime timestamp);
-}
\ No newline at end of file
+
+    // ========== PUSH NOTIFICATION TOKENS ==========
+
+    // FCM tokens of users whose church primary is this organization (projection - no User entities)
+    @Query("SELECT u.fcmToken FROM User u WHERE u.churchPrimaryOrganization.id = :orgId " +
+           "AND u.fcmToken IS NOT NULL AND u.fcmToken <> '' " +
+           "AND (:excludeUserId IS NULL OR u.id <> :excludeUserId)")
+    List<String> findFcmTokensByChurchPrimaryOrganizationId(@Param("orgId") UUID orgId,
+                                                            @Param("excludeUserId") UUID excludeUserId);
+
+    // Remove tokens FCM reported as unregistered/invalid
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.fcmToken = NULL WHERE u.fcmToken IN :tokens")
+    int clearFcmTokens(@Param("tokens") java.util.Collection<String> tokens);
+}
@@ -4,6 +4,7 @@ import com.churchapp.entity.User;
 import com.churchapp.entity.WorshipQueueEntry;
 import com.churchapp.entity.WorshipRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -71,4 +72,26 @@ public interface WorshipQueueRepository extends JpaRepository<WorshipQueueEntry,
     // Delete old completed entries
     @Query("DELETE FROM WorshipQueueEntry wqe WHERE wqe.status IN ('COMPLETED', 'SKIPPED') AND wqe.completedAt < :before")
     void deleteOldCompletedEntries(@Param("before") LocalDateTime before);
+
+    // Write-behind status transition from WorshipRoomEngine
+    @Modifying
+    @Query("UPDATE WorshipQueueEntry wqe SET wqe.status = :status, wqe.playedAt = :playedAt, " +
+           "wqe.completedAt = :completedAt, wqe.updatedAt = :now WHERE wqe.id = :id")
+    int updateStatus(@Param("id") UUID id,
+                     @Param("status") WorshipQueueEntry.QueueStatus status,
+                     @Param("playedAt") LocalDateTime playedAt,
+                     @Param("completedAt") LocalDateTime completedAt,
+                     @Param("now") LocalDateTime now);
+
+    // Denormalized vote counters, adjusted by WorshipRoomEngine in the same transaction as the votes
+    @Modifying
+    @Query("UPDATE WorshipQueueEntry wqe SET wqe.upvotes = wqe.upvotes + :upvoteDelta, " +
+           "wqe.skipVotes = wqe.skipVotes + :skipDelta WHERE wqe.id = :id")
+    int adjustVoteCounts(@Param("id") UUID id,
+                         @Param("upvoteDelta") int upvoteDelta,
+                         @Param("skipDelta") int skipDelta);
+
+    @Modifying
+    @Query("UPDATE WorshipQueueEntry wqe SET wqe.upvotes = 0, wqe.skipVotes = 0 WHERE wqe.id = :id")
+    int resetVoteCounts(@Param("id") UUID id);
 }
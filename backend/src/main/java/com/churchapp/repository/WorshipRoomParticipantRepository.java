@@ -4,11 +4,13 @@ import com.churchapp.entity.User;
 import com.churchapp.entity.WorshipRoom;
 import com.churchapp.entity.WorshipRoomParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -65,4 +67,21 @@ public interface WorshipRoomParticipantRepository extends JpaRepository<WorshipR
     // Find participants by room with role
     @Query("SELECT wrp FROM WorshipRoomParticipant wrp WHERE wrp.worshipRoom = :room AND wrp.isActive = true ORDER BY wrp.role DESC, wrp.joinedAt ASC")
     List<WorshipRoomParticipant> findParticipantsByRoomOrderByRole(@Param("room") WorshipRoom room);
+
+    // The user's participant rows for a page of rooms (one query instead of one per room)
+    @Query("SELECT wrp FROM WorshipRoomParticipant wrp WHERE wrp.user = :user AND wrp.worshipRoom.id IN :roomIds")
+    List<WorshipRoomParticipant> findByUserAndRoomIds(@Param("user") User user,
+                                                      @Param("roomIds") Collection<UUID> roomIds);
+
+    // Conditional activity transitions: each returns 1 only for the call that actually flipped
+    // the row, so the room's active participant counter is adjusted exactly once
+    @Modifying
+    @Query("UPDATE WorshipRoomParticipant wrp SET wrp.isActive = true, wrp.leftAt = NULL, wrp.lastActiveAt = :now " +
+           "WHERE wrp.id = :id AND wrp.isActive = false")
+    int reactivate(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE WorshipRoomParticipant wrp SET wrp.isActive = false, wrp.leftAt = :now, " +
+           "wrp.isInWaitlist = false, wrp.waitlistPosition = NULL WHERE wrp.id = :id AND wrp.isActive = true")
+    int deactivate(@Param("id") UUID id, @Param("now") LocalDateTime now);
 }
@@ -4,7 +4,9 @@ import com.churchapp.entity.User;
 import com.churchapp.entity.WorshipRoom;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,6 +23,7 @@ public interface WorshipRoomRepository extends JpaRepository<WorshipRoom, UUID>
     Optional<WorshipRoom> findByNameAndIsActiveTrue(String name);
 
     // Find all active rooms
+    @EntityGraph(attributePaths = {"createdBy", "currentLeader", "playlist"})
     List<WorshipRoom> findByIsActiveTrueOrderByCreatedAtDesc();
 
     // Find public rooms (all types - kept for backwards compatibility)
@@ -37,6 +40,7 @@ public interface WorshipRoomRepository extends JpaRepository<WorshipRoom, UUID>
     List<WorshipRoom> findByPlaybackStatusAndIsActiveTrue(String playbackStatus);
 
     // Find currently playing rooms
+    @EntityGraph(attributePaths = {"createdBy", "currentLeader", "playlist"})
     @Query("SELECT wr FROM WorshipRoom wr WHERE wr.playbackStatus = 'playing' AND wr.isActive = true ORDER BY wr.updatedAt DESC")
     List<WorshipRoom> findCurrentlyPlayingRooms();
 
@@ -112,4 +116,25 @@ public interface WorshipRoomRepository extends JpaRepository<WorshipRoom, UUID>
 
     // Find rooms using a specific playlist
     List<WorshipRoom> findByPlaylistIdAndIsActiveTrue(UUID playlistId);
+
+    // Write-behind playback snapshot from WorshipRoomEngine (leaves every other column alone)
+    @Modifying
+    @Query("UPDATE WorshipRoom wr SET wr.currentLeader = :leader, wr.currentVideoId = :videoId, " +
+           "wr.currentVideoTitle = :videoTitle, wr.currentVideoThumbnail = :videoThumbnail, " +
+           "wr.playbackStatus = :status, wr.playbackPosition = :position, wr.playbackStartedAt = :startedAt, " +
+           "wr.updatedAt = :now WHERE wr.id = :id")
+    int updatePlaybackSnapshot(@Param("id") UUID id,
+                               @Param("leader") User leader,
+                               @Param("videoId") String videoId,
+                               @Param("videoTitle") String videoTitle,
+                               @Param("videoThumbnail") String videoThumbnail,
+                               @Param("status") String status,
+                               @Param("position") Double position,
+                               @Param("startedAt") LocalDateTime startedAt,
+                               @Param("now") LocalDateTime now);
+
+    // Active participant counter; callers only adjust it after a conditional participant UPDATE succeeded
+    @Modifying
+    @Query("UPDATE WorshipRoom wr SET wr.activeParticipants = wr.activeParticipants + :delta WHERE wr.id = :id")
+    int adjustActiveParticipants(@Param("id") UUID id, @Param("delta") int delta);
 }
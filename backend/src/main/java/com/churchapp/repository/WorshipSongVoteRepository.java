@@ -4,6 +4,7 @@ import com.churchapp.entity.User;
 import com.churchapp.entity.WorshipQueueEntry;
 import com.churchapp.entity.WorshipSongVote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -56,4 +57,20 @@ public interface WorshipSongVoteRepository extends JpaRepository<WorshipSongVote
     // Find users who voted on an entry
     @Query("SELECT wsv.user FROM WorshipSongVote wsv WHERE wsv.queueEntry = :entry AND wsv.voteType = :voteType")
     List<User> findUsersWhoVoted(@Param("entry") WorshipQueueEntry entry, @Param("voteType") WorshipSongVote.VoteType voteType);
+
+    // ========== WORSHIP ROOM ENGINE (load + write-behind) ==========
+
+    // (queueEntryId, userId, voteType) for every vote on the room's waiting/playing entries
+    @Query("SELECT wsv.queueEntry.id, wsv.user.id, wsv.voteType FROM WorshipSongVote wsv " +
+           "WHERE wsv.queueEntry.worshipRoom.id = :roomId AND wsv.queueEntry.status IN ('WAITING', 'PLAYING')")
+    List<Object[]> findActiveQueueVotesByRoomId(@Param("roomId") UUID roomId);
+
+    @Modifying
+    @Query("DELETE FROM WorshipSongVote wsv WHERE wsv.queueEntry.id = :entryId AND wsv.user.id = :userId AND wsv.voteType = :voteType")
+    int deleteVote(@Param("entryId") UUID entryId, @Param("userId") UUID userId,
+                   @Param("voteType") WorshipSongVote.VoteType voteType);
+
+    @Modifying
+    @Query("DELETE FROM WorshipSongVote wsv WHERE wsv.queueEntry.id = :entryId")
+    int deleteByQueueEntryId(@Param("entryId") UUID entryId);
 }
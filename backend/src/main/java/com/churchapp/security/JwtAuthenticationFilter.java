@@ -23,6 +23,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
     private final UserDetailsServiceImpl userDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
@@ -68,7 +69,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             logger.debug("Loading user details for email: " + email);
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(email);
+            // Served from the principal cache; only a miss hits the database
+            UserDetails userDetails = userPrincipalCache.get(email, userDetailsService::loadUserByUsername);
             
             if (jwtUtil.validateToken(jwt, userDetails)) {
                 UsernamePasswordAuthenticationToken authenticationToken = 
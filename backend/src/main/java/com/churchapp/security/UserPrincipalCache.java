@@ -0,0 +1,74 @@
+package com.churchapp.security;
+
+import com.churchapp.event.UserPrincipalChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by the JWT subject (email).
+ * Lets JwtAuthenticationFilter authenticate most requests without touching the database.
+ *
+ * Entries are evicted as soon as a {@link UserPrincipalChangedEvent} commits, so bans,
+ * deactivations and role changes take effect on the next request instead of after the TTL.
+ * Hit/miss/eviction counts are exposed through actuator as cache.* metrics (cache=userPrincipals).
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    static final String CACHE_NAME = "userPrincipals";
+
+    private final Cache<String, UserDetails> cache;
+
+    public UserPrincipalCache(
+            @Value("${security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        log.info("User principal cache configured: maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    /**
+     * Return the cached principal for this email, loading it with the given loader on a miss.
+     * Loader exceptions (e.g. UsernameNotFoundException) propagate and nothing is cached.
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        return cache.get(email, loader);
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Evict after the change is committed so a concurrent request cannot re-cache the old state.
+     * fallbackExecution covers changes published outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+        evict(event.email());
+        log.debug("Evicted cached principal for {} ({})", event.email(), event.reason());
+    }
+}
@@ -2,6 +2,7 @@ package com.churchapp.service;
 
 import com.churchapp.entity.AuditLog;
 import com.churchapp.repository.AuditLogRepository;
+import com.churchapp.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -20,24 +21,64 @@ import java.util.UUID;
 @Slf4j
 public class AuditLogService {
 
+    // Column sizes of audit_logs and audit_log_details
+    private static final int MAX_ACTION_LENGTH = 255;
+    private static final int MAX_TARGET_TYPE_LENGTH = 100;
+    private static final int MAX_IP_ADDRESS_LENGTH = 45;
+    private static final int MAX_USER_AGENT_LENGTH = 500;
+    private static final int MAX_DETAIL_KEY_LENGTH = 255;
+
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
 
+    /**
+     * Record an action. The entry is captured here and written asynchronously by AuditLogWriter,
+     * once the surrounding transaction (if any) commits.
+     */
     public void logAction(UUID userId, String action, Map<String, String> details,
                          String targetType, UUID targetId, HttpServletRequest request) {
+        logAction(userId, action, details, targetType, targetId,
+                request != null ? getClientIpAddress(request) : null,
+                request != null ? request.getHeader("User-Agent") : null);
+    }
+
+    /**
+     * Same as above, for work that runs after the request is gone (e.g. BulkModerationEngine jobs)
+     * with the client address and user agent captured when it was submitted.
+     */
+    public void logAction(UUID userId, String action, Map<String, String> details,
+                         String targetType, UUID targetId, String ipAddress, String userAgent) {
+        if (userId == null || action == null) {
+            // audit_logs.user_id and action are NOT NULL; the row could never be written
+            log.warn("Skipping audit log without user or action: {} by user {}", action, userId);
+            return;
+        }
         try {
-            AuditLog auditLog = AuditLog.builder()
-                .userId(userId)
-                .action(action)
-                .details(details != null ? details : new HashMap<>())
-                .targetType(targetType)
-                .targetId(targetId)
-                .ipAddress(getClientIpAddress(request))
-                .userAgent(request.getHeader("User-Agent"))
-                .timestamp(LocalDateTime.now())
-                .build();
-
-            auditLogRepository.save(auditLog);
-            log.info("Audit log created: {} by user {} on {} {}", action, userId, targetType, targetId);
+            // Clamp client-controlled and free-form values to the audit_logs column sizes, so one
+            // oversized header can't make the writer's batch insert fail
+            Map<String, String> clampedDetails = new HashMap<>();
+            if (details != null) {
+                details.forEach((key, value) -> {
+                    if (key != null) {
+                        clampedDetails.put(truncate(key, MAX_DETAIL_KEY_LENGTH), value);
+                    }
+                });
+            }
+            AuditLogWriter.AuditEvent event = new AuditLogWriter.AuditEvent(
+                UUID.randomUUID(),
+                userId,
+                truncate(action, MAX_ACTION_LENGTH),
+                clampedDetails,
+                truncate(targetType, MAX_TARGET_TYPE_LENGTH),
+                targetId,
+                truncate(ipAddress, MAX_IP_ADDRESS_LENGTH),
+                truncate(userAgent, MAX_USER_AGENT_LENGTH),
+                LocalDateTime.now()
+            );
+
+            // Actions that roll back are not audited, as when the entry was saved in the same transaction
+            TransactionUtil.afterCommit(() -> auditLogWriter.submit(event));
+            log.debug("Audit log queued: {} by user {} on {} {}", action, userId, targetType, targetId);
         } catch (Exception e) {
             log.error("Failed to create audit log for action: {} by user: {}", action, userId, e);
         }
@@ -87,7 +128,11 @@ public class AuditLogService {
         return auditLogRepository.findDistinctActions();
     }
 
-    private String getClientIpAddress(HttpServletRequest request) {
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    public String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
             return xForwardedFor.split(",")[0].trim();
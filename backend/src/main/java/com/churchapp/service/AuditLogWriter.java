@@ -0,0 +1,452 @@
+package com.churchapp.service;
+
+import com.churchapp.util.BoundedRingBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audit log entries off the request thread.
+ *
+ * AuditLogService hands each event to a bounded lock-free ring buffer; one writer thread drains it
+ * in JDBC batch inserts (audit_logs plus audit_log_details) of up to audit.writer.batch-size rows,
+ * waking early once a full batch is queued. Entries therefore show up in the admin audit views
+ * up to audit.writer.flush-interval-ms after the action.
+ *
+ * When the ring is full the caller waits up to audit.writer.offer-timeout-ms for room, then appends
+ * the event to an append-only JSON-lines spill file in audit.writer.spill-dir. Batches that fail
+ * because the database is unavailable are spilled the same way. A batch the database rejects is
+ * retried row by row, and rows it still rejects are moved to a quarantine file (counted as dropped)
+ * instead of being spilled, so one bad row can't hold back the others. The writer replays spilled
+ * events on startup and whenever it is idle; inserts are idempotent on the event ID, so a replay
+ * interrupted halfway can simply be repeated. Shutdown drains the ring (spilling whatever the
+ * database won't take) before the context closes.
+ */
+@Service
+@Slf4j
+public class AuditLogWriter {
+
+    private static final String INSERT_LOG_SQL =
+        "INSERT INTO audit_logs (id, user_id, action, timestamp, ip_address, user_agent, target_type, target_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_DETAIL_SQL =
+        "INSERT INTO audit_log_details (audit_log_id, detail_key, detail_value) VALUES (?, ?, ?) " +
+        "ON CONFLICT DO NOTHING";
+
+    private static final String SPILL_FILE = "audit-spill.jsonl";
+    private static final String REPLAY_FILE = "audit-replay.jsonl";
+    private static final String REJECTED_FILE = "audit-rejected.jsonl";
+
+    // Wait between replay attempts after one fails (the database is probably unavailable)
+    private static final long REPLAY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BoundedRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Path spillFile;
+    private final Path replayFile;
+    private final Path rejectedFile;
+
+    private final DistributionSummary batchSizes;
+    private final Counter written;
+    private final Counter spilled;
+    private final Counter replayed;
+    private final Counter dropped;
+
+    // Guards the spill and replay files
+    private final Object spillLock = new Object();
+    // Serializes draining between the writer thread and shutdown
+    private final Object writeLock = new Object();
+
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long nextReplayAt = System.nanoTime();
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${audit.writer.capacity:8192}") int capacity,
+                          @Value("${audit.writer.batch-size:200}") int batchSize,
+                          @Value("${audit.writer.flush-interval-ms:500}") long flushIntervalMs,
+                          @Value("${audit.writer.offer-timeout-ms:20}") long offerTimeoutMs,
+                          @Value("${audit.writer.spill-dir:${java.io.tmpdir}/churchapp-audit}") String spillDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.buffer = new BoundedRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, offerTimeoutMs));
+
+        Path directory = Paths.get(spillDir);
+        this.spillFile = directory.resolve(SPILL_FILE);
+        this.replayFile = directory.resolve(REPLAY_FILE);
+        this.rejectedFile = directory.resolve(REJECTED_FILE);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            log.warn("Audit spill directory {} is not usable, overflowing events will be dropped: {}",
+                    directory, e.getMessage());
+        }
+
+        Gauge.builder("audit.writer.queue.depth", buffer, BoundedRingBuffer::size)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("audit.writer.batch.size").register(meterRegistry);
+        this.written = Counter.builder("audit.writer.events.written").register(meterRegistry);
+        this.spilled = Counter.builder("audit.writer.events.spilled").register(meterRegistry);
+        this.replayed = Counter.builder("audit.writer.events.replayed").register(meterRegistry);
+        this.dropped = Counter.builder("audit.writer.events.dropped").register(meterRegistry);
+
+        this.writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Audit log writer started: capacity={}, batchSize={}, spillFile={}",
+                buffer.capacity(), this.batchSize, spillFile);
+    }
+
+    /**
+     * Queue an event for writing. Never throws; only waits (up to offer-timeout-ms) when the ring is full.
+     */
+    public void submit(AuditEvent event) {
+        if (!running) {
+            // The final drain may already have run
+            spill(List.of(event));
+            return;
+        }
+        if (buffer.offer(event)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+
+        // Backpressure: give the writer a moment to make room before going to disk
+        LockSupport.unpark(writer);
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            if (buffer.offer(event)) {
+                return;
+            }
+        }
+        spill(List.of(event));
+    }
+
+    /**
+     * Write everything currently queued on the calling thread
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            while (drainBatch() > 0) {
+                // keep going until the ring is empty
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT_MS);
+        log.info("Flushing {} queued audit events before shutdown", buffer.size());
+        flush();
+    }
+
+    private void run() {
+        replaySpilled();
+        while (running) {
+            int drained;
+            synchronized (writeLock) {
+                drained = drainBatch();
+            }
+            if (drained < batchSize) {
+                if (drained == 0 && System.nanoTime() - nextReplayAt >= 0) {
+                    replaySpilled();
+                }
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Take up to one batch from the ring and write it, spilling what the database is unavailable for.
+     * Caller holds writeLock.
+     *
+     * @return the number of events taken
+     */
+    private int drainBatch() {
+        List<AuditEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.size() + 1));
+        int drained = buffer.drainTo(batch, batchSize);
+        if (drained == 0) {
+            return 0;
+        }
+        List<AuditEvent> unwritten = write(batch);
+        if (!unwritten.isEmpty()) {
+            spill(unwritten);
+        }
+        return drained;
+    }
+
+    /**
+     * Insert a batch. If the database rejects it, retry it one row at a time and quarantine the rows
+     * that still fail.
+     *
+     * @return the events not written because the database is unavailable, to be spilled and retried
+     */
+    private List<AuditEvent> write(List<AuditEvent> batch) {
+        try {
+            insert(batch);
+            written.increment(batch.size());
+            return List.of();
+        } catch (Exception e) {
+            if (isUnavailable(e)) {
+                log.warn("Database unavailable for {} audit events: {}", batch.size(), e.getMessage());
+                return batch;
+            }
+            log.warn("Batch of {} audit events rejected, retrying row by row: {}", batch.size(), e.getMessage());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            AuditEvent event = batch.get(i);
+            try {
+                insert(List.of(event));
+                written.increment();
+            } catch (Exception e) {
+                if (isUnavailable(e)) {
+                    log.warn("Database unavailable for {} audit events: {}", batch.size() - i, e.getMessage());
+                    return new ArrayList<>(batch.subList(i, batch.size()));
+                }
+                reject(event, e);
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Whether retrying later can succeed, as opposed to the database rejecting the rows themselves
+     * (constraint violations, values too long, bad data)
+     */
+    private static boolean isUnavailable(Exception e) {
+        if (e instanceof CannotCreateTransactionException) {
+            return true;
+        }
+        if (e instanceof DataAccessException) {
+            return e instanceof TransientDataAccessException
+                    || e instanceof RecoverableDataAccessException
+                    || e instanceof DataAccessResourceFailureException;
+        }
+        // Not classified by Spring; keep the events rather than risk dropping them
+        return true;
+    }
+
+    private void reject(AuditEvent event, Exception error) {
+        dropped.increment();
+        log.error("Dropped audit event {} ({} by user {}): rejected by the database: {}",
+                event.id(), event.action(), event.userId(), error.getMessage());
+        synchronized (spillLock) {
+            try (BufferedWriter out = Files.newBufferedWriter(rejectedFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(objectMapper.writeValueAsString(event));
+                out.newLine();
+            } catch (IOException e) {
+                log.warn("Could not quarantine rejected audit event {} to {}: {}", event.id(), rejectedFile, e.getMessage());
+            }
+        }
+    }
+
+    private void insert(List<AuditEvent> batch) {
+        List<Object[]> logArgs = new ArrayList<>(batch.size());
+        List<Object[]> detailArgs = new ArrayList<>();
+        for (AuditEvent event : batch) {
+            logArgs.add(new Object[]{
+                event.id(), event.userId(), event.action(), Timestamp.valueOf(event.timestamp()),
+                event.ipAddress(), event.userAgent(), event.targetType(), event.targetId()
+            });
+            if (event.details() != null) {
+                event.details().forEach((key, value) -> {
+                    // Same as the JPA element collection, which doesn't store null values
+                    if (key != null && value != null) {
+                        detailArgs.add(new Object[]{event.id(), key, value});
+                    }
+                });
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_LOG_SQL, logArgs);
+            if (!detailArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, detailArgs);
+            }
+        });
+        batchSizes.record(batch.size());
+    }
+
+    private void spill(List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AuditEvent event : events) {
+                    out.write(objectMapper.writeValueAsString(event));
+                    out.newLine();
+                }
+                spilled.increment(events.size());
+            } catch (IOException e) {
+                dropped.increment(events.size());
+                log.error("Dropped {} audit events: could not spill them to {}: {}",
+                        events.size(), spillFile, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Insert spilled events. The spill file is renamed first, so new spills go to a fresh file
+     * while this one is read. Rows the database rejects are quarantined like live ones. If the
+     * database becomes unavailable halfway, the rest of the file goes back to the spill file, so the
+     * replay file is always consumed; a replay file left over from a crash is retried as is.
+     */
+    private void replaySpilled() {
+        synchronized (spillLock) {
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(spillFile)) {
+                    return;
+                }
+                try {
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    log.warn("Could not move audit spill file aside for replay: {}", e.getMessage());
+                    nextReplayAt = System.nanoTime() + REPLAY_BACKOFF_NANOS;
+                    return;
+                }
+            }
+        }
+
+        long count = 0;
+        boolean unavailable = false;
+        try (BufferedReader in = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            List<AuditEvent> batch = new ArrayList<>(batchSize);
+            String line;
+            while (!unavailable && (line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, AuditEvent.class));
+                } catch (IOException e) {
+                    // A line cut short by a crash mid-write
+                    dropped.increment();
+                    log.warn("Skipping unreadable spilled audit event: {}", e.getMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    unavailable = replayBatch(batch, in);
+                    count += unavailable ? 0 : batch.size();
+                    batch.clear();
+                }
+            }
+            if (!unavailable && !batch.isEmpty()) {
+                unavailable = replayBatch(batch, in);
+                count += unavailable ? 0 : batch.size();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to replay spilled audit events, retrying later: {}", e.getMessage());
+            nextReplayAt = System.nanoTime() + REPLAY_BACKOFF_NANOS;
+            return;
+        }
+
+        try {
+            Files.delete(replayFile);
+        } catch (IOException e) {
+            // Replaying it again is harmless: inserts skip IDs that already exist
+            log.warn("Could not delete replayed audit spill file: {}", e.getMessage());
+        }
+        replayed.increment(count);
+        if (unavailable) {
+            nextReplayAt = System.nanoTime() + REPLAY_BACKOFF_NANOS;
+            log.warn("Database unavailable after replaying {} spilled audit events; the rest were spilled again", count);
+            return;
+        }
+        log.info("Replayed {} spilled audit events", count);
+    }
+
+    /**
+     * Write one batch of replayed events. If the database is unavailable, the unwritten events and
+     * the remaining lines of the replay file are appended back to the spill file.
+     *
+     * @return true if the database was unavailable
+     * @throws IOException if they could not be spilled again; the replay file is then kept and retried
+     */
+    private boolean replayBatch(List<AuditEvent> batch, BufferedReader rest) throws IOException {
+        List<AuditEvent> unwritten = write(batch);
+        if (unwritten.isEmpty()) {
+            return false;
+        }
+        synchronized (spillLock) {
+            try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AuditEvent event : unwritten) {
+                    out.write(objectMapper.writeValueAsString(event));
+                    out.newLine();
+                }
+                String line;
+                while ((line = rest.readLine()) != null) {
+                    out.write(line);
+                    out.newLine();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One audit log entry, captured on the request thread.
+     * The ID is assigned up front so writes and replays are idempotent.
+     */
+    public record AuditEvent(
+        UUID id,
+        UUID userId,
+        String action,
+        Map<String, String> details,
+        String targetType,
+        UUID targetId,
+        String ipAddress,
+        String userAgent,
+        LocalDateTime timestamp
+    ) {
+    }
+}
@@ -0,0 +1,472 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.BulkModerationJob;
+import com.churchapp.entity.MarketplaceListingStatus;
+import com.churchapp.entity.User;
+import com.churchapp.repository.BulkModerationJobRepository;
+import com.churchapp.repository.ContentReportRepository;
+import com.churchapp.repository.MarketplaceListingRepository;
+import com.churchapp.repository.MessageRepository;
+import com.churchapp.repository.PostBookmarkRepository;
+import com.churchapp.repository.PostCommentRepository;
+import com.churchapp.repository.PostHashtagRepository;
+import com.churchapp.repository.PostLikeRepository;
+import com.churchapp.repository.PostRepository;
+import com.churchapp.repository.PostShareRepository;
+import com.churchapp.repository.UserRepository;
+import com.churchapp.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background engine behind POST /admin/moderation/bulk-moderate.
+ *
+ * A request becomes a BulkModerationJob row and runs on the moderationExecutor. The IDs are grouped
+ * by content type (from the request's contentType, or by looking each chunk up in posts, messages
+ * and marketplace listings), then every chunk of moderation.bulk.chunk-size IDs is moderated in one
+ * transaction with set-based statements: one UPDATE or DELETE per table instead of a load and save
+ * per item, and one UPDATE resolving the open reports on the whole chunk. The effect on each item
+ * matches ContentModerationService.moderateContent.
+ *
+ * If a chunk fails (e.g. a post still referenced by a reply), it is retried one item per
+ * transaction so a single bad item only fails itself. Progress is saved after every chunk for the
+ * admin UI to poll; the per-item audit entries are queued once the chunk commits and written in
+ * batches by AuditLogWriter. Progress is only written while the row is still in the status the
+ * worker last wrote, so a job the stalled job sweep has failed stays failed and its worker stops.
+ */
+@Service
+@Slf4j
+public class BulkModerationEngine {
+
+    public static final List<String> CONTENT_TYPES = List.of("POST", "MESSAGE", "MARKETPLACE");
+    public static final Set<String> ACTIONS = Set.of("HIDE", "UNHIDE", "REMOVE", "APPROVE");
+
+    // Job rows keep the first errors only; the rest are summarized
+    private static final int MAX_RECORDED_ERRORS = 100;
+
+    private final BulkModerationJobRepository jobRepository;
+    private final PostRepository postRepository;
+    private final PostCommentRepository postCommentRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final PostBookmarkRepository postBookmarkRepository;
+    private final PostShareRepository postShareRepository;
+    private final PostHashtagRepository postHashtagRepository;
+    private final MessageRepository messageRepository;
+    private final MarketplaceListingRepository marketplaceListingRepository;
+    private final ContentReportRepository contentReportRepository;
+    private final UserRepository userRepository;
+    private final AuditLogService auditLogService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+
+    @Value("${moderation.bulk.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${moderation.bulk.max-items:10000}")
+    private int maxItems;
+
+    @Value("${moderation.bulk.stale-job-minutes:15}")
+    private int staleJobMinutes;
+
+    public BulkModerationEngine(BulkModerationJobRepository jobRepository,
+                                PostRepository postRepository,
+                                PostCommentRepository postCommentRepository,
+                                PostLikeRepository postLikeRepository,
+                                PostBookmarkRepository postBookmarkRepository,
+                                PostShareRepository postShareRepository,
+                                PostHashtagRepository postHashtagRepository,
+                                MessageRepository messageRepository,
+                                MarketplaceListingRepository marketplaceListingRepository,
+                                ContentReportRepository contentReportRepository,
+                                UserRepository userRepository,
+                                AuditLogService auditLogService,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("moderationExecutor") Executor executor) {
+        this.jobRepository = jobRepository;
+        this.postRepository = postRepository;
+        this.postCommentRepository = postCommentRepository;
+        this.postLikeRepository = postLikeRepository;
+        this.postBookmarkRepository = postBookmarkRepository;
+        this.postShareRepository = postShareRepository;
+        this.postHashtagRepository = postHashtagRepository;
+        this.messageRepository = messageRepository;
+        this.marketplaceListingRepository = marketplaceListingRepository;
+        this.contentReportRepository = contentReportRepository;
+        this.userRepository = userRepository;
+        this.auditLogService = auditLogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    /**
+     * Create a job and start it once the caller's transaction (if any) commits.
+     *
+     * @param contentType POST, MESSAGE or MARKETPLACE if every ID is of that type, or null to look them up
+     * @param ipAddress   client address captured from the request, for the audit entries
+     * @param userAgent   client user agent captured from the request, for the audit entries
+     */
+    public BulkModerationJob submit(List<String> contentIds, String contentType, String action, String reason,
+                                    UUID moderatorId, String ipAddress, String userAgent) {
+        if (contentIds == null || contentIds.isEmpty()) {
+            throw new IllegalArgumentException("No content IDs to moderate");
+        }
+        if (contentIds.size() > maxItems) {
+            throw new IllegalArgumentException("Too many content IDs: " + contentIds.size() + " (max " + maxItems + ")");
+        }
+        String upperAction = action != null ? action.toUpperCase() : null;
+        if (upperAction == null || !ACTIONS.contains(upperAction)) {
+            throw new IllegalArgumentException("Unsupported bulk moderation action: " + action);
+        }
+        String upperType = contentType != null && !contentType.isBlank() ? contentType.toUpperCase() : null;
+        if (upperType != null && !CONTENT_TYPES.contains(upperType)) {
+            throw new IllegalArgumentException("Unsupported content type for bulk moderation: " + contentType);
+        }
+
+        BulkModerationJob job = new BulkModerationJob();
+        job.setId(UUID.randomUUID());
+        job.setModeratorId(moderatorId);
+        job.setAction(upperAction);
+        job.setReason(reason);
+        job.setContentType(upperType);
+        job.setTotalItems(contentIds.size());
+        job = jobRepository.save(job);
+
+        JobRequest request = new JobRequest(job.getId(), Collections.unmodifiableList(new ArrayList<>(contentIds)), upperType, upperAction, reason,
+                moderatorId, ipAddress, userAgent);
+        // The job row must exist before the worker looks it up
+        TransactionUtil.afterCommit(() -> start(request));
+
+        log.info("Queued bulk moderation job {}: {} items, action {}, type {}, moderator {}",
+                job.getId(), contentIds.size(), upperAction, upperType != null ? upperType : "lookup", moderatorId);
+        return job;
+    }
+
+    public Optional<BulkModerationJob> getJob(UUID jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    /**
+     * Fail jobs that stopped reporting progress, e.g. because the instance running them went down.
+     * Chunks that committed before that stay moderated.
+     */
+    @Scheduled(initialDelayString = "${moderation.bulk.stale-sweep-initial-delay-ms:60000}",
+               fixedDelayString = "${moderation.bulk.stale-sweep-interval-ms:300000}")
+    public void failStalledJobs() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer failed = transactionTemplate.execute(status -> jobRepository.failStalledJobs(
+                    List.of(BulkModerationJob.Status.QUEUED, BulkModerationJob.Status.RUNNING),
+                    BulkModerationJob.Status.FAILED, now.minusMinutes(staleJobMinutes), now));
+            if (failed != null && failed > 0) {
+                log.warn("Marked {} stalled bulk moderation jobs as FAILED", failed);
+            }
+        } catch (Exception e) {
+            log.error("Error during bulk moderation stalled job sweep", e);
+        }
+    }
+
+    private void start(JobRequest request) {
+        try {
+            executor.execute(() -> run(request));
+        } catch (RejectedExecutionException e) {
+            log.warn("Bulk moderation job {} rejected: too many jobs queued", request.jobId());
+            jobRepository.findById(request.jobId()).ifPresent(job -> {
+                job.setStatus(BulkModerationJob.Status.FAILED);
+                job.setErrors("Too many bulk moderation jobs are running; try again later");
+                job.setCompletedAt(LocalDateTime.now());
+                jobRepository.save(job);
+            });
+        }
+    }
+
+    /**
+     * Run a job to completion on the calling thread
+     */
+    void run(JobRequest request) {
+        BulkModerationJob job = jobRepository.findById(request.jobId()).orElse(null);
+        if (job == null || job.getStatus() != BulkModerationJob.Status.QUEUED) {
+            log.warn("Bulk moderation job {} is missing or already started; skipping", request.jobId());
+            return;
+        }
+        Progress progress = new Progress(job);
+        try {
+            User moderator = userRepository.findById(request.moderatorId())
+                    .orElseThrow(() -> new RuntimeException("Moderator user not found: " + request.moderatorId()));
+
+            Set<UUID> ids = new LinkedHashSet<>();
+            for (String contentId : request.contentIds()) {
+                try {
+                    ids.add(UUID.fromString(contentId));
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    progress.failed(contentId, "invalid content ID");
+                }
+            }
+            // Duplicates are moderated once and counted once
+            job.setTotalItems(ids.size() + progress.failed);
+            job.setStatus(BulkModerationJob.Status.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            progress.save();
+
+            Map<String, List<UUID>> byType = groupByType(new ArrayList<>(ids), request.contentType(), progress);
+            for (Map.Entry<String, List<UUID>> group : byType.entrySet()) {
+                String contentType = group.getKey();
+                List<UUID> typeIds = group.getValue();
+                if ("MESSAGE".equals(contentType) && "UNHIDE".equals(request.action())) {
+                    // Moderated messages have their content cleared; there is nothing to restore
+                    typeIds.forEach(id -> progress.failed(id.toString(), "UNHIDE is not supported for MESSAGE"));
+                    progress.save();
+                    continue;
+                }
+                for (int from = 0; from < typeIds.size(); from += chunkSize) {
+                    List<UUID> chunk = typeIds.subList(from, Math.min(from + chunkSize, typeIds.size()));
+                    moderateChunk(request, contentType, chunk, moderator, progress);
+                    progress.save();
+                }
+            }
+
+            job.setStatus(BulkModerationJob.Status.COMPLETED);
+        } catch (JobAbandonedException e) {
+            abandoned(request, progress);
+            return;
+        } catch (Exception e) {
+            log.error("Bulk moderation job {} failed: {}", request.jobId(), e.getMessage(), e);
+            progress.error("Job failed: " + e.getMessage());
+            job.setStatus(BulkModerationJob.Status.FAILED);
+        }
+        job.setCompletedAt(LocalDateTime.now());
+        try {
+            progress.save();
+        } catch (JobAbandonedException e) {
+            abandoned(request, progress);
+            return;
+        }
+        logSummary(request, job);
+        log.info("Bulk moderation job {} {}: {}/{} succeeded, {} failed", job.getId(), job.getStatus(),
+                job.getSucceededItems(), job.getTotalItems(), job.getFailedItems());
+    }
+
+    /**
+     * Content type of each ID, in request order. With a content type hint every ID is taken to be
+     * of that type; as with a single moderation, IDs that no longer exist still get their reports resolved.
+     */
+    private Map<String, List<UUID>> groupByType(List<UUID> ids, String contentType, Progress progress) {
+        Map<String, List<UUID>> byType = new LinkedHashMap<>();
+        if (contentType != null) {
+            byType.put(contentType, ids);
+            return byType;
+        }
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<UUID> remaining = new ArrayList<>(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            for (String type : CONTENT_TYPES) {
+                if (remaining.isEmpty()) {
+                    break;
+                }
+                Set<UUID> found = new HashSet<>(findExistingIds(type, remaining));
+                if (!found.isEmpty()) {
+                    List<UUID> typeIds = byType.computeIfAbsent(type, t -> new ArrayList<>());
+                    remaining.removeIf(id -> {
+                        if (found.contains(id)) {
+                            typeIds.add(id);
+                            return true;
+                        }
+                        return false;
+                    });
+                }
+            }
+            remaining.forEach(id -> progress.failed(id.toString(), "content not found"));
+        }
+        return byType;
+    }
+
+    private List<UUID> findExistingIds(String contentType, List<UUID> ids) {
+        return switch (contentType) {
+            case "POST" -> postRepository.findExistingIds(ids);
+            case "MESSAGE" -> messageRepository.findExistingIds(ids);
+            case "MARKETPLACE" -> marketplaceListingRepository.findExistingIds(ids);
+            default -> List.of();
+        };
+    }
+
+    private void moderateChunk(JobRequest request, String contentType, List<UUID> chunk, User moderator,
+                               Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(request, contentType, chunk, moderator));
+            chunk.forEach(id -> succeeded(request, contentType, id, progress));
+        } catch (Exception chunkError) {
+            if (chunk.size() == 1) {
+                progress.failed(chunk.get(0).toString(), chunkError.getMessage());
+                return;
+            }
+            log.warn("Bulk moderation job {}: chunk of {} {} items failed ({}); retrying one by one",
+                    request.jobId(), chunk.size(), contentType, chunkError.getMessage());
+            for (UUID id : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(request, contentType, List.of(id), moderator));
+                    succeeded(request, contentType, id, progress);
+                } catch (Exception e) {
+                    progress.failed(id.toString(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * The set-based equivalent of ContentModerationService.moderateContent for one chunk of one type
+     */
+    private void apply(JobRequest request, String contentType, List<UUID> ids, User moderator) {
+        LocalDateTime now = LocalDateTime.now();
+        String action = request.action();
+        switch (contentType) {
+            case "POST" -> {
+                switch (action) {
+                    case "REMOVE" -> {
+                        postCommentRepository.deleteByPostIds(ids);
+                        postLikeRepository.deleteByPostIds(ids);
+                        postBookmarkRepository.deleteByPostIds(ids);
+                        postShareRepository.deleteByPostIds(ids);
+                        postHashtagRepository.deleteByPostIds(ids);
+                        postRepository.deleteMediaUrlsByPostIds(ids);
+                        postRepository.deleteMediaTypesByPostIds(ids);
+                        postRepository.deleteByIdIn(ids);
+                    }
+                    case "HIDE" -> postRepository.hideByIds(ids, now, moderator);
+                    case "UNHIDE" -> postRepository.unhideByIds(ids);
+                    default -> { } // APPROVE only resolves the reports
+                }
+            }
+            case "MESSAGE" -> {
+                if ("REMOVE".equals(action) || "HIDE".equals(action)) {
+                    messageRepository.softDeleteByIds(ids, now);
+                }
+            }
+            case "MARKETPLACE" -> {
+                switch (action) {
+                    case "REMOVE" -> marketplaceListingRepository.removeByIds(ids, MarketplaceListingStatus.REMOVED, now);
+                    case "HIDE" -> marketplaceListingRepository.updateStatusByIds(ids, MarketplaceListingStatus.REMOVED, now);
+                    default -> marketplaceListingRepository.restoreByIds(ids, MarketplaceListingStatus.ACTIVE, now);
+                }
+                if (request.reason() != null && request.reason().toUpperCase().contains("SCAM")) {
+                    marketplaceListingRepository.flagByIds(ids);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+        contentReportRepository.resolveOpenReports(contentType, ids, action, request.reason(), moderator, now);
+    }
+
+    private void succeeded(JobRequest request, String contentType, UUID contentId, Progress progress) {
+        progress.succeeded++;
+        Map<String, String> details = new HashMap<>();
+        details.put("action", request.action());
+        details.put("reason", request.reason());
+        details.put("contentType", contentType);
+        details.put("bulkJobId", request.jobId().toString());
+        auditLogService.logAction(request.moderatorId(), "MODERATE_CONTENT", details, contentType, contentId,
+                request.ipAddress(), request.userAgent());
+    }
+
+    /**
+     * The stalled job sweep failed the job while this worker was still on it. Its row is left as the
+     * sweep wrote it; chunks that committed before that stay moderated.
+     */
+    private void abandoned(JobRequest request, Progress progress) {
+        log.warn("Bulk moderation job {} was marked FAILED while running; stopped after {} succeeded, {} failed",
+                request.jobId(), progress.succeeded, progress.failed);
+    }
+
+    private void logSummary(JobRequest request, BulkModerationJob job) {
+        Map<String, String> details = new HashMap<>();
+        details.put("action", request.action());
+        details.put("reason", request.reason());
+        details.put("jobId", job.getId().toString());
+        details.put("status", job.getStatus().name());
+        details.put("totalItems", String.valueOf(job.getTotalItems()));
+        details.put("successCount", String.valueOf(job.getSucceededItems()));
+        details.put("errorCount", String.valueOf(job.getFailedItems()));
+        auditLogService.logAction(request.moderatorId(), "BULK_MODERATE", details, "CONTENT", null,
+                request.ipAddress(), request.userAgent());
+    }
+
+    /**
+     * Everything the worker needs, captured when the job is submitted
+     */
+    record JobRequest(UUID jobId, List<String> contentIds, String contentType, String action, String reason,
+                      UUID moderatorId, String ipAddress, String userAgent) {
+    }
+
+    /**
+     * Thrown by Progress.save once the job row is no longer in the status the worker last wrote
+     */
+    private static final class JobAbandonedException extends RuntimeException {
+    }
+
+    /**
+     * Counts of a running job, written to its row after every chunk
+     */
+    private final class Progress {
+        private final BulkModerationJob job;
+        // Status of the row as this worker last wrote it
+        private BulkModerationJob.Status savedStatus;
+        private int succeeded;
+        private int failed;
+        private int omittedErrors;
+        private final List<String> errors = new ArrayList<>();
+
+        private Progress(BulkModerationJob job) {
+            this.job = job;
+            this.savedStatus = job.getStatus();
+        }
+
+        private void failed(String contentId, String message) {
+            failed++;
+            error("Failed to moderate " + contentId + ": " + message);
+        }
+
+        private void error(String message) {
+            if (errors.size() < MAX_RECORDED_ERRORS) {
+                errors.add(message.replace('\n', ' '));
+            } else {
+                omittedErrors++;
+            }
+        }
+
+        /**
+         * @throws JobAbandonedException if the stalled job sweep has failed the job in the meantime
+         */
+        private void save() {
+            job.setSucceededItems(succeeded);
+            job.setFailedItems(failed);
+            job.setProcessedItems(succeeded + failed);
+            List<String> recorded = new ArrayList<>(errors);
+            if (omittedErrors > 0) {
+                recorded.add("... and " + omittedErrors + " more errors");
+            }
+            job.setErrors(recorded.isEmpty() ? null : String.join("\n", recorded));
+            Integer updated;
+            try {
+                updated = transactionTemplate.execute(status -> jobRepository.updateProgress(job.getId(), savedStatus,
+                        job.getStatus(), job.getTotalItems(), job.getProcessedItems(), job.getSucceededItems(),
+                        job.getFailedItems(), job.getErrors(), job.getStartedAt(), job.getCompletedAt(),
+                        LocalDateTime.now()));
+            } catch (Exception e) {
+                // Progress is informational; moderation carries on and the next save catches up
+                log.warn("Failed to save progress of bulk moderation job {}: {}", job.getId(), e.getMessage());
+                return;
+            }
+            if (updated == null || updated == 0) {
+                throw new JobAbandonedException();
+            }
+            savedStatus = job.getStatus();
+        }
+    }
+}
@@ -1,18 +1,20 @@
 package com.churchapp.service;
 
-import com.churchapp.entity.Message;
+import com.churchapp.entity.CleanupCheckpoint;
+import com.churchapp.repository.CleanupCheckpointRepository;
 import com.churchapp.repository.MessageRepository;
-import lombok.RequiredArgsConstructor;
+import com.churchapp.util.BatchThrottle;
+import com.churchapp.util.MediaKeyUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 /**
  * Service for cleaning up old chat messages and associated media files.
@@ -21,21 +23,25 @@ import java.util.List;
  * 1. Delete media files from S3 for old chat messages
  * 2. Hard delete old messages from the database
  *
+ * Old messages are walked in (timestamp, id) keyset batches of chat.cleanup.batch-size. Each
+ * batch's media goes out in one multi-object DeleteObjects request, then its messages are deleted
+ * and the cursor is checkpointed in one short transaction. A message whose media could not be
+ * deleted is kept for the next run rather than orphaning the object. An interrupted run resumes
+ * from its checkpoint with the same cutoff, and chat.cleanup.max-messages-per-second throttles
+ * the loop.
+ *
  * Configurable retention period defaults to 7 days but can be adjusted.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ChatCleanupService {
 
-    private final MessageRepository messageRepository;
-    private final S3Client s3Client;
-
-    @Value("${aws.s3.bucket-name}")
-    private String bucketName;
+    private static final String JOB_NAME = "chat-messages";
 
-    @Value("${aws.region}")
-    private String region;
+    private final MessageRepository messageRepository;
+    private final CleanupCheckpointRepository checkpointRepository;
+    private final S3BatchDeleteService s3BatchDeleteService;
+    private final TransactionTemplate transactionTemplate;
 
     // Chat message retention in days (default: 7 days)
     @Value("${chat.cleanup.retention-days:7}")
@@ -45,9 +51,27 @@ public class ChatCleanupService {
     @Value("${chat.cleanup.enabled:true}")
     private boolean cleanupEnabled;
 
+    // Messages per batch; at most one DeleteObjects request (1000 keys) per batch
+    @Value("${chat.cleanup.batch-size:500}")
+    private int batchSize;
+
+    // 0 disables throttling
+    @Value("${chat.cleanup.max-messages-per-second:1000}")
+    private int maxMessagesPerSecond;
+
+    public ChatCleanupService(MessageRepository messageRepository,
+                              CleanupCheckpointRepository checkpointRepository,
+                              S3BatchDeleteService s3BatchDeleteService,
+                              PlatformTransactionManager transactionManager) {
+        this.messageRepository = messageRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.s3BatchDeleteService = s3BatchDeleteService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     /**
      * Scheduled job to clean up old chat messages.
-     * Runs daily at 3 AM (after the media cleanup at 2 AM).
+     * Runs daily at 3 AM (after the media cleanup at 1 AM).
      */
     @Scheduled(cron = "${chat.cleanup.schedule-cron:0 0 3 * * ?}")
     public void scheduledCleanup() {
@@ -57,126 +81,104 @@ public class ChatCleanupService {
         }
 
         log.info("Starting scheduled chat cleanup (retention: {} days)", retentionDays);
-        cleanupOldMessages();
-    }
-
-    /**
-     * Main cleanup method - deletes old messages and their media files.
-     * Can be called manually or by the scheduled job.
-     */
-    @Transactional
-    public void cleanupOldMessages() {
         try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusDays(retentionDays);
-
-            // First, count how many messages will be affected
-            long messageCount = messageRepository.countOldMessages(cutoffTime);
-            log.info("Found {} messages older than {} days to clean up", messageCount, retentionDays);
-
-            if (messageCount == 0) {
-                log.info("No old messages to clean up");
-                return;
-            }
-
-            // Step 1: Find and delete media files from S3
-            List<Message> messagesWithMedia = messageRepository.findOldMessagesWithMedia(cutoffTime);
-            int mediaDeletedCount = 0;
-            int mediaErrorCount = 0;
-
-            for (Message message : messagesWithMedia) {
-                try {
-                    deleteMediaFromS3(message.getMediaUrl());
-                    mediaDeletedCount++;
-                } catch (Exception e) {
-                    log.warn("Failed to delete media file for message {}: {}",
-                            message.getId(), e.getMessage());
-                    mediaErrorCount++;
-                }
-            }
-
-            log.info("S3 media cleanup: {} deleted, {} errors", mediaDeletedCount, mediaErrorCount);
-
-            // Step 2: Delete the messages from the database
-            int deletedCount = messageRepository.deleteMessagesOlderThan(cutoffTime);
-
-            log.info("Chat cleanup completed: {} messages deleted from database", deletedCount);
-
+            cleanupOldMessages();
         } catch (Exception e) {
             log.error("Error during chat cleanup", e);
         }
     }
 
     /**
-     * Delete a media file from S3.
+     * Main cleanup method - deletes old messages and their media files.
+     * Can be called manually or by the scheduled job.
+     *
+     * @return number of messages deleted by this call
      */
-    private void deleteMediaFromS3(String mediaUrl) {
-        if (mediaUrl == null || mediaUrl.isEmpty()) {
-            return;
+    public synchronized long cleanupOldMessages() {
+        CleanupCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new CleanupCheckpoint(JOB_NAME));
+        if (checkpoint.isInProgress()) {
+            log.info("Resuming chat cleanup for messages older than {} after {} / {}",
+                    checkpoint.getCutoff(), checkpoint.getLastTimestamp(), checkpoint.getLastId());
+        } else {
+            checkpoint.start(LocalDateTime.now().minusDays(retentionDays), LocalDateTime.now());
+            checkpoint = checkpointRepository.save(checkpoint);
         }
 
-        try {
-            String key = extractKeyFromUrl(mediaUrl);
+        BatchThrottle throttle = new BatchThrottle(maxMessagesPerSecond);
+        long deleted = 0;
+        long retained = 0;
+        List<Object[]> batch;
+        do {
+            PageRequest page = PageRequest.of(0, batchSize);
+            batch = checkpoint.getLastId() == null
+                    ? messageRepository.findCleanupBatch(checkpoint.getCutoff(), page)
+                    : messageRepository.findCleanupBatchAfter(checkpoint.getCutoff(),
+                            checkpoint.getLastTimestamp(), checkpoint.getLastId(), page);
+            if (batch.isEmpty()) {
+                break;
+            }
 
-            DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
+            BatchResult result = cleanupBatch(checkpoint, batch);
+            deleted += result.deleted();
+            retained += result.retained();
 
-            s3Client.deleteObject(deleteRequest);
-            log.debug("Deleted chat media from S3: {}", key);
+            try {
+                throttle.pace(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Chat cleanup interrupted after {} messages; it resumes from its checkpoint", deleted);
+                return deleted;
+            }
+        } while (batch.size() == batchSize);
 
-        } catch (Exception e) {
-            log.warn("Failed to delete chat media from S3: {}", mediaUrl, e);
-            throw e;
-        }
+        checkpoint.setCompletedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        log.info("Chat cleanup completed: {} messages deleted, {} kept because their media could not be deleted",
+                deleted, retained);
+        return deleted;
     }
 
     /**
-     * Extract S3 key from full URL (handles both S3 and CloudFront URLs).
+     * Delete one batch: media first, then the messages whose media is gone, then the checkpoint
      */
-    private String extractKeyFromUrl(String fileUrl) {
-        if (fileUrl == null || fileUrl.isEmpty()) {
-            throw new IllegalArgumentException("Invalid file URL: " + fileUrl);
-        }
-
-        // Handle CloudFront URLs: https://d3loytcgioxpml.cloudfront.net/chat-media/file.jpg
-        if (fileUrl.contains("cloudfront.net")) {
-            int domainEnd = fileUrl.indexOf(".net/");
-            if (domainEnd > 0) {
-                return fileUrl.substring(domainEnd + 5); // +5 to skip ".net/"
+    private BatchResult cleanupBatch(CleanupCheckpoint checkpoint, List<Object[]> batch) {
+        Map<UUID, String> mediaKeys = new HashMap<>();
+        for (Object[] row : batch) {
+            // Messages without media, or with an external link, have nothing to delete in S3
+            String key = MediaKeyUtil.toStorageKey((String) row[2]);
+            if (key != null) {
+                mediaKeys.put((UUID) row[0], key);
             }
         }
-
-        // Handle S3 URLs: https://bucket.s3.region.amazonaws.com/key
-        if (fileUrl.contains(bucketName)) {
-            String urlPattern = String.format("https://%s.s3.%s.amazonaws.com/", bucketName, region);
-            if (fileUrl.startsWith(urlPattern)) {
-                return fileUrl.substring(urlPattern.length());
-            }
-            // Try alternative S3 URL format
-            String altPattern = String.format("https://%s.s3-%s.amazonaws.com/", bucketName, region);
-            if (fileUrl.startsWith(altPattern)) {
-                return fileUrl.substring(altPattern.length());
-            }
-            // Try another common S3 URL format
-            String simplePattern = String.format("https://%s.s3.amazonaws.com/", bucketName);
-            if (fileUrl.startsWith(simplePattern)) {
-                return fileUrl.substring(simplePattern.length());
+        Set<String> failedKeys = mediaKeys.isEmpty()
+                ? Set.of()
+                : s3BatchDeleteService.deleteObjects(mediaKeys.values());
+
+        List<UUID> messageIds = new ArrayList<>(batch.size());
+        for (Object[] row : batch) {
+            UUID messageId = (UUID) row[0];
+            String key = mediaKeys.get(messageId);
+            if (key == null || !failedKeys.contains(key)) {
+                messageIds.add(messageId);
             }
         }
-
-        log.warn("URL format not recognized, attempting path extraction: {}", fileUrl);
-        // Fallback: try to extract path after the domain
-        try {
-            java.net.URL url = new java.net.URL(fileUrl);
-            String path = url.getPath();
-            if (path.startsWith("/")) {
-                return path.substring(1);
+        int retained = batch.size() - messageIds.size();
+
+        Object[] last = batch.get(batch.size() - 1);
+        Integer deleted = transactionTemplate.execute(status -> {
+            int count = 0;
+            if (!messageIds.isEmpty()) {
+                messageRepository.detachReplies(messageIds);
+                count = messageRepository.deleteByIdIn(messageIds);
             }
-            return path;
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Cannot parse URL: " + fileUrl, e);
-        }
+            checkpoint.advance((LocalDateTime) last[1], (UUID) last[0], count, retained);
+            checkpointRepository.save(checkpoint);
+            return count;
+        });
+        log.debug("Chat cleanup batch: {} messages deleted, {} media objects deleted, {} kept",
+                deleted, mediaKeys.size() - failedKeys.size(), retained);
+        return new BatchResult(deleted != null ? deleted : 0, retained);
     }
 
     /**
@@ -185,12 +187,12 @@ public class ChatCleanupService {
     public CleanupStats getCleanupStats() {
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(retentionDays);
         long messageCount = messageRepository.countOldMessages(cutoffTime);
-        List<Message> messagesWithMedia = messageRepository.findOldMessagesWithMedia(cutoffTime);
+        long mediaCount = messageRepository.countOldMessagesWithMedia(cutoffTime);
 
         return new CleanupStats(
             retentionDays,
             messageCount,
-            messagesWithMedia.size(),
+            mediaCount,
             cleanupEnabled,
             cutoffTime
         );
@@ -202,8 +204,10 @@ public class ChatCleanupService {
     public record CleanupStats(
         int retentionDays,
         long pendingMessageCount,
-        int pendingMediaCount,
+        long pendingMediaCount,
         boolean cleanupEnabled,
         LocalDateTime cutoffTime
     ) {}
+
+    private record BatchResult(int deleted, int retained) {}
 }
@@ -4,27 +4,32 @@ import com.churchapp.dto.*;
 import com.churchapp.entity.ChatGroup;
 import com.churchapp.entity.ChatGroupMember;
 import com.churchapp.entity.Message;
+import com.churchapp.entity.NotificationOutbox;
 import com.churchapp.entity.User;
 import com.churchapp.repository.ChatGroupRepository;
 import com.churchapp.repository.ChatGroupMemberRepository;
 import com.churchapp.repository.MessageRepository;
 import com.churchapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class ChatService {
     
@@ -32,10 +37,10 @@ public class ChatService {
     private final ChatGroupMemberRepository chatGroupMemberRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
     private final FileUploadService fileUploadService;
     private final MediaUrlService mediaUrlService;
-    private final NotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
     
     // ==================== CHAT GROUP OPERATIONS ====================
     
@@ -81,69 +86,71 @@ public class ChatService {
     
     public List<ChatGroupResponse> getUserChatGroups(String userEmail) {
         User user = getUserByEmail(userEmail);
-        List<ChatGroup> groups = chatGroupRepository.findGroupsByMember(user);
         
-        return groups.stream()
-            .map(group -> {
-                ChatGroupMember membership = chatGroupMemberRepository
-                    .findByUserAndChatGroupAndIsActiveTrue(user, group).orElse(null);
-                
-                boolean isMember = membership != null;
-                boolean canPost = isMember && membership.canPost();
-                boolean canModerate = isMember && membership.canModerate();
-                String userRole = isMember ? membership.getMemberRole().name() : null;
-                Long unreadCount = isMember ? messageRepository.countUnreadMessagesForUserInGroup(user, group) : 0L;
-                
-                ChatGroupResponse response = ChatGroupResponse.fromEntityWithUserContext(group, isMember, canPost, canModerate, userRole, unreadCount);
+        // Membership, counts and last message for every group in one query
+        List<ChatGroupRepository.InboxRowView> rows = chatGroupRepository.findInboxRows(user);
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // For direct messages, the OTHER participant(s) for every DM in one query
+        List<UUID> dmGroupIds = rows.stream()
+            .map(ChatGroupRepository.InboxRowView::getChatGroup)
+            .filter(group -> group.getType() == ChatGroup.GroupType.DIRECT_MESSAGE)
+            .map(ChatGroup::getId)
+            .collect(Collectors.toList());
+        Map<UUID, List<ChatGroupMemberResponse>> otherMembersByGroupId = dmGroupIds.isEmpty()
+            ? Collections.emptyMap()
+            : chatGroupMemberRepository.findActiveMembersInGroupsExcludingUser(dmGroupIds, user).stream()
+                .collect(Collectors.groupingBy(
+                    member -> member.getChatGroup().getId(),
+                    Collectors.mapping(ChatGroupMemberResponse::new, Collectors.toList())));
+        
+        return rows.stream()
+            .map(row -> {
+                ChatGroup group = row.getChatGroup();
+                ChatGroupResponse response = ChatGroupResponse.forInbox(
+                    group, row.getCreatedBy(), row.getMemberCount(), row.getMemberRole(), row.getUnreadCount());
                 
                 // Populate last message info
-                messageRepository.findTopByChatGroupAndIsDeletedFalseOrderByTimestampDesc(group).ifPresent(lastMessage -> {
+                Message lastMessage = row.getLastMessage();
+                if (lastMessage != null) {
                     response.setLastMessageTime(lastMessage.getTimestamp());
-                    
-                    // Set last message content based on message type
-                    if (lastMessage.getContent() != null && !lastMessage.getContent().trim().isEmpty()) {
-                        response.setLastMessage(lastMessage.getContent());
-                    } else {
-                        // Handle media messages
-                        switch (lastMessage.getMessageType()) {
-                            case IMAGE:
-                                response.setLastMessage("📷 Image");
-                                break;
-                            case VIDEO:
-                                response.setLastMessage("🎥 Video");
-                                break;
-                            case AUDIO:
-                                response.setLastMessage("🎵 Audio");
-                                break;
-                            case DOCUMENT:
-                                response.setLastMessage("📄 Document");
-                                break;
-                            default:
-                                response.setLastMessage("Message");
-                        }
-                    }
-                    
-                    // Set last message author
-                    if (lastMessage.getUser() != null) {
-                        response.setLastMessageBy(lastMessage.getUser().getName());
+                    response.setLastMessage(describeLastMessage(lastMessage));
+                    if (row.getLastMessageAuthor() != null) {
+                        response.setLastMessageBy(row.getLastMessageAuthor().getName());
                     }
-                });
-
-                // For direct messages, populate recentMembers with the OTHER user's info
+                }
+                
                 if (group.getType() == ChatGroup.GroupType.DIRECT_MESSAGE) {
-                    List<ChatGroupMember> members = chatGroupMemberRepository.findByChatGroupAndIsActiveTrueOrderByJoinedAtAsc(group);
-                    List<ChatGroupMemberResponse> otherMembers = members.stream()
-                        .filter(m -> !m.getUser().getEmail().equals(userEmail))
-                        .map(ChatGroupMemberResponse::new)
-                        .collect(Collectors.toList());
-                    response.setRecentMembers(otherMembers);
+                    response.setRecentMembers(otherMembersByGroupId.getOrDefault(group.getId(), new ArrayList<>()));
                 }
-
+                
                 return response;
             })
             .collect(Collectors.toList());
     }
     
+    private String describeLastMessage(Message lastMessage) {
+        // Set last message content based on message type
+        if (lastMessage.getContent() != null && !lastMessage.getContent().trim().isEmpty()) {
+            return lastMessage.getContent();
+        }
+        // Handle media messages
+        switch (lastMessage.getMessageType()) {
+            case IMAGE:
+                return "📷 Image";
+            case VIDEO:
+                return "🎥 Video";
+            case AUDIO:
+                return "🎵 Audio";
+            case DOCUMENT:
+                return "📄 Document";
+            default:
+                return "Message";
+        }
+    }
+    
     public List<ChatGroupResponse> getJoinableGroups(String userEmail) {
         User user = getUserByEmail(userEmail);
         List<ChatGroup> groups = chatGroupRepository.findJoinableGroups(user);
@@ -354,6 +361,7 @@ public class ChatService {
         }
         
         message = messageRepository.save(message);
+        recordLastMessage(message);
         
         MessageResponse response = resolveMessageResponse(
             MessageResponse.fromEntityWithUserContext(
@@ -430,6 +438,7 @@ public class ChatService {
         
         message.delete(user.getId());
         message = messageRepository.save(message);
+        refreshLastMessageIfDeleted(message);
 
         MessageResponse response = resolveMessageResponse(
             MessageResponse.fromEntityWithUserContext(message, false, false));
@@ -659,16 +668,40 @@ public class ChatService {
     
     private void createSystemMessage(ChatGroup chatGroup, User user, String content, String metadata) {
         Message systemMessage = Message.createSystemMessage(chatGroup, user, content, metadata);
-        messageRepository.save(systemMessage);
+        systemMessage = messageRepository.save(systemMessage);
+        recordLastMessage(systemMessage);
+    }
+    
+    /**
+     * Point the group's denormalized last message at a newly saved message (inbox preview)
+     */
+    private void recordLastMessage(Message message) {
+        LocalDateTime sentAt = message.getTimestamp() != null ? message.getTimestamp() : LocalDateTime.now();
+        chatGroupRepository.advanceLastMessage(message.getChatGroup().getId(), message.getId(), sentAt);
+    }
+    
+    /**
+     * If the deleted message was the group's last message, fall back to the latest remaining one
+     */
+    private void refreshLastMessageIfDeleted(Message deletedMessage) {
+        ChatGroup chatGroup = deletedMessage.getChatGroup();
+        if (!deletedMessage.getId().equals(chatGroup.getLastMessageId())) {
+            return;
+        }
+        Message latest = messageRepository.findTopByChatGroupAndIsDeletedFalseOrderByTimestampDesc(chatGroup).orElse(null);
+        chatGroupRepository.setLastMessage(
+            chatGroup.getId(),
+            latest != null ? latest.getId() : null,
+            latest != null ? latest.getTimestamp() : null);
     }
     
     private void notifyGroupMembers(ChatGroup chatGroup, String eventType, String message) {
-        messagingTemplate.convertAndSend("/topic/group/" + chatGroup.getId(), 
+        messageBus.publish("/topic/group/" + chatGroup.getId(), 
             new GroupNotification(eventType, message, LocalDateTime.now()));
     }
     
     private void notifyGroupMessage(ChatGroup chatGroup, MessageResponse messageResponse) {
-        messagingTemplate.convertAndSend("/topic/group/" + chatGroup.getId() + "/messages", messageResponse);
+        messageBus.publish("/topic/group/" + chatGroup.getId() + "/messages", messageResponse);
     }
     
     /**
@@ -699,7 +732,7 @@ public class ChatService {
                 if (!member.getUser().getId().equals(sender.getId())) {
                     // Send to user's personal queue for event notifications
                     // The frontend will subscribe to /user/queue/events to receive these
-                    messagingTemplate.convertAndSendToUser(
+                    messageBus.publishToUser(
                         member.getUser().getEmail(),
                         "/queue/events",
                         notificationEvent
@@ -708,28 +741,16 @@ public class ChatService {
             }
             
             // Send Firebase push notifications to group members
-            sendChatPushNotifications(chatGroup, message, sender, members);
+            sendChatPushNotifications(chatGroup, message, sender);
 
         } catch (Exception e) {
             // Log error but don't fail message sending
-            // Using System.err since ChatService doesn't have @Slf4j
-            System.err.println("Error sending chat notification for message " + message.getId() + ": " + e.getMessage());
+            log.error("Error sending chat notification for message {}", message.getId(), e);
         }
     }
 
-    private void sendChatPushNotifications(ChatGroup chatGroup, Message message, User sender, List<ChatGroupMember> members) {
+    private void sendChatPushNotifications(ChatGroup chatGroup, Message message, User sender) {
         try {
-            // Collect FCM tokens (exclude sender)
-            List<String> tokens = members.stream()
-                .filter(member -> !member.getUser().getId().equals(sender.getId()))
-                .map(member -> member.getUser().getFcmToken())
-                .filter(token -> token != null && !token.trim().isEmpty())
-                .collect(java.util.stream.Collectors.toList());
-
-            if (tokens.isEmpty()) {
-                return;
-            }
-
             // Prepare notification data
             java.util.Map<String, String> data = new java.util.HashMap<>();
             data.put("type", "chat_message");
@@ -752,18 +773,18 @@ public class ChatService {
                 ? messagePreview
                 : sender.getName() + ": " + messagePreview;
 
-            // Send bulk notification
-            notificationService.sendBulkNotification(
-                tokens,
+            // Queue for asynchronous fan-out to active members (sender excluded)
+            notificationOutboxService.enqueue(
+                NotificationOutbox.AudienceType.CHAT_GROUP_MEMBERS,
+                chatGroup.getId(),
+                sender.getId(),
                 "💬 " + notificationTitle,
                 notificationBody,
                 data
             );
 
-            System.out.println("Sent Firebase push notifications to " + tokens.size() + " users for message: " + message.getId());
-
         } catch (Exception e) {
-            System.err.println("Failed to send Firebase push notification for message " + message.getId() + ": " + e.getMessage());
+            log.error("Failed to queue Firebase push notification for message {}", message.getId(), e);
             // Don't throw - notification failure shouldn't break message sending
         }
     }
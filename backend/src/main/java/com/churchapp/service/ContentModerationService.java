@@ -1,12 +1,15 @@
 package com.churchapp.service;
 
+import com.churchapp.dto.BulkModerationJobResponse;
 import com.churchapp.dto.ModerationResponse;
+import com.churchapp.entity.BulkModerationJob;
 import com.churchapp.entity.ContentReport;
 import com.churchapp.entity.MarketplaceListing;
 import com.churchapp.entity.MarketplaceListingStatus;
 import com.churchapp.entity.Message;
 import com.churchapp.entity.Post;
 import com.churchapp.entity.User;
+import com.churchapp.event.UserPrincipalChangedEvent;
 import com.churchapp.repository.ContentReportRepository;
 import com.churchapp.repository.MarketplaceListingRepository;
 import com.churchapp.repository.MessageRepository;
@@ -18,6 +21,7 @@ import com.churchapp.repository.PostShareRepository;
 import com.churchapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -45,6 +49,8 @@ public class ContentModerationService {
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final com.churchapp.service.UserManagementService userManagementService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkModerationEngine bulkModerationEngine;
 
     @Transactional(readOnly = true)
     public Page<ModerationResponse> getReportedContent(Pageable pageable, String contentType, String status, String priority) {
@@ -602,41 +608,23 @@ public class ContentModerationService {
         return new PageImpl<>(flagged, pageable, flagged.size());
     }
 
-    public Map<String, Object> bulkModerate(List<String> contentIds, String action, String reason, UUID moderatorId, HttpServletRequest request) {
-        Map<String, Object> result = new HashMap<>();
-        int successCount = 0;
-        int errorCount = 0;
-        List<String> errors = new ArrayList<>();
-
-        for (String contentIdStr : contentIds) {
-            try {
-                UUID.fromString(contentIdStr); // Validate UUID format
-                // TODO: Determine content type and moderate accordingly
-                // For now, assume it's handled by the moderateContent method
-
-                successCount++;
-            } catch (Exception e) {
-                errorCount++;
-                errors.add("Failed to moderate " + contentIdStr + ": " + e.getMessage());
-                log.error("Error in bulk moderation for content {}: {}", contentIdStr, e.getMessage());
-            }
-        }
-
-        // Log bulk moderation action
-        Map<String, String> details = new HashMap<>();
-        details.put("action", action);
-        details.put("reason", reason);
-        details.put("totalItems", String.valueOf(contentIds.size()));
-        details.put("successCount", String.valueOf(successCount));
-        details.put("errorCount", String.valueOf(errorCount));
-        auditLogService.logAction(moderatorId, "BULK_MODERATE", details, "CONTENT", null, request);
-
-        result.put("totalProcessed", contentIds.size());
-        result.put("successful", successCount);
-        result.put("failed", errorCount);
-        result.put("errors", errors);
+    /**
+     * Start a background bulk moderation job; poll it with getBulkModerationJob.
+     * The client address is captured now, since the job's audit entries are written after the request ends.
+     */
+    public BulkModerationJobResponse bulkModerate(List<String> contentIds, String contentType, String action, String reason,
+                                                  UUID moderatorId, HttpServletRequest request) {
+        BulkModerationJob job = bulkModerationEngine.submit(
+            contentIds, contentType, action, reason, moderatorId,
+            request != null ? auditLogService.getClientIpAddress(request) : null,
+            request != null ? request.getHeader("User-Agent") : null);
+        return BulkModerationJobResponse.fromJob(job);
+    }
 
-        return result;
+    @Transactional(readOnly = true)
+    public Optional<BulkModerationJobResponse> getBulkModerationJob(UUID jobId) {
+        return bulkModerationEngine.getJob(jobId)
+            .map(BulkModerationJobResponse::fromJob);
     }
 
     public void updateModerationSettings(Map<String, Object> settings) {
@@ -728,6 +716,7 @@ public class ContentModerationService {
                     targetUser.setBannedAt(LocalDateTime.now());
                     targetUser.setIsActive(false);
                     userRepository.save(targetUser);
+                    eventPublisher.publishEvent(new UserPrincipalChangedEvent(targetUser.getEmail(), "banned via report"));
                     log.info("User {} has been banned", userId);
                     break;
 
@@ -3,34 +3,82 @@ package com.churchapp.service;
 import com.churchapp.dto.*;
 import com.churchapp.entity.Donation;
 import com.churchapp.entity.DonationCategory;
-import com.churchapp.entity.User;
 import com.churchapp.repository.DonationRepository;
 import com.churchapp.repository.DonationSubscriptionRepository;
 import com.churchapp.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
+import java.io.*;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Admin donation analytics and export.
+ *
+ * Analytics are computed by the database: totals, category and monthly breakdowns and top donors
+ * come from SUM/COUNT/COUNT DISTINCT projections in DonationRepository, so only aggregate rows and
+ * the few recent donations shown on the dashboard are loaded, whatever the date range.
+ *
+ * Exports are streamed: donations are read through a forward-only JDBC cursor,
+ * donations.export.fetch-size rows at a time, and written to the response as they arrive.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class DonationAnalyticsService {
 
+    private static final int TOP_DONOR_LIMIT = 5;
+    private static final int RECENT_DONATION_LIMIT = 10;
+
+    private static final String CSV_HEADER = "Date,Donor,Amount,Category,Purpose,Transaction ID\n";
+    private static final String EXPORT_SQL =
+        "SELECT d.timestamp, u.name, d.amount, d.category, d.purpose, d.transaction_id " +
+        "FROM donations d JOIN users u ON u.id = d.user_id " +
+        "WHERE d.timestamp BETWEEN ? AND ? " +
+        "ORDER BY d.timestamp DESC";
+
     private final DonationRepository donationRepository;
     private final DonationSubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate exportTransactionTemplate;
+
+    // Rows per cursor fetch while exporting
+    @Value("${donations.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    public DonationAnalyticsService(DonationRepository donationRepository,
+                                    DonationSubscriptionRepository subscriptionRepository,
+                                    UserRepository userRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.donationRepository = donationRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // PostgreSQL only honours the fetch size (a server-side cursor) outside auto-commit
+        this.exportTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.exportTransactionTemplate.setReadOnly(true);
+    }
 
     /**
      * Get comprehensive donation analytics
@@ -43,40 +91,44 @@ public class DonationAnalyticsService {
         LocalDateTime startDate = dates[0];
         LocalDateTime endDate = dates[1];
 
-        // Get current period data
-        List<Donation> currentDonations = donationRepository.findByTimestampBetween(startDate, endDate);
-
-        // Get previous period for comparison
+        // Current and previous period totals
+        PeriodTotals current = periodTotals(donationRepository.summarizeByDateRange(startDate, endDate));
         LocalDateTime[] previousDates = getPreviousPeriod(startDate, endDate);
-        List<Donation> previousDonations = donationRepository.findByTimestampBetween(previousDates[0], previousDates[1]);
+        PeriodTotals previous = periodTotals(donationRepository.summarizeByDateRange(previousDates[0], previousDates[1]));
 
         // Build analytics response
         DonationAnalyticsResponse analytics = new DonationAnalyticsResponse();
 
         // Core metrics
-        analytics.setTotalDonations(currentDonations.size());
-        analytics.setTotalAmount(calculateTotalAmount(currentDonations));
-        analytics.setAverageDonation(calculateAverageDonation(currentDonations));
-        analytics.setDonorCount(calculateUniqueDonors(currentDonations));
+        analytics.setTotalDonations(current.count());
+        analytics.setTotalAmount(current.amount());
+        analytics.setAverageDonation(average(current.amount(), current.count()));
+        analytics.setDonorCount(current.donors());
 
         // Recurring donations
-        analytics.setRecurringDonations(countRecurringDonations(currentDonations));
-        analytics.setRecurringAmount(calculateRecurringAmount(currentDonations));
+        analytics.setRecurringDonations(current.recurringCount());
+        analytics.setRecurringAmount(current.recurringAmount());
 
         // Category breakdown
-        analytics.setCategoryBreakdown(buildCategoryBreakdown(currentDonations));
+        analytics.setCategoryBreakdown(buildCategoryBreakdown(startDate, endDate, current.amount()));
 
         // Monthly trends
         analytics.setMonthlyTrends(buildMonthlyTrends(startDate, endDate));
 
         // Top donors (limited for this response)
-        analytics.setTopDonors(buildTopDonors(currentDonations, 5));
+        analytics.setTopDonors(donationRepository
+            .summarizeTopDonors(startDate, endDate, PageRequest.of(0, TOP_DONOR_LIMIT)).stream()
+            .map(this::mapToTopDonorResponse)
+            .toList());
 
         // Recent donations
-        analytics.setRecentDonations(buildRecentDonations(currentDonations, 10));
+        analytics.setRecentDonations(donationRepository
+            .findRecentByDateRange(startDate, endDate, PageRequest.of(0, RECENT_DONATION_LIMIT)).stream()
+            .map(this::mapDonationToResponse)
+            .toList());
 
         // Period comparison
-        analytics.setPeriodComparison(buildPeriodComparison(currentDonations, previousDonations));
+        analytics.setPeriodComparison(buildPeriodComparison(current, previous));
 
         // Meta information
         analytics.setDateRange(dateRange);
@@ -87,41 +139,28 @@ public class DonationAnalyticsService {
     }
 
     /**
-     * Get top donors with pagination
+     * Get top donors with pagination (always ordered by total amount, largest first)
      */
     public Page<TopDonorResponse> getTopDonors(Pageable pageable) {
         log.info("Getting top donors with pagination: {}", pageable);
 
-        // Get all donations grouped by user
-        List<Object[]> donorStats = donationRepository.findDonorStatistics();
-
-        List<TopDonorResponse> topDonors = donorStats.stream()
-            .map(this::mapToTopDonorResponse)
-            .sorted((a, b) -> b.getTotalAmount().compareTo(a.getTotalAmount()))
-            .collect(Collectors.toList());
-
-        // Apply pagination manually (for simplicity - in production you'd use database pagination)
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), topDonors.size());
-        List<TopDonorResponse> pageContent = topDonors.subList(start, end);
-
-        return new PageImpl<>(pageContent, pageable, topDonors.size());
+        // The ordering is part of the query; a sort on the response field names can't be applied to it
+        return donationRepository
+            .findDonorStatistics(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()))
+            .map(this::mapToTopDonorResponse);
     }
 
     /**
-     * Export donation data
+     * Export donation data. The date range is resolved now; the rows are read and written when
+     * the returned body is streamed to the client.
      */
-    public byte[] exportDonations(String format, String dateRange, String startDateStr, String endDateStr) {
+    public StreamingResponseBody exportDonations(String format, String dateRange, String startDateStr, String endDateStr) {
         log.info("Exporting donations: format={}, dateRange={}", format, dateRange);
 
         LocalDateTime[] dates = parseDateRange(dateRange, startDateStr, endDateStr);
-        List<Donation> donations = donationRepository.findByTimestampBetween(dates[0], dates[1]);
 
-        if ("xlsx".equals(format)) {
-            return exportToExcel(donations);
-        } else {
-            return exportToCsv(donations);
-        }
+        // xlsx is still served as CSV; in production you'd use Apache POI's streaming workbook
+        return outputStream -> exportToCsv(dates[0], dates[1], outputStream);
     }
 
     /**
@@ -143,20 +182,20 @@ public class DonationAnalyticsService {
         LocalDateTime startDate = LocalDateTime.parse(startDateStr);
         LocalDateTime endDate = LocalDateTime.parse(endDateStr);
 
-        List<Donation> donations;
+        PeriodTotals totals;
         if (category != null) {
             DonationCategory cat = DonationCategory.valueOf(category.toUpperCase());
-            donations = donationRepository.findByTimestampBetweenAndCategory(startDate, endDate, cat);
+            totals = periodTotals(donationRepository.summarizeByDateRangeAndCategory(startDate, endDate, cat));
         } else {
-            donations = donationRepository.findByTimestampBetween(startDate, endDate);
+            totals = periodTotals(donationRepository.summarizeByDateRange(startDate, endDate));
         }
 
         // Build summary response
         DonationAnalyticsResponse summary = new DonationAnalyticsResponse();
-        summary.setTotalDonations(donations.size());
-        summary.setTotalAmount(calculateTotalAmount(donations));
-        summary.setAverageDonation(calculateAverageDonation(donations));
-        summary.setDonorCount(calculateUniqueDonors(donations));
+        summary.setTotalDonations(totals.count());
+        summary.setTotalAmount(totals.amount());
+        summary.setAverageDonation(average(totals.amount(), totals.count()));
+        summary.setDonorCount(totals.donors());
         summary.setStartDate(startDate);
         summary.setEndDate(endDate);
 
@@ -201,131 +240,58 @@ public class DonationAnalyticsService {
         return new LocalDateTime[]{prevStartDate, prevEndDate};
     }
 
-    private BigDecimal calculateTotalAmount(List<Donation> donations) {
-        return donations.stream()
-            .map(Donation::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal calculateAverageDonation(List<Donation> donations) {
-        if (donations.isEmpty()) {
-            return BigDecimal.ZERO;
+    private List<CategoryBreakdownResponse> buildCategoryBreakdown(LocalDateTime startDate, LocalDateTime endDate,
+                                                                   BigDecimal totalAmount) {
+        // Rows: category, count, amount, unique donors - largest amount first
+        List<CategoryBreakdownResponse> breakdown = new ArrayList<>();
+        for (Object[] row : donationRepository.summarizeByCategory(startDate, endDate)) {
+            DonationCategory category = (DonationCategory) row[0];
+            int count = toInt(row[1]);
+            BigDecimal categoryAmount = toDecimal(row[2]);
+
+            CategoryBreakdownResponse response = new CategoryBreakdownResponse();
+            response.setCategory(category);
+            response.setCategoryDisplayName(category.getDisplayName());
+            response.setCount(count);
+            response.setAmount(categoryAmount);
+            response.setPercentage(calculatePercentage(categoryAmount, totalAmount));
+            response.setAverageDonation(average(categoryAmount, count));
+            response.setUniqueDonors(toInt(row[3]));
+            breakdown.add(response);
         }
-        BigDecimal total = calculateTotalAmount(donations);
-        return total.divide(BigDecimal.valueOf(donations.size()), 2, RoundingMode.HALF_UP);
-    }
-
-    private Integer calculateUniqueDonors(List<Donation> donations) {
-        return donations.stream()
-            .map(d -> d.getUser().getId())
-            .collect(Collectors.toSet())
-            .size();
-    }
-
-    private Integer countRecurringDonations(List<Donation> donations) {
-        return (int) donations.stream()
-            .filter(Donation::getIsRecurring)
-            .count();
-    }
-
-    private BigDecimal calculateRecurringAmount(List<Donation> donations) {
-        return donations.stream()
-            .filter(Donation::getIsRecurring)
-            .map(Donation::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private List<CategoryBreakdownResponse> buildCategoryBreakdown(List<Donation> donations) {
-        Map<DonationCategory, List<Donation>> byCategory = donations.stream()
-            .collect(Collectors.groupingBy(Donation::getCategory));
-
-        BigDecimal totalAmount = calculateTotalAmount(donations);
-
-        return byCategory.entrySet().stream()
-            .map(entry -> {
-                DonationCategory category = entry.getKey();
-                List<Donation> categoryDonations = entry.getValue();
-                BigDecimal categoryAmount = calculateTotalAmount(categoryDonations);
-
-                CategoryBreakdownResponse response = new CategoryBreakdownResponse();
-                response.setCategory(category);
-                response.setCategoryDisplayName(category.getDisplayName());
-                response.setCount(categoryDonations.size());
-                response.setAmount(categoryAmount);
-                response.setPercentage(calculatePercentage(categoryAmount, totalAmount));
-                response.setAverageDonation(calculateAverageDonation(categoryDonations));
-                response.setUniqueDonors(calculateUniqueDonors(categoryDonations));
-
-                return response;
-            })
-            .sorted((a, b) -> b.getAmount().compareTo(a.getAmount()))
-            .collect(Collectors.toList());
+        return breakdown;
     }
 
     private List<MonthlyTrendResponse> buildMonthlyTrends(LocalDateTime startDate, LocalDateTime endDate) {
-        List<MonthlyTrendResponse> trends = new ArrayList<>();
-
-        LocalDateTime current = startDate.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-
-        while (current.isBefore(endDate)) {
-            LocalDateTime monthEnd = current.plusMonths(1).minusDays(1);
+        // Whole months from the first of the start month; months without donations are reported as zero
+        YearMonth firstMonth = YearMonth.from(startDate);
+        Map<YearMonth, Object[]> rows = new HashMap<>();
+        for (Object[] row : donationRepository.summarizeByMonth(firstMonth.atDay(1).atStartOfDay(), endDate)) {
+            rows.put(YearMonth.of(toInt(row[0]), toInt(row[1])), row);
+        }
 
-            List<Donation> monthDonations = donationRepository.findByTimestampBetween(current, monthEnd);
+        List<MonthlyTrendResponse> trends = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.atDay(1).atStartOfDay().isAfter(endDate); month = month.plusMonths(1)) {
+            Object[] row = rows.get(month);
+            int count = row != null ? toInt(row[2]) : 0;
+            BigDecimal amount = row != null ? toDecimal(row[3]) : BigDecimal.ZERO;
 
             MonthlyTrendResponse trend = new MonthlyTrendResponse();
-            trend.setMonth(current.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH));
-            trend.setYear(current.getYear());
-            trend.setTotalAmount(calculateTotalAmount(monthDonations));
-            trend.setDonationCount(monthDonations.size());
-            trend.setNewDonors(calculateUniqueDonors(monthDonations));
-            trend.setRecurringAmount(calculateRecurringAmount(monthDonations));
-            trend.setAverageDonation(calculateAverageDonation(monthDonations));
+            trend.setMonth(month.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+            trend.setYear(month.getYear());
+            trend.setTotalAmount(amount);
+            trend.setDonationCount(count);
+            trend.setNewDonors(row != null ? toInt(row[4]) : 0);
+            trend.setRecurringAmount(row != null ? toDecimal(row[5]) : BigDecimal.ZERO);
+            trend.setAverageDonation(average(amount, count));
 
             trends.add(trend);
-            current = current.plusMonths(1);
         }
 
         return trends;
     }
 
-    private List<TopDonorResponse> buildTopDonors(List<Donation> donations, int limit) {
-        Map<User, List<Donation>> byUser = donations.stream()
-            .collect(Collectors.groupingBy(Donation::getUser));
-
-        return byUser.entrySet().stream()
-            .map(entry -> {
-                User user = entry.getKey();
-                List<Donation> userDonations = entry.getValue();
-
-                TopDonorResponse donor = new TopDonorResponse();
-                donor.setUserId(user.getId());
-                donor.setDonorName(user.getName());
-                donor.setTotalAmount(calculateTotalAmount(userDonations));
-                donor.setDonationCount(userDonations.size());
-                donor.setAverageDonation(calculateAverageDonation(userDonations));
-                donor.setLastDonationDate(userDonations.stream()
-                    .map(Donation::getTimestamp)
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null));
-                donor.setIsRecurringDonor(userDonations.stream()
-                    .anyMatch(Donation::getIsRecurring));
-
-                return donor;
-            })
-            .sorted((a, b) -> b.getTotalAmount().compareTo(a.getTotalAmount()))
-            .limit(limit)
-            .collect(Collectors.toList());
-    }
-
-    private List<DonationResponse> buildRecentDonations(List<Donation> donations, int limit) {
-        return donations.stream()
-            .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-            .limit(limit)
-            .map(this::mapDonationToResponse)
-            .collect(Collectors.toList());
-    }
-
-    private PeriodComparisonResponse buildPeriodComparison(List<Donation> current, List<Donation> previous) {
+    private PeriodComparisonResponse buildPeriodComparison(PeriodTotals current, PeriodTotals previous) {
         PeriodComparisonResponse.PeriodStatsResponse currentStats = buildPeriodStats(current);
         PeriodComparisonResponse.PeriodStatsResponse previousStats = buildPeriodStats(previous);
         PeriodComparisonResponse.GrowthMetricsResponse growth = calculateGrowth(currentStats, previousStats);
@@ -338,12 +304,12 @@ public class DonationAnalyticsService {
         return comparison;
     }
 
-    private PeriodComparisonResponse.PeriodStatsResponse buildPeriodStats(List<Donation> donations) {
+    private PeriodComparisonResponse.PeriodStatsResponse buildPeriodStats(PeriodTotals totals) {
         PeriodComparisonResponse.PeriodStatsResponse stats = new PeriodComparisonResponse.PeriodStatsResponse();
-        stats.setTotalAmount(calculateTotalAmount(donations));
-        stats.setDonationCount(donations.size());
-        stats.setDonorCount(calculateUniqueDonors(donations));
-        stats.setAverageDonation(calculateAverageDonation(donations));
+        stats.setTotalAmount(totals.amount());
+        stats.setDonationCount(totals.count());
+        stats.setDonorCount(totals.donors());
+        stats.setAverageDonation(average(totals.amount(), totals.count()));
         return stats;
     }
 
@@ -385,19 +351,15 @@ public class DonationAnalyticsService {
     }
 
     private TopDonorResponse mapToTopDonorResponse(Object[] stats) {
-        // Expected: userId, donorName, totalAmount, donationCount, lastDonation, hasRecurring
+        // Expected: userId, donorName, totalAmount, donationCount, lastDonation, hasRecurring (0/1)
         TopDonorResponse donor = new TopDonorResponse();
         donor.setUserId((UUID) stats[0]);
         donor.setDonorName((String) stats[1]);
-        donor.setTotalAmount((BigDecimal) stats[2]);
-        donor.setDonationCount((Integer) stats[3]);
+        donor.setTotalAmount(toDecimal(stats[2]));
+        donor.setDonationCount(toInt(stats[3]));
         donor.setLastDonationDate((LocalDateTime) stats[4]);
-        donor.setIsRecurringDonor((Boolean) stats[5]);
-
-        if (donor.getDonationCount() > 0) {
-            donor.setAverageDonation(donor.getTotalAmount()
-                .divide(BigDecimal.valueOf(donor.getDonationCount()), 2, RoundingMode.HALF_UP));
-        }
+        donor.setIsRecurringDonor(toInt(stats[5]) > 0);
+        donor.setAverageDonation(average(donor.getTotalAmount(), donor.getDonationCount()));
 
         return donor;
     }
@@ -419,26 +381,88 @@ public class DonationAnalyticsService {
         return response;
     }
 
-    private byte[] exportToCsv(List<Donation> donations) {
-        // Simple CSV export implementation
-        StringBuilder csv = new StringBuilder();
-        csv.append("Date,Donor,Amount,Category,Purpose,Transaction ID\n");
-
-        for (Donation donation : donations) {
-            csv.append(donation.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE)).append(",")
-               .append(donation.getUser().getName()).append(",")
-               .append(donation.getAmount()).append(",")
-               .append(donation.getCategoryDisplayName()).append(",")
-               .append(donation.getPurpose() != null ? donation.getPurpose() : "").append(",")
-               .append(donation.getTransactionId()).append("\n");
+    /**
+     * Stream the range as CSV straight from the cursor; memory use doesn't depend on the row count
+     */
+    void exportToCsv(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+
+        long[] rows = {0};
+        try {
+            exportTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(exportFetchSize);
+                statement.setTimestamp(1, Timestamp.valueOf(startDate));
+                statement.setTimestamp(2, Timestamp.valueOf(endDate));
+                return statement;
+            }, (RowCallbackHandler) resultSet -> {
+                writeCsvRow(writer, resultSet);
+                rows[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // The client went away; the cursor and its transaction are already closed
+            throw e.getCause();
         }
 
-        return csv.toString().getBytes();
+        writer.flush();
+        log.info("Exported {} donations from {} to {}", rows[0], startDate, endDate);
     }
 
-    private byte[] exportToExcel(List<Donation> donations) {
-        // For simplicity, return CSV format for now
-        // In production, you'd use Apache POI to create actual Excel files
-        return exportToCsv(donations);
+    private void writeCsvRow(Writer writer, ResultSet resultSet) throws SQLException {
+        String category = resultSet.getString("category");
+        try {
+            writer.append(resultSet.getTimestamp("timestamp").toLocalDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE)).append(',')
+                  .append(csvField(resultSet.getString("name"))).append(',')
+                  .append(resultSet.getBigDecimal("amount").toPlainString()).append(',')
+                  .append(csvField(category != null ? DonationCategory.valueOf(category).getDisplayName() : "")).append(',')
+                  .append(csvField(resultSet.getString("purpose"))).append(',')
+                  .append(csvField(resultSet.getString("transaction_id"))).append('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Quote a CSV field if it contains a separator, quote or line break
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
-}
\ No newline at end of file
+
+    private PeriodTotals periodTotals(List<Object[]> rows) {
+        // Rows: count, amount, unique donors, recurring count, recurring amount
+        if (rows.isEmpty()) {
+            return new PeriodTotals(0, BigDecimal.ZERO, 0, 0, BigDecimal.ZERO);
+        }
+        Object[] row = rows.get(0);
+        return new PeriodTotals(toInt(row[0]), toDecimal(row[1]), toInt(row[2]), toInt(row[3]), toDecimal(row[4]));
+    }
+
+    private static BigDecimal average(BigDecimal total, int count) {
+        if (count == 0) {
+            return BigDecimal.ZERO;
+        }
+        return total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private record PeriodTotals(int count, BigDecimal amount, int donors, int recurringCount, BigDecimal recurringAmount) {}
+}
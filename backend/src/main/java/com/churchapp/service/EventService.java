@@ -17,7 +17,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,7 +37,7 @@ public class EventService {
     private final EventBringListService eventBringListService;
     private final OrganizationRepository organizationRepository;
     private final UserOrganizationMembershipRepository membershipRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
     private final NotificationService notificationService;
 
     public Event createEvent(UUID creatorId, Event eventRequest, Boolean bringListEnabled, List<EventBringItemRequest> bringItems, UUID organizationId) {
@@ -430,7 +429,7 @@ public class EventService {
             );
             
             // Broadcast to all connected users - frontend will filter by organization
-            messagingTemplate.convertAndSend("/topic/events", notificationEvent);
+            messageBus.publish("/topic/events", notificationEvent);
             log.info("Broadcasted event created notification for event: {}", event.getId());
 
             // Send Firebase push notifications
@@ -522,7 +521,7 @@ public class EventService {
             );
             
             // Broadcast to all connected users - frontend will filter by organization
-            messagingTemplate.convertAndSend("/topic/events", notificationEvent);
+            messageBus.publish("/topic/events", notificationEvent);
             log.info("Broadcasted event updated notification for event: {}", event.getId());
             
         } catch (Exception e) {
@@ -558,7 +557,7 @@ public class EventService {
             );
             
             // Broadcast to all connected users - frontend will filter by organization
-            messagingTemplate.convertAndSend("/topic/events", notificationEvent);
+            messageBus.publish("/topic/events", notificationEvent);
             log.info("Broadcasted event cancelled notification for event: {}", event.getId());
             
         } catch (Exception e) {
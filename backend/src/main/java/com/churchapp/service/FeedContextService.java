@@ -0,0 +1,129 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.FeedPreference;
+import com.churchapp.event.FeedContextChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-user cache of everything the home feed needs before it can run its post query:
+ * active filter, org/group parameters, mutually blocked users and followed users.
+ *
+ * Resolving this from scratch costs 6+ queries (preference, user, memberships, groups,
+ * org-as-groups, blocks, follows). Entries are evicted when a {@link FeedContextChangedEvent}
+ * commits, so a warm feed request runs only the feed query itself.
+ */
+@Service
+@Slf4j
+public class FeedContextService {
+
+    static final String CACHE_NAME = "feedContexts";
+
+    private final FeedFilterService feedFilterService;
+    private final UserBlockService userBlockService;
+    private final UserFollowService userFollowService;
+    private final Cache<UUID, FeedContext> cache;
+
+    public FeedContextService(
+            FeedFilterService feedFilterService,
+            UserBlockService userBlockService,
+            UserFollowService userFollowService,
+            @Value("${feed.context-cache.max-size:10000}") long maxSize,
+            @Value("${feed.context-cache.ttl-seconds:600}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.feedFilterService = feedFilterService;
+        this.userBlockService = userBlockService;
+        this.userFollowService = userFollowService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Feed context for this user, resolved on a miss.
+     */
+    public FeedContext getFeedContext(UUID userId) {
+        if (userId == null) {
+            // Not cacheable; resolving fails the same way it always has for unknown users
+            return load(null);
+        }
+        return cache.get(userId, this::load);
+    }
+
+    public void evict(UUID userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Evict after the change is committed so a concurrent feed request cannot re-cache the old state.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedContextChanged(FeedContextChangedEvent event) {
+        if (event.affectsAllUsers()) {
+            clear();
+            log.debug("Cleared all cached feed contexts ({})", event.reason());
+        } else {
+            evict(event.userId());
+            log.debug("Evicted cached feed context for user {} ({})", event.userId(), event.reason());
+        }
+    }
+
+    private FeedContext load(UUID userId) {
+        return new FeedContext(
+            feedFilterService.getFeedPreference(userId).getActiveFilter(),
+            copyOf(feedFilterService.getFeedParameters(userId)),
+            List.copyOf(userBlockService.getMutuallyBlockedUserIds(userId)),
+            List.copyOf(userFollowService.getFollowingIds(userId))
+        );
+    }
+
+    private static FeedFilterService.FeedParameters copyOf(FeedFilterService.FeedParameters params) {
+        return new FeedFilterService.FeedParameters(
+            List.copyOf(params.getPrimaryOrgIds()),
+            List.copyOf(params.getSecondaryOrgIds()),
+            List.copyOf(params.getGroupIds()),
+            List.copyOf(params.getOrgAsGroupIds())
+        );
+    }
+
+    /**
+     * Immutable snapshot of a user's feed inputs.
+     *
+     * @param params          org/group parameters for the active filter
+     * @param blockedUserIds  mutually blocked users (empty if none)
+     * @param followingIds    users this user follows (empty if none)
+     */
+    public record FeedContext(
+        FeedPreference.FeedFilter activeFilter,
+        FeedFilterService.FeedParameters params,
+        List<UUID> blockedUserIds,
+        List<UUID> followingIds
+    ) {
+
+        /**
+         * Blocked IDs in the shape the feed queries expect (null instead of an empty list).
+         */
+        public List<UUID> blockedIdsOrNull() {
+            return blockedUserIds.isEmpty() ? null : blockedUserIds;
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.churchapp.service;
 
 import com.churchapp.entity.FeedPreference;
 import com.churchapp.entity.User;
+import com.churchapp.event.FeedContextChangedEvent;
 import com.churchapp.repository.FeedPreferenceRepository;
 import com.churchapp.repository.UserGroupMembershipRepository;
 import com.churchapp.repository.UserOrganizationMembershipRepository;
 import com.churchapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +30,7 @@ public class FeedFilterService {
     private final UserGroupMembershipRepository groupMembershipRepository;
     private final UserRepository userRepository;
     private final OrganizationGroupService organizationGroupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final UUID GLOBAL_ORG_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
 
@@ -89,6 +92,7 @@ public class FeedFilterService {
             
             log.info("✅ Saved feed preference for user {}: filter={}, selectedOrgId={}, selectedGroupIds={}", 
                 userId, saved.getActiveFilter(), saved.getSelectedOrganizationId(), saved.getSelectedGroupIds());
+            eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "feed preference changed"));
 
             return saved;
         } catch (Exception e) {
@@ -7,16 +7,13 @@ import com.churchapp.service.UserBlockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -27,6 +24,8 @@ public class FeedService {
     private final PostRepository postRepository;
     private final UserFollowRepository userFollowRepository;
     private final UserBlockService userBlockService;
+    private final PostSearchIndex postSearchIndex;
+    private final FeedStatsCounters feedStatsCounters;
 
     public enum FeedType {
         CHRONOLOGICAL,  // Most recent posts first
@@ -199,50 +198,13 @@ public class FeedService {
      * Shows anonymous posts only to their author (currentUserId)
      */
     public Page<Post> searchPosts(String query, Post.PostType postType, UUID currentUserId, Pageable pageable) {
-        log.info("🔍 FeedService.searchPosts called with query: '{}', postType: '{}', currentUserId: '{}', pageable: {}", query, postType, currentUserId, pageable);
-        
-        // Search by content, author name, category, and location
-        // Shows anonymous posts only to their author (currentUserId)
-        Page<Post> contentResults = postRepository.findByContentContaining(query, postType, currentUserId, pageable);
-        log.info("📝 Content search found {} posts (total: {})", contentResults.getContent().size(), contentResults.getTotalElements());
-        
-        // Search by hashtags
-        // Shows anonymous posts only to their author (currentUserId)
-        Page<Post> hashtagResults = postRepository.findByHashtagContaining(query, postType, currentUserId, pageable);
-        log.info("🏷️ Hashtag search found {} posts (total: {})", hashtagResults.getContent().size(), hashtagResults.getTotalElements());
-        
-        // Combine results (avoid duplicates)
-        Set<UUID> seenIds = new HashSet<>();
-        List<Post> combinedResults = new ArrayList<>();
-        
-        // Add content results
-        for (Post post : contentResults.getContent()) {
-            if (!seenIds.contains(post.getId())) {
-                combinedResults.add(post);
-                seenIds.add(post.getId());
-            }
-        }
-        
-        // Add hashtag results
-        for (Post post : hashtagResults.getContent()) {
-            if (!seenIds.contains(post.getId())) {
-                combinedResults.add(post);
-                seenIds.add(post.getId());
-            }
-        }
-        
-        // Sort by creation date (most recent first)
-        combinedResults.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
-        
-        // Create a new Page with combined results
-        Page<Post> finalResults = new PageImpl<>(combinedResults, pageable, seenIds.size());
-        
-        log.info("✅ Final combined search found {} posts", finalResults.getContent().size());
-        if (!finalResults.getContent().isEmpty()) {
-            log.info("📝 First post content preview: {}", finalResults.getContent().get(0).getContent().substring(0, Math.min(100, finalResults.getContent().get(0).getContent().length())));
-        }
-        
-        return finalResults;
+        log.debug("🔍 FeedService.searchPosts called with query: '{}', postType: '{}', currentUserId: '{}', pageable: {}", query, postType, currentUserId, pageable);
+
+        // One ranked, paginated query (content, hashtags, author name, category, location)
+        Page<Post> results = postSearchIndex.search(query, postType, currentUserId, pageable);
+
+        log.debug("✅ Search found {} posts (total: {})", results.getNumberOfElements(), results.getTotalElements());
+        return results;
     }
 
     /**
@@ -284,18 +246,10 @@ public class FeedService {
     }
 
     /**
-     * Get feed statistics
+     * Get feed statistics from the rolling counters
      */
     public FeedStats getFeedStats() {
-        long totalPosts = postRepository.count();
-        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
-        // Pass null for blockedUserIds and currentUserId since this is general stats (shows only non-anonymous posts)
-        long postsLast24Hours = postRepository.findMainPostsForFeed(null, null, PageRequest.of(0, Integer.MAX_VALUE))
-            .getContent().stream()
-            .filter(post -> post.getCreatedAt().isAfter(yesterday))
-            .count();
-
-        return new FeedStats(totalPosts, postsLast24Hours);
+        return feedStatsCounters.getStats();
     }
 
     /**
@@ -304,13 +258,21 @@ public class FeedService {
     public static class FeedStats {
         private final long totalPosts;
         private final long postsLast24Hours;
+        private final Map<UUID, Long> postsLast24HoursByOrganization;
+        private final Map<Post.PostType, Long> postsLast24HoursByType;
 
-        public FeedStats(long totalPosts, long postsLast24Hours) {
+        public FeedStats(long totalPosts, long postsLast24Hours,
+                         Map<UUID, Long> postsLast24HoursByOrganization,
+                         Map<Post.PostType, Long> postsLast24HoursByType) {
             this.totalPosts = totalPosts;
             this.postsLast24Hours = postsLast24Hours;
+            this.postsLast24HoursByOrganization = postsLast24HoursByOrganization;
+            this.postsLast24HoursByType = postsLast24HoursByType;
         }
 
         public long getTotalPosts() { return totalPosts; }
         public long getPostsLast24Hours() { return postsLast24Hours; }
+        public Map<UUID, Long> getPostsLast24HoursByOrganization() { return postsLast24HoursByOrganization; }
+        public Map<Post.PostType, Long> getPostsLast24HoursByType() { return postsLast24HoursByType; }
     }
 }
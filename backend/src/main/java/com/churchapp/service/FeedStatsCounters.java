@@ -0,0 +1,260 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.Post;
+import com.churchapp.repository.PostRepository;
+import com.churchapp.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rolling post counters behind GET /posts/stats/feed.
+ *
+ * Main-feed posts (not replies, not anonymous, not hidden) are counted into a ring of time buckets,
+ * feed.stats.bucket-minutes wide and covering the last 24 hours, each with per-organization and
+ * per-type breakdowns; a running total covers all posts. PostService records creates and deletes
+ * once their transaction commits, so reading the stats is a sum over the ring instead of a query.
+ *
+ * Writes from other instances, moderation hides and cascaded deletes are not seen here, so the ring
+ * and the total are rebuilt from one grouped COUNT over idx_posts_created_at every
+ * feed.stats.resync-interval-ms. Until a rebuild has succeeded, or when rebuilds keep failing, the
+ * stats come straight from SQL COUNTs instead.
+ */
+@Service
+@Slf4j
+public class FeedStatsCounters {
+
+    private static final Duration WINDOW = Duration.ofHours(24);
+    private static final Post.PostType[] POST_TYPES = Post.PostType.values();
+
+    // A ring older than this many resync intervals is no longer trusted
+    private static final int MAX_MISSED_RESYNCS = 3;
+
+    private final PostRepository postRepository;
+
+    @Value("${feed.stats.bucket-minutes:5}")
+    private int bucketMinutes;
+
+    @Value("${feed.stats.resync-interval-ms:300000}")
+    private long resyncIntervalMs;
+
+    private volatile Ring ring;
+
+    public FeedStatsCounters(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    public void postCreated(Post post) {
+        PostKey key = PostKey.of(post);
+        // Rolled-back posts must not be counted
+        TransactionUtil.afterCommit(() -> apply(key, 1));
+    }
+
+    /**
+     * Call before the post is deleted, while its fields are still loaded
+     */
+    public void postDeleted(Post post) {
+        PostKey key = PostKey.of(post);
+        TransactionUtil.afterCommit(() -> apply(key, -1));
+    }
+
+    public FeedService.FeedStats getStats() {
+        Ring current = ring;
+        if (current == null || System.currentTimeMillis() - current.builtAt > MAX_MISSED_RESYNCS * resyncIntervalMs) {
+            current = rebuild();
+        }
+        if (current == null) {
+            return countFromDatabase();
+        }
+        return current.stats(currentSlot(current.bucketSeconds));
+    }
+
+    /**
+     * Rebuild the ring and the total from the database.
+     * Changes committed between the COUNT and the swap are picked up by the next rebuild.
+     */
+    @Scheduled(initialDelayString = "${feed.stats.resync-initial-delay-ms:30000}",
+               fixedDelayString = "${feed.stats.resync-interval-ms:300000}")
+    public void resync() {
+        rebuild();
+    }
+
+    /**
+     * @return the new ring, or null if the rebuild failed
+     */
+    private synchronized Ring rebuild() {
+        long bucketSeconds = Math.max(1, bucketMinutes) * 60L;
+        long nowSlot = currentSlot(bucketSeconds);
+        Ring rebuilt = new Ring(bucketSeconds);
+        LocalDateTime since = LocalDateTime.ofEpochSecond(rebuilt.oldestSlot(nowSlot) * bucketSeconds, 0, ZoneOffset.UTC);
+        try {
+            for (Object[] row : postRepository.countMainPostsByBucketSince(since, bucketSeconds)) {
+                long slot = ((Number) row[0]).longValue();
+                UUID organizationId = (UUID) row[1];
+                Post.PostType postType = parsePostType((String) row[2]);
+                long count = ((Number) row[3]).longValue();
+                Bucket bucket = rebuilt.bucketFor(slot, nowSlot);
+                if (bucket != null) {
+                    bucket.add(organizationId, postType, count);
+                }
+            }
+            rebuilt.total.add(postRepository.count());
+        } catch (Exception e) {
+            log.warn("Failed to rebuild feed stats counters: {}", e.getMessage());
+            return null;
+        }
+        ring = rebuilt;
+        log.debug("Rebuilt feed stats counters from posts created since {}", since);
+        return rebuilt;
+    }
+
+    private void apply(PostKey key, long delta) {
+        Ring current = ring;
+        if (current == null) {
+            // Not seeded yet: the first rebuild will count this post
+            return;
+        }
+        current.total.add(delta);
+        if (key.mainFeed) {
+            Bucket bucket = current.bucketFor(key.createdAtEpochSecond / current.bucketSeconds,
+                    currentSlot(current.bucketSeconds));
+            if (bucket != null) {
+                bucket.add(key.organizationId, key.postType, delta);
+            }
+        }
+    }
+
+    private FeedService.FeedStats countFromDatabase() {
+        long totalPosts = postRepository.count();
+        long postsLast24Hours = postRepository.countMainPostsCreatedSince(LocalDateTime.now().minus(WINDOW));
+        return new FeedService.FeedStats(totalPosts, postsLast24Hours, Map.of(), Map.of());
+    }
+
+    private static long currentSlot(long bucketSeconds) {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC) / bucketSeconds;
+    }
+
+    private static Post.PostType parsePostType(String value) {
+        try {
+            return value != null ? Post.PostType.valueOf(value) : Post.PostType.GENERAL;
+        } catch (IllegalArgumentException e) {
+            return Post.PostType.GENERAL;
+        }
+    }
+
+    /**
+     * The fields of a post the counters need, captured when the event is recorded
+     */
+    private record PostKey(boolean mainFeed, long createdAtEpochSecond, UUID organizationId, Post.PostType postType) {
+        static PostKey of(Post post) {
+            boolean mainFeed = !Boolean.TRUE.equals(post.getIsReply())
+                    && !Boolean.TRUE.equals(post.getIsAnonymous())
+                    && !Boolean.TRUE.equals(post.getIsHidden());
+            LocalDateTime createdAt = post.getCreatedAt() != null ? post.getCreatedAt() : LocalDateTime.now();
+            UUID organizationId = post.getOrganization() != null ? post.getOrganization().getId() : null;
+            Post.PostType postType = post.getPostType() != null ? post.getPostType() : Post.PostType.GENERAL;
+            return new PostKey(mainFeed, createdAt.toEpochSecond(ZoneOffset.UTC), organizationId, postType);
+        }
+    }
+
+    /**
+     * Buckets for the last 24 hours, indexed by slot (epoch second / bucket width) modulo the ring size.
+     * A slot's bucket is claimed with a CAS when the first post lands in it, replacing whatever bucket
+     * from a full window ago was still there.
+     */
+    private static final class Ring {
+        private final long bucketSeconds;
+        private final int window;
+        private final AtomicReferenceArray<Bucket> buckets;
+        private final LongAdder total = new LongAdder();
+        private final long builtAt = System.currentTimeMillis();
+
+        private Ring(long bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+            this.window = (int) Math.ceil((double) WINDOW.toSeconds() / bucketSeconds);
+            // One spare slot so a post landing just after the clock ticks over can't clobber a live bucket
+            this.buckets = new AtomicReferenceArray<>(window + 1);
+        }
+
+        private long oldestSlot(long nowSlot) {
+            return nowSlot - window + 1;
+        }
+
+        /**
+         * @return the bucket for a slot, or null if the slot is outside the window
+         */
+        private Bucket bucketFor(long slot, long nowSlot) {
+            if (slot < oldestSlot(nowSlot)) {
+                return null;
+            }
+            int index = (int) Math.floorMod(slot, (long) buckets.length());
+            while (true) {
+                Bucket existing = buckets.get(index);
+                if (existing != null && existing.slot == slot) {
+                    return existing;
+                }
+                if (existing != null && existing.slot > slot) {
+                    return null;
+                }
+                Bucket fresh = new Bucket(slot);
+                if (buckets.compareAndSet(index, existing, fresh)) {
+                    return fresh;
+                }
+            }
+        }
+
+        private FeedService.FeedStats stats(long nowSlot) {
+            long oldest = oldestSlot(nowSlot);
+            long postsLast24Hours = 0;
+            Map<UUID, Long> byOrganization = new HashMap<>();
+            Map<Post.PostType, Long> byType = new EnumMap<>(Post.PostType.class);
+            for (int i = 0; i < buckets.length(); i++) {
+                Bucket bucket = buckets.get(i);
+                if (bucket == null || bucket.slot < oldest || bucket.slot > nowSlot) {
+                    continue;
+                }
+                postsLast24Hours += bucket.posts.sum();
+                bucket.byOrganization.forEach((organizationId, count) ->
+                        byOrganization.merge(organizationId, count.sum(), Long::sum));
+                for (Post.PostType postType : POST_TYPES) {
+                    byType.merge(postType, bucket.byType[postType.ordinal()].sum(), Long::sum);
+                }
+            }
+            byOrganization.values().removeIf(count -> count <= 0);
+            byType.values().removeIf(count -> count <= 0);
+            return new FeedService.FeedStats(Math.max(0, total.sum()), Math.max(0, postsLast24Hours),
+                    byOrganization, byType);
+        }
+    }
+
+    private static final class Bucket {
+        private final long slot;
+        private final LongAdder posts = new LongAdder();
+        private final Map<UUID, LongAdder> byOrganization = new ConcurrentHashMap<>();
+        private final LongAdder[] byType = new LongAdder[POST_TYPES.length];
+
+        private Bucket(long slot) {
+            this.slot = slot;
+            for (int i = 0; i < byType.length; i++) {
+                byType[i] = new LongAdder();
+            }
+        }
+
+        private void add(UUID organizationId, Post.PostType postType, long delta) {
+            posts.add(delta);
+            if (organizationId != null) {
+                byOrganization.computeIfAbsent(organizationId, id -> new LongAdder()).add(delta);
+            }
+            byType[postType.ordinal()].add(delta);
+        }
+    }
+}
@@ -3,149 +3,164 @@ package com.churchapp.service;
 import com.churchapp.dto.ProcessingStatus;
 import com.churchapp.entity.MediaFile;
 import com.churchapp.repository.MediaFileRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for cleaning up original media files after processing
  * Implements the Facebook/X approach: keep originals temporarily, then delete after processing completes
+ *
+ * Originals ready for cleanup are paged by keyset on (processingCompletedAt, id) in batches of
+ * media.cleanup.batch-size, with protected folders excluded in the query. Each batch is handed to
+ * the mediaCleanupExecutor, deletes its originals with one multi-object DeleteObjects request and
+ * stamps the deleted ones with a single UPDATE, so a run only ever visits originals still in S3.
+ * Originals whose delete failed stay unstamped and are retried by the next run.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class FileCleanupService {
-    
-    private final S3Client s3Client;
+
+    // CRITICAL: Final images that are never compressed and must NEVER be deleted by cleanup:
+    // - banner-images / banners: User banner images (both folder names are used by the frontend)
+    // - profile-pictures: User profile pictures
+    // - organizations/logos: Organization logos
+    // - prayer-requests: Prayer request images
+    // These folders should never have MediaFile records in the first place (see
+    // FileUploadService.handleUploadCompletion); the query excludes them as a second safety net.
+    private static final List<String> PROTECTED_FOLDERS = List.of(
+        "banner-images", "banners", "profile-pictures", "organizations/logos", "prayer-requests");
+
     private final MediaFileRepository mediaFileRepository;
-    
-    @Value("${aws.s3.bucket-name}")
-    private String bucketName;
-    
-    @Value("${aws.region}")
-    private String region;
-    
+    private final S3BatchDeleteService s3BatchDeleteService;
+    private final Executor cleanupExecutor;
+
+    private final Counter deletedCounter;
+    private final Counter failedCounter;
+    private final Timer runTimer;
+    private final AtomicLong lastRunThroughput = new AtomicLong();
+
     @Value("${media.cleanup.original-retention-hours:24}")
     private int retentionHours;
-    
+
     @Value("${media.cleanup.enabled:true}")
     private boolean cleanupEnabled;
-    
+
+    // Originals per batch; one DeleteObjects request (max 1000 keys) per batch
+    @Value("${media.cleanup.batch-size:1000}")
+    private int batchSize;
+
+    public FileCleanupService(MediaFileRepository mediaFileRepository,
+                              S3BatchDeleteService s3BatchDeleteService,
+                              @Qualifier("mediaCleanupExecutor") Executor cleanupExecutor,
+                              MeterRegistry meterRegistry) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.s3BatchDeleteService = s3BatchDeleteService;
+        this.cleanupExecutor = cleanupExecutor;
+        this.deletedCounter = Counter.builder("media.cleanup.originals.deleted").register(meterRegistry);
+        this.failedCounter = Counter.builder("media.cleanup.originals.failed").register(meterRegistry);
+        this.runTimer = Timer.builder("media.cleanup.run.duration").register(meterRegistry);
+        Gauge.builder("media.cleanup.last-run.throughput", lastRunThroughput, AtomicLong::get)
+                .baseUnit("originals/s")
+                .register(meterRegistry);
+    }
+
     /**
      * Clean up original files that have been processed and are older than retention period
      * This is called by the scheduled job
+     *
+     * @return number of originals deleted
      */
-    @Transactional
-    public void cleanupProcessedOriginals() {
+    public synchronized int cleanupProcessedOriginals() {
         if (!cleanupEnabled) {
             log.debug("File cleanup is disabled");
-            return;
+            return 0;
         }
-        
-        try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusHours(retentionHours);
-            List<MediaFile> filesToCleanup = mediaFileRepository.findReadyForCleanup(
-                ProcessingStatus.COMPLETED, 
-                cutoffTime
-            );
-            
-            // CRITICAL: Filter out final images that should NEVER be deleted by cleanup
-            // Only delete original files that have been processed/compressed (posts, chat-media, etc.)
-            // DO NOT delete:
-            // - banner-images: User banner images (final, never compressed)
-            // - banners: User banner images (alternative folder name used by frontend, final, never compressed)
-            // - profile-pictures: User profile pictures (final, never compressed)
-            // - organizations/logos: Organization logos (final, never compressed)
-            // - prayer-requests: Prayer request images (final, never compressed)
-            // 
-            // NOTE: This is a DOUBLE safety check - these folders should never have MediaFile records
-            // created in the first place (see FileUploadService.handleUploadCompletion), but we check
-            // here as well to be absolutely safe.
-            filesToCleanup = filesToCleanup.stream()
-                .filter(mf -> !mf.getFolder().equals("banner-images") && 
-                             !mf.getFolder().equals("banners") &&
-                             !mf.getFolder().equals("profile-pictures") &&
-                             !mf.getFolder().equals("organizations/logos") &&
-                             !mf.getFolder().equals("prayer-requests"))
-                .collect(Collectors.toList());
-            
-            // Additional safety: Log any final image folders that somehow got through
-            // This should never happen, but helps with debugging if it does
-            if (filesToCleanup.stream().anyMatch(mf -> 
-                mf.getFolder().equals("banner-images") || 
-                mf.getFolder().equals("banners") ||
-                mf.getFolder().equals("profile-pictures"))) {
-                log.error("⚠️ CRITICAL: Found MediaFile records for final images that should never exist! " +
-                         "This indicates a bug in FileUploadService.handleUploadCompletion or uploadFile.");
-            }
-            
-            log.info("Found {} original files ready for cleanup (older than {} hours)", 
-                    filesToCleanup.size(), retentionHours);
-            
-            int deletedCount = 0;
-            int errorCount = 0;
-            
-            for (MediaFile mediaFile : filesToCleanup) {
-                try {
-                    deleteOriginalFile(mediaFile);
-                    deletedCount++;
-                } catch (Exception e) {
-                    log.error("Error deleting original file: {}", mediaFile.getOriginalUrl(), e);
-                    errorCount++;
-                }
+
+        long started = System.nanoTime();
+        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(retentionHours);
+        AtomicInteger deleted = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+
+        List<Object[]> page;
+        Object[] last = null;
+        do {
+            PageRequest pageRequest = PageRequest.of(0, batchSize);
+            page = last == null
+                    ? mediaFileRepository.findCleanupBatch(ProcessingStatus.COMPLETED, cutoffTime,
+                            PROTECTED_FOLDERS, pageRequest)
+                    : mediaFileRepository.findCleanupBatchAfter(ProcessingStatus.COMPLETED, cutoffTime,
+                            PROTECTED_FOLDERS, (LocalDateTime) last[1], (UUID) last[0], pageRequest);
+            if (page.isEmpty()) {
+                break;
             }
-            
-            log.info("Cleanup completed: {} deleted, {} errors", deletedCount, errorCount);
-            
-        } catch (Exception e) {
-            log.error("Error during file cleanup", e);
-        }
+            last = page.get(page.size() - 1);
+
+            List<Object[]> batch = page;
+            batches.add(CompletableFuture
+                    .runAsync(() -> cleanupBatch(batch, deleted, failed), cleanupExecutor)
+                    .exceptionally(e -> {
+                        log.error("Error cleaning up a batch of {} original files", batch.size(), e);
+                        failed.addAndGet(batch.size());
+                        failedCounter.increment(batch.size());
+                        return null;
+                    }));
+        } while (page.size() == batchSize);
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+
+        long elapsed = System.nanoTime() - started;
+        runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        lastRunThroughput.set(deleted.get() * 1000L / elapsedMs);
+        log.info("Cleanup completed: {} deleted, {} errors in {} batches, {} ms ({} originals/s)",
+                deleted.get(), failed.get(), batches.size(), elapsedMs, lastRunThroughput.get());
+        return deleted.get();
     }
-    
+
     /**
-     * Delete original file from S3
-     * Only deletes if optimized version exists and processing is completed
+     * Delete one batch of originals from S3 and record which ones are gone
      */
-    @Transactional
-    public void deleteOriginalFile(MediaFile mediaFile) {
-        if (mediaFile.getOptimizedUrl() == null) {
-            log.warn("Cannot delete original file {} - no optimized version exists", 
-                    mediaFile.getOriginalUrl());
-            return;
+    private void cleanupBatch(List<Object[]> batch, AtomicInteger deleted, AtomicInteger failed) {
+        Map<UUID, String> originalKeys = new LinkedHashMap<>();
+        for (Object[] row : batch) {
+            originalKeys.put((UUID) row[0], (String) row[2]);
         }
-        
-        if (mediaFile.getProcessingStatus() != ProcessingStatus.COMPLETED) {
-            log.warn("Cannot delete original file {} - processing not completed (status: {})", 
-                    mediaFile.getOriginalUrl(), mediaFile.getProcessingStatus());
-            return;
-        }
-        
-        try {
-            String key = extractKeyFromUrl(mediaFile.getOriginalUrl());
-            
-            DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
-            
-            s3Client.deleteObject(deleteRequest);
-            
-            log.debug("Deleted original file from S3: {}", mediaFile.getOriginalUrl());
-            
-        } catch (Exception e) {
-            log.error("Failed to delete original file from S3: {}", mediaFile.getOriginalUrl(), e);
-            throw e;
+
+        Set<String> failedKeys = s3BatchDeleteService.deleteObjects(new ArrayList<>(originalKeys.values()));
+        List<UUID> deletedIds = new ArrayList<>(originalKeys.size());
+        originalKeys.forEach((id, key) -> {
+            if (!failedKeys.contains(key)) {
+                deletedIds.add(id);
+            }
+        });
+
+        if (!deletedIds.isEmpty()) {
+            mediaFileRepository.markOriginalsDeleted(deletedIds, LocalDateTime.now());
         }
+        int batchFailed = originalKeys.size() - deletedIds.size();
+        deleted.addAndGet(deletedIds.size());
+        failed.addAndGet(batchFailed);
+        deletedCounter.increment(deletedIds.size());
+        failedCounter.increment(batchFailed);
+        log.debug("Cleanup batch: {} originals deleted, {} failed", deletedIds.size(), batchFailed);
     }
-    
+
     /**
      * Clean up failed processing jobs that can be retried
      * This can be called manually or scheduled separately
@@ -168,38 +183,4 @@ public class FileCleanupService {
                     mediaFile.getMaxRetries());
         }
     }
-    
-    /**
-     * Extract S3 key from full URL (handles both S3 and CloudFront URLs)
-     */
-    private String extractKeyFromUrl(String fileUrl) {
-        if (fileUrl == null || fileUrl.isEmpty()) {
-            throw new IllegalArgumentException("Invalid file URL: " + fileUrl);
-        }
-        
-        // Handle CloudFront URLs: https://d3loytcgioxpml.cloudfront.net/posts/originals/file.webm
-        if (fileUrl.contains("cloudfront.net")) {
-            // Extract everything after the domain
-            int domainEnd = fileUrl.indexOf(".net/");
-            if (domainEnd > 0) {
-                return fileUrl.substring(domainEnd + 5); // +5 to skip ".net/"
-            }
-        }
-        
-        // Handle S3 URLs: https://bucket.s3.region.amazonaws.com/key
-        if (fileUrl.contains(bucketName)) {
-            String urlPattern = String.format("https://%s.s3.%s.amazonaws.com/", bucketName, region);
-            if (fileUrl.startsWith(urlPattern)) {
-                return fileUrl.substring(urlPattern.length());
-            }
-            // Try alternative S3 URL format
-            String altPattern = String.format("https://%s.s3-%s.amazonaws.com/", bucketName, region);
-            if (fileUrl.startsWith(altPattern)) {
-                return fileUrl.substring(altPattern.length());
-            }
-        }
-        
-        throw new IllegalArgumentException("URL format not recognized: " + fileUrl);
-    }
 }
-
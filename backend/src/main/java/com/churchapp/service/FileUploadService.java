@@ -1,14 +1,17 @@
 package com.churchapp.service;
 
+import com.churchapp.dto.ImageProcessingResult;
 import com.churchapp.dto.ProcessingStatus;
 import com.churchapp.entity.MediaFile;
 import com.churchapp.repository.MediaFileRepository;
 import com.churchapp.util.InMemoryMultipartFile;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -16,6 +19,7 @@ import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -28,8 +32,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.concurrent.Executor;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -40,22 +47,25 @@ public class FileUploadService {
     private final S3Presigner s3Presigner;
     private final ImageProcessingService imageProcessingService;
     private final MediaConvertVideoService mediaConvertVideoService;
-    private final Executor mediaProcessingExecutor;
+    private final MediaJobScheduler mediaJobScheduler;
     private final MediaFileRepository mediaFileRepository;
+    private final StorageLedgerService storageLedgerService;
     
     public FileUploadService(
             S3Client s3Client,
             S3Presigner s3Presigner,
             ImageProcessingService imageProcessingService,
             MediaConvertVideoService mediaConvertVideoService,
-            @Qualifier("mediaProcessingExecutor") Executor mediaProcessingExecutor,
-            MediaFileRepository mediaFileRepository) {
+            MediaJobScheduler mediaJobScheduler,
+            MediaFileRepository mediaFileRepository,
+            StorageLedgerService storageLedgerService) {
         this.s3Client = s3Client;
         this.s3Presigner = s3Presigner;
         this.imageProcessingService = imageProcessingService;
         this.mediaConvertVideoService = mediaConvertVideoService;
-        this.mediaProcessingExecutor = mediaProcessingExecutor;
+        this.mediaJobScheduler = mediaJobScheduler;
         this.mediaFileRepository = mediaFileRepository;
+        this.storageLedgerService = storageLedgerService;
     }
     
     @Value("${aws.s3.bucket-name}")
@@ -67,6 +77,15 @@ public class FileUploadService {
     @Value("${aws.cloudfront.distribution-url:}")
     private String cloudFrontDistributionUrl;
     
+    @Value("${media.processing.recovery.pending-grace-seconds:300}")
+    private long pendingGraceSeconds;
+    
+    @Value("${media.processing.recovery.processing-timeout-minutes:30}")
+    private long processingTimeoutMinutes;
+    
+    @Value("${media.processing.recovery.batch-size:100}")
+    private int recoveryBatchSize;
+    
     @Value("${media.processing.async.enabled:true}")
     private boolean asyncProcessingEnabled;
     
@@ -215,6 +234,7 @@ public class FileUploadService {
         
         s3Client.putObject(putObjectRequest, 
                 RequestBody.fromInputStream(new ByteArrayInputStream(fileBytes), fileBytes.length));
+        updateLedger(() -> storageLedgerService.recordUpload(key, fileBytes.length));
         
         return generateAccessibleUrl(key);
     }
@@ -240,30 +260,22 @@ public class FileUploadService {
      * Process image asynchronously
      */
     private void processImageAsync(MultipartFile file, MediaFile mediaFile) {
-        mediaProcessingExecutor.execute(() -> {
+        // The queued job holds the upload in memory until it runs
+        long memoryBytes = file.getSize() + imageProcessingService.estimateDecodeBytes(file);
+        submitJob(mediaFile, memoryBytes, file.getSize(), () -> {
             try {
                 log.info("Starting async image processing for: {}", mediaFile.getOriginalUrl());
                 
                 // Mark as processing
-                updateMediaFileStatus(mediaFile.getId(), ProcessingStatus.PROCESSING);
+                if (!claimMediaFile(mediaFile.getId())) {
+                    return;
+                }
                 
                 // Process image (file is already in memory)
                 var result = imageProcessingService.processImage(file);
                 
-                // Upload optimized version
-                String optimizedKey = "media/" + mediaFile.getFolder() + "/optimized/" + UUID.randomUUID() + ".jpg";
-                uploadProcessedFile(result.getProcessedImageData(), optimizedKey, "image/jpeg");
-                
-                String optimizedUrl = generateAccessibleUrl(optimizedKey);
-                double compressionRatio = result.getCompressionRatio();
-                int reductionPercent = compressionRatio > 0 && compressionRatio <= 1.0 
-                    ? (int) Math.round((1 - compressionRatio) * 100) 
-                    : 0;
-                log.info("Image processing completed: {} -> {} ({}% reduction)",
-                        mediaFile.getOriginalUrl(), optimizedUrl, reductionPercent);
-                
-                // Update MediaFile with optimized URL and mark as completed
-                markMediaFileCompleted(mediaFile.getId(), optimizedUrl, result.getProcessedImageData().length);
+                // Upload optimized version and its smaller renditions
+                storeProcessedImage(result, mediaFile);
                 
             } catch (Exception e) {
                 log.error("Error processing image: {}", mediaFile.getOriginalUrl(), e);
@@ -277,12 +289,15 @@ public class FileUploadService {
      * Process video asynchronously
      */
     private void processVideoAsync(MultipartFile file, MediaFile mediaFile) {
-        mediaProcessingExecutor.execute(() -> {
+        // Transcoding happens in MediaConvert from the S3 original, so the job holds no memory
+        submitJob(mediaFile, 0L, 0L, () -> {
             try {
                 log.info("Starting MediaConvert job for video: {}", mediaFile.getOriginalUrl());
                 
                 // Mark as processing
-                updateMediaFileStatus(mediaFile.getId(), ProcessingStatus.PROCESSING);
+                if (!claimMediaFile(mediaFile.getId())) {
+                    return;
+                }
                 
                 // Extract S3 key from original URL
                 String s3Key = extractS3KeyFromUrl(mediaFile.getOriginalUrl());
@@ -322,14 +337,95 @@ public class FileUploadService {
     }
     
     /**
-     * Update MediaFile processing status
+     * Hand a processing job to the MediaJobScheduler once the MediaFile row is committed.
+     * A refused job is not lost: the MediaFile stays PENDING and resumeStalledProcessing
+     * picks it up from the original in S3.
      */
-    @Transactional
-    private void updateMediaFileStatus(UUID mediaFileId, ProcessingStatus status) {
-        mediaFileRepository.findById(mediaFileId).ifPresent(mediaFile -> {
-            mediaFile.markProcessingStarted();
-            mediaFileRepository.save(mediaFile);
-        });
+    private void submitJob(MediaFile mediaFile, long memoryBytes, long payloadBytes, Runnable job) {
+        Runnable submit = () -> {
+            boolean queued = mediaJobScheduler.submit(mediaFile.getId(),
+                    MediaJobScheduler.priorityFor(mediaFile.getFolder()), memoryBytes, payloadBytes, job);
+            if (!queued) {
+                log.info("Processing for {} not queued now; it will be resumed from S3", mediaFile.getOriginalUrl());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+    
+    /**
+     * Move a MediaFile from PENDING to PROCESSING.
+     * Returns false if it was already claimed, e.g. by a duplicate job on another instance.
+     */
+    private boolean claimMediaFile(UUID mediaFileId) {
+        int claimed = mediaFileRepository.claimForProcessing(
+                mediaFileId, ProcessingStatus.PENDING, ProcessingStatus.PROCESSING, LocalDateTime.now());
+        if (claimed == 0) {
+            log.info("MediaFile {} is no longer pending, skipping duplicate processing job", mediaFileId);
+        }
+        return claimed > 0;
+    }
+    
+    /**
+     * Re-queue media whose processing never started or never finished: jobs the scheduler
+     * refused, jobs queued on an instance that has since restarted, and jobs interrupted
+     * mid-run. Work resumes from the original in S3.
+     *
+     * An interrupted job counts as a failed attempt, so a file that keeps killing its worker
+     * ends up FAILED instead of being retried forever.
+     *
+     * @return number of files re-queued
+     */
+    public int resumeStalledProcessing() {
+        if (!asyncProcessingEnabled) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<MediaFile> stalled = mediaFileRepository.findStalledProcessing(
+                ProcessingStatus.PENDING, now.minusSeconds(pendingGraceSeconds),
+                ProcessingStatus.PROCESSING, now.minusMinutes(processingTimeoutMinutes),
+                PageRequest.of(0, recoveryBatchSize));
+        
+        int resumed = 0;
+        for (MediaFile mediaFile : stalled) {
+            if (mediaJobScheduler.isScheduled(mediaFile.getId())) {
+                continue;
+            }
+            if (mediaFile.getProcessingStatus() == ProcessingStatus.PROCESSING) {
+                mediaFile.markProcessingFailed("Processing was interrupted");
+                if (!mediaFile.canRetry()) {
+                    mediaFileRepository.save(mediaFile);
+                    log.warn("Giving up on {} after {} interrupted attempts", mediaFile.getOriginalUrl(),
+                            mediaFile.getRetryCount());
+                    continue;
+                }
+                mediaFile.setProcessingStatus(ProcessingStatus.PENDING);
+                mediaFile = mediaFileRepository.save(mediaFile);
+            }
+            
+            String s3Key = mediaFile.getOriginalKey() != null
+                    ? mediaFile.getOriginalKey()
+                    : extractS3KeyFromUrl(mediaFile.getOriginalUrl());
+            if ("video".equals(mediaFile.getFileType())) {
+                processVideoFromS3Async(s3Key, mediaFile);
+            } else {
+                processImageFromS3Async(s3Key, mediaFile, null);
+            }
+            resumed++;
+        }
+        
+        if (resumed > 0) {
+            log.info("Resumed processing for {} stalled media files", resumed);
+        }
+        return resumed;
     }
     
     /**
@@ -342,8 +438,14 @@ public class FileUploadService {
 
     @Transactional
     private void markMediaFileCompleted(UUID mediaFileId, String optimizedUrl, long optimizedSize, String thumbnailUrl) {
+        markMediaFileCompleted(mediaFileId, optimizedUrl, optimizedSize, thumbnailUrl, null);
+    }
+
+    @Transactional
+    private void markMediaFileCompleted(UUID mediaFileId, String optimizedUrl, long optimizedSize, String thumbnailUrl,
+                                        String feedUrl) {
         mediaFileRepository.findById(mediaFileId).ifPresent(mediaFile -> {
-            mediaFile.markProcessingCompleted(optimizedUrl, optimizedSize, thumbnailUrl);
+            mediaFile.markProcessingCompleted(optimizedUrl, optimizedSize, thumbnailUrl, feedUrl);
             mediaFileRepository.save(mediaFile);
         });
     }
@@ -360,9 +462,50 @@ public class FileUploadService {
     }
     
     /**
-     * Upload processed file to S3
+     * Upload the renditions of a processed image and mark its MediaFile completed
+     * (full -> optimizedUrl, thumbnail -> thumbnailUrl, feed -> feedUrl)
      */
-    private void uploadProcessedFile(byte[] data, String key, String contentType) {
+    private void storeProcessedImage(ImageProcessingResult result, MediaFile mediaFile) {
+        String baseName = UUID.randomUUID().toString();
+        String originalKey = mediaFile.getOriginalKey() != null
+                ? mediaFile.getOriginalKey()
+                : extractS3KeyFromUrl(mediaFile.getOriginalUrl());
+        String optimizedKey = "media/" + mediaFile.getFolder() + "/optimized/" + baseName + ".jpg";
+        uploadProcessedFile(result.getProcessedImageData(), optimizedKey, "image/jpeg", originalKey);
+        String optimizedUrl = generateAccessibleUrl(optimizedKey);
+        
+        String feedUrl = null;
+        ImageProcessingResult.Variant feed = result.getVariant(ImageProcessingResult.Variant.FEED);
+        if (feed != null) {
+            String feedKey = "media/" + mediaFile.getFolder() + "/optimized/" + baseName + "-feed.jpg";
+            uploadProcessedFile(feed.getData(), feedKey, "image/jpeg", originalKey);
+            feedUrl = generateAccessibleUrl(feedKey);
+        }
+        
+        String thumbnailUrl = null;
+        ImageProcessingResult.Variant thumbnail = result.getVariant(ImageProcessingResult.Variant.THUMBNAIL);
+        if (thumbnail != null) {
+            String thumbnailKey = "media/" + mediaFile.getFolder() + "/thumbnails/" + baseName + ".jpg";
+            uploadProcessedFile(thumbnail.getData(), thumbnailKey, "image/jpeg", originalKey);
+            thumbnailUrl = generateAccessibleUrl(thumbnailKey);
+        }
+        
+        double compressionRatio = result.getCompressionRatio();
+        int reductionPercent = compressionRatio > 0 && compressionRatio <= 1.0 
+            ? (int) Math.round((1 - compressionRatio) * 100) 
+            : 0;
+        log.info("Image processing completed: {} -> {} ({}% reduction)",
+                mediaFile.getOriginalUrl(), optimizedUrl, reductionPercent);
+        
+        // Update MediaFile with optimized URLs and mark as completed
+        markMediaFileCompleted(mediaFile.getId(), optimizedUrl, result.getProcessedImageData().length,
+                thumbnailUrl, feedUrl);
+    }
+    
+    /**
+     * Upload processed file to S3, charged in the storage ledger to the same organization as its source
+     */
+    private void uploadProcessedFile(byte[] data, String key, String contentType, String sourceKey) {
         try {
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
@@ -375,6 +518,7 @@ public class FileUploadService {
                     RequestBody.fromInputStream(new ByteArrayInputStream(data), data.length));
             
             log.debug("Processed file uploaded: {}", key);
+            updateLedger(() -> storageLedgerService.recordDerived(sourceKey, key, data.length));
         } catch (Exception e) {
             log.error("Error uploading processed file: {}", key, e);
             throw new RuntimeException("Failed to upload processed file", e);
@@ -392,6 +536,7 @@ public class FileUploadService {
                     .build();
             
             s3Client.deleteObject(deleteObjectRequest);
+            updateLedger(() -> storageLedgerService.recordDeletion(key));
             log.info("File deleted successfully: {}", fileUrl);
             
         } catch (Exception e) {
@@ -400,6 +545,17 @@ public class FileUploadService {
         }
     }
     
+    /**
+     * Storage accounting must never fail an upload or delete; StorageLedgerReconciler repairs any gap
+     */
+    private void updateLedger(Runnable update) {
+        try {
+            update.run();
+        } catch (Exception e) {
+            log.warn("Storage ledger update failed: {}", e.getMessage());
+        }
+    }
+    
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
@@ -816,6 +972,9 @@ public class FileUploadService {
             log.info("✅ Handling upload completion: key={}, url={} (CloudFront configured: {})", 
                     s3Key, fileUrl, cloudFrontDistributionUrl != null && !cloudFrontDistributionUrl.trim().isEmpty());
             
+            // Record the stored size once here, so storage usage never needs a per-file S3 lookup later
+            updateLedger(() -> storageLedgerService.recordUpload(s3Key, storedSize(s3Key, fileSize)));
+            
             boolean isImage = contentType != null && contentType.startsWith("image/");
             boolean isVideo = contentType != null && contentType.startsWith("video/");
             
@@ -878,46 +1037,35 @@ public class FileUploadService {
      * Process image from S3 (downloads, processes, uploads optimized version)
      */
     private void processImageFromS3Async(String s3Key, MediaFile mediaFile, String contentType) {
-        mediaProcessingExecutor.execute(() -> {
+        // The original is spooled to disk, so only the decode is budgeted; its size isn't known until then
+        submitJob(mediaFile, imageProcessingService.maxDecodeBytes(), 0L, () -> {
             try {
                 log.info("Starting async image processing from S3: {}", s3Key);
                 
                 // Mark as processing
-                updateMediaFileStatus(mediaFile.getId(), ProcessingStatus.PROCESSING);
+                if (!claimMediaFile(mediaFile.getId())) {
+                    return;
+                }
                 
-                // Download file from S3
+                // Stream the original from S3 to a temp file instead of holding it in memory
                 GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                         .bucket(bucketName)
                         .key(s3Key)
                         .build();
                 
-                byte[] fileBytes = s3Client.getObjectAsBytes(getObjectRequest).asByteArray();
-                
-                // Create MultipartFile from bytes for processing
-                MultipartFile file = new InMemoryMultipartFile(
-                        mediaFile.getOriginalFilename(),
-                        contentType,
-                        fileBytes
-                );
-                
-                // Process image
-                var result = imageProcessingService.processImage(file);
-                
-                // Upload optimized version
-                String optimizedKey = "media/" + mediaFile.getFolder() + "/optimized/" + UUID.randomUUID() + ".jpg";
-                uploadProcessedFile(result.getProcessedImageData(), optimizedKey, "image/jpeg");
-                
-                String optimizedUrl = generateAccessibleUrl(optimizedKey);
-                double compressionRatio = result.getCompressionRatio();
-                int reductionPercent = compressionRatio > 0 && compressionRatio <= 1.0 
-                    ? (int) Math.round((1 - compressionRatio) * 100) 
-                    : 0;
-                
-                log.info("Image processing completed: {} -> {} ({}% reduction)",
-                        mediaFile.getOriginalUrl(), optimizedUrl, reductionPercent);
-                
-                // Update MediaFile with optimized URL
-                markMediaFileCompleted(mediaFile.getId(), optimizedUrl, result.getProcessedImageData().length);
+                Path tempFile = Files.createTempFile("image-processing-", ".tmp");
+                try {
+                    Files.delete(tempFile); // getObject(..., Path) refuses to overwrite
+                    s3Client.getObject(getObjectRequest, tempFile);
+                    
+                    // Process image
+                    var result = imageProcessingService.processImage(tempFile, mediaFile.getOriginalFilename(), contentType);
+                    
+                    // Upload optimized version and its smaller renditions
+                    storeProcessedImage(result, mediaFile);
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
                 
             } catch (Exception e) {
                 log.error("Error processing image from S3: {}", s3Key, e);
@@ -930,12 +1078,14 @@ public class FileUploadService {
      * Process video from S3 (starts MediaConvert job)
      */
     private void processVideoFromS3Async(String s3Key, MediaFile mediaFile) {
-        mediaProcessingExecutor.execute(() -> {
+        submitJob(mediaFile, 0L, 0L, () -> {
             try {
                 log.info("Starting MediaConvert job for video from S3: {}", s3Key);
                 
                 // Mark as processing
-                updateMediaFileStatus(mediaFile.getId(), ProcessingStatus.PROCESSING);
+                if (!claimMediaFile(mediaFile.getId())) {
+                    return;
+                }
                 
                 // Start MediaConvert job
                 String jobId = mediaConvertVideoService.startVideoProcessingJob(mediaFile, s3Key);
@@ -967,6 +1117,22 @@ public class FileUploadService {
         });
     }
     
+    /**
+     * Size of an object the client uploaded directly; falls back to the size the client declared
+     */
+    private long storedSize(String s3Key, Long declaredSize) {
+        try {
+            return s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(s3Key)
+                    .build())
+                    .contentLength();
+        } catch (Exception e) {
+            log.warn("Could not read size of {} from S3, using declared size: {}", s3Key, e.getMessage());
+            return declaredSize != null ? declaredSize : 0L;
+        }
+    }
+    
     /**
      * Update Cache-Control metadata for video files after upload
      * This is needed for iOS Safari Range request support
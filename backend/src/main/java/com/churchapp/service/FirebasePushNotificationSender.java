@@ -0,0 +1,98 @@
+package com.churchapp.service;
+
+import com.google.firebase.messaging.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Firebase Cloud Messaging implementation of PushNotificationSender.
+ */
+@Component
+@Slf4j
+public class FirebasePushNotificationSender implements PushNotificationSender {
+
+    // Per-token errors meaning the token will never work again and should be removed
+    private static final Set<MessagingErrorCode> INVALID_TOKEN_ERRORS = EnumSet.of(
+        MessagingErrorCode.UNREGISTERED,
+        MessagingErrorCode.INVALID_ARGUMENT,
+        MessagingErrorCode.SENDER_ID_MISMATCH
+    );
+
+    @Override
+    public MulticastResult sendMulticast(List<String> tokens, String title, String body, Map<String, String> data) {
+        if (tokens.size() > MAX_TOKENS_PER_MULTICAST) {
+            throw new IllegalArgumentException("FCM multicast supports at most " + MAX_TOKENS_PER_MULTICAST + " tokens");
+        }
+
+        // DATA-ONLY multicast: title and body are sent in the data payload so the service worker
+        // is the single source of notification display (see NotificationService.sendNotification)
+        MulticastMessage.Builder messageBuilder = MulticastMessage.builder()
+                .addAllTokens(tokens);
+
+        Map<String, String> fullData = new HashMap<>();
+        fullData.put("title", title);
+        fullData.put("body", body);
+        if (data != null) {
+            fullData.putAll(data);
+        }
+        messageBuilder.putAllData(fullData);
+
+        String notificationTag = NotificationService.notificationTag(data);
+
+        messageBuilder.setAndroidConfig(AndroidConfig.builder()
+                .setPriority(AndroidConfig.Priority.HIGH)
+                .setCollapseKey(notificationTag)
+                .build());
+
+        messageBuilder.setApnsConfig(ApnsConfig.builder()
+                .setAps(Aps.builder()
+                        .setContentAvailable(true)
+                        .setSound("default")
+                        .build())
+                .putHeader("apns-collapse-id", notificationTag)
+                .build());
+
+        // Web push requires urgency header for data-only messages
+        messageBuilder.setWebpushConfig(WebpushConfig.builder()
+                .putHeader("Urgency", "high")
+                .build());
+
+        BatchResponse response;
+        try {
+            response = FirebaseMessaging.getInstance().sendEachForMulticast(messageBuilder.build());
+        } catch (FirebaseMessagingException e) {
+            throw new RuntimeException("FCM multicast failed: " + e.getMessage(), e);
+        }
+
+        List<String> invalidTokens = new ArrayList<>();
+        if (response.getFailureCount() > 0) {
+            List<SendResponse> responses = response.getResponses();
+            for (int i = 0; i < responses.size(); i++) {
+                SendResponse sendResponse = responses.get(i);
+                if (sendResponse.isSuccessful()) {
+                    continue;
+                }
+                FirebaseMessagingException error = sendResponse.getException();
+                if (error != null && INVALID_TOKEN_ERRORS.contains(error.getMessagingErrorCode())) {
+                    invalidTokens.add(tokens.get(i));
+                } else {
+                    log.warn("Failed to send to token {}: {}", abbreviate(tokens.get(i)),
+                            error != null ? error.getMessage() : "unknown error");
+                }
+            }
+        }
+
+        return new MulticastResult(response.getSuccessCount(), response.getFailureCount(), invalidTokens);
+    }
+
+    private static String abbreviate(String token) {
+        return token.substring(0, Math.min(10, token.length())) + "...";
+    }
+}
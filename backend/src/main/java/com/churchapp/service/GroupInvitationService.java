@@ -4,11 +4,12 @@ import com.churchapp.dto.GroupInvitationResponse;
 import com.churchapp.dto.GroupInviteLinkResponse;
 import com.churchapp.dto.MembershipResponse;
 import com.churchapp.entity.*;
+import com.churchapp.event.FeedContextChangedEvent;
 import com.churchapp.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,7 +33,8 @@ public class GroupInvitationService {
     private final UserRepository userRepository;
     private final UserGroupMembershipRepository membershipRepository;
     private final NotificationService notificationService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.base-url:https://thegathering.app}")
     private String appBaseUrl;
@@ -335,6 +337,7 @@ public class GroupInvitationService {
         groupRepository.incrementMemberCount(groupId);
 
         log.info("User {} joined group {} via invitation", userId, groupId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "joined group via invitation"));
         return saved;
     }
 
@@ -387,7 +390,7 @@ public class GroupInvitationService {
             wsEvent.put("actionUrl", "/invitations");
 
             // Send to user's personal queue (frontend subscribes to /user/queue/events)
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 invitedUser.getEmail(),
                 "/queue/events",
                 wsEvent
@@ -4,12 +4,14 @@ import com.churchapp.entity.Group;
 import com.churchapp.entity.User;
 import com.churchapp.entity.UserGroupCreationLog;
 import com.churchapp.entity.UserGroupMembership;
+import com.churchapp.event.FeedContextChangedEvent;
 import com.churchapp.repository.GroupRepository;
 import com.churchapp.repository.UserGroupCreationLogRepository;
 import com.churchapp.repository.UserGroupMembershipRepository;
 import com.churchapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -31,6 +33,7 @@ public class GroupService {
     private final UserGroupMembershipRepository membershipRepository;
     private final UserRepository userRepository;
     private final UserGroupCreationLogRepository groupCreationLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int MAX_GROUPS_PER_MONTH = 3;
 
@@ -84,6 +87,7 @@ public class GroupService {
         creatorMembership.setJoinedAt(LocalDateTime.now());
         creatorMembership.setCreatedAt(LocalDateTime.now());
         membershipRepository.save(creatorMembership);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(creatorUserId, "created group"));
 
         log.info("Group created: {} by user {}", saved.getName(), creatorUserId);
         return saved;
@@ -155,6 +159,7 @@ public class GroupService {
         group.setDeletedAt(LocalDateTime.now());
         groupRepository.save(group);
         log.info("Group {} deleted by user {}", groupId, requestingUserId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forAllUsers("group deleted"));
     }
 
     // ========================================================================
@@ -192,6 +197,7 @@ public class GroupService {
         groupRepository.incrementMemberCount(groupId);
 
         log.info("User {} joined group {}", userId, groupId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "joined group"));
         return saved;
     }
 
@@ -211,16 +217,19 @@ public class GroupService {
         groupRepository.decrementMemberCount(groupId);
 
         log.info("User {} left group {}", userId, groupId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "left group"));
     }
 
     public void muteGroup(UUID userId, UUID groupId) {
         membershipRepository.updateMuteStatus(userId, groupId, true);
         log.info("User {} muted group {}", userId, groupId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "muted group"));
     }
 
     public void unmuteGroup(UUID userId, UUID groupId) {
         membershipRepository.updateMuteStatus(userId, groupId, false);
         log.info("User {} unmuted group {}", userId, groupId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "unmuted group"));
     }
 
     // ========================================================================
@@ -359,6 +368,7 @@ public class GroupService {
         
         log.info("Group {} deleted by {} (isPlatformAdmin: {}, isCreator: {})", 
             groupId, requestingUserId, isPlatformAdmin, isCreator);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forAllUsers("group deleted"));
     }
 
     /**
@@ -381,6 +391,7 @@ public class GroupService {
         groupRepository.delete(group);
         
         log.info("Group {} permanently deleted by PLATFORM_ADMIN {}", groupId, requestingUserId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forAllUsers("group deleted"));
     }
 
     /**
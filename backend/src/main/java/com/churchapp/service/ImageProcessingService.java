@@ -1,197 +1,379 @@
 package com.churchapp.service;
 
 import com.churchapp.dto.ImageProcessingResult;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.util.exif.ExifFilterUtils;
+import net.coobird.thumbnailator.util.exif.ExifUtils;
+import net.coobird.thumbnailator.util.exif.Orientation;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
 
 /**
  * Service for processing and optimizing images
  * Implements server-side image compression similar to Facebook/X approach
+ *
+ * Images are streamed through an ImageReader and decoded with source subsampling, so a
+ * 48MP photo is decoded at roughly the size of the largest output instead of at full
+ * resolution. All renditions (full, feed, thumbnail) come from that single decode.
+ *
+ * Decodes are admitted against a memory budget (media.image.decode-budget-mb) rather than
+ * a thread count: many small images run side by side, a few huge ones queue up.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ImageProcessingService {
 
-    @Value("${media.image.max-width:1920}")
-    private int maxWidth;
+    // Decoded pixels are held as 4-byte ints; the EXIF rotation and the first resize each need a second copy
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final int WORKING_COPIES = 2;
 
-    @Value("${media.image.max-height:1920}")
-    private int maxHeight;
+    private final int maxWidth;
+    private final int maxHeight;
+    private final int feedSize;
+    private final int thumbnailSize;
+    private final double jpegQuality;
 
-    @Value("${media.image.jpeg-quality:0.85}")
-    private double jpegQuality;
+    // One permit per KiB of decode memory
+    private final int decodeBudgetKb;
+    private final Semaphore decodeBudget;
 
-    @Value("${media.image.strip-exif:true}")
-    private boolean stripExif;
+    public ImageProcessingService(@Value("${media.image.max-width:1920}") int maxWidth,
+                                  @Value("${media.image.max-height:1920}") int maxHeight,
+                                  @Value("${media.image.feed-size:1080}") int feedSize,
+                                  @Value("${media.image.thumbnail-size:320}") int thumbnailSize,
+                                  @Value("${media.image.jpeg-quality:0.85}") double jpegQuality,
+                                  @Value("${media.image.decode-budget-mb:256}") int decodeBudgetMb) {
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.feedSize = feedSize;
+        this.thumbnailSize = thumbnailSize;
+        this.jpegQuality = jpegQuality;
+        this.decodeBudgetKb = decodeBudgetMb * 1024;
+        this.decodeBudget = new Semaphore(decodeBudgetKb, true);
+    }
 
     /**
      * Process and optimize an image
-     * 
+     *
      * IMPORTANT: This method handles EXIF orientation automatically!
      * Mobile phones often store images rotated with an EXIF tag indicating how to display them.
-     * We use Thumbnailator's useExifOrientation(true) to automatically rotate images correctly.
-     * 
+     * The orientation is read from the metadata and applied to the (already subsampled) image.
+     *
      * @param file Original image file
-     * @return Processing result with optimized image data
+     * @return Processing result with the full rendition and all variants
      * @throws IOException If processing fails
      */
     public ImageProcessingResult processImage(MultipartFile file) throws IOException {
-        // Get original size BEFORE reading stream (important!)
-        long originalSize = file.getSize();
-        if (originalSize <= 0) {
-            // Fallback: try to get size from bytes if getSize() returns 0
-            byte[] fileBytes = file.getBytes();
-            originalSize = fileBytes.length;
-            log.warn("File.getSize() returned 0, using byte array length: {} bytes", originalSize);
+        log.info("Processing image: {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+
+        try (InputStream in = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            return process(input, file.getSize(), file.getOriginalFilename(), file.getContentType());
         }
-        log.info("Processing image: {} ({} bytes)", file.getOriginalFilename(), originalSize);
-
-        // Read bytes for processing
-        byte[] imageBytes = file.getBytes();
-        
-        // Read image WITH EXIF orientation applied
-        // This ensures photos from phones are correctly rotated
-        BufferedImage originalImage;
-        int originalWidth;
-        int originalHeight;
-        
-        try {
-            // Use Thumbnailator to read with EXIF orientation support
-            // This automatically rotates the image based on EXIF metadata (fixes sideways phone photos!)
-            ByteArrayInputStream exifStream = new ByteArrayInputStream(imageBytes);
-            originalImage = Thumbnails.of(exifStream)
-                    .scale(1.0)  // Read at original size
-                    .useExifOrientation(true)  // 🔑 Apply EXIF rotation automatically!
-                    .asBufferedImage();
-            
-            if (originalImage == null) {
-                // Fallback to ImageIO (won't have EXIF rotation, but better than nothing)
-                log.warn("Thumbnailator could not read image, falling back to ImageIO (EXIF orientation may be lost)");
-                ByteArrayInputStream fallbackStream = new ByteArrayInputStream(imageBytes);
-                originalImage = ImageIO.read(fallbackStream);
+    }
+
+    /**
+     * Process an image that has been spooled to disk (random access, nothing held in memory)
+     */
+    public ImageProcessingResult processImage(Path path, String filename, String contentType) throws IOException {
+        long originalSize = Files.size(path);
+        log.info("Processing image: {} ({} bytes)", filename, originalSize);
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            return process(input, originalSize, filename, contentType);
+        }
+    }
+
+    /**
+     * Check if image needs processing
+     * Only the image header is read; nothing is decoded.
+     *
+     * @param file Image file to check
+     * @return true if image exceeds limits and needs processing
+     */
+    public boolean needsProcessing(MultipartFile file) {
+        try (InputStream in = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            ImageReader reader = openReader(input, file.getOriginalFilename(), file.getContentType());
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (swapsAxes(readOrientation(reader))) {
+                    int swap = width;
+                    width = height;
+                    height = swap;
+                }
+                return width > maxWidth ||
+                       height > maxHeight ||
+                       file.getSize() > (2 * 1024 * 1024); // More than 2MB
+            } finally {
+                reader.dispose();
             }
-            
-            if (originalImage == null) {
-                // Log available ImageIO readers for debugging
-                String[] readerFormatNames = ImageIO.getReaderFormatNames();
-                log.error("Could not read image. Available formats: {}", String.join(", ", readerFormatNames));
-                throw new IOException("Could not read image file. Format may not be supported. " +
-                        "File: " + file.getOriginalFilename() + ", ContentType: " + file.getContentType());
+        } catch (Exception e) {
+            log.warn("Could not check if image needs processing: {}", e.getMessage());
+            // If we can't read it, assume it needs processing
+            return true;
+        }
+    }
+
+    /**
+     * Memory a decode of this image will take, read from the image header only.
+     * Falls back to maxDecodeBytes() when the header can't be read.
+     */
+    public long estimateDecodeBytes(MultipartFile file) {
+        try (InputStream in = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            ImageReader reader = openReader(input, file.getOriginalFilename(), file.getContentType());
+            try {
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                boolean swapsAxes = swapsAxes(readOrientation(reader));
+                int[] full = swapsAxes
+                        ? fit(sourceHeight, sourceWidth, maxWidth, maxHeight)
+                        : fit(sourceWidth, sourceHeight, maxWidth, maxHeight);
+                return decodeBytes(sourceWidth, sourceHeight, subsampling(sourceWidth, sourceHeight, full, swapsAxes));
+            } finally {
+                reader.dispose();
             }
-            
-            // Get dimensions AFTER EXIF rotation has been applied
-            originalWidth = originalImage.getWidth();
-            originalHeight = originalImage.getHeight();
-            
-        } catch (IOException e) {
-            log.error("Error reading image file: {}", e.getMessage(), e);
-            throw e;
         } catch (Exception e) {
-            log.error("Unexpected error reading image: {}", e.getMessage(), e);
-            throw new IOException("Could not read image file: " + e.getMessage(), e);
+            log.debug("Could not estimate decode size for {}: {}", file.getOriginalFilename(), e.getMessage());
+            return maxDecodeBytes();
         }
+    }
+
+    /**
+     * Upper bound on the memory of any decode. Subsampling always decodes less than twice the
+     * full rendition along each axis, whatever the source resolution.
+     */
+    public long maxDecodeBytes() {
+        return (2L * maxWidth) * (2L * maxHeight) * BYTES_PER_PIXEL * WORKING_COPIES;
+    }
+
+    private ImageProcessingResult process(ImageInputStream input, long originalSize, String filename,
+                                          String contentType) throws IOException {
+        ImageReader reader = openReader(input, filename, contentType);
+        try {
+            int sourceWidth = reader.getWidth(0);
+            int sourceHeight = reader.getHeight(0);
+            Orientation orientation = readOrientation(reader);
+            boolean swapsAxes = swapsAxes(orientation);
 
-        log.debug("Original image dimensions (after EXIF rotation): {}x{}", originalWidth, originalHeight);
+            // Dimensions as displayed, i.e. after EXIF rotation
+            int originalWidth = swapsAxes ? sourceHeight : sourceWidth;
+            int originalHeight = swapsAxes ? sourceWidth : sourceHeight;
+            int[] full = fit(originalWidth, originalHeight, maxWidth, maxHeight);
+            log.debug("Original image dimensions (after EXIF rotation): {}x{}, full rendition {}x{}",
+                    originalWidth, originalHeight, full[0], full[1]);
 
-        // Calculate new dimensions (maintain aspect ratio)
-        int newWidth = originalWidth;
-        int newHeight = originalHeight;
+            int subsampling = subsampling(sourceWidth, sourceHeight, full, swapsAxes);
+            int permits = budgetPermits(decodeBytes(sourceWidth, sourceHeight, subsampling));
 
-        if (originalWidth > maxWidth || originalHeight > maxHeight) {
-            double widthRatio = (double) maxWidth / originalWidth;
-            double heightRatio = (double) maxHeight / originalHeight;
-            double ratio = Math.min(widthRatio, heightRatio);
+            List<ImageProcessingResult.Variant> variants;
+            acquire(permits);
+            try {
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+                if (orientation != null && orientation != Orientation.TOP_LEFT) {
+                    decoded = ExifFilterUtils.getFilterForOrientation(orientation).apply(decoded);
+                }
+                variants = renderVariants(decoded, full);
+            } finally {
+                decodeBudget.release(permits);
+            }
 
-            newWidth = (int) (originalWidth * ratio);
-            newHeight = (int) (originalHeight * ratio);
+            ImageProcessingResult.Variant fullVariant = variants.get(0);
+            long processedSize = fullVariant.getData().length;
+            double compressionRatio = originalSize > 0 ? (double) processedSize / originalSize : 1.0;
+            int reductionPercent = originalSize > 0 ? (int) Math.round((1 - compressionRatio) * 100) : 0;
 
-            log.debug("Resizing image to: {}x{} (ratio: {})", newWidth, newHeight, ratio);
-        }
+            log.info("Image processed: {} bytes -> {} bytes ({}% reduction, ratio: {}, subsampling: {})",
+                    originalSize, processedSize, reductionPercent, String.format("%.2f", compressionRatio),
+                    subsampling);
 
-        // Process image: resize and compress to JPEG
-        // Since originalImage is already EXIF-rotated, we can process it directly
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        
-        Thumbnails.of(originalImage)
-                .size(newWidth, newHeight)
-                .outputFormat("jpg")
-                .outputQuality(jpegQuality)
-                .toOutputStream(outputStream);
-
-        byte[] processedData = outputStream.toByteArray();
-        long processedSize = processedData.length;
-        
-        // Calculate compression metrics
-        double compressionRatio = originalSize > 0 ? (double) processedSize / originalSize : 1.0;
-        int reductionPercent = originalSize > 0 ? (int) Math.round((1 - compressionRatio) * 100) : 0;
-        
-        // Format compression ratio for logging
-        String compressionRatioStr = String.format("%.2f", compressionRatio);
-
-        log.info("Image processed: {} bytes -> {} bytes ({}% reduction, ratio: {})",
-                originalSize, processedSize, reductionPercent, compressionRatioStr);
-
-        return new ImageProcessingResult(
-                processedData,
-                "image/jpeg",
-                originalSize,
-                processedSize,
-                originalWidth,
-                originalHeight,
-                newWidth,
-                newHeight,
-                compressionRatio
-        );
+            return new ImageProcessingResult(
+                    fullVariant.getData(),
+                    "image/jpeg",
+                    originalSize,
+                    processedSize,
+                    originalWidth,
+                    originalHeight,
+                    fullVariant.getWidth(),
+                    fullVariant.getHeight(),
+                    compressionRatio,
+                    variants
+            );
+        } catch (IOException e) {
+            log.error("Error processing image {}: {}", filename, e.getMessage(), e);
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Unexpected error processing image {}: {}", filename, e.getMessage(), e);
+            throw new IOException("Could not read image file: " + e.getMessage(), e);
+        } finally {
+            reader.dispose();
+        }
     }
 
     /**
-     * Check if image needs processing
-     * 
-     * @param file Image file to check
-     * @return true if image exceeds limits and needs processing
+     * Full, feed and thumbnail renditions, each scaled down from the previous one.
+     * A rendition no smaller than the previous one reuses its bytes.
      */
-    public boolean needsProcessing(MultipartFile file) {
-        try {
-            // Read bytes first to support multiple read attempts
-            byte[] imageBytes = file.getBytes();
-            
-            // Use Thumbnailator with EXIF orientation to get accurate dimensions
-            ByteArrayInputStream inputStream = new ByteArrayInputStream(imageBytes);
-            BufferedImage image = Thumbnails.of(inputStream)
-                    .scale(1.0)
-                    .useExifOrientation(true)  // Apply EXIF rotation for accurate dimensions
-                    .asBufferedImage();
-            
-            // Fallback to ImageIO if Thumbnailator fails
-            if (image == null) {
-                log.debug("Thumbnailator returned null, trying ImageIO...");
-                ByteArrayInputStream fallbackStream = new ByteArrayInputStream(imageBytes);
-                image = ImageIO.read(fallbackStream);
+    private List<ImageProcessingResult.Variant> renderVariants(BufferedImage decoded, int[] full) throws IOException {
+        List<ImageProcessingResult.Variant> variants = new ArrayList<>(3);
+        BufferedImage current = resize(decoded, full[0], full[1]);
+        ImageProcessingResult.Variant previous = new ImageProcessingResult.Variant(
+                ImageProcessingResult.Variant.FULL, encodeJpeg(current), full[0], full[1]);
+        variants.add(previous);
+
+        String[] names = { ImageProcessingResult.Variant.FEED, ImageProcessingResult.Variant.THUMBNAIL };
+        int[] sizes = { feedSize, thumbnailSize };
+        for (int i = 0; i < names.length; i++) {
+            if (sizes[i] <= 0) {
+                continue;
             }
-            
-            if (image == null) {
-                return false;
+            int[] target = fit(current.getWidth(), current.getHeight(), sizes[i], sizes[i]);
+            if (target[0] == current.getWidth() && target[1] == current.getHeight()) {
+                previous = new ImageProcessingResult.Variant(names[i], previous.getData(), target[0], target[1]);
+            } else {
+                current = resize(current, target[0], target[1]);
+                previous = new ImageProcessingResult.Variant(names[i], encodeJpeg(current), target[0], target[1]);
             }
+            variants.add(previous);
+        }
+        return variants;
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) throws IOException {
+        if (image.getWidth() == width && image.getHeight() == height) {
+            return image;
+        }
+        return Thumbnails.of(image)
+                .forceSize(width, height)
+                .asBufferedImage();
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        BufferedImage rgb = toRgb(image);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality((float) jpegQuality);
+            // No metadata is passed through, so EXIF (location etc.) is stripped
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    // JPEG has no alpha channel: flatten transparent images (PNG, WebP) onto white
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private ImageReader openReader(ImageInputStream input, String filename, String contentType) throws IOException {
+        Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+        if (readers == null || !readers.hasNext()) {
+            log.error("Could not read image. Available formats: {}", String.join(", ", ImageIO.getReaderFormatNames()));
+            throw new IOException("Could not read image file. Format may not be supported. " +
+                    "File: " + filename + ", ContentType: " + contentType);
+        }
+        ImageReader reader = readers.next();
+        // Forward-only: the stream is never rewound, so no more than the current segment is cached.
+        // Metadata is still read for the EXIF orientation.
+        reader.setInput(input, true, false);
+        return reader;
+    }
 
-            return image.getWidth() > maxWidth || 
-                   image.getHeight() > maxHeight ||
-                   file.getSize() > (2 * 1024 * 1024); // More than 2MB
+    private static Orientation readOrientation(ImageReader reader) {
+        try {
+            return ExifUtils.getExifOrientation(reader, 0);
         } catch (Exception e) {
-            log.warn("Could not check if image needs processing: {}", e.getMessage());
-            // If we can't read it, assume it needs processing
-            return true;
+            log.debug("Could not read EXIF orientation: {}", e.getMessage());
+            return null;
         }
     }
-}
 
+    private static boolean swapsAxes(Orientation orientation) {
+        return orientation == Orientation.LEFT_TOP || orientation == Orientation.RIGHT_TOP ||
+               orientation == Orientation.RIGHT_BOTTOM || orientation == Orientation.LEFT_BOTTOM;
+    }
+
+    // Largest size within boxWidth x boxHeight with the same aspect ratio; never upscales
+    private static int[] fit(int width, int height, int boxWidth, int boxHeight) {
+        if (width <= boxWidth && height <= boxHeight) {
+            return new int[] { width, height };
+        }
+        double ratio = Math.min((double) boxWidth / width, (double) boxHeight / height);
+        return new int[] {
+            (int) Math.max(1, Math.min(boxWidth, Math.round(width * ratio))),
+            (int) Math.max(1, Math.min(boxHeight, Math.round(height * ratio)))
+        };
+    }
+
+    // Largest whole subsampling step that still decodes at least the full rendition's size
+    private static int subsampling(int sourceWidth, int sourceHeight, int[] full, boolean swapsAxes) {
+        int fullSourceWidth = swapsAxes ? full[1] : full[0];
+        int fullSourceHeight = swapsAxes ? full[0] : full[1];
+        return Math.max(1, Math.min(sourceWidth / fullSourceWidth, sourceHeight / fullSourceHeight));
+    }
+
+    private static long decodeBytes(int sourceWidth, int sourceHeight, int subsampling) {
+        long decodedPixels = (long) ceilDiv(sourceWidth, subsampling) * ceilDiv(sourceHeight, subsampling);
+        return decodedPixels * BYTES_PER_PIXEL * WORKING_COPIES;
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    // An image larger than the whole budget still runs, just on its own
+    private int budgetPermits(long bytes) {
+        return (int) Math.min(decodeBudgetKb, Math.max(1, (bytes + 1023) / 1024));
+    }
+
+    private void acquire(int permits) throws IOException {
+        try {
+            decodeBudget.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for image decode memory", e);
+        }
+    }
+}
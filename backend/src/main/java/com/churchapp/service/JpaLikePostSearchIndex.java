@@ -0,0 +1,31 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.Post;
+import com.churchapp.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Database-agnostic post search for H2/local runs (search.posts.engine=like).
+ * Still a substring scan, but a single query, so pagination totals are correct.
+ */
+@Service
+@ConditionalOnProperty(name = "search.posts.engine", havingValue = "like")
+@RequiredArgsConstructor
+public class JpaLikePostSearchIndex implements PostSearchIndex {
+
+    private final PostRepository postRepository;
+
+    @Override
+    public Page<Post> search(String query, Post.PostType postType, UUID currentUserId, Pageable pageable) {
+        if (query == null || query.trim().isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return postRepository.searchByTerm(query.trim(), postType, currentUserId, pageable);
+    }
+}
@@ -0,0 +1,275 @@
+package com.churchapp.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs media processing jobs (image renditions, MediaConvert submissions) on a small worker pool.
+ *
+ * Jobs wait in one FIFO queue per priority class and workers always take the head of the most
+ * urgent non-empty class, so a bulk resource upload can't hold up chat images. A job only starts
+ * once its estimated memory fits in media.processing.memory-budget-mb next to the jobs already
+ * running; lower classes never jump a head that is waiting for memory, and a job bigger than the
+ * whole budget runs on its own.
+ *
+ * The queue itself is not durable. A job's MediaFile stays PENDING until a worker claims it, and
+ * FileUploadService.resumeStalledProcessing re-submits anything left PENDING or stuck in PROCESSING
+ * (e.g. after a restart) from the original in S3. Jobs that carry their upload in memory are
+ * refused once queued payloads exceed media.processing.queue-budget-mb and take that same path
+ * instead of failing the upload.
+ */
+@Service
+@Slf4j
+public class MediaJobScheduler {
+
+    public enum Priority {
+        INTERACTIVE,
+        STANDARD,
+        BULK
+    }
+
+    private static final long MB = 1024L * 1024L;
+
+    private final long memoryBudgetBytes;
+    private final long queueBudgetBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Priority, Deque<Job>> queues = new EnumMap<>(Priority.class);
+    private long runningBytes;
+    private long queuedPayloadBytes;
+    private boolean accepting = true;
+
+    // MediaFile IDs with a job queued or running, so recovery sweeps don't double-submit
+    private final Set<UUID> scheduled = ConcurrentHashMap.newKeySet();
+
+    private final Map<Priority, AtomicInteger> queueDepth = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> processingTimers = new EnumMap<>(Priority.class);
+    private final List<Thread> workers = new ArrayList<>();
+
+    public MediaJobScheduler(MeterRegistry meterRegistry,
+                             @Value("${media.processing.async.workers:4}") int workerCount,
+                             @Value("${media.processing.memory-budget-mb:512}") int memoryBudgetMb,
+                             @Value("${media.processing.queue-budget-mb:128}") int queueBudgetMb) {
+        this.memoryBudgetBytes = memoryBudgetMb * MB;
+        this.queueBudgetBytes = queueBudgetMb * MB;
+
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            queues.put(priority, new ArrayDeque<>());
+            AtomicInteger depth = new AtomicInteger();
+            queueDepth.put(priority, depth);
+            Gauge.builder("media.jobs.queued", depth, AtomicInteger::get)
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("media.jobs.wait")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+            processingTimers.put(priority, Timer.builder("media.jobs.processing")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("media.jobs.reserved.bytes", this, MediaJobScheduler::reservedBytes)
+                .register(meterRegistry);
+
+        for (int i = 1; i <= Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::work, "media-processing-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Media job scheduler started: workers={}, memoryBudgetMb={}, queueBudgetMb={}",
+                workers.size(), memoryBudgetMb, queueBudgetMb);
+    }
+
+    /**
+     * Priority class for a MediaFile folder: chat and profile media first, feed content next,
+     * everything else (resources, unknown folders) last.
+     */
+    public static Priority priorityFor(String folder) {
+        if (folder == null) {
+            return Priority.BULK;
+        }
+        switch (folder) {
+            case "chat-media":
+            case "profile-pictures":
+            case "banner-images":
+            case "banners":
+                return Priority.INTERACTIVE;
+            case "posts":
+            case "announcements":
+            case "worship-rooms":
+            case "prayer-requests":
+                return Priority.STANDARD;
+            default:
+                return Priority.BULK;
+        }
+    }
+
+    /**
+     * Queue a job for a MediaFile.
+     *
+     * @param memoryBytes  estimated memory the job needs while running (decode buffers plus any payload)
+     * @param payloadBytes bytes the queued job holds on to while waiting, 0 if it reads from S3
+     * @return false if the job was not queued: the file already has a job, the scheduler is
+     *         shutting down, or the payload would push queued payloads over budget. The MediaFile
+     *         is left PENDING for the recovery sweep either way.
+     */
+    public boolean submit(UUID mediaFileId, Priority priority, long memoryBytes, long payloadBytes, Runnable task) {
+        if (!scheduled.add(mediaFileId)) {
+            return false;
+        }
+        lock.lock();
+        try {
+            boolean overBudget = payloadBytes > 0 && queuedPayloadBytes > 0
+                    && queuedPayloadBytes + payloadBytes > queueBudgetBytes;
+            if (!accepting || overBudget) {
+                scheduled.remove(mediaFileId);
+                return false;
+            }
+            queues.get(priority).addLast(new Job(mediaFileId, priority, memoryBytes, payloadBytes, task, System.nanoTime()));
+            queuedPayloadBytes += payloadBytes;
+            queueDepth.get(priority).incrementAndGet();
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a job for this MediaFile is queued or running on this instance
+     */
+    public boolean isScheduled(UUID mediaFileId) {
+        return scheduled.contains(mediaFileId);
+    }
+
+    private void work() {
+        while (true) {
+            Job job;
+            lock.lock();
+            try {
+                while ((job = nextAdmissible()) == null) {
+                    if (!accepting) {
+                        return;
+                    }
+                    changed.await();
+                }
+                runningBytes += job.memoryBytes;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            run(job);
+        }
+    }
+
+    // Caller holds the lock
+    private Job nextAdmissible() {
+        if (!accepting) {
+            return null;
+        }
+        for (Priority priority : Priority.values()) {
+            Job head = queues.get(priority).peekFirst();
+            if (head == null) {
+                continue;
+            }
+            if (runningBytes > 0 && runningBytes + head.memoryBytes > memoryBudgetBytes) {
+                return null;
+            }
+            queues.get(priority).pollFirst();
+            queuedPayloadBytes -= head.payloadBytes;
+            queueDepth.get(priority).decrementAndGet();
+            return head;
+        }
+        return null;
+    }
+
+    private void run(Job job) {
+        long started = System.nanoTime();
+        waitTimers.get(job.priority).record(started - job.enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            job.task.run();
+        } catch (RuntimeException e) {
+            log.error("Media job for MediaFile {} failed", job.mediaFileId, e);
+        } finally {
+            processingTimers.get(job.priority).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            scheduled.remove(job.mediaFileId);
+            lock.lock();
+            try {
+                runningBytes -= job.memoryBytes;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private double reservedBytes() {
+        lock.lock();
+        try {
+            return runningBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Let running jobs finish; queued ones are dropped and stay PENDING for the next start.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lock.lock();
+        try {
+            accepting = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+    }
+
+    private static final class Job {
+        private final UUID mediaFileId;
+        private final Priority priority;
+        private final long memoryBytes;
+        private final long payloadBytes;
+        private final Runnable task;
+        private final long enqueuedAt;
+
+        private Job(UUID mediaFileId, Priority priority, long memoryBytes, long payloadBytes,
+                    Runnable task, long enqueuedAt) {
+            this.mediaFileId = mediaFileId;
+            this.priority = priority;
+            this.memoryBytes = memoryBytes;
+            this.payloadBytes = payloadBytes;
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
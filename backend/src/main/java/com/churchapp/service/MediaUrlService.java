@@ -3,14 +3,24 @@ package com.churchapp.service;
 import com.churchapp.dto.ProcessingStatus;
 import com.churchapp.entity.MediaFile;
 import com.churchapp.repository.MediaFileRepository;
+import com.churchapp.util.MediaKeyUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -28,6 +38,13 @@ public class MediaUrlService {
     
     private final MediaFileRepository mediaFileRepository;
     
+    /**
+     * LRU cache of completed resolutions keyed by S3 key.
+     * Only COMPLETED files are cached - their URLs no longer change, so feed pages
+     * full of already-processed media resolve without touching the database.
+     */
+    private final Cache<String, ResolvedMedia> completedMediaCache;
+    
     @Value("${aws.cloudfront.distribution-url:}")
     private String cloudFrontDistributionUrl;
     
@@ -37,8 +54,37 @@ public class MediaUrlService {
     @Value("${aws.region}")
     private String region;
     
-    public MediaUrlService(MediaFileRepository mediaFileRepository) {
+    public MediaUrlService(MediaFileRepository mediaFileRepository,
+                           @Value("${media.url-cache.max-size:5000}") long cacheMaxSize,
+                           @Value("${media.url-cache.ttl-minutes:30}") long cacheTtlMinutes) {
         this.mediaFileRepository = mediaFileRepository;
+        this.completedMediaCache = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+            .build();
+    }
+    
+    /**
+     * Immutable snapshot of what a MediaFile resolves to (safe to cache and share across threads)
+     */
+    public record ResolvedMedia(ProcessingStatus status, String optimizedUrl, String thumbnailUrl, String feedUrl) {
+        
+        static ResolvedMedia from(MediaFile mediaFile) {
+            return new ResolvedMedia(mediaFile.getProcessingStatus(), mediaFile.getOptimizedUrl(),
+                    mediaFile.getThumbnailUrl(), mediaFile.getFeedUrl());
+        }
+        
+        boolean hasOptimizedUrl() {
+            return status == ProcessingStatus.COMPLETED && optimizedUrl != null && !optimizedUrl.isEmpty();
+        }
+        
+        boolean hasFeedUrl() {
+            return status == ProcessingStatus.COMPLETED && feedUrl != null && !feedUrl.isEmpty();
+        }
+        
+        boolean hasThumbnailUrl() {
+            return thumbnailUrl != null && !thumbnailUrl.trim().isEmpty();
+        }
     }
     
     /**
@@ -114,144 +160,128 @@ public class MediaUrlService {
     }
     
     /**
-     * Get the best URL for a media file
-     * Returns optimized URL if processing is completed, otherwise returns original URL
-     * ALL URLs are converted to CloudFront URLs for proper delivery.
-     * 
-     * @param originalUrl The original URL (may be from MediaFile or direct URL)
-     * @return The best URL to use (optimized if available, original otherwise) - always CloudFront
-     */
-    /**
-     * Extract S3 key from URL (handles both CloudFront and S3 URLs)
+     * Resolve every URL to its MediaFile state in one pass.
+     * URLs are normalized to S3 keys (CloudFront and S3 formats collapse to the same key);
+     * cache hits are served from memory and all misses are fetched with a single IN query.
+     *
+     * @param urls Media URLs in any format (duplicates and nulls are fine)
+     * @return Resolutions keyed by S3 key; keys with no MediaFile are absent
      */
-    private String extractS3KeyFromUrl(String url) {
-        if (url == null || url.isEmpty()) {
-            return null;
+    @Transactional(readOnly = true)
+    public Map<String, ResolvedMedia> resolveMedia(Collection<String> urls) {
+        if (urls == null || urls.isEmpty()) {
+            return Collections.emptyMap();
         }
         
-        // Handle CloudFront URLs
-        if (url.contains("cloudfront.net")) {
-            int domainEnd = url.indexOf(".net/");
-            if (domainEnd > 0) {
-                String key = url.substring(domainEnd + 5); // +5 to skip ".net/"
-                // Remove query parameters
-                int queryIndex = key.indexOf('?');
-                if (queryIndex > 0) {
-                    key = key.substring(0, queryIndex);
-                }
-                return key;
+        Map<String, ResolvedMedia> resolved = new HashMap<>();
+        Set<String> missingKeys = new HashSet<>();
+        for (String url : urls) {
+            String key = MediaKeyUtil.toStorageKey(url);
+            if (key == null || resolved.containsKey(key)) {
+                continue;
+            }
+            ResolvedMedia cached = completedMediaCache.getIfPresent(key);
+            if (cached != null) {
+                resolved.put(key, cached);
+            } else {
+                missingKeys.add(key);
             }
         }
         
-        // Handle S3 URLs
-        String s3Pattern1 = String.format("https://%s.s3.%s.amazonaws.com/", bucketName, region);
-        String s3Pattern2 = String.format("https://%s.s3-%s.amazonaws.com/", bucketName, region);
-        
-        if (url.startsWith(s3Pattern1)) {
-            String key = url.substring(s3Pattern1.length());
-            int queryIndex = key.indexOf('?');
-            return queryIndex > 0 ? key.substring(0, queryIndex) : key;
-        } else if (url.startsWith(s3Pattern2)) {
-            String key = url.substring(s3Pattern2.length());
-            int queryIndex = key.indexOf('?');
-            return queryIndex > 0 ? key.substring(0, queryIndex) : key;
+        if (missingKeys.isEmpty()) {
+            return resolved;
         }
         
-        // Try regex for any S3 URL
-        Pattern s3Pattern = Pattern.compile("https://([^.]+)\\.s3[.-]([^.]+)\\.amazonaws\\.com/(.+)");
-        Matcher matcher = s3Pattern.matcher(url);
-        if (matcher.matches()) {
-            String key = matcher.group(3);
-            int queryIndex = key.indexOf('?');
-            return queryIndex > 0 ? key.substring(0, queryIndex) : key;
+        for (MediaFile mediaFile : mediaFileRepository.findByStorageKeys(missingKeys)) {
+            ResolvedMedia media = ResolvedMedia.from(mediaFile);
+            // A URL may point at either the original or the optimized object
+            for (String key : new String[] { mediaFile.getOriginalKey(), mediaFile.getOptimizedKey() }) {
+                if (key != null && missingKeys.contains(key)) {
+                    resolved.putIfAbsent(key, media);
+                    if (media.status() == ProcessingStatus.COMPLETED) {
+                        completedMediaCache.put(key, media);
+                    }
+                }
+            }
         }
         
-        return null;
+        log.debug("Resolved {} media keys ({} from database)", resolved.size(), missingKeys.size());
+        return resolved;
     }
     
-    public String getBestUrl(String originalUrl) {
+    /**
+     * Best URL for one media URL given a batch resolution from {@link #resolveMedia(Collection)}
+     * Returns optimized URL if processing is completed, otherwise the original - always CloudFront
+     */
+    public String getBestUrl(String originalUrl, Map<String, ResolvedMedia> resolved) {
         if (originalUrl == null || originalUrl.isEmpty()) {
             return originalUrl;
         }
         
         String resultUrl = originalUrl;
-        
-        try {
-            // First, ensure the originalUrl is in CloudFront format for lookup
-            // (MediaFile might be stored with either format)
-            String lookupUrl = ensureCloudFrontUrl(originalUrl);
-            
-            // Try to find MediaFile by original URL (try both formats)
-            Optional<MediaFile> mediaFileOpt = mediaFileRepository.findByOriginalUrl(originalUrl);
-            if (mediaFileOpt.isEmpty() && !lookupUrl.equals(originalUrl)) {
-                mediaFileOpt = mediaFileRepository.findByOriginalUrl(lookupUrl);
-            }
-            
-            // Fallback: Try to find by S3 key if URL lookup fails
-            // This handles cases where URL format might differ slightly
-            if (mediaFileOpt.isEmpty()) {
-                String s3Key = extractS3KeyFromUrl(originalUrl);
-                if (s3Key != null) {
-                    // Try to find MediaFile by reconstructing possible URLs
-                    // MediaFile might be stored with CloudFront URL
-                    String possibleCloudFrontUrl = ensureCloudFrontUrl(originalUrl);
-                    mediaFileOpt = mediaFileRepository.findByOriginalUrl(possibleCloudFrontUrl);
-                    
-                    // Also try S3 URL format
-                    if (mediaFileOpt.isEmpty()) {
-                        String possibleS3Url = String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, s3Key);
-                        mediaFileOpt = mediaFileRepository.findByOriginalUrl(possibleS3Url);
-                    }
-                }
-            }
-            
-            if (mediaFileOpt.isPresent()) {
-                MediaFile mediaFile = mediaFileOpt.get();
-                
-                // If processing is completed and optimized URL exists, use it
-                if (mediaFile.getProcessingStatus() == ProcessingStatus.COMPLETED 
-                    && mediaFile.getOptimizedUrl() != null 
-                    && !mediaFile.getOptimizedUrl().isEmpty()) {
-                    resultUrl = mediaFile.getOptimizedUrl();
-                    log.info("✅ Using optimized URL for: {} -> {}", originalUrl, resultUrl);
-                } else {
-                    // Use original URL (processing pending, failed, or no optimized version)
-                    // Log at appropriate level based on status
-                    if (mediaFile.getProcessingStatus() == ProcessingStatus.FAILED) {
-                        log.warn("⚠️ Using original URL - processing FAILED: {}", originalUrl);
-                    } else if (mediaFile.getProcessingStatus() == ProcessingStatus.PROCESSING) {
-                        log.debug("Using original URL - processing in progress: {}", originalUrl);
-                    } else {
-                        log.debug("Using original URL (status: {}, optimizedUrl: {}): {}", 
-                                mediaFile.getProcessingStatus(), 
-                                mediaFile.getOptimizedUrl() != null ? "exists" : "null",
-                                originalUrl);
-                    }
-                }
-            } else {
-                // No MediaFile found - this is likely an old URL or non-processed file
-                // Only log at debug level to avoid spam (this is common for old posts)
-                log.debug("No MediaFile found for URL, returning original: {}", originalUrl);
-            }
-        } catch (Exception e) {
-            // If MediaFile table doesn't exist yet or any other error, fall back to original URL
-            // This ensures backward compatibility during migration
-            log.error("❌ Error looking up MediaFile for URL: {}, using original URL. Error: {}", originalUrl, e.getMessage(), e);
+        ResolvedMedia media = resolved.get(MediaKeyUtil.toStorageKey(originalUrl));
+        if (media != null && media.hasOptimizedUrl()) {
+            resultUrl = media.optimizedUrl();
+            log.debug("Using optimized URL for: {} -> {}", originalUrl, resultUrl);
+        } else if (media != null && media.status() == ProcessingStatus.FAILED) {
+            log.debug("Using original URL - processing FAILED: {}", originalUrl);
         }
         
         // CRITICAL: Always ensure the final URL is a CloudFront URL
         // Direct S3 URLs don't work (bucket access policy)
-        // Only convert if needed (avoid unnecessary logging)
-        if (resultUrl != null && !resultUrl.contains("cloudfront.net") && resultUrl.contains("amazonaws.com")) {
+        if (!resultUrl.contains("cloudfront.net") && resultUrl.contains("amazonaws.com")) {
             return ensureCloudFrontUrl(resultUrl);
         }
         return resultUrl;
     }
     
+    /**
+     * Feed-size rendition for one media URL given a batch resolution, for feed cards that never
+     * show an image at full size. Falls back to {@link #getBestUrl(String, Map)} for videos and
+     * for images processed before feed renditions existed - always CloudFront
+     */
+    public String getFeedUrl(String mediaUrl, Map<String, ResolvedMedia> resolved) {
+        if (mediaUrl == null || mediaUrl.isEmpty()) {
+            return mediaUrl;
+        }
+        ResolvedMedia media = resolved.get(MediaKeyUtil.toStorageKey(mediaUrl));
+        if (media != null && media.hasFeedUrl()) {
+            return ensureCloudFrontUrl(media.feedUrl());
+        }
+        return getBestUrl(mediaUrl, resolved);
+    }
+    
+    /**
+     * Thumbnail for one media URL given a batch resolution, or null if none has been generated yet
+     */
+    public String getThumbnailUrl(String mediaUrl, Map<String, ResolvedMedia> resolved) {
+        ResolvedMedia media = resolved.get(MediaKeyUtil.toStorageKey(mediaUrl));
+        if (media == null || !media.hasThumbnailUrl()) {
+            return null;
+        }
+        return ensureCloudFrontUrl(media.thumbnailUrl());
+    }
+    
+    /**
+     * Get the best URL for a media file
+     * Returns optimized URL if processing is completed, otherwise returns original URL
+     * ALL URLs are converted to CloudFront URLs for proper delivery.
+     * 
+     * @param originalUrl The original URL (may be from MediaFile or direct URL)
+     * @return The best URL to use (optimized if available, original otherwise) - always CloudFront
+     */
+    public String getBestUrl(String originalUrl) {
+        if (originalUrl == null || originalUrl.isEmpty()) {
+            return originalUrl;
+        }
+        return getBestUrls(Collections.singletonList(originalUrl)).get(0);
+    }
+    
     /**
      * Get the best URLs for a list of media URLs
      * Useful for posts with multiple media files
      * ALL URLs are converted to CloudFront URLs for proper delivery.
+     * Resolves the whole list with one lookup (see {@link #resolveMedia(Collection)}).
      * 
      * @param originalUrls List of original URLs
      * @return List of best URLs (optimized if available, original otherwise) - always CloudFront
@@ -261,22 +291,18 @@ public class MediaUrlService {
             return new ArrayList<>();
         }
         
-        List<String> bestUrls = new ArrayList<>();
+        Map<String, ResolvedMedia> resolved;
+        try {
+            resolved = resolveMedia(originalUrls);
+        } catch (Exception e) {
+            // If MediaFile lookup fails for any reason, fall back to original URLs (still CloudFront)
+            log.error("❌ Error resolving {} media URLs, using original URLs. Error: {}", originalUrls.size(), e.getMessage(), e);
+            resolved = Collections.emptyMap();
+        }
+        
+        List<String> bestUrls = new ArrayList<>(originalUrls.size());
         for (String originalUrl : originalUrls) {
-            try {
-                String bestUrl = getBestUrl(originalUrl);
-                // Only log when URL actually changed (original -> optimized)
-                if (!originalUrl.equals(bestUrl) && !bestUrl.equals(ensureCloudFrontUrl(originalUrl))) {
-                    log.info("🔄 MediaUrlService converted URL: {} -> {}", originalUrl, bestUrl);
-                }
-                bestUrls.add(bestUrl);
-            } catch (Exception e) {
-                // If any URL fails, still convert to CloudFront
-                log.warn("⚠️ Error resolving URL: {}, using CloudFront fallback. Error: {}", originalUrl, e.getMessage());
-                String fallbackUrl = ensureCloudFrontUrl(originalUrl);
-                log.debug("🔄 MediaUrlService fallback conversion: {} -> {}", originalUrl, fallbackUrl);
-                bestUrls.add(fallbackUrl);
-            }
+            bestUrls.add(getBestUrl(originalUrl, resolved));
         }
         log.debug("✅ MediaUrlService.getBestUrls: converted {} URLs", bestUrls.size());
         return bestUrls;
@@ -17,6 +17,7 @@ import java.util.UUID;
 /**
  * Service for creating and managing historical metrics snapshots.
  * Stores daily snapshots of organization metrics for trending and analytics.
+ * The nightly snapshots for all organizations are taken by OrganizationMetricsBatchJob.
  */
 @Service
 @RequiredArgsConstructor
@@ -51,35 +52,6 @@ public class MetricsSnapshotService {
         return saved;
     }
 
-    /**
-     * Create snapshots for all active organizations
-     * Called by scheduled job
-     */
-    public void createSnapshotsForAllOrganizations() {
-        log.info("Starting metrics snapshot creation for all organizations");
-
-        List<Organization> organizations = organizationRepository.findAll();
-        int successCount = 0;
-        int errorCount = 0;
-
-        for (Organization org : organizations) {
-            // Skip deleted organizations
-            if (org.getDeletedAt() != null) {
-                continue;
-            }
-
-            try {
-                createSnapshot(org.getId());
-                successCount++;
-            } catch (Exception e) {
-                log.error("Error creating snapshot for organization {}: {}", org.getId(), e.getMessage(), e);
-                errorCount++;
-            }
-        }
-
-        log.info("Completed metrics snapshot creation: {} successful, {} errors", successCount, errorCount);
-    }
-
     /**
      * Get historical metrics for an organization
      */
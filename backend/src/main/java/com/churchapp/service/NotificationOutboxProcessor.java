@@ -0,0 +1,160 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.NotificationOutbox;
+import com.churchapp.repository.NotificationOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Drains the notification outbox.
+ *
+ * Each poll claims a batch of due rows (SELECT ... FOR UPDATE SKIP LOCKED, then PROCESSING)
+ * in a short transaction and hands them to the notificationExecutor pool. Failed deliveries
+ * are retried with exponential backoff up to max-attempts, then marked FAILED.
+ */
+@Service
+@Slf4j
+public class NotificationOutboxProcessor {
+
+    private static final List<NotificationOutbox.Status> FINISHED =
+        List.of(NotificationOutbox.Status.SENT, NotificationOutbox.Status.FAILED);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final PushFanoutService pushFanoutService;
+    private final Executor notificationExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notifications.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${notifications.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notifications.outbox.retry-base-delay-seconds:30}")
+    private long retryBaseDelaySeconds;
+
+    @Value("${notifications.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public NotificationOutboxProcessor(NotificationOutboxRepository outboxRepository,
+                                       PushFanoutService pushFanoutService,
+                                       @Qualifier("notificationExecutor") Executor notificationExecutor,
+                                       PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.pushFanoutService = pushFanoutService;
+        this.notificationExecutor = notificationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:1000}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+
+        List<UUID> claimed;
+        try {
+            claimed = claimBatch();
+        } catch (Exception e) {
+            log.error("Failed to claim notification outbox batch: {}", e.getMessage());
+            return;
+        }
+
+        // The executor runs overflow on this thread (CallerRunsPolicy), which throttles polling
+        for (UUID id : claimed) {
+            notificationExecutor.execute(() -> deliver(id));
+        }
+    }
+
+    List<UUID> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutbox> due = outboxRepository.findDueForUpdate(
+                NotificationOutbox.Status.PENDING, now, PageRequest.of(0, batchSize));
+            for (NotificationOutbox notification : due) {
+                notification.setStatus(NotificationOutbox.Status.PROCESSING);
+                notification.setClaimedAt(now);
+                notification.setAttempts(notification.getAttempts() + 1);
+            }
+            return due.stream().map(NotificationOutbox::getId).toList();
+        });
+    }
+
+    void deliver(UUID id) {
+        NotificationOutbox notification = outboxRepository.findById(id).orElse(null);
+        if (notification == null || notification.getStatus() != NotificationOutbox.Status.PROCESSING) {
+            return;
+        }
+
+        try {
+            PushFanoutService.FanoutResult result = pushFanoutService.deliver(notification);
+            notification.setStatus(NotificationOutbox.Status.SENT);
+            notification.setTokensSent(result.successCount());
+            notification.setTokensFailed(result.failureCount());
+            notification.setLastError(null);
+            log.info("📣 Delivered {} push {} to {} tokens (success: {}, failure: {}, pruned: {})",
+                notification.getAudienceType(), id, result.tokens(), result.successCount(),
+                result.failureCount(), result.prunedTokens());
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            notification.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (notification.getAttempts() >= maxAttempts) {
+                notification.setStatus(NotificationOutbox.Status.FAILED);
+                log.error("Push notification {} failed permanently after {} attempts: {}",
+                    id, notification.getAttempts(), error);
+            } else {
+                // 30s, 60s, 120s, ... between attempts
+                long delaySeconds = retryBaseDelaySeconds << (notification.getAttempts() - 1);
+                notification.setStatus(NotificationOutbox.Status.PENDING);
+                notification.setAvailableAt(LocalDateTime.now().plusSeconds(delaySeconds));
+                log.warn("Push notification {} attempt {} failed, retrying in {}s: {}",
+                    id, notification.getAttempts(), delaySeconds, error);
+            }
+        }
+
+        notification.setClaimedAt(null);
+        if (notification.getStatus() != NotificationOutbox.Status.PENDING) {
+            notification.setProcessedAt(LocalDateTime.now());
+        }
+        outboxRepository.save(notification);
+    }
+
+    /**
+     * Requeue rows whose worker died mid-delivery and purge old finished rows.
+     * Runs every 5 minutes.
+     */
+    @Scheduled(fixedDelay = 300000, initialDelay = 60000)
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int released = outboxRepository.releaseStaleClaims(
+                NotificationOutbox.Status.PENDING,
+                NotificationOutbox.Status.PROCESSING,
+                LocalDateTime.now().minusMinutes(10));
+            int purged = outboxRepository.deleteProcessedBefore(
+                FINISHED, LocalDateTime.now().minusDays(retentionDays));
+            if (released > 0 || purged > 0) {
+                log.info("Notification outbox maintenance: released {} stale claims, purged {} finished rows",
+                    released, purged);
+            }
+        } catch (Exception e) {
+            log.error("Error during notification outbox maintenance", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.NotificationOutbox;
+import com.churchapp.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Queues push notifications in the notification outbox.
+ * The insert runs in the caller's transaction, so a notification exists if and only if the
+ * post/message that triggered it was committed. Delivery happens later in NotificationOutboxProcessor.
+ *
+ * Callers treat a failed enqueue as non-fatal, so this service opens no transaction boundary of
+ * its own (a failing @Transactional method would mark the caller's transaction rollback-only)
+ * and clamps fields to the column limits up front so the insert is not rejected.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxService {
+
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    private final NotificationOutboxRepository outboxRepository;
+
+    public NotificationOutbox enqueue(NotificationOutbox.AudienceType audienceType, UUID audienceId,
+                                      UUID excludeUserId, String title, String body, Map<String, String> data) {
+        if (audienceType == null || audienceId == null) {
+            throw new IllegalArgumentException("Notification audience is required");
+        }
+
+        NotificationOutbox notification = new NotificationOutbox();
+        notification.setAudienceType(audienceType);
+        notification.setAudienceId(audienceId);
+        notification.setExcludeUserId(excludeUserId);
+        notification.setTitle(truncate(title != null ? title : "", MAX_TITLE_LENGTH));
+        notification.setBody(body);
+        notification.setData(data != null ? new HashMap<>(data) : new HashMap<>());
+
+        NotificationOutbox saved = outboxRepository.save(notification);
+        log.debug("Queued {} push notification for {} {}", audienceType, audienceId, saved.getId());
+        return saved;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -10,7 +10,6 @@ import com.churchapp.repository.UserRepository;
 import com.google.firebase.messaging.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -23,10 +22,11 @@ import java.util.UUID;
 @Slf4j
 public class NotificationService {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
     private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final PostCommentRepository postCommentRepository;
+    private final PushFanoutService pushFanoutService;
 
     /**
      * Send a push notification to a single device
@@ -62,17 +62,7 @@ public class NotificationService {
             messageBuilder.putAllData(fullData);
 
             // Generate a unique tag based on notification type and ID to prevent duplicates
-            String notificationTag = "thegathering";
-            if (data != null) {
-                String type = data.get("type");
-                String id = data.get("messageId") != null ? data.get("messageId")
-                          : data.get("postId") != null ? data.get("postId")
-                          : data.get("eventId") != null ? data.get("eventId")
-                          : data.get("prayerId");
-                if (type != null && id != null) {
-                    notificationTag = type + "_" + id;
-                }
-            }
+            String notificationTag = notificationTag(data);
 
             // Configure platform-specific options
             messageBuilder.setAndroidConfig(AndroidConfig.builder()
@@ -109,7 +99,7 @@ public class NotificationService {
                 log.error("Invalid FCM token: {}", fcmToken);
             } else if (e.getMessagingErrorCode() == MessagingErrorCode.UNREGISTERED) {
                 log.error("FCM token is no longer registered: {}", fcmToken);
-                // TODO: Remove invalid token from database
+                userRepository.clearFcmTokens(List.of(fcmToken));
             }
         } catch (Exception e) {
             log.error("Unexpected error sending notification: {}", e.getMessage(), e);
@@ -118,13 +108,14 @@ public class NotificationService {
 
     /**
      * Send a push notification to multiple devices (bulk send)
-     * Uses Firebase Multicast for efficient batch sending (up to 500 tokens per batch)
+     * Tokens are de-duplicated and sent as FCM multicasts of up to 500 tokens each;
+     * tokens FCM reports as invalid are removed from their users.
      * @param fcmTokens List of FCM tokens
      * @param title Notification title
      * @param body Notification body text
      * @param data Optional data payload
      */
-    public void sendBulkNotification(java.util.List<String> fcmTokens, String title, String body, Map<String, String> data) {
+    public void sendBulkNotification(List<String> fcmTokens, String title, String body, Map<String, String> data) {
         try {
             if (fcmTokens == null || fcmTokens.isEmpty()) {
                 log.warn("Cannot send bulk notification: token list is null or empty");
@@ -133,79 +124,32 @@ public class NotificationService {
 
             log.info("Sending bulk notification to {} tokens with title: {}", fcmTokens.size(), title);
 
-            // DATA-ONLY multicast: same approach as sendNotification() to avoid
-            // the browser auto-displaying a notification on top of the service
-            // worker's own showNotification() call.
-            MulticastMessage.Builder messageBuilder = MulticastMessage.builder()
-                    .addAllTokens(fcmTokens);
-
-            // Put title and body into the data payload
-            Map<String, String> fullData = new HashMap<>();
-            fullData.put("title", title);
-            fullData.put("body", body);
-            if (data != null) {
-                fullData.putAll(data);
-            }
-            messageBuilder.putAllData(fullData);
-
-            // Generate a unique tag based on notification type and ID to prevent duplicates
-            String notificationTag = "thegathering";
-            if (data != null) {
-                String type = data.get("type");
-                String id = data.get("messageId") != null ? data.get("messageId")
-                          : data.get("postId") != null ? data.get("postId")
-                          : data.get("eventId") != null ? data.get("eventId")
-                          : data.get("prayerId");
-                if (type != null && id != null) {
-                    notificationTag = type + "_" + id;
-                }
-            }
-
-            // Configure platform-specific options
-            messageBuilder.setAndroidConfig(AndroidConfig.builder()
-                    .setPriority(AndroidConfig.Priority.HIGH)
-                    .setCollapseKey(notificationTag)
-                    .build());
-
-            messageBuilder.setApnsConfig(ApnsConfig.builder()
-                    .setAps(Aps.builder()
-                            .setContentAvailable(true)
-                            .setSound("default")
-                            .build())
-                    .putHeader("apns-collapse-id", notificationTag)
-                    .build());
+            PushFanoutService.FanoutResult result = pushFanoutService.sendToTokens(fcmTokens, title, body, data);
+            log.info("Bulk notification sent. Success: {}, Failure: {}, Pruned: {}",
+                    result.successCount(), result.failureCount(), result.prunedTokens());
 
-            // Web push requires urgency header for data-only messages
-            messageBuilder.setWebpushConfig(WebpushConfig.builder()
-                    .putHeader("Urgency", "high")
-                    .build());
-
-            MulticastMessage message = messageBuilder.build();
-
-            // Send multicast message
-            BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
-            log.info("Bulk notification sent. Success: {}, Failure: {}",
-                    response.getSuccessCount(), response.getFailureCount());
-
-            // Log any failures
-            if (response.getFailureCount() > 0) {
-                for (int i = 0; i < response.getResponses().size(); i++) {
-                    SendResponse sendResponse = response.getResponses().get(i);
-                    if (!sendResponse.isSuccessful()) {
-                        log.error("Failed to send to token {}: {}",
-                                fcmTokens.get(i).substring(0, Math.min(10, fcmTokens.get(i).length())) + "...",
-                                sendResponse.getException().getMessage());
-                    }
-                }
-            }
-
-        } catch (FirebaseMessagingException e) {
-            log.error("Failed to send bulk notification: {}", e.getMessage(), e);
         } catch (Exception e) {
             log.error("Unexpected error sending bulk notification: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Collapse key shared by Android/APNs so repeated deliveries of the same item replace each other
+     */
+    static String notificationTag(Map<String, String> data) {
+        if (data != null) {
+            String type = data.get("type");
+            String id = data.get("messageId") != null ? data.get("messageId")
+                      : data.get("postId") != null ? data.get("postId")
+                      : data.get("eventId") != null ? data.get("eventId")
+                      : data.get("prayerId");
+            if (type != null && id != null) {
+                return type + "_" + id;
+            }
+        }
+        return "thegathering";
+    }
+
     // Lightweight placeholders to satisfy controller calls; wire to real logic later
     public void notifyPostLike(UUID postId, UUID actorUserId) {
         log.debug("notifyPostLike: postId={} actorUserId={}", postId, actorUserId);
@@ -263,7 +207,7 @@ public class NotificationService {
 
             // Send WebSocket notification to post author
             // Frontend subscribes to /user/queue/events via useEventNotifications hook
-            messagingTemplate.convertAndSendToUser(
+            messageBus.publishToUser(
                 postAuthor.getEmail(),  // Principal name (email)
                 "/queue/events",        // Same queue as chat/event notifications
                 wsEvent
@@ -0,0 +1,114 @@
+package com.churchapp.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind accumulator for per-organization API request metrics.
+ *
+ * The request path only bumps striped LongAdder counters (no locks, no queries).
+ * A scheduled flush writes the accumulated deltas to organization_metrics as one
+ * JDBC batch of relative UPDATEs, so concurrent instances never lose each other's counts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrganizationApiMetricsAggregator {
+
+    private static final String FLUSH_SQL =
+        "UPDATE organization_metrics " +
+        "SET api_requests_count = api_requests_count + ?, " +
+        "    data_transfer_bytes = data_transfer_bytes + ?, " +
+        "    updated_at = CURRENT_TIMESTAMP " +
+        "WHERE organization_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<UUID, OrgCounters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Record one API request for an organization (hot path - lock-free).
+     */
+    public void recordRequest(UUID organizationId, long dataTransferBytes) {
+        OrgCounters orgCounters = counters.get(organizationId);
+        if (orgCounters == null) {
+            orgCounters = counters.computeIfAbsent(organizationId, id -> new OrgCounters());
+        }
+        orgCounters.requests.increment();
+        orgCounters.bytes.add(dataTransferBytes);
+    }
+
+    /**
+     * Flush accumulated deltas to the database.
+     * Counters are never reset; each flush writes (current sum - last flushed sum), so
+     * increments racing with the flush are simply picked up by the next one.
+     */
+    @Scheduled(fixedDelayString = "${metrics.api-requests.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        List<UUID> orgIds = new ArrayList<>();
+        List<long[]> deltas = new ArrayList<>();
+
+        counters.forEach((orgId, orgCounters) -> {
+            long requests = orgCounters.requests.sum();
+            long bytes = orgCounters.bytes.sum();
+            long requestDelta = requests - orgCounters.flushedRequests;
+            long bytesDelta = bytes - orgCounters.flushedBytes;
+            if (requestDelta > 0 || bytesDelta > 0) {
+                orgIds.add(orgId);
+                deltas.add(new long[] { requests, bytes, requestDelta, bytesDelta });
+            }
+        });
+
+        if (orgIds.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(orgIds.size());
+        for (int i = 0; i < orgIds.size(); i++) {
+            long[] delta = deltas.get(i);
+            batchArgs.add(new Object[] { delta[2], delta[3], orgIds.get(i) });
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs);
+        } catch (Exception e) {
+            // Leave the flushed marks untouched so the deltas are retried on the next flush
+            log.warn("Failed to flush API request metrics for {} organizations: {}", orgIds.size(), e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < orgIds.size(); i++) {
+            OrgCounters orgCounters = counters.get(orgIds.get(i));
+            long[] delta = deltas.get(i);
+            orgCounters.flushedRequests = delta[0];
+            orgCounters.flushedBytes = delta[1];
+        }
+
+        log.debug("Flushed API request metrics for {} organizations", orgIds.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing API request metrics before shutdown");
+        flush();
+    }
+
+    private static final class OrgCounters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        // Only touched inside synchronized flush()
+        private long flushedRequests;
+        private long flushedBytes;
+    }
+}
@@ -3,11 +3,13 @@ package com.churchapp.service;
 import com.churchapp.entity.Organization;
 import com.churchapp.entity.User;
 import com.churchapp.entity.UserOrganizationGroup;
+import com.churchapp.event.FeedContextChangedEvent;
 import com.churchapp.repository.OrganizationRepository;
 import com.churchapp.repository.UserOrganizationGroupRepository;
 import com.churchapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,7 @@ public class OrganizationGroupService {
     private final UserOrganizationGroupRepository repository;
     private final UserRepository userRepository;
     private final OrganizationRepository organizationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Add an organization as a group (feed-only view)
@@ -64,6 +67,7 @@ public class OrganizationGroupService {
 
         UserOrganizationGroup saved = repository.save(follow);
         log.info("User {} followed organization {} as group", userId, organizationId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "followed organization as group"));
         return saved;
     }
 
@@ -76,6 +80,7 @@ public class OrganizationGroupService {
 
         repository.delete(follow);
         log.info("User {} unfollowed organization {} as group", userId, organizationId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "unfollowed organization as group"));
     }
 
     /**
@@ -98,6 +103,7 @@ public class OrganizationGroupService {
     public void muteOrganizationAsGroup(UUID userId, UUID organizationId) {
         repository.updateMuteStatus(userId, organizationId, true);
         log.info("User {} muted organization {} as group", userId, organizationId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "muted organization as group"));
     }
 
     /**
@@ -106,6 +112,7 @@ public class OrganizationGroupService {
     public void unmuteOrganizationAsGroup(UUID userId, UUID organizationId) {
         repository.updateMuteStatus(userId, organizationId, false);
         log.info("User {} unmuted organization {} as group", userId, organizationId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "unmuted organization as group"));
     }
 
     /**
@@ -0,0 +1,329 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.MetricsJobCheckpoint;
+import com.churchapp.entity.OrganizationMetrics;
+import com.churchapp.entity.OrganizationMetricsHistory;
+import com.churchapp.repository.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nightly recomputation of organization metrics and daily history snapshots.
+ *
+ * Organization IDs are paged in ID order (keyset) into partitions of metrics.job.partition-size.
+ * Partitions run in parallel on the metricsJobExecutor, each in its own transaction: one GROUP BY
+ * query per counted table covers the whole partition, metrics rows are upserted and a snapshot is
+ * recorded for every organization that doesn't have one for the day yet.
+ *
+ * Progress is checkpointed in metrics_job_checkpoints as the highest organization ID below which
+ * every partition has completed. A run interrupted by a restart or a failed partition resumes from
+ * there (see resumeInterrupted), and re-running a partition is harmless: counts are overwritten
+ * and snapshots already taken that day are skipped.
+ */
+@Service
+@Slf4j
+public class OrganizationMetricsBatchJob {
+
+    private static final String JOB_NAME = "organization-metrics";
+    private static final int ACTIVE_USER_DAYS = 30; // Users active within last 30 days
+
+    private final OrganizationRepository organizationRepository;
+    private final OrganizationMetricsRepository metricsRepository;
+    private final OrganizationMetricsHistoryRepository historyRepository;
+    private final PostRepository postRepository;
+    private final PrayerRequestRepository prayerRequestRepository;
+    private final EventRepository eventRepository;
+    private final AnnouncementRepository announcementRepository;
+    private final UserOrganizationMembershipRepository membershipRepository;
+    private final MetricsJobCheckpointRepository checkpointRepository;
+    private final Executor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong organizationsTotal = new AtomicLong();
+    private final AtomicLong organizationsProcessed = new AtomicLong();
+    private final Timer jobTimer;
+    private final Timer partitionTimer;
+    private final Counter partitionFailures;
+
+    @Value("${metrics.job.partition-size:200}")
+    private int partitionSize;
+
+    public OrganizationMetricsBatchJob(OrganizationRepository organizationRepository,
+                                       OrganizationMetricsRepository metricsRepository,
+                                       OrganizationMetricsHistoryRepository historyRepository,
+                                       PostRepository postRepository,
+                                       PrayerRequestRepository prayerRequestRepository,
+                                       EventRepository eventRepository,
+                                       AnnouncementRepository announcementRepository,
+                                       UserOrganizationMembershipRepository membershipRepository,
+                                       MetricsJobCheckpointRepository checkpointRepository,
+                                       @Qualifier("metricsJobExecutor") Executor executor,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry) {
+        this.organizationRepository = organizationRepository;
+        this.metricsRepository = metricsRepository;
+        this.historyRepository = historyRepository;
+        this.postRepository = postRepository;
+        this.prayerRequestRepository = prayerRequestRepository;
+        this.eventRepository = eventRepository;
+        this.announcementRepository = announcementRepository;
+        this.membershipRepository = membershipRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("organization.metrics.job.organizations.total", organizationsTotal, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("organization.metrics.job.organizations.processed", organizationsProcessed, AtomicLong::get)
+                .register(meterRegistry);
+        this.jobTimer = Timer.builder("organization.metrics.job.duration").register(meterRegistry);
+        this.partitionTimer = Timer.builder("organization.metrics.job.partition.duration").register(meterRegistry);
+        this.partitionFailures = Counter.builder("organization.metrics.job.partition.failures").register(meterRegistry);
+    }
+
+    /**
+     * Run today's job: start it, or resume it if an earlier attempt today was interrupted.
+     * Does nothing if today's run already completed or a run is in progress on this instance.
+     *
+     * @return number of organizations processed by this call
+     */
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Organization metrics job is already running");
+            return 0;
+        }
+        try {
+            return execute();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Finish today's run if it was interrupted; a no-op otherwise
+     */
+    public int resumeInterrupted() {
+        MetricsJobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElse(null);
+        if (checkpoint == null || !checkpoint.isInterrupted(LocalDate.now()) || running.get()) {
+            return 0;
+        }
+        log.info("Resuming interrupted organization metrics job after organization {}",
+                checkpoint.getLastOrganizationId());
+        return run();
+    }
+
+    private int execute() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+
+        MetricsJobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new MetricsJobCheckpoint(JOB_NAME));
+        if (checkpoint.isCompleted(today)) {
+            log.info("Organization metrics job already completed today at {}", checkpoint.getCompletedAt());
+            return 0;
+        }
+        if (!checkpoint.isInterrupted(today)) {
+            checkpoint.start(today, now);
+            checkpoint = checkpointRepository.save(checkpoint);
+        }
+
+        List<List<UUID>> partitions = partition(checkpoint.getLastOrganizationId());
+        int remaining = partitions.stream().mapToInt(List::size).sum();
+        organizationsProcessed.set(checkpoint.getOrganizationsProcessed());
+        organizationsTotal.set(checkpoint.getOrganizationsProcessed() + remaining);
+        log.info("Starting organization metrics job: {} organizations in {} partitions{}",
+                remaining, partitions.size(),
+                checkpoint.getLastOrganizationId() != null ? " (resumed after " + checkpoint.getLastOrganizationId() + ")" : "");
+
+        Progress progress = new Progress(checkpoint, partitions);
+        LocalDateTime activeSince = now.minusDays(ACTIVE_USER_DAYS);
+        LocalDateTime snapshotSince = today.atStartOfDay();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            int index = i;
+            List<UUID> organizationIds = partitions.get(i);
+            futures.add(CompletableFuture
+                    .runAsync(() -> processPartition(organizationIds, activeSince, snapshotSince), executor)
+                    .handle((ignored, error) -> {
+                        progress.partitionDone(index, error);
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        long elapsed = System.nanoTime() - started;
+        jobTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        int failed = progress.finish();
+        if (failed == 0) {
+            log.info("Organization metrics job completed: {} organizations in {} ms",
+                    remaining, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } else {
+            log.warn("Organization metrics job finished with {} failed partitions in {} ms; it resumes after organization {}",
+                    failed, TimeUnit.NANOSECONDS.toMillis(elapsed), progress.checkpoint.getLastOrganizationId());
+        }
+        return progress.processed;
+    }
+
+    /**
+     * Page the IDs of non-deleted organizations after the checkpoint into partitions
+     */
+    private List<List<UUID>> partition(UUID after) {
+        List<List<UUID>> partitions = new ArrayList<>();
+        List<UUID> page;
+        do {
+            PageRequest pageRequest = PageRequest.of(0, partitionSize);
+            page = after == null
+                    ? organizationRepository.findActiveIds(pageRequest)
+                    : organizationRepository.findActiveIdsAfter(after, pageRequest);
+            if (!page.isEmpty()) {
+                partitions.add(page);
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == partitionSize);
+        return partitions;
+    }
+
+    /**
+     * Recompute metrics and record today's snapshots for one partition, in one transaction
+     */
+    void processPartition(List<UUID> organizationIds, LocalDateTime activeSince, LocalDateTime snapshotSince) {
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<UUID, Long> posts = counts(postRepository.countGroupedByOrganizationIdIn(organizationIds));
+            Map<UUID, Long> prayerRequests = counts(prayerRequestRepository.countGroupedByOrganizationIdIn(organizationIds));
+            Map<UUID, Long> events = counts(eventRepository.countGroupedByOrganizationIdIn(organizationIds));
+            Map<UUID, Long> announcements = counts(announcementRepository.countGroupedByOrganizationIdIn(organizationIds));
+            Map<UUID, Long> activeUsers = counts(membershipRepository.countActiveGroupedByOrganizationIdIn(organizationIds, activeSince));
+
+            Map<UUID, OrganizationMetrics> existing = new HashMap<>();
+            for (OrganizationMetrics metrics : metricsRepository.findByOrganizationIdIn(organizationIds)) {
+                existing.put(metrics.getOrganization().getId(), metrics);
+            }
+
+            LocalDateTime calculatedAt = LocalDateTime.now();
+            List<OrganizationMetrics> rows = new ArrayList<>(organizationIds.size());
+            for (UUID organizationId : organizationIds) {
+                OrganizationMetrics metrics = existing.get(organizationId);
+                if (metrics == null) {
+                    metrics = new OrganizationMetrics();
+                    metrics.setOrganization(organizationRepository.getReferenceById(organizationId));
+                }
+                metrics.setCalculatedAt(calculatedAt);
+                metrics.setPostsCount(posts.getOrDefault(organizationId, 0L).intValue());
+                metrics.setPrayerRequestsCount(prayerRequests.getOrDefault(organizationId, 0L).intValue());
+                metrics.setEventsCount(events.getOrDefault(organizationId, 0L).intValue());
+                metrics.setAnnouncementsCount(announcements.getOrDefault(organizationId, 0L).intValue());
+                metrics.setActiveUsersCount(activeUsers.getOrDefault(organizationId, 0L).intValue());
+                // Storage and network columns are running totals kept by StorageLedgerService and
+                // OrganizationApiMetricsAggregator. They are mapped updatable = false, so saveAll
+                // below writes only the counts above and never the values read when the partition loaded
+                rows.add(metrics);
+            }
+            rows = metricsRepository.saveAll(rows);
+
+            Set<UUID> snapshotted = new HashSet<>(
+                    historyRepository.findOrganizationIdsWithSnapshotSince(organizationIds, snapshotSince));
+            List<OrganizationMetricsHistory> snapshots = new ArrayList<>();
+            for (OrganizationMetrics metrics : rows) {
+                if (!snapshotted.contains(metrics.getOrganization().getId())) {
+                    snapshots.add(OrganizationMetricsHistory.fromMetrics(metrics));
+                }
+            }
+            historyRepository.saveAll(snapshots);
+        });
+        partitionTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private static Map<UUID, Long> counts(List<Object[]> rows) {
+        Map<UUID, Long> counts = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            counts.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Tracks completed partitions and advances the checkpoint over the completed prefix.
+     * Partitions finish out of order; the checkpoint only moves past a partition once it and
+     * every partition before it are done.
+     */
+    private final class Progress {
+        private final MetricsJobCheckpoint checkpoint;
+        private final List<List<UUID>> partitions;
+        private final boolean[] done;
+        private int nextPending;
+        private int processed;
+        private int failed;
+
+        private Progress(MetricsJobCheckpoint checkpoint, List<List<UUID>> partitions) {
+            this.checkpoint = checkpoint;
+            this.partitions = partitions;
+            this.done = new boolean[partitions.size()];
+        }
+
+        private synchronized void partitionDone(int index, Throwable error) {
+            if (error != null) {
+                failed++;
+                partitionFailures.increment();
+                log.error("Organization metrics partition {} ({} organizations from {}) failed",
+                        index, partitions.get(index).size(), partitions.get(index).get(0), error);
+                return;
+            }
+            done[index] = true;
+            processed += partitions.get(index).size();
+            organizationsProcessed.addAndGet(partitions.get(index).size());
+
+            int advanced = 0;
+            while (nextPending < done.length && done[nextPending]) {
+                List<UUID> partition = partitions.get(nextPending);
+                checkpoint.setLastOrganizationId(partition.get(partition.size() - 1));
+                advanced += partition.size();
+                nextPending++;
+            }
+            if (advanced > 0) {
+                checkpoint.setOrganizationsProcessed(checkpoint.getOrganizationsProcessed() + advanced);
+                save();
+            }
+            log.info("Organization metrics job progress: {}/{} organizations", organizationsProcessed.get(),
+                    organizationsTotal.get());
+        }
+
+        private synchronized int finish() {
+            if (failed == 0) {
+                checkpoint.setCompletedAt(LocalDateTime.now());
+                save();
+            }
+            return failed;
+        }
+
+        private void save() {
+            try {
+                checkpointRepository.save(checkpoint);
+            } catch (RuntimeException e) {
+                // Losing a checkpoint only means redoing some partitions on resume
+                log.warn("Failed to save organization metrics job checkpoint: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.churchapp.service;
 
 import com.churchapp.entity.Organization;
 import com.churchapp.entity.OrganizationMetrics;
-import com.churchapp.entity.User;
 import com.churchapp.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -25,14 +24,9 @@ public class OrganizationMetricsService {
     private final PrayerRequestRepository prayerRequestRepository;
     private final EventRepository eventRepository;
     private final AnnouncementRepository announcementRepository;
-    private final ResourceRepository resourceRepository;
     private final UserOrganizationMembershipRepository membershipRepository;
-    private final S3StorageCalculator s3StorageCalculator;
+    private final OrganizationApiMetricsAggregator apiMetricsAggregator;
 
-    // Average file size estimates (in bytes) for storage calculation
-    private static final long AVG_MEDIA_FILE_SIZE = 2_000_000L; // 2MB average for images/videos
-    private static final long AVG_DOCUMENT_SIZE = 500_000L; // 500KB average for documents
-    private static final long AVG_PROFILE_PIC_SIZE = 200_000L; // 200KB average for profile pics
     private static final int ACTIVE_USER_DAYS = 30; // Users active within last 30 days
 
     /**
@@ -67,38 +61,11 @@ public class OrganizationMetricsService {
         int activeUsersCount = countActiveUsers(organizationId, activeSince);
         metrics.setActiveUsersCount(activeUsersCount);
 
-        // Calculate storage metrics (actual S3 file sizes)
-        // Fallback to estimates if S3 queries fail
-        long storageMediaFiles;
-        long storageDocuments;
-        long storageProfilePics;
-        
-        try {
-            storageMediaFiles = s3StorageCalculator.calculateMediaStorage(organizationId);
-            storageDocuments = s3StorageCalculator.calculateDocumentStorage(organizationId);
-            storageProfilePics = s3StorageCalculator.calculateProfilePicStorage(organizationId);
-            log.info("Calculated actual S3 storage for organization {}: media={} bytes, docs={} bytes, pics={} bytes", 
-                organizationId, storageMediaFiles, storageDocuments, storageProfilePics);
-        } catch (Exception e) {
-            log.warn("Error calculating S3 storage for organization {}, falling back to estimates: {}", 
-                organizationId, e.getMessage());
-            // Fallback to estimates
-            storageMediaFiles = calculateMediaStorage(organizationId);
-            storageDocuments = calculateDocumentStorage(organizationId);
-            storageProfilePics = calculateProfilePicStorage(organizationId);
-        }
-        
-        long totalStorage = storageMediaFiles + storageDocuments + storageProfilePics;
-
-        metrics.setStorageMediaFiles(storageMediaFiles);
-        metrics.setStorageDocuments(storageDocuments);
-        metrics.setStorageProfilePics(storageProfilePics);
-        metrics.setStorageUsed(totalStorage);
-
-        // Network metrics (placeholder - will be implemented with interceptor/middleware)
-        // For now, set to 0 as we don't have request tracking yet
-        metrics.setApiRequestsCount(0);
-        metrics.setDataTransferBytes(0L);
+        // Storage totals (storageUsed and its per-category parts) are running totals kept by
+        // StorageLedgerService and are not recalculated here
+
+        // Network metrics (apiRequestsCount, dataTransferBytes) are accumulated by
+        // OrganizationApiMetricsAggregator and must not be reset here
 
         OrganizationMetrics saved = metricsRepository.save(metrics);
         log.info("Metrics calculated for organization {}: {} posts, {} prayers, {} events, {} active users, {} bytes storage",
@@ -120,110 +87,15 @@ public class OrganizationMetricsService {
      * Count active users (logged in within specified time period)
      */
     private int countActiveUsers(UUID organizationId, LocalDateTime since) {
-        // Get all members of the organization
-        var memberships = membershipRepository.findByOrganizationId(organizationId);
-        
-        int activeCount = 0;
-        for (var membership : memberships) {
-            User user = membership.getUser();
-            if (user.getLastLogin() != null && user.getLastLogin().isAfter(since)) {
-                activeCount++;
-            }
-        }
-        
-        return activeCount;
-    }
-
-    /**
-     * Calculate estimated storage for media files (posts, announcements)
-     */
-    private long calculateMediaStorage(UUID organizationId) {
-        // Count posts with media
-        Long postsWithMedia = postRepository.countByOrganizationId(organizationId);
-        // Count announcements with images
-        Long announcementsWithImages = announcementRepository.countByOrganizationId(organizationId);
-        
-        long totalMediaFiles = (postsWithMedia != null ? postsWithMedia : 0) +
-                              (announcementsWithImages != null ? announcementsWithImages : 0);
-        
-        // Estimate: assume 30% of posts/announcements have media, average 2MB each
-        long estimatedFiles = (long) (totalMediaFiles * 0.3);
-        return estimatedFiles * AVG_MEDIA_FILE_SIZE;
-    }
-
-    /**
-     * Calculate estimated storage for documents (resources library)
-     */
-    private long calculateDocumentStorage(UUID organizationId) {
-        // Count resources uploaded by organization members
-        var memberships = membershipRepository.findByOrganizationId(organizationId);
-        long totalDocuments = 0;
-        
-        for (var membership : memberships) {
-            User user = membership.getUser();
-            long userResources = resourceRepository.findByUploadedBy(user, 
-                org.springframework.data.domain.PageRequest.of(0, 1000)).getTotalElements();
-            totalDocuments += userResources;
-        }
-        
-        // Estimate: average 500KB per document
-        return totalDocuments * AVG_DOCUMENT_SIZE;
+        List<Object[]> rows = membershipRepository.countActiveGroupedByOrganizationIdIn(List.of(organizationId), since);
+        return rows.isEmpty() ? 0 : ((Number) rows.get(0)[1]).intValue();
     }
 
     /**
-     * Calculate estimated storage for profile pictures
-     */
-    private long calculateProfilePicStorage(UUID organizationId) {
-        // Count organization members with profile pictures
-        var memberships = membershipRepository.findByOrganizationId(organizationId);
-        long membersWithPics = 0;
-        
-        for (var membership : memberships) {
-            User user = membership.getUser();
-            if (user.getProfilePicUrl() != null && !user.getProfilePicUrl().isEmpty()) {
-                membersWithPics++;
-            }
-        }
-        
-        // Estimate: average 200KB per profile picture
-        return membersWithPics * AVG_PROFILE_PIC_SIZE;
-    }
-
-    /**
-     * Update metrics for all organizations (for scheduled job)
-     */
-    public void updateAllOrganizationsMetrics() {
-        log.info("Starting metrics update for all organizations");
-        
-        var organizations = organizationRepository.findAll();
-        int count = 0;
-        
-        for (Organization org : organizations) {
-            if (org.getDeletedAt() == null) {
-                try {
-                    calculateMetrics(org.getId());
-                    count++;
-                } catch (Exception e) {
-                    log.error("Error calculating metrics for organization {}: {}", org.getId(), e.getMessage());
-                }
-            }
-        }
-        
-        log.info("Completed metrics update for {} organizations", count);
-    }
-
-    /**
-     * Increment API request count (called by interceptor/middleware)
+     * Increment API request count.
+     * Delegates to the write-behind aggregator; the row is updated on the next flush.
      */
     public void incrementApiRequest(UUID organizationId, long dataTransferBytes) {
-        Optional<OrganizationMetrics> metricsOpt = metricsRepository.findByOrganizationId(organizationId);
-        
-        if (metricsOpt.isPresent()) {
-            OrganizationMetrics metrics = metricsOpt.get();
-            metrics.setApiRequestsCount(metrics.getApiRequestsCount() + 1);
-            metrics.setDataTransferBytes(metrics.getDataTransferBytes() + dataTransferBytes);
-            metricsRepository.save(metrics);
-        }
+        apiMetricsAggregator.recordRequest(organizationId, dataTransferBytes);
     }
 }
-
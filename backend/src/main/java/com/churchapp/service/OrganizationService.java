@@ -4,9 +4,12 @@ import com.churchapp.entity.Organization;
 import com.churchapp.entity.User;
 import com.churchapp.entity.UserOrganizationHistory;
 import com.churchapp.entity.UserOrganizationMembership;
+import com.churchapp.event.FeedContextChangedEvent;
+import com.churchapp.event.PrayerSheetChangedEvent;
 import com.churchapp.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -39,6 +42,7 @@ public class OrganizationService {
     private final DonationSubscriptionRepository donationSubscriptionRepository;
     private final GroupRepository groupRepository;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Cooldown removed! Users can now switch organizations freely like real life!
     // private static final int ORG_SWITCH_COOLDOWN_DAYS = 30;  // DEPRECATED - no more cooldown
@@ -148,6 +152,7 @@ public class OrganizationService {
             log.info("User {} set as Church Primary ORG_ADMIN of organization {}", creator.getId(), saved.getId());
         }
         userRepository.save(creator);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(creator.getId(), "created organization"));
 
         // Notify platform owner/support so banking outreach can start immediately.
         try {
@@ -293,6 +298,7 @@ public class OrganizationService {
         // 3. Delete all prayer requests
         log.info("Deleting prayer requests for organization: {}", orgId);
         prayerRequestRepository.deleteByOrganizationId(orgId);
+        eventPublisher.publishEvent(PrayerSheetChangedEvent.forOrganization(orgId, "deleted organization"));
         
         // 4. Delete all events and their related data
         log.info("Deleting events for organization: {}", orgId);
@@ -407,6 +413,7 @@ public class OrganizationService {
         }
         
         log.warn("Organization {} deleted successfully", orgId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forAllUsers("organization deleted"));
     }
 
     // ========================================================================
@@ -491,6 +498,7 @@ public class OrganizationService {
         // Delete the membership (user is leaving the organization completely)
         membershipRepository.delete(membership);
         log.info("User {} left organization {}", userId, orgId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "left organization"));
     }
     
     // ========================================================================
@@ -710,6 +718,7 @@ public class OrganizationService {
         userRepository.save(user);
 
         log.info("User {} set Church Primary from {} to {}", userId, oldOrgId, orgId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "church primary changed"));
 
         return membership;
     }
@@ -787,6 +796,7 @@ public class OrganizationService {
         userRepository.save(user);
 
         log.info("User {} set Family Primary from {} to {}", userId, oldOrgId, orgId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "family primary changed"));
 
         return membership;
     }
@@ -824,6 +834,7 @@ public class OrganizationService {
 
         UserOrganizationMembership saved = membershipRepository.save(membership);
         log.info("User {} joined organization {} as GROUP (social feed only)", userId, orgId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "joined organization as group"));
 
         return saved;
     }
@@ -851,6 +862,7 @@ public class OrganizationService {
             userRepository.save(user);
             
             log.info("User {} cleared Church Primary (was {})", userId, oldOrgId);
+            eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "church primary cleared"));
         }
     }
 
@@ -877,6 +889,7 @@ public class OrganizationService {
             userRepository.save(user);
             
             log.info("User {} cleared Family Primary (was {})", userId, oldOrgId);
+            eventPublisher.publishEvent(FeedContextChangedEvent.forUser(userId, "family primary cleared"));
         }
     }
 
@@ -22,6 +22,7 @@ public class PostAnalyticsService {
 
     private final PostViewRepository postViewRepository;
     private final PostRepository postRepository;
+    private final PostEngagementCounters engagementCounters;
 
     /**
      * Record a post view
@@ -187,18 +188,8 @@ public class PostAnalyticsService {
      * This provides fast view count display without querying post_views table
      */
     private void incrementPostViewsCount(UUID postId) {
-        try {
-            Post post = postRepository.findById(postId).orElse(null);
-            if (post != null) {
-                Integer currentCount = post.getViewsCount() != null ? post.getViewsCount() : 0;
-                post.setViewsCount(currentCount + 1);
-                postRepository.save(post);
-                log.debug("Incremented views_count for post {} to {}", postId, post.getViewsCount());
-            }
-        } catch (Exception e) {
-            // Don't throw - view count increment failure shouldn't break the experience
-            log.error("Error incrementing views_count for post {}: {}", postId, e.getMessage());
-        }
+        // Buffered and flushed as a relative UPDATE once this transaction commits
+        engagementCounters.viewed(postId);
     }
 }
 
@@ -0,0 +1,254 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.Post;
+import com.churchapp.entity.PostReactionType;
+import com.churchapp.util.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind engagement counters for posts: likes and their per-reaction breakdown, comments,
+ * shares, bookmarks and views.
+ *
+ * Interactions only bump striped LongAdder accumulators once their transaction commits, so a burst
+ * of reactions on one post never queues on its row lock or loses updates to read-modify-write saves.
+ * A scheduled flush writes the accumulated deltas as one JDBC batch of relative UPDATEs
+ * (column = column + delta), refreshing trending_score in the same statement.
+ *
+ * As in OrganizationApiMetricsAggregator, accumulators are never reset: each flush writes
+ * (current sum - last flushed sum), so increments racing with a flush are picked up by the next one
+ * and a failed flush is simply retried. Posts with no activity for a whole interval are dropped from
+ * memory; they are flushed once more on the following run to catch an increment that raced the eviction.
+ * Counters read from the database lag by at most one flush interval.
+ */
+@Service
+@Slf4j
+public class PostEngagementCounters {
+
+    // Accumulator slots: the five posts counters, then one per reaction type (in enum order)
+    private static final int LIKES = 0;
+    private static final int COMMENTS = 1;
+    private static final int SHARES = 2;
+    private static final int BOOKMARKS = 3;
+    private static final int VIEWS = 4;
+    private static final int REACTIONS = 5;
+    private static final PostReactionType[] REACTION_TYPES = PostReactionType.values();
+    private static final int SLOTS = REACTIONS + REACTION_TYPES.length;
+
+    private static final String FLUSH_SQL = buildFlushSql();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, PostCounters> counters = new ConcurrentHashMap<>();
+
+    // Evicted by the previous flush; only touched inside synchronized flush()
+    private List<PostCounters> evicted = new ArrayList<>();
+
+    public PostEngagementCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * A user reacted to a post they hadn't reacted to before
+     */
+    public void reactionAdded(UUID postId, PostReactionType reactionType) {
+        TransactionUtil.afterCommit(() -> {
+            PostCounters postCounters = countersFor(postId);
+            postCounters.add(LIKES, 1);
+            postCounters.add(reactionSlot(reactionType), 1);
+        });
+    }
+
+    /**
+     * A user switched their reaction; likes_count is unchanged
+     */
+    public void reactionChanged(UUID postId, PostReactionType from, PostReactionType to) {
+        TransactionUtil.afterCommit(() -> {
+            PostCounters postCounters = countersFor(postId);
+            postCounters.add(reactionSlot(from), -1);
+            postCounters.add(reactionSlot(to), 1);
+        });
+    }
+
+    /**
+     * A user removed their reaction
+     */
+    public void reactionRemoved(UUID postId, PostReactionType reactionType) {
+        TransactionUtil.afterCommit(() -> {
+            PostCounters postCounters = countersFor(postId);
+            postCounters.add(LIKES, -1);
+            postCounters.add(reactionSlot(reactionType), -1);
+        });
+    }
+
+    public void commentsChanged(UUID postId, int delta) {
+        TransactionUtil.afterCommit(() -> countersFor(postId).add(COMMENTS, delta));
+    }
+
+    public void sharesChanged(UUID postId, int delta) {
+        TransactionUtil.afterCommit(() -> countersFor(postId).add(SHARES, delta));
+    }
+
+    public void bookmarksChanged(UUID postId, int delta) {
+        TransactionUtil.afterCommit(() -> countersFor(postId).add(BOOKMARKS, delta));
+    }
+
+    public void viewed(UUID postId) {
+        TransactionUtil.afterCommit(() -> countersFor(postId).add(VIEWS, 1));
+    }
+
+    /**
+     * One impression for each post ID (repeated IDs count repeatedly)
+     */
+    public void viewed(Collection<UUID> postIds) {
+        TransactionUtil.afterCommit(() -> postIds.forEach(postId -> countersFor(postId).add(VIEWS, 1)));
+    }
+
+    /**
+     * Flush accumulated deltas to the database in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${feed.engagement.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        List<PostCounters> changed = new ArrayList<>();
+        List<long[]> sums = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        List<PostCounters> idle = new ArrayList<>();
+
+        for (PostCounters postCounters : evicted) {
+            collect(postCounters, changed, sums, batchArgs);
+        }
+        for (PostCounters postCounters : counters.values()) {
+            if (!collect(postCounters, changed, sums, batchArgs)) {
+                idle.add(postCounters);
+            }
+        }
+
+        if (!batchArgs.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs));
+            } catch (Exception e) {
+                // Leave the flushed marks (and the evicted list) untouched so the deltas are retried
+                log.warn("Failed to flush engagement counters for {} posts: {}", batchArgs.size(), e.getMessage());
+                return;
+            }
+            for (int i = 0; i < changed.size(); i++) {
+                System.arraycopy(sums.get(i), 0, changed.get(i).flushed, 0, SLOTS);
+            }
+            log.debug("Flushed engagement counters for {} posts", batchArgs.size());
+        }
+
+        for (PostCounters postCounters : idle) {
+            counters.remove(postCounters.postId, postCounters);
+        }
+        evicted = idle;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing post engagement counters before shutdown");
+        flush();
+    }
+
+    /**
+     * Queue one post's pending deltas for the batch
+     *
+     * @return whether it had any
+     */
+    private boolean collect(PostCounters postCounters, List<PostCounters> changed, List<long[]> sums,
+                            List<Object[]> batchArgs) {
+        long[] current = new long[SLOTS];
+        long[] delta = new long[SLOTS];
+        boolean any = false;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            current[slot] = postCounters.adders[slot].sum();
+            delta[slot] = current[slot] - postCounters.flushed[slot];
+            any |= delta[slot] != 0;
+        }
+        if (!any) {
+            return false;
+        }
+
+        Object[] args = new Object[SLOTS + 5];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            args[slot] = delta[slot];
+        }
+        // trending_score is computed from the pre-update row, so it takes the engagement deltas again
+        args[SLOTS] = delta[LIKES];
+        args[SLOTS + 1] = delta[COMMENTS];
+        args[SLOTS + 2] = delta[SHARES];
+        args[SLOTS + 3] = (double) Post.TRENDING_HALF_LIFE_SECONDS;
+        args[SLOTS + 4] = postCounters.postId;
+
+        changed.add(postCounters);
+        sums.add(current);
+        batchArgs.add(args);
+        return true;
+    }
+
+    private PostCounters countersFor(UUID postId) {
+        PostCounters postCounters = counters.get(postId);
+        if (postCounters == null) {
+            postCounters = counters.computeIfAbsent(postId, PostCounters::new);
+        }
+        return postCounters;
+    }
+
+    private static int reactionSlot(PostReactionType reactionType) {
+        return REACTIONS + (reactionType != null ? reactionType : PostReactionType.HEART).ordinal();
+    }
+
+    /**
+     * posts column holding the count for a reaction type (V65)
+     */
+    private static String reactionColumn(PostReactionType reactionType) {
+        return reactionType.name().toLowerCase(Locale.ROOT) + "_reactions_count";
+    }
+
+    private static String buildFlushSql() {
+        StringBuilder sql = new StringBuilder("UPDATE posts SET ")
+            .append("likes_count = GREATEST(likes_count + ?, 0), ")
+            .append("comments_count = GREATEST(comments_count + ?, 0), ")
+            .append("shares_count = GREATEST(shares_count + ?, 0), ")
+            .append("bookmarks_count = GREATEST(bookmarks_count + ?, 0), ")
+            .append("views_count = views_count + ?, ");
+        for (PostReactionType reactionType : REACTION_TYPES) {
+            String column = reactionColumn(reactionType);
+            sql.append(column).append(" = GREATEST(").append(column).append(" + ?, 0), ");
+        }
+        // Same formula as Post.computeTrendingScore and PostRepository.recomputeTrendingScores
+        return sql
+            .append("trending_score = LN(1 + GREATEST(likes_count + ?, 0) + GREATEST(comments_count + ?, 0) ")
+            .append("+ GREATEST(shares_count + ?, 0)) / LN(2) + EXTRACT(EPOCH FROM created_at) / ? ")
+            .append("WHERE id = ?")
+            .toString();
+    }
+
+    private static final class PostCounters {
+        private final UUID postId;
+        private final LongAdder[] adders = new LongAdder[SLOTS];
+        // Only touched inside synchronized flush()
+        private final long[] flushed = new long[SLOTS];
+
+        private PostCounters(UUID postId) {
+            this.postId = postId;
+            for (int slot = 0; slot < SLOTS; slot++) {
+                adders[slot] = new LongAdder();
+            }
+        }
+
+        private void add(int slot, long delta) {
+            adders[slot].add(delta);
+        }
+    }
+}
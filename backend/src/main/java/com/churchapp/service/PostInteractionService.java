@@ -25,6 +25,7 @@ public class PostInteractionService {
     private final PostBookmarkRepository postBookmarkRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final PostEngagementCounters engagementCounters;
 
     // ========== LIKE OPERATIONS ==========
 
@@ -52,8 +53,10 @@ public class PostInteractionService {
                 return;
             }
 
+            PostReactionType previousType = reaction.getReactionType();
             reaction.setReactionType(reactionType);
             postLikeRepository.save(reaction);
+            engagementCounters.reactionChanged(postId, previousType, reactionType);
             log.info("User {} changed reaction on post {} to {}", userEmail, postId, reactionType);
             return;
         }
@@ -63,9 +66,7 @@ public class PostInteractionService {
         like.setId(likeId);
         like.setReactionType(reactionType);
         postLikeRepository.save(like);
-
-        post.incrementLikesCount();
-        postRepository.save(post);
+        engagementCounters.reactionAdded(postId, reactionType);
 
         log.info("User {} reacted to post {} with {}", userEmail, postId, reactionType);
     }
@@ -78,7 +79,7 @@ public class PostInteractionService {
     @Transactional
     public void removePostReaction(String userEmail, UUID postId) {
         User user = getUserByEmail(userEmail);
-        Post post = getPostById(postId);
+        getPostById(postId);
 
         Optional<PostLike> like = postLikeRepository.findById_PostIdAndId_UserId(postId, user.getId());
         
@@ -89,8 +90,7 @@ public class PostInteractionService {
         }
 
         postLikeRepository.delete(like.get());
-        post.decrementLikesCount();
-        postRepository.save(post);
+        engagementCounters.reactionRemoved(postId, like.get().getReactionType());
 
         log.info("User {} removed reaction from post {}", userEmail, postId);
     }
@@ -143,8 +143,7 @@ public class PostInteractionService {
         PostComment savedComment = postCommentRepository.save(comment);
 
         // Update comment count on post
-        post.incrementCommentsCount();
-        postRepository.save(post);
+        engagementCounters.commentsChanged(postId, 1);
 
         log.info("User {} added comment {} to post {}", userEmail, savedComment.getId(), postId);
         return savedComment;
@@ -160,25 +159,26 @@ public class PostInteractionService {
         }
 
         // Delete the comment and all its replies
-        deleteCommentRecursively(comment);
+        int deleted = deleteCommentRecursively(comment);
 
-        // Update comment count on post
-        Post post = comment.getPost();
-        post.decrementCommentsCount();
-        postRepository.save(post);
+        // Update comment count on post (replies were counted too)
+        engagementCounters.commentsChanged(comment.getPost().getId(), -deleted);
 
         log.info("User {} deleted comment {}", userEmail, commentId);
     }
 
-    private void deleteCommentRecursively(PostComment comment) {
+    private int deleteCommentRecursively(PostComment comment) {
+        int deleted = 0;
+
         // Delete all replies first
         List<PostComment> replies = postCommentRepository.findByParentCommentIdOrderByCreatedAtAsc(comment.getId());
         for (PostComment reply : replies) {
-            deleteCommentRecursively(reply);
+            deleted += deleteCommentRecursively(reply);
         }
 
         // Delete the comment itself
         postCommentRepository.delete(comment);
+        return deleted + 1;
     }
 
     @Transactional
@@ -339,9 +339,7 @@ public class PostInteractionService {
         share.setContent(content);
 
         PostShare savedShare = postShareRepository.save(share);
-
-        post.incrementSharesCount();
-        postRepository.save(post);
+        engagementCounters.sharesChanged(postId, 1);
 
         log.info("User {} shared post {} with type {}", userEmail, postId, shareType);
         return savedShare;
@@ -350,7 +348,7 @@ public class PostInteractionService {
     @Transactional
     public void unsharePost(String userEmail, UUID postId) {
         User user = getUserByEmail(userEmail);
-        Post post = getPostById(postId);
+        getPostById(postId);
 
         Optional<PostShare> share = postShareRepository.findByPostIdAndUserId(postId, user.getId());
         
@@ -361,8 +359,7 @@ public class PostInteractionService {
         }
 
         postShareRepository.delete(share.get());
-        post.decrementSharesCount();
-        postRepository.save(post);
+        engagementCounters.sharesChanged(postId, -1);
 
         log.info("User {} unshared post {}", userEmail, postId);
     }
@@ -398,9 +395,7 @@ public class PostInteractionService {
         PostBookmark bookmark = new PostBookmark();
         bookmark.setId(bookmarkId);
         postBookmarkRepository.save(bookmark);
-
-        post.incrementBookmarksCount();
-        postRepository.save(post);
+        engagementCounters.bookmarksChanged(postId, 1);
 
         log.info("User {} bookmarked post {}", userEmail, postId);
     }
@@ -408,7 +403,7 @@ public class PostInteractionService {
     @Transactional
     public void unbookmarkPost(String userEmail, UUID postId) {
         User user = getUserByEmail(userEmail);
-        Post post = getPostById(postId);
+        getPostById(postId);
 
         Optional<PostBookmark> bookmark = postBookmarkRepository.findById_PostIdAndId_UserId(postId, user.getId());
         
@@ -419,8 +414,7 @@ public class PostInteractionService {
         }
 
         postBookmarkRepository.delete(bookmark.get());
-        post.decrementBookmarksCount();
-        postRepository.save(post);
+        engagementCounters.bookmarksChanged(postId, -1);
 
         log.info("User {} unbookmarked post {}", userEmail, postId);
     }
@@ -1,12 +1,10 @@
 package com.churchapp.service;
 
 import com.churchapp.dto.PostResponse;
-import com.churchapp.entity.MediaFile;
 import com.churchapp.entity.Post;
 import com.churchapp.entity.PostBookmark;
 import com.churchapp.entity.PostLike;
 import com.churchapp.entity.PostReactionType;
-import com.churchapp.repository.MediaFileRepository;
 import com.churchapp.repository.PostBookmarkRepository;
 import com.churchapp.repository.PostLikeRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,10 +15,8 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -33,7 +29,6 @@ public class PostResponseMapper {
     private final PostLikeRepository postLikeRepository;
     private final PostBookmarkRepository postBookmarkRepository;
     private final MediaUrlService mediaUrlService;
-    private final MediaFileRepository mediaFileRepository;
 
     public Page<PostResponse> mapPage(Page<Post> posts, UUID viewerId) {
         if (posts == null) {
@@ -58,8 +53,6 @@ public class PostResponseMapper {
             .map(Post::getId)
             .collect(Collectors.toList());
 
-        Map<UUID, Map<PostReactionType, Integer>> reactionCountsByPostId = getReactionCountsByPostId(postIds);
-
         Map<UUID, PostLike> reactionsByPostId = Collections.emptyMap();
         Set<UUID> bookmarkedPostIds = Collections.emptySet();
 
@@ -79,12 +72,20 @@ public class PostResponseMapper {
         Map<UUID, PostLike> currentUserReactionsByPostId = reactionsByPostId;
         Set<UUID> currentUserBookmarkedPostIds = bookmarkedPostIds;
 
+        // Resolve media for the whole page at once (one query at most, cached when completed)
+        List<String> pageMediaUrls = posts.stream()
+            .filter(post -> post.getMediaUrls() != null)
+            .flatMap(post -> post.getMediaUrls().stream())
+            .collect(Collectors.toList());
+        Map<String, MediaUrlService.ResolvedMedia> resolvedMedia = resolveMedia(pageMediaUrls);
+
         return posts.stream()
             .map(post -> mapPostInternal(
                 post,
                 currentUserReactionsByPostId.get(post.getId()),
                 currentUserBookmarkedPostIds.contains(post.getId()),
-                reactionCountsByPostId.getOrDefault(post.getId(), emptyReactionCounts())
+                post.getReactionCounts(),
+                resolvedMedia
             ))
             .collect(Collectors.toList());
     }
@@ -98,17 +99,17 @@ public class PostResponseMapper {
             ? postLikeRepository.findById_PostIdAndId_UserId(post.getId(), viewerId).orElse(null)
             : null;
         boolean bookmarked = viewerId != null && postBookmarkRepository.existsById_PostIdAndId_UserId(post.getId(), viewerId);
-        Map<PostReactionType, Integer> reactionCounts = getReactionCountsByPostId(List.of(post.getId()))
-            .getOrDefault(post.getId(), emptyReactionCounts());
-        return mapPostInternal(post, currentReaction, bookmarked, reactionCounts);
+        Map<String, MediaUrlService.ResolvedMedia> resolvedMedia = resolveMedia(post.getMediaUrls());
+        return mapPostInternal(post, currentReaction, bookmarked, post.getReactionCounts(), resolvedMedia);
     }
 
     private PostResponse mapPostInternal(
             Post post,
             PostLike currentReaction,
             boolean bookmarked,
-            Map<PostReactionType, Integer> reactionCounts) {
-        PostResponse response = mapPostWithOptimizedUrls(post);
+            Map<PostReactionType, Integer> reactionCounts,
+            Map<String, MediaUrlService.ResolvedMedia> resolvedMedia) {
+        PostResponse response = mapPostWithOptimizedUrls(post, resolvedMedia);
         response.setLikedByCurrentUser(currentReaction != null);
         response.setCurrentUserReaction(currentReaction != null ? currentReaction.getReactionType() : null);
         response.setReactionCounts(reactionCounts);
@@ -116,35 +117,26 @@ public class PostResponseMapper {
         return response;
     }
 
-    private Map<UUID, Map<PostReactionType, Integer>> getReactionCountsByPostId(List<UUID> postIds) {
-        if (postIds == null || postIds.isEmpty()) {
+    private Map<String, MediaUrlService.ResolvedMedia> resolveMedia(List<String> mediaUrls) {
+        if (mediaUrls == null || mediaUrls.isEmpty()) {
             return Collections.emptyMap();
         }
-
-        Map<UUID, Map<PostReactionType, Integer>> countsByPostId = new java.util.HashMap<>();
-        for (PostLikeRepository.ReactionCountView count : postLikeRepository.countReactionsByPostIds(postIds)) {
-            countsByPostId
-                .computeIfAbsent(count.getPostId(), ignored -> emptyReactionCounts())
-                .put(count.getReactionType(), Math.toIntExact(count.getCount()));
+        try {
+            return mediaUrlService.resolveMedia(mediaUrls);
+        } catch (Exception e) {
+            // If lookup fails, serve original URLs rather than failing the feed
+            log.warn("⚠️ Error resolving {} media URLs: {}", mediaUrls.size(), e.getMessage());
+            return Collections.emptyMap();
         }
-        return countsByPostId;
     }
 
-    private Map<PostReactionType, Integer> emptyReactionCounts() {
-        Map<PostReactionType, Integer> counts = new EnumMap<>(PostReactionType.class);
-        for (PostReactionType type : PostReactionType.values()) {
-            counts.put(type, 0);
-        }
-        return counts;
-    }
-    
     /**
      * Map Post to PostResponse with optimized URLs
-     * Uses MediaUrlService to resolve best URLs (optimized if available, original otherwise)
-     * Dynamically refreshes thumbnail URLs from MediaFile records so thumbnails appear
+     * Uses the page-level media resolution to pick best URLs (optimized if available, original otherwise),
+     * feed-size URLs for the card and to refresh thumbnail URLs from MediaFile records so thumbnails appear
      * as soon as they're generated (even if post was created before thumbnail generation completed)
      */
-    private PostResponse mapPostWithOptimizedUrls(Post post) {
+    private PostResponse mapPostWithOptimizedUrls(Post post, Map<String, MediaUrlService.ResolvedMedia> resolvedMedia) {
         PostResponse response = PostResponse.fromEntity(post);
         
         // Store original URLs before converting to optimized (needed for thumbnail lookup)
@@ -152,20 +144,27 @@ public class PostResponseMapper {
             ? new ArrayList<>(post.getMediaUrls()) 
             : new ArrayList<>();
         
-        // Resolve optimized URLs if available
+        // Resolve optimized URLs if available, plus the smaller renditions feed cards display
         if (response.getMediaUrls() != null && !response.getMediaUrls().isEmpty()) {
-            response.setMediaUrls(mediaUrlService.getBestUrls(response.getMediaUrls()));
+            List<String> bestUrls = new ArrayList<>(response.getMediaUrls().size());
+            List<String> feedUrls = new ArrayList<>(response.getMediaUrls().size());
+            for (String mediaUrl : response.getMediaUrls()) {
+                bestUrls.add(mediaUrlService.getBestUrl(mediaUrl, resolvedMedia));
+                feedUrls.add(mediaUrlService.getFeedUrl(mediaUrl, resolvedMedia));
+            }
+            response.setMediaUrls(bestUrls);
+            response.setFeedMediaUrls(feedUrls);
         }
         
         // Dynamically refresh thumbnail URLs from MediaFile records
         // This ensures thumbnails appear as soon as they're generated, even if the post
         // was created before MediaConvert completed thumbnail generation
-        // Use original URLs for lookup since MediaFile records are keyed by originalUrl
-        if (originalMediaUrls != null && !originalMediaUrls.isEmpty() && response.getMediaTypes() != null) {
+        if (!originalMediaUrls.isEmpty() && response.getMediaTypes() != null) {
             List<String> refreshedThumbnails = refreshThumbnailUrls(
-                originalMediaUrls,  // Use original URLs for MediaFile lookup
+                originalMediaUrls,
                 response.getMediaTypes(),
-                response.getThumbnailUrls()
+                response.getThumbnailUrls(),
+                resolvedMedia
             );
             response.setThumbnailUrls(refreshedThumbnails);
         }
@@ -174,19 +173,17 @@ public class PostResponseMapper {
     }
     
     /**
-     * Refresh thumbnail URLs by looking up MediaFile records
+     * Refresh thumbnail URLs from the resolved MediaFile records
      * This solves the issue where thumbnails are generated asynchronously after post creation
      * 
      * @param mediaUrls List of media URLs from the post
      * @param mediaTypes List of media types (e.g., "video/mp4", "image/jpeg")
      * @param existingThumbnails Thumbnail URLs already stored in the post (may contain nulls)
+     * @param resolvedMedia Page-level media resolution keyed by S3 key
      * @return Refreshed list of thumbnail URLs (with nulls replaced if thumbnails are now available)
      */
-    private List<String> refreshThumbnailUrls(List<String> mediaUrls, List<String> mediaTypes, List<String> existingThumbnails) {
-        if (mediaUrls == null || mediaUrls.isEmpty()) {
-            return existingThumbnails != null ? existingThumbnails : new ArrayList<>();
-        }
-        
+    private List<String> refreshThumbnailUrls(List<String> mediaUrls, List<String> mediaTypes, List<String> existingThumbnails,
+                                              Map<String, MediaUrlService.ResolvedMedia> resolvedMedia) {
         List<String> refreshedThumbnails = new ArrayList<>();
         
         for (int i = 0; i < mediaUrls.size(); i++) {
@@ -205,30 +202,11 @@ public class PostResponseMapper {
             // Only videos need thumbnails
             // Check for both "video" and "video/" prefix since mediaType can be either format
             if (mediaType != null && (mediaType.startsWith("video/") || mediaType.equals("video"))) {
-                // Look up MediaFile to see if thumbnail has been generated
-                try {
-                    // Try to find MediaFile by original URL
-                    // Note: mediaUrl might be optimized URL, so we need to check both
-                    Optional<MediaFile> mediaFileOpt = mediaFileRepository.findByOriginalUrl(mediaUrl);
-                    
-                    // If not found by original URL, try optimized URL
-                    if (mediaFileOpt.isEmpty()) {
-                        mediaFileOpt = mediaFileRepository.findByOptimizedUrl(mediaUrl);
-                    }
-                    
-                    if (mediaFileOpt.isPresent()) {
-                        MediaFile mediaFile = mediaFileOpt.get();
-                        if (mediaFile.getThumbnailUrl() != null && !mediaFile.getThumbnailUrl().trim().isEmpty()) {
-                            // Thumbnail is now available! Use it
-                            String thumbnailUrl = mediaUrlService.ensureCloudFrontUrl(mediaFile.getThumbnailUrl());
-                            refreshedThumbnails.add(thumbnailUrl);
-                            log.debug("✅ Refreshed thumbnail for video {}: {}", mediaUrl, thumbnailUrl);
-                            continue;
-                        }
-                    }
-                } catch (Exception e) {
-                    // If lookup fails, log but don't break - just use existing thumbnail (null)
-                    log.warn("⚠️ Error looking up thumbnail for video {}: {}", mediaUrl, e.getMessage());
+                String thumbnailUrl = mediaUrlService.getThumbnailUrl(mediaUrl, resolvedMedia);
+                if (thumbnailUrl != null) {
+                    refreshedThumbnails.add(thumbnailUrl);
+                    log.debug("✅ Refreshed thumbnail for video {}: {}", mediaUrl, thumbnailUrl);
+                    continue;
                 }
             }
             
@@ -239,4 +217,3 @@ public class PostResponseMapper {
         return refreshedThumbnails;
     }
 }
-
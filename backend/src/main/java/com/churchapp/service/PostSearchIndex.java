@@ -0,0 +1,26 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.Post;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+/**
+ * Post search backend used by FeedService and PostService.
+ *
+ * Implementations match the query against content, hashtags, author name (non-anonymous posts only),
+ * category and location, and return one ranked page with a correct total.
+ * Selected with search.posts.engine:
+ *   postgres - PostgresPostSearchIndex, GIN-indexed tsvector (default)
+ *   like     - JpaLikePostSearchIndex, portable LIKE scan for H2/local runs
+ */
+public interface PostSearchIndex {
+
+    /**
+     * @param query         raw user input
+     * @param postType      optional post type filter (null for all)
+     * @param currentUserId viewer; anonymous posts are only returned to their author (null for guests)
+     */
+    Page<Post> search(String query, Post.PostType postType, UUID currentUserId, Pageable pageable);
+}
@@ -1,12 +1,15 @@
 package com.churchapp.service;
 
+import com.churchapp.dto.CursorPageResponse;
 import com.churchapp.entity.*;
 import com.churchapp.repository.*;
+import com.churchapp.util.FeedCursor;
 import com.churchapp.util.SocialMediaUrlUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,8 +42,11 @@ public class PostService {
     private final UserBlockService userBlockService;
     private final OEmbedService oEmbedService;
     private final MediaFileRepository mediaFileRepository;
-    private final NotificationService notificationService;
-    private final UserGroupMembershipRepository userGroupMembershipRepository;
+    private final NotificationOutboxService notificationOutboxService;
+    private final PostSearchIndex postSearchIndex;
+    private final FeedContextService feedContextService;
+    private final PostEngagementCounters engagementCounters;
+    private final FeedStatsCounters feedStatsCounters;
 
     @Transactional
     public Post createPost(String userEmail, String content, List<String> mediaUrls,
@@ -206,6 +212,7 @@ public class PostService {
         }
 
         Post savedPost = postRepository.save(post);
+        feedStatsCounters.postCreated(savedPost);
         
         // LOG POST CREATION - Using both log.info and System.out to ensure visibility
         String postOrgId = post.getOrganization() != null ? post.getOrganization().getId().toString() : "null";
@@ -258,10 +265,10 @@ public class PostService {
         reply.setIsAnonymous(isAnonymous);
 
         Post savedReply = postRepository.save(reply);
+        feedStatsCounters.postCreated(savedReply);
 
         // Increment comment count on parent post
-        parentPost.incrementCommentsCount();
-        postRepository.save(parentPost);
+        engagementCounters.commentsChanged(parentPostId, 1);
 
         log.info("Created reply with ID: {} to post: {}", savedReply.getId(), parentPostId);
 
@@ -290,10 +297,10 @@ public class PostService {
         quote.setIsQuote(true);
 
         Post savedQuote = postRepository.save(quote);
+        feedStatsCounters.postCreated(savedQuote);
 
         // Increment shares count on quoted post
-        quotedPost.incrementSharesCount();
-        postRepository.save(quotedPost);
+        engagementCounters.sharesChanged(quotedPostId, 1);
 
         log.info("Created quote with ID: {} of post: {}", savedQuote.getId(), quotedPostId);
 
@@ -367,51 +374,26 @@ public class PostService {
      * - SELECTED_GROUPS: ONLY selected groups (no orgs, no followed users, no org-as-groups)
      */
     public Page<Post> getMultiTenantFeed(UUID userId, Pageable pageable) {
-        FeedPreference preference = feedFilterService.getFeedPreference(userId);
-        FeedPreference.FeedFilter activeFilter = preference.getActiveFilter();
-
-        // Get mutually blocked user IDs to filter out
-        List<UUID> blockedUserIds = userBlockService.getMutuallyBlockedUserIds(userId);
-        List<UUID> blockedIds = blockedUserIds.isEmpty() ? null : blockedUserIds;
+        FeedScope scope = resolveFeedScope(userId);
 
         // EVERYTHING is intentionally universal: all main posts in the app
         // (still filtered for hidden/anonymous/blocked users in repository query).
-        if (activeFilter == FeedPreference.FeedFilter.EVERYTHING) {
+        if (scope.everything()) {
             log.info("🌐 EVERYTHING filter active - using universal feed query");
-            return postRepository.findMainPostsForFeed(blockedIds, userId, pageable);
+            return postRepository.findMainPostsForFeed(scope.blockedIds(), userId, pageable);
         }
 
-        // Feed parameters for ALL / PRIMARY_ONLY / SELECTED_GROUPS are resolved in FeedFilterService
-        FeedFilterService.FeedParameters params = feedFilterService.getFeedParameters(userId);
-
-        // Determine if we should include followed users
-        // Only for ALL filter (EVERYTHING short-circuits to universal query above)
-        List<UUID> followingIds = null;
-        if (activeFilter == FeedPreference.FeedFilter.ALL) {
-            followingIds = userFollowService.getFollowingIds(userId);
-            if (followingIds.isEmpty()) {
-                followingIds = null;
-            }
-        }
-        
-        // Log what we're about to query
-        log.info("📰 getMultiTenantFeed for user {}: filter={}, primaryOrgs={}, secondaryOrgs={}, groups={}, orgAsGroups={}, followingUsers={}", 
-            userId, activeFilter, 
-            params.getPrimaryOrgIds().size(), 
-            params.getSecondaryOrgIds().size(), 
-            params.getGroupIds().size(),
-            params.getOrgAsGroupIds().size(),
-            followingIds != null ? followingIds.size() : 0);
+        FeedFilterService.FeedParameters params = scope.params();
 
         // For social-only users (no primary org), use the global user feed query
-        if (params.getPrimaryOrgIds().isEmpty() && activeFilter == FeedPreference.FeedFilter.ALL) {
+        if (scope.globalUserFeed()) {
             log.info("🌐 Using global user feed query for social-only user");
             return postRepository.findGlobalUserFeed(
                 params.getGroupIds(), 
                 GLOBAL_ORG_ID,
                 params.getOrgAsGroupIds(),
-                blockedIds,
-                followingIds,
+                scope.blockedIds(),
+                scope.followingIds(),
                 userId,  // currentUserId - so user can see their own anonymous posts
                 pageable
             );
@@ -427,13 +409,114 @@ public class PostService {
             params.getSecondaryOrgIds(),
             params.getGroupIds(),
             params.getOrgAsGroupIds(),
-            blockedIds,
-            followingIds,  // null for PRIMARY_ONLY and SELECTED_GROUPS
+            scope.blockedIds(),
+            scope.followingIds(),  // null for PRIMARY_ONLY and SELECTED_GROUPS
             userId,  // currentUserId - so user can see their own anonymous posts
             pageable
         );
     }
 
+    /**
+     * Cursor-paginated variant of getMultiTenantFeed (same filters and ordering).
+     * Each slice is positioned by (createdAt, id) rather than OFFSET, so deep scrolling stays
+     * cheap, new posts never shift later slices, and no COUNT query is issued.
+     *
+     * @param cursor opaque token from the previous slice's nextCursor, or null for the first slice
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageResponse<Post> getMultiTenantFeedSlice(UUID userId, String cursor, int size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        // One extra row tells us whether another slice exists
+        Pageable limit = PageRequest.of(0, size + 1);
+        FeedScope scope = resolveFeedScope(userId);
+
+        List<Post> posts;
+        if (scope.everything()) {
+            posts = postRepository.findMainPostsForFeedBefore(
+                scope.blockedIds(), userId, position.createdAt(), position.id(), limit);
+        } else if (scope.globalUserFeed()) {
+            FeedFilterService.FeedParameters params = scope.params();
+            posts = postRepository.findGlobalUserFeedBefore(
+                params.getGroupIds(),
+                GLOBAL_ORG_ID,
+                params.getOrgAsGroupIds(),
+                scope.blockedIds(),
+                scope.followingIds(),
+                userId,
+                position.createdAt(),
+                position.id(),
+                limit
+            );
+        } else {
+            FeedFilterService.FeedParameters params = scope.params();
+            posts = postRepository.findMultiTenantFeedBefore(
+                params.getPrimaryOrgIds(),
+                params.getSecondaryOrgIds(),
+                params.getGroupIds(),
+                params.getOrgAsGroupIds(),
+                scope.blockedIds(),
+                scope.followingIds(),
+                userId,
+                position.createdAt(),
+                position.id(),
+                limit
+            );
+        }
+
+        boolean hasMore = posts.size() > size;
+        List<Post> slice = hasMore ? posts.subList(0, size) : posts;
+        String nextCursor = null;
+        if (hasMore) {
+            Post last = slice.get(slice.size() - 1);
+            nextCursor = FeedCursor.after(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(slice, nextCursor, hasMore);
+    }
+
+    /**
+     * Which feed query applies to this user and with which parameters
+     * (shared by the page- and cursor-based multi-tenant feeds).
+     */
+    private FeedScope resolveFeedScope(UUID userId) {
+        // Filter, org/group parameters, blocked and followed users come from the per-user cache
+        FeedContextService.FeedContext context = feedContextService.getFeedContext(userId);
+        FeedPreference.FeedFilter activeFilter = context.activeFilter();
+        List<UUID> blockedIds = context.blockedIdsOrNull();
+
+        if (activeFilter == FeedPreference.FeedFilter.EVERYTHING) {
+            return new FeedScope(true, false, null, blockedIds, null);
+        }
+
+        FeedFilterService.FeedParameters params = context.params();
+
+        // Determine if we should include followed users
+        // Only for ALL filter (EVERYTHING short-circuits to universal query above)
+        List<UUID> followingIds = null;
+        if (activeFilter == FeedPreference.FeedFilter.ALL && !context.followingIds().isEmpty()) {
+            followingIds = context.followingIds();
+        }
+        
+        // Log what we're about to query
+        log.info("📰 getMultiTenantFeed for user {}: filter={}, primaryOrgs={}, secondaryOrgs={}, groups={}, orgAsGroups={}, followingUsers={}", 
+            userId, activeFilter, 
+            params.getPrimaryOrgIds().size(), 
+            params.getSecondaryOrgIds().size(), 
+            params.getGroupIds().size(),
+            params.getOrgAsGroupIds().size(),
+            followingIds != null ? followingIds.size() : 0);
+
+        boolean globalUserFeed = params.getPrimaryOrgIds().isEmpty() && activeFilter == FeedPreference.FeedFilter.ALL;
+        return new FeedScope(false, globalUserFeed, params, blockedIds, followingIds);
+    }
+
+    private record FeedScope(
+        boolean everything,
+        boolean globalUserFeed,
+        FeedFilterService.FeedParameters params,
+        List<UUID> blockedIds,
+        List<UUID> followingIds
+    ) {}
+
     /**
      * Get feed for a specific organization
      */
@@ -459,18 +542,18 @@ public class PostService {
     }
 
     public Page<Post> getFollowingFeed(UUID userId, Pageable pageable) {
+        FeedContextService.FeedContext context = feedContextService.getFeedContext(userId);
+
         // Get users that this user follows (across all organizations)
-        List<UUID> followingIds = userFollowService.getFollowingIds(userId);
+        List<UUID> followingIds = context.followingIds();
 
         if (followingIds.isEmpty()) {
             // If user follows no one, return empty page
             return new PageImpl<>(List.of(), pageable, 0);
         }
 
-        // Get mutually blocked user IDs to filter out (users viewer blocked + users who blocked viewer)
-        List<UUID> blockedUserIds = userBlockService.getMutuallyBlockedUserIds(userId);
-        // Use empty list instead of null for better query performance
-        List<UUID> blockedIds = blockedUserIds.isEmpty() ? null : blockedUserIds;
+        // Mutually blocked user IDs to filter out (users viewer blocked + users who blocked viewer)
+        List<UUID> blockedIds = context.blockedIdsOrNull();
 
         // Get posts from followed users (works globally across all organizations)
         // Excludes posts from blocked users (mutual blocking)
@@ -480,13 +563,12 @@ public class PostService {
 
     public Page<Post> getTrendingFeed(UUID userId, Pageable pageable) {
         // Get trending posts filtered by user's feed parameters
-        FeedFilterService.FeedParameters params = feedFilterService.getFeedParameters(userId);
+        FeedContextService.FeedContext context = feedContextService.getFeedContext(userId);
+        FeedFilterService.FeedParameters params = context.params();
         LocalDateTime since = LocalDateTime.now().minusDays(7);
 
-        // Get mutually blocked user IDs to filter out (users viewer blocked + users who blocked viewer)
-        List<UUID> blockedUserIds = userBlockService.getMutuallyBlockedUserIds(userId);
-        // Use empty list instead of null for better query performance
-        List<UUID> blockedIds = blockedUserIds.isEmpty() ? null : blockedUserIds;
+        // Mutually blocked user IDs to filter out (users viewer blocked + users who blocked viewer)
+        List<UUID> blockedIds = context.blockedIdsOrNull();
 
         // If user has primary org(s), show trending from first primary org (churchPrimary)
         // Note: For dual-primary system, we use churchPrimary for trending
@@ -501,7 +583,7 @@ public class PostService {
 
     public Page<Post> searchPosts(String searchTerm, UUID currentUserId, Pageable pageable) {
         // Shows anonymous posts only to their author (currentUserId)
-        return postRepository.findByContentContaining(searchTerm, null, currentUserId, pageable);
+        return postSearchIndex.search(searchTerm, null, currentUserId, pageable);
     }
 
     public List<Post> getPostThread(UUID postId) {
@@ -532,6 +614,7 @@ public class PostService {
         cleanupPostData(postId);
 
         // Delete the post
+        feedStatsCounters.postDeleted(post);
         postRepository.delete(post);
 
         log.info("Deleted post with ID: {} by user: {} (Role: {})", postId, userEmail, user.getRole());
@@ -542,7 +625,7 @@ public class PostService {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Post post = postRepository.findById(postId)
+        postRepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found"));
 
         // Make operation idempotent: if already liked, just return success
@@ -559,8 +642,7 @@ public class PostService {
         postLikeRepository.save(like);
 
         // Update post like count
-        post.incrementLikesCount();
-        postRepository.save(post);
+        engagementCounters.reactionAdded(postId, like.getReactionType());
 
         log.info("User {} liked post {}", userEmail, postId);
     }
@@ -570,7 +652,7 @@ public class PostService {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Post post = postRepository.findById(postId)
+        postRepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found"));
 
         // Find and delete like
@@ -585,8 +667,7 @@ public class PostService {
         postLikeRepository.delete(like.get());
 
         // Update post like count
-        post.decrementLikesCount();
-        postRepository.save(post);
+        engagementCounters.reactionRemoved(postId, like.get().getReactionType());
 
         log.info("User {} unliked post {}", userEmail, postId);
     }
@@ -617,8 +698,7 @@ public class PostService {
         postShareRepository.save(share);
 
         // Update post share count
-        post.incrementSharesCount();
-        postRepository.save(post);
+        engagementCounters.sharesChanged(postId, 1);
 
         log.info("User {} shared post {}", userEmail, postId);
     }
@@ -628,7 +708,7 @@ public class PostService {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Post post = postRepository.findById(postId)
+        postRepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found"));
 
         // Check if already bookmarked
@@ -644,8 +724,7 @@ public class PostService {
         postBookmarkRepository.save(bookmark);
 
         // Update post bookmark count
-        post.incrementBookmarksCount();
-        postRepository.save(post);
+        engagementCounters.bookmarksChanged(postId, 1);
 
         log.info("User {} bookmarked post {}", userEmail, postId);
     }
@@ -655,7 +734,7 @@ public class PostService {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Post post = postRepository.findById(postId)
+        postRepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found"));
 
         // Find and delete bookmark
@@ -664,8 +743,7 @@ public class PostService {
             postBookmarkRepository.delete(bookmark.get());
 
             // Update post bookmark count
-            post.decrementBookmarksCount();
-            postRepository.save(post);
+            engagementCounters.bookmarksChanged(postId, -1);
 
             log.info("User {} unbookmarked post {}", userEmail, postId);
         }
@@ -720,43 +798,23 @@ public class PostService {
     }
 
     /**
-     * Send Firebase push notifications when a new post is created
+     * Queue Firebase push notifications when a new post is created
      * Notifies organization members or group members depending on post context
      */
     private void sendPostPushNotifications(Post post, User author) {
         try {
-            List<User> targetUsers = new ArrayList<>();
-            String notificationContext = "";
-
             // Determine who to notify based on post context
+            NotificationOutbox.AudienceType audienceType;
+            UUID audienceId;
             if (post.getGroup() != null) {
                 // Group post - notify group members
-                Group group = post.getGroup();
-                targetUsers = userGroupMembershipRepository.findByGroupId(group.getId()).stream()
-                    .map(UserGroupMembership::getUser)
-                    .collect(java.util.stream.Collectors.toList());
-                notificationContext = "group: " + group.getName();
+                audienceType = NotificationOutbox.AudienceType.GROUP_MEMBERS;
+                audienceId = post.getGroup().getId();
             } else if (post.getOrganization() != null) {
                 // Organization post - notify org members
-                Organization organization = post.getOrganization();
-                targetUsers = userRepository.findByChurchPrimaryOrganization(organization);
-                notificationContext = "organization: " + organization.getName();
-            }
-
-            if (targetUsers.isEmpty()) {
-                log.info("No users to notify for post in {}", notificationContext);
-                return;
-            }
-
-            // Collect FCM tokens (exclude the post author)
-            List<String> tokens = targetUsers.stream()
-                .filter(u -> !u.getId().equals(author.getId()))
-                .map(User::getFcmToken)
-                .filter(token -> token != null && !token.trim().isEmpty())
-                .collect(java.util.stream.Collectors.toList());
-
-            if (tokens.isEmpty()) {
-                log.info("No FCM tokens found for post in {}", notificationContext);
+                audienceType = NotificationOutbox.AudienceType.ORGANIZATION_MEMBERS;
+                audienceId = post.getOrganization().getId();
+            } else {
                 return;
             }
 
@@ -790,19 +848,18 @@ public class PostService {
                 notificationBody = "Created a new post";
             }
 
-            // Send notification
-            notificationService.sendBulkNotification(
-                tokens,
+            // Queue for asynchronous fan-out; delivered once this transaction commits
+            notificationOutboxService.enqueue(
+                audienceType,
+                audienceId,
+                author.getId(),
                 "📝 " + displayName,
                 notificationBody,
                 data
             );
 
-            log.info("Sent Firebase push notifications to {} users for post {} in {}",
-                tokens.size(), post.getId(), notificationContext);
-
         } catch (Exception e) {
-            log.error("Failed to send Firebase push notification for post {}: {}",
+            log.error("Failed to queue Firebase push notification for post {}: {}",
                 post.getId(), e.getMessage());
             // Don't throw - notification failure shouldn't break post creation
         }
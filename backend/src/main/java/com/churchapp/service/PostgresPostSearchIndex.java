@@ -0,0 +1,74 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.Post;
+import com.churchapp.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Full-text post search backed by posts.search_vector (see V56 migration).
+ * Every query term is matched as a prefix, so "pray" finds "prayer" and "#prayerrequest".
+ */
+@Service
+@ConditionalOnProperty(name = "search.posts.engine", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresPostSearchIndex implements PostSearchIndex {
+
+    // Bounds the size of the tsquery built from user input
+    static final int MAX_TERMS = 8;
+
+    private final PostRepository postRepository;
+
+    @Override
+    public Page<Post> search(String query, Post.PostType postType, UUID currentUserId, Pageable pageable) {
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery == null) {
+            return Page.empty(pageable);
+        }
+
+        return postRepository.searchFullText(
+            tsQuery,
+            postType != null ? postType.name() : null,
+            currentUserId != null ? currentUserId.toString() : null,
+            pageable
+        );
+    }
+
+    /**
+     * Turn free text into a to_tsquery expression: letter/digit runs, lower-cased, each as a
+     * prefix match, AND-ed together. Everything else (operators, quotes, '#', '@') is dropped,
+     * so user input can never produce a tsquery syntax error.
+     *
+     * @return the expression, or null if the input has no searchable terms
+     */
+    static String toPrefixTsQuery(String query) {
+        if (query == null) {
+            return null;
+        }
+
+        List<String> terms = new ArrayList<>();
+        for (String token : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && !terms.contains(token)) {
+                terms.add(token);
+                if (terms.size() == MAX_TERMS) {
+                    break;
+                }
+            }
+        }
+
+        if (terms.isEmpty()) {
+            return null;
+        }
+        return String.join(" & ", terms.stream().map(term -> term + ":*").toList());
+    }
+}
@@ -5,7 +5,6 @@ import com.churchapp.dto.PrayerInteractionResponse;
 import com.churchapp.dto.PrayerInteractionSummary;
 import com.churchapp.dto.PrayerNotificationEvent;
 import com.churchapp.dto.PrayerParticipantResponse;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import com.churchapp.entity.PrayerInteraction;
 import com.churchapp.entity.PrayerRequest;
 import com.churchapp.entity.User;
@@ -38,7 +37,7 @@ public class PrayerInteractionService {
     private final UserRepository userRepository;
     
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RealtimeMessageBus messageBus;
     
     public PrayerInteractionResponse createInteraction(UUID userId, PrayerInteractionRequest request) {
         User user = userRepository.findById(userId)
@@ -284,11 +283,11 @@ public class PrayerInteractionService {
             );
             
             // Broadcast to specific prayer subscribers
-            messagingTemplate.convertAndSend("/topic/prayer-interactions/" + prayerRequest.getId(), event);
+            messageBus.publish("/topic/prayer-interactions/" + prayerRequest.getId(), event);
             
             // Also send to prayer request owner if different from interaction user
             if (!prayerRequest.getUser().getId().equals(user.getId())) {
-                messagingTemplate.convertAndSendToUser(
+                messageBus.publishToUser(
                     prayerRequest.getUser().getEmail(),
                     "/queue/prayers",
                     event
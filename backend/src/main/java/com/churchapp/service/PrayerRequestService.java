@@ -1,20 +1,23 @@
 package com.churchapp.service;
 
+import com.churchapp.dto.CursorPageResponse;
 import com.churchapp.dto.PrayerNotificationEvent;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import com.churchapp.dto.PrayerRequestRequest;
 import com.churchapp.dto.PrayerRequestUpdateRequest;
 import com.churchapp.dto.PrayerRequestResponse;
 import com.churchapp.entity.Organization;
 import com.churchapp.entity.PrayerRequest;
 import com.churchapp.entity.User;
+import com.churchapp.event.PrayerSheetChangedEvent;
 import com.churchapp.repository.PrayerRequestRepository;
 import com.churchapp.repository.PrayerInteractionRepository;
 import com.churchapp.repository.UserRepository;
 import com.churchapp.repository.OrganizationRepository;
+import com.churchapp.util.FeedCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,10 +26,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -42,9 +46,11 @@ public class PrayerRequestService {
     private final FileUploadService fileUploadService;
     private final OrganizationRepository organizationRepository;
     private final NotificationService notificationService;
+    private final PrayerSheetCache prayerSheetCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RealtimeMessageBus messageBus;
 
     // Global Organization ID for users without a primary organization
     private static final UUID GLOBAL_ORG_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
@@ -82,6 +88,8 @@ public class PrayerRequestService {
         log.info("Prayer request created with id: {} by user: {} in org: {}",
             savedPrayerRequest.getId(), userId, organization.getId());
 
+        publishSheetChanged(savedPrayerRequest, "created prayer request");
+
         // Send WebSocket notification for new prayer request
         notifyNewPrayerRequest(savedPrayerRequest);
 
@@ -148,6 +156,8 @@ public class PrayerRequestService {
         log.info("Prayer request created with id: {} by user: {} in org: {} (with image: {})",
             savedPrayerRequest.getId(), userId, organization.getId(), imageUrl != null);
         
+        publishSheetChanged(savedPrayerRequest, "created prayer request");
+
         // Send WebSocket notification for new prayer request
         notifyNewPrayerRequest(savedPrayerRequest);
         
@@ -218,6 +228,8 @@ public class PrayerRequestService {
         PrayerRequest updatedPrayerRequest = prayerRequestRepository.save(prayerRequest);
         log.info("Prayer request updated: {} by user: {}", prayerRequestId, userId);
         
+        publishSheetChanged(updatedPrayerRequest, "updated prayer request");
+
         // Send WebSocket notification for prayer update
         notifyPrayerRequestUpdate(updatedPrayerRequest);
         
@@ -307,6 +319,8 @@ public class PrayerRequestService {
         log.info("Prayer request updated: {} by user: {} (with image: {})", 
             prayerRequestId, userId, updatedPrayerRequest.getImageUrl() != null);
         
+        publishSheetChanged(updatedPrayerRequest, "updated prayer request");
+
         // Send WebSocket notification for prayer update
         notifyPrayerRequestUpdate(updatedPrayerRequest);
         
@@ -362,6 +376,7 @@ public class PrayerRequestService {
         
         // Now delete the prayer request
         prayerRequestRepository.delete(prayerRequest);
+        publishSheetChanged(prayerRequest, "deleted prayer request");
         log.info("Prayer request deleted: {} by user: {} (owner: {}, admin: {}, moderator: {})", 
             prayerRequestId, userId, isOwner, isAdmin, isModerator);
     }
@@ -552,49 +567,62 @@ public class PrayerRequestService {
      * Respects anonymity settings - only shows anonymous prayers to their owners
      * Includes prayers from both Church Primary and Family Primary organizations
      */
+    @Transactional(readOnly = true)
     public List<PrayerRequestResponse> getActivePrayersForSheet(UUID requestingUserId) {
-        User user = userRepository.findById(requestingUserId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        return prayerSheetCache.slice(sheetOrganizationIds(requestingUserId), FeedCursor.start(), requestingUserId, Integer.MAX_VALUE)
+                .stream()
+                .map(entry -> entry.toResponse(requestingUserId))
+                .collect(Collectors.toList());
+    }
 
-        // Collect prayers from all relevant organizations
-        List<PrayerRequest> activePrayers = new ArrayList<>();
-        
-        // Get prayers from Church Primary organization
-        if (user.getChurchPrimaryOrganization() != null) {
-            UUID churchOrgId = user.getChurchPrimaryOrganization().getId();
-            activePrayers.addAll(prayerRequestRepository.findAllActiveByOrganizationId(churchOrgId));
+    /**
+     * Cursor-paginated variant of getActivePrayersForSheet (same prayers and order).
+     * Slices are merged from the cached per-organization snapshots, positioned by (createdAt, id).
+     *
+     * @param cursor opaque token from the previous slice's nextCursor, or null for the first slice
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PrayerRequestResponse> getActivePrayerSheetSlice(UUID requestingUserId, String cursor, int size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        // One extra entry tells us whether another slice exists
+        List<PrayerSheetCache.PrayerSheetEntry> entries =
+            prayerSheetCache.slice(sheetOrganizationIds(requestingUserId), position, requestingUserId, size + 1);
+
+        boolean hasMore = entries.size() > size;
+        List<PrayerSheetCache.PrayerSheetEntry> slice = hasMore ? entries.subList(0, size) : entries;
+        String nextCursor = hasMore ? slice.get(slice.size() - 1).cursor().encode() : null;
+        List<PrayerRequestResponse> content = slice.stream()
+                .map(entry -> entry.toResponse(requestingUserId))
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(content, nextCursor, hasMore);
+    }
+
+    /**
+     * Church Primary and Family Primary organizations, or the Global Organization if the user has neither
+     */
+    private Set<UUID> sheetOrganizationIds(UUID userId) {
+        List<Object[]> rows = userRepository.findPrimaryOrgIdsByUserId(userId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        Set<UUID> organizationIds = new LinkedHashSet<>();
+        for (Object value : rows.get(0)) {
+            if (value != null) {
+                organizationIds.add((UUID) value);
+            }
         }
-        
-        // Get prayers from Family Primary organization if it exists
-        if (user.getFamilyPrimaryOrganization() != null) {
-            UUID familyOrgId = user.getFamilyPrimaryOrganization().getId();
-            activePrayers.addAll(prayerRequestRepository.findAllActiveByOrganizationId(familyOrgId));
+        if (organizationIds.isEmpty()) {
+            organizationIds.add(GLOBAL_ORG_ID);
         }
-        
-        // Fall back to Global Organization if no primary organizations
-        if (user.getChurchPrimaryOrganization() == null && user.getFamilyPrimaryOrganization() == null) {
-            activePrayers.addAll(prayerRequestRepository.findAllActiveByOrganizationId(GLOBAL_ORG_ID));
+        return organizationIds;
+    }
+
+    private void publishSheetChanged(PrayerRequest prayerRequest, String reason) {
+        if (prayerRequest.getOrganization() != null) {
+            eventPublisher.publishEvent(
+                PrayerSheetChangedEvent.forOrganization(prayerRequest.getOrganization().getId(), reason));
         }
-        
-        // Remove duplicates (in case both orgs point to the same org - shouldn't happen, but safe)
-        activePrayers = activePrayers.stream()
-                .distinct()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt())) // Sort by date descending (newest first)
-                .collect(Collectors.toList());
-        
-        return activePrayers.stream()
-                .filter(prayer -> {
-                    // Show prayer if: user is owner OR prayer is not anonymous
-                    return prayer.getUser().getId().equals(requestingUserId) || !prayer.getIsAnonymous();
-                })
-                .map(prayer -> {
-                    // For owner, show full details; for others, respect anonymity
-                    if (prayer.getUser().getId().equals(requestingUserId)) {
-                        return PrayerRequestResponse.fromPrayerRequestForOwner(prayer);
-                    }
-                    return PrayerRequestResponse.fromPrayerRequest(prayer);
-                })
-                .collect(Collectors.toList());
     }
     
     /**
@@ -613,7 +641,7 @@ public class PrayerRequestService {
             );
 
             // 1. WebSocket notification (in-app, real-time)
-            messagingTemplate.convertAndSend("/topic/prayers", event);
+            messageBus.publish("/topic/prayers", event);
             log.info("Broadcasted WebSocket notification for prayer: {}", prayerRequest.getId());
 
             // 2. Firebase push notifications (PWA/mobile, persistent)
@@ -684,7 +712,7 @@ public class PrayerRequestService {
             );
             
             // Broadcast to all connected users
-            messagingTemplate.convertAndSend("/topic/prayers", event);
+            messageBus.publish("/topic/prayers", event);
             log.info("Broadcasted prayer update notification for prayer: {}", prayerRequest.getId());
             
         } catch (Exception e) {
@@ -0,0 +1,238 @@
+package com.churchapp.service;
+
+import com.churchapp.dto.PrayerRequestResponse;
+import com.churchapp.entity.PrayerRequest;
+import com.churchapp.event.PrayerSheetChangedEvent;
+import com.churchapp.repository.PrayerRequestRepository;
+import com.churchapp.util.FeedCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Per-organization snapshot of active prayers for the prayer sheet.
+ *
+ * The sheet is opened by most members at the same time on Sunday mornings, and each open used to
+ * load every active prayer entity (plus its user) for each of the member's organizations.
+ * Snapshots hold flat, immutable rows sorted newest first, are loaded with one projection query
+ * per organization on a miss, and are evicted when a {@link PrayerSheetChangedEvent} commits.
+ * The TTL bounds staleness of the author name/picture, which can change without an event.
+ */
+@Service
+@Slf4j
+public class PrayerSheetCache {
+
+    static final String CACHE_NAME = "prayerSheets";
+
+    // Newest first, then by id so the order (and cursors) are total
+    private static final Comparator<PrayerSheetEntry> NEWEST_FIRST = Comparator
+            .comparing(PrayerSheetEntry::createdAt, Comparator.reverseOrder())
+            .thenComparing(PrayerSheetEntry::id, Comparator.reverseOrder());
+
+    private final PrayerRequestRepository prayerRequestRepository;
+    private final Cache<UUID, List<PrayerSheetEntry>> cache;
+
+    public PrayerSheetCache(
+            PrayerRequestRepository prayerRequestRepository,
+            @Value("${prayer.sheet-cache.max-size:2000}") long maxSize,
+            @Value("${prayer.sheet-cache.ttl-seconds:600}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.prayerRequestRepository = prayerRequestRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Active prayers of one organization, newest first, loaded on a miss.
+     */
+    public List<PrayerSheetEntry> getActivePrayers(UUID organizationId) {
+        return cache.get(organizationId, this::load);
+    }
+
+    /**
+     * Up to limit prayers visible to the viewer across several organizations, newest first,
+     * starting after the cursor position.
+     *
+     * Each snapshot is already sorted, so this is a k-way merge: binary-search every snapshot for
+     * the cursor, then repeatedly take the newest head. Cost is O(limit * log k) per slice rather
+     * than concatenating and re-sorting everything.
+     */
+    public List<PrayerSheetEntry> slice(Collection<UUID> organizationIds, FeedCursor after, UUID viewerId, int limit) {
+        PrayerSheetEntry position = PrayerSheetEntry.position(after);
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, organizationIds.size()),
+                (a, b) -> NEWEST_FIRST.compare(a.current(), b.current()));
+        for (UUID organizationId : organizationIds) {
+            List<PrayerSheetEntry> entries = getActivePrayers(organizationId);
+            int start = firstAfter(entries, position);
+            if (start < entries.size()) {
+                heads.add(new Head(entries, start));
+            }
+        }
+
+        List<PrayerSheetEntry> slice = new ArrayList<>(Math.min(limit, 64));
+        while (slice.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            PrayerSheetEntry entry = head.current();
+            if (entry.isVisibleTo(viewerId)) {
+                slice.add(entry);
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return slice;
+    }
+
+    public void evict(UUID organizationId) {
+        if (organizationId != null) {
+            cache.invalidate(organizationId);
+        }
+    }
+
+    /**
+     * Evict after the change is committed so a concurrent sheet request cannot re-cache the old state.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrayerSheetChanged(PrayerSheetChangedEvent event) {
+        evict(event.organizationId());
+        log.debug("Evicted cached prayer sheet for organization {} ({})", event.organizationId(), event.reason());
+    }
+
+    private List<PrayerSheetEntry> load(UUID organizationId) {
+        List<PrayerSheetEntry> entries = new ArrayList<>();
+        for (Object[] row : prayerRequestRepository.findActiveSheetRowsByOrganizationId(organizationId)) {
+            entries.add(PrayerSheetEntry.fromRow(row));
+        }
+        // The query orders by createdAt only; add the id tiebreak with the same comparator the merge uses
+        entries.sort(NEWEST_FIRST);
+        return List.copyOf(entries);
+    }
+
+    /**
+     * Index of the first entry strictly after the position in NEWEST_FIRST order
+     */
+    private static int firstAfter(List<PrayerSheetEntry> entries, PrayerSheetEntry position) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (NEWEST_FIRST.compare(entries.get(mid), position) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Head {
+        private final List<PrayerSheetEntry> entries;
+        private int index;
+
+        private Head(List<PrayerSheetEntry> entries, int index) {
+            this.entries = entries;
+            this.index = index;
+        }
+
+        private PrayerSheetEntry current() {
+            return entries.get(index);
+        }
+
+        private boolean advance() {
+            return ++index < entries.size();
+        }
+    }
+
+    /**
+     * Immutable prayer sheet row: everything the sheet shows, without the entity graph.
+     */
+    public record PrayerSheetEntry(
+        UUID id,
+        UUID userId,
+        String userName,
+        String userProfilePicUrl,
+        String title,
+        String description,
+        String imageUrl,
+        boolean isAnonymous,
+        PrayerRequest.PrayerCategory category,
+        PrayerRequest.PrayerStatus status,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+    ) {
+
+        static PrayerSheetEntry fromRow(Object[] row) {
+            return new PrayerSheetEntry(
+                (UUID) row[0],
+                (UUID) row[1],
+                (String) row[2],
+                (String) row[3],
+                (String) row[4],
+                (String) row[5],
+                (String) row[6],
+                Boolean.TRUE.equals(row[7]),
+                (PrayerRequest.PrayerCategory) row[8],
+                (PrayerRequest.PrayerStatus) row[9],
+                (LocalDateTime) row[10],
+                (LocalDateTime) row[11]
+            );
+        }
+
+        // Comparison key for a cursor position
+        private static PrayerSheetEntry position(FeedCursor cursor) {
+            return new PrayerSheetEntry(cursor.id(), null, null, null, null, null, null, false, null, null,
+                    cursor.createdAt(), null);
+        }
+
+        /**
+         * Anonymous prayers are only shown to their owners
+         */
+        public boolean isVisibleTo(UUID viewerId) {
+            return !isAnonymous || userId.equals(viewerId);
+        }
+
+        /**
+         * Same shape as PrayerRequestResponse.fromPrayerRequestForOwner / fromPrayerRequest
+         */
+        public PrayerRequestResponse toResponse(UUID viewerId) {
+            boolean hideAuthor = isAnonymous && !userId.equals(viewerId);
+            return new PrayerRequestResponse(
+                id,
+                userId,
+                hideAuthor ? "Anonymous" : userName,
+                hideAuthor ? null : userProfilePicUrl,
+                title,
+                description,
+                imageUrl,
+                isAnonymous,
+                category,
+                status,
+                createdAt,
+                updatedAt,
+                null // interactionSummary will be set separately if needed
+            );
+        }
+
+        public FeedCursor cursor() {
+            return FeedCursor.after(createdAt, id);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.NotificationOutbox;
+import com.churchapp.repository.ChatGroupMemberRepository;
+import com.churchapp.repository.UserGroupMembershipRepository;
+import com.churchapp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers a push notification to an audience: projects only FCM tokens (no User entities),
+ * splits them into FCM-sized multicast batches and prunes tokens FCM reports as invalid.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PushFanoutService {
+
+    private final UserRepository userRepository;
+    private final UserGroupMembershipRepository userGroupMembershipRepository;
+    private final ChatGroupMemberRepository chatGroupMemberRepository;
+    private final PushNotificationSender pushNotificationSender;
+
+    /**
+     * Resolve the outbox entry's audience to tokens and send to all of them.
+     */
+    public FanoutResult deliver(NotificationOutbox notification) {
+        List<String> tokens = resolveTokens(notification);
+        if (tokens.isEmpty()) {
+            log.debug("No FCM tokens for {} {}", notification.getAudienceType(), notification.getAudienceId());
+            return new FanoutResult(0, 0, 0, 0);
+        }
+        return sendToTokens(tokens, notification.getTitle(), notification.getBody(), notification.getData());
+    }
+
+    /**
+     * Send to an explicit token list, chunked to the multicast limit.
+     * A batch that fails outright is counted as failed; if every batch fails the last
+     * error is rethrown so the caller can retry.
+     */
+    public FanoutResult sendToTokens(List<String> tokens, String title, String body, Map<String, String> data) {
+        // Same device registered under two accounts would otherwise be notified twice
+        List<String> distinctTokens = new ArrayList<>(new LinkedHashSet<>(tokens));
+
+        int batches = 0;
+        int success = 0;
+        int failure = 0;
+        int failedBatches = 0;
+        RuntimeException lastError = null;
+        List<String> invalidTokens = new ArrayList<>();
+
+        for (int from = 0; from < distinctTokens.size(); from += PushNotificationSender.MAX_TOKENS_PER_MULTICAST) {
+            List<String> batch = distinctTokens.subList(from,
+                Math.min(from + PushNotificationSender.MAX_TOKENS_PER_MULTICAST, distinctTokens.size()));
+            batches++;
+            try {
+                PushNotificationSender.MulticastResult result = pushNotificationSender.sendMulticast(batch, title, body, data);
+                success += result.successCount();
+                failure += result.failureCount();
+                invalidTokens.addAll(result.invalidTokens());
+            } catch (RuntimeException e) {
+                log.warn("Push batch of {} tokens failed: {}", batch.size(), e.getMessage());
+                failure += batch.size();
+                failedBatches++;
+                lastError = e;
+            }
+        }
+
+        int pruned = 0;
+        if (!invalidTokens.isEmpty()) {
+            pruned = userRepository.clearFcmTokens(invalidTokens);
+            log.info("Pruned {} invalid FCM tokens", pruned);
+        }
+
+        if (failedBatches == batches && lastError != null) {
+            throw lastError;
+        }
+
+        return new FanoutResult(distinctTokens.size(), success, failure, pruned);
+    }
+
+    private List<String> resolveTokens(NotificationOutbox notification) {
+        return switch (notification.getAudienceType()) {
+            case ORGANIZATION_MEMBERS -> userRepository.findFcmTokensByChurchPrimaryOrganizationId(
+                notification.getAudienceId(), notification.getExcludeUserId());
+            case GROUP_MEMBERS -> userGroupMembershipRepository.findMemberFcmTokensByGroupId(
+                notification.getAudienceId(), notification.getExcludeUserId());
+            case CHAT_GROUP_MEMBERS -> chatGroupMemberRepository.findActiveMemberFcmTokensByChatGroupId(
+                notification.getAudienceId(), notification.getExcludeUserId());
+        };
+    }
+
+    public record FanoutResult(int tokens, int successCount, int failureCount, int prunedTokens) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.churchapp.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends one multicast push to a batch of device tokens.
+ * FirebasePushNotificationSender is the production implementation; tests use a stub.
+ */
+public interface PushNotificationSender {
+
+    /**
+     * FCM rejects multicast messages addressed to more than 500 tokens
+     */
+    int MAX_TOKENS_PER_MULTICAST = 500;
+
+    /**
+     * @param tokens at most {@link #MAX_TOKENS_PER_MULTICAST} tokens
+     * @return per-batch outcome, including tokens the provider reported as permanently invalid
+     * @throws RuntimeException if the whole batch could not be sent
+     */
+    MulticastResult sendMulticast(List<String> tokens, String title, String body, Map<String, String> data);
+
+    record MulticastResult(int successCount, int failureCount, List<String> invalidTokens) {
+    }
+}
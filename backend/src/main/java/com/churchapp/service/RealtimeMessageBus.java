@@ -0,0 +1,21 @@
+package com.churchapp.service;
+
+/**
+ * Single entry point for everything pushed to WebSocket clients.
+ *
+ * Services and WebSocket controllers publish here instead of using SimpMessagingTemplate
+ * directly, so the transport behind it (in-memory simple broker or an external STOMP broker
+ * relay, see websocket.broker.mode) can change without touching callers.
+ */
+public interface RealtimeMessageBus {
+
+    /**
+     * Broadcast to every subscriber of a /topic destination, on every node.
+     */
+    void publish(String destination, Object payload);
+
+    /**
+     * Send to one user's /queue destination, wherever that user is connected.
+     */
+    void publishToUser(String user, String destination, Object payload);
+}
@@ -0,0 +1,82 @@
+package com.churchapp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+import java.util.*;
+
+/**
+ * Bulk S3 deletes for cleanup jobs.
+ *
+ * Keys are sent in multi-object DeleteObjects requests of up to 1000 keys (the S3 limit) in quiet
+ * mode, so a response only lists the keys that failed. Deleted keys are removed from the storage
+ * ledger. S3 treats a key that doesn't exist as deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class S3BatchDeleteService {
+
+    public static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    private final S3Client s3Client;
+    private final StorageLedgerService storageLedgerService;
+
+    @Value("${aws.s3.bucket-name}")
+    private String bucketName;
+
+    /**
+     * Delete objects from the bucket
+     *
+     * @return keys that could not be deleted, either reported by S3 or part of a request that failed
+     */
+    public Set<String> deleteObjects(Collection<String> keys) {
+        List<String> unique = new ArrayList<>(new LinkedHashSet<>(keys));
+        Set<String> failed = new HashSet<>();
+
+        for (int i = 0; i < unique.size(); i += MAX_KEYS_PER_REQUEST) {
+            List<String> chunk = unique.subList(i, Math.min(unique.size(), i + MAX_KEYS_PER_REQUEST));
+            List<ObjectIdentifier> objects = new ArrayList<>(chunk.size());
+            for (String key : chunk) {
+                objects.add(ObjectIdentifier.builder().key(key).build());
+            }
+            try {
+                DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                        .bucket(bucketName)
+                        .delete(Delete.builder().objects(objects).quiet(true).build())
+                        .build());
+                for (S3Error error : response.errors()) {
+                    failed.add(error.key());
+                    log.warn("Failed to delete {} from S3: {} {}", error.key(), error.code(), error.message());
+                }
+            } catch (RuntimeException e) {
+                log.warn("DeleteObjects request for {} keys failed: {}", chunk.size(), e.getMessage());
+                failed.addAll(chunk);
+            }
+        }
+
+        List<String> deleted = new ArrayList<>(unique.size() - failed.size());
+        for (String key : unique) {
+            if (!failed.contains(key)) {
+                deleted.add(key);
+            }
+        }
+        if (!deleted.isEmpty()) {
+            try {
+                storageLedgerService.recordDeletions(deleted);
+            } catch (Exception e) {
+                log.warn("Storage ledger update failed for {} deleted objects: {}", deleted.size(), e.getMessage());
+            }
+        }
+        log.debug("Deleted {} objects from S3, {} failed", deleted.size(), failed.size());
+        return failed;
+    }
+}
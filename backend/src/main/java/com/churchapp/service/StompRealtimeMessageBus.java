@@ -0,0 +1,42 @@
+package com.churchapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * RealtimeMessageBus backed by the STOMP broker configured in WebSocketConfig.
+ * With the relay enabled SimpMessagingTemplate forwards to the external broker, which fans
+ * out to the sockets of every instance; with the simple broker delivery stays in this JVM.
+ */
+@Service
+public class StompRealtimeMessageBus implements RealtimeMessageBus {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Counter topicMessages;
+    private final Counter userMessages;
+
+    public StompRealtimeMessageBus(SimpMessagingTemplate messagingTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${websocket.broker.mode:simple}") String brokerMode) {
+        this.messagingTemplate = messagingTemplate;
+        this.topicMessages = Counter.builder("realtime.messages.published")
+                .tag("kind", "topic").tag("broker", brokerMode).register(meterRegistry);
+        this.userMessages = Counter.builder("realtime.messages.published")
+                .tag("kind", "user").tag("broker", brokerMode).register(meterRegistry);
+    }
+
+    @Override
+    public void publish(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        topicMessages.increment();
+    }
+
+    @Override
+    public void publishToUser(String user, String destination, Object payload) {
+        messagingTemplate.convertAndSendToUser(user, destination, payload);
+        userMessages.increment();
+    }
+}
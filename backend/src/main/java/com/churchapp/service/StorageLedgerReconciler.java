@@ -0,0 +1,204 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.*;
+import com.churchapp.repository.*;
+import com.churchapp.util.MediaKeyUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Optional reconciliation of the storage ledger against the bucket.
+ *
+ * Lists the bucket with paginated ListObjectsV2 (1000 keys per call, no HeadObject), adds objects
+ * the ledger never saw, corrects sizes, drops entries whose objects are gone and then rebuilds the
+ * per-organization totals from the ledger. Objects that predate the ledger are attributed by
+ * walking each organization's posts, announcements, prayer requests, resources and profile pictures,
+ * which only happens while unattributed objects remain.
+ *
+ * The weekly run is disabled by default (storage.ledger.reconcile.enabled). A one-time backfill
+ * runs shortly after startup whenever the ledger is still empty (storage.ledger.backfill.enabled),
+ * so deployments that predate the ledger get their existing objects counted without waiting for
+ * someone to enable the weekly job. Point aws.s3.endpoint at a local S3 stand-in to run it
+ * outside AWS.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StorageLedgerReconciler {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int ATTRIBUTION_CHUNK = 500;
+
+    private final S3Client s3Client;
+    private final StorageLedgerService storageLedgerService;
+    private final OrganizationRepository organizationRepository;
+    private final PostRepository postRepository;
+    private final AnnouncementRepository announcementRepository;
+    private final PrayerRequestRepository prayerRequestRepository;
+    private final ResourceRepository resourceRepository;
+    private final UserOrganizationMembershipRepository membershipRepository;
+
+    @Value("${aws.s3.bucket-name}")
+    private String bucketName;
+
+    @Value("${storage.ledger.reconcile.enabled:false}")
+    private boolean reconcileEnabled;
+
+    @Value("${storage.ledger.backfill.enabled:true}")
+    private boolean backfillEnabled;
+
+    @Value("${storage.ledger.reconcile.prefix:media/}")
+    private String prefix;
+
+    @Value("${storage.ledger.reconcile.attribute-unowned:true}")
+    private boolean attributeUnowned;
+
+    /**
+     * Weekly on Sunday at 4:00 AM by default (storage.ledger.reconcile.cron)
+     */
+    @Scheduled(cron = "${storage.ledger.reconcile.cron:0 0 4 * * SUN}")
+    public void scheduledReconcile() {
+        if (!reconcileEnabled) {
+            log.debug("Storage ledger reconciliation is disabled");
+            return;
+        }
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Error during storage ledger reconciliation", e);
+        }
+    }
+
+    /**
+     * One-time backfill after startup (storage.ledger.backfill.initial-delay-ms). Skipped once the
+     * ledger has any entries; from then on uploads and deletes keep it current.
+     */
+    @Scheduled(initialDelayString = "${storage.ledger.backfill.initial-delay-ms:60000}")
+    public void backfillIfEmpty() {
+        if (!backfillEnabled || !storageLedgerService.isEmpty()) {
+            return;
+        }
+        log.info("Storage ledger is empty; backfilling it from the bucket");
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Error during storage ledger backfill", e);
+        }
+    }
+
+    /**
+     * Run a full reconciliation
+     *
+     * @return number of objects listed in the bucket
+     */
+    public long reconcile() {
+        LocalDateTime runStart = LocalDateTime.now();
+        log.info("Starting storage ledger reconciliation for s3://{}/{}", bucketName, prefix);
+
+        long listed = 0;
+        String continuationToken = null;
+        do {
+            ListObjectsV2Response page = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(prefix)
+                    .maxKeys(PAGE_SIZE)
+                    .continuationToken(continuationToken)
+                    .build());
+
+            Map<String, Long> sizesByKey = new HashMap<>();
+            for (S3Object object : page.contents()) {
+                sizesByKey.put(object.key(), object.size());
+            }
+            if (!sizesByKey.isEmpty()) {
+                storageLedgerService.applyListing(sizesByKey, runStart);
+                listed += sizesByKey.size();
+            }
+            continuationToken = Boolean.TRUE.equals(page.isTruncated()) ? page.nextContinuationToken() : null;
+        } while (continuationToken != null);
+
+        // An empty listing means a wrong bucket or prefix far more often than an empty bucket
+        int removed = 0;
+        if (listed > 0) {
+            int batch;
+            do {
+                batch = storageLedgerService.removeUnverified(runStart, PAGE_SIZE);
+                removed += batch;
+            } while (batch == PAGE_SIZE);
+        } else {
+            // Recomputing would also zero totals an empty ledger never held (e.g. on the first backfill)
+            log.warn("Storage ledger reconciliation listed no objects under s3://{}/{}; keeping ledger and totals as is",
+                    bucketName, prefix);
+            return 0;
+        }
+
+        int attributed = 0;
+        if (attributeUnowned && storageLedgerService.countUnattributed() > 0) {
+            attributed = attributeByReferences();
+        }
+
+        storageLedgerService.recomputeTotals();
+        log.info("Storage ledger reconciliation completed: {} objects listed, {} removed, {} attributed",
+                listed, removed, attributed);
+        return listed;
+    }
+
+    /**
+     * Charge unattributed objects to the organization whose content references them
+     */
+    private int attributeByReferences() {
+        int attributed = 0;
+        for (Organization organization : organizationRepository.findAll()) {
+            if (organization.getDeletedAt() != null) {
+                continue;
+            }
+            List<String> keys = new ArrayList<>(referencedKeys(organization.getId()));
+            for (int i = 0; i < keys.size(); i += ATTRIBUTION_CHUNK) {
+                attributed += storageLedgerService.attribute(organization.getId(),
+                        keys.subList(i, Math.min(keys.size(), i + ATTRIBUTION_CHUNK)));
+            }
+        }
+        return attributed;
+    }
+
+    private Set<String> referencedKeys(UUID organizationId) {
+        Set<String> urls = new HashSet<>();
+        for (Post post : postRepository.findAllByOrganizationId(organizationId)) {
+            if (post.getMediaUrls() != null) {
+                urls.addAll(post.getMediaUrls());
+            }
+        }
+        for (Announcement announcement : announcementRepository.findAllByOrganizationId(organizationId)) {
+            urls.add(announcement.getImageUrl());
+        }
+        for (PrayerRequest prayerRequest : prayerRequestRepository.findAllByOrganizationId(organizationId)) {
+            urls.add(prayerRequest.getImageUrl());
+        }
+        for (var membership : membershipRepository.findByOrganizationId(organizationId)) {
+            User user = membership.getUser();
+            urls.add(user.getProfilePicUrl());
+            for (Resource resource : resourceRepository.findByUploadedBy(user)) {
+                urls.add(resource.getFileUrl());
+            }
+        }
+
+        Set<String> keys = new HashSet<>();
+        for (String url : urls) {
+            // YouTube and other external links simply never match a ledger key
+            String key = MediaKeyUtil.toStorageKey(url);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
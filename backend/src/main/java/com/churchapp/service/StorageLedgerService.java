@@ -0,0 +1,217 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.OrganizationMetrics;
+import com.churchapp.entity.StorageObject;
+import com.churchapp.repository.OrganizationMetricsRepository;
+import com.churchapp.repository.OrganizationRepository;
+import com.churchapp.repository.StorageObjectRepository;
+import com.churchapp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Incremental storage accounting.
+ *
+ * Every object FileUploadService writes is recorded with its size and charged to an organization;
+ * deletions remove the entry again. Each change also adjusts the running per-category totals in
+ * organization_metrics, so storage usage and limits are read from one row per organization
+ * instead of a HeadObject per file.
+ *
+ * Uploads are charged to the uploader's church primary organization, derived renditions to the
+ * organization of their original. Ledger writes run in their own transaction and callers treat
+ * failures as non-fatal; StorageLedgerReconciler repairs any drift against S3.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StorageLedgerService {
+
+    private final StorageObjectRepository storageObjectRepository;
+    private final OrganizationMetricsRepository metricsRepository;
+    private final OrganizationRepository organizationRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Record an object uploaded by the current user
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordUpload(String objectKey, long sizeBytes) {
+        record(objectKey, sizeBytes, currentOrganizationId());
+    }
+
+    /**
+     * Record an object derived from another one (optimized image, thumbnail); it is charged
+     * to the same organization as its source
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordDerived(String sourceKey, String objectKey, long sizeBytes) {
+        UUID organizationId = storageObjectRepository.findById(sourceKey)
+                .map(StorageObject::getOrganizationId)
+                .orElse(null);
+        record(objectKey, sizeBytes, organizationId);
+    }
+
+    /**
+     * Remove deleted objects from the ledger and their bytes from the organization totals.
+     * Keys the ledger doesn't know are ignored.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordDeletions(Collection<String> objectKeys) {
+        for (StorageObject object : storageObjectRepository.findAllById(objectKeys)) {
+            storageObjectRepository.delete(object);
+            adjust(object.getOrganizationId(), object.getCategory(), -object.getSizeBytes());
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordDeletion(String objectKey) {
+        recordDeletions(List.of(objectKey));
+    }
+
+    // ========== RECONCILIATION (used by StorageLedgerReconciler) ==========
+
+    /**
+     * Bring one page of an S3 listing into the ledger: unknown objects are added unattributed,
+     * changed sizes are corrected and every listed object is stamped as verified by this run.
+     * Totals are not adjusted here; recomputeTotals() rebuilds them at the end of the run.
+     */
+    @Transactional
+    public void applyListing(Map<String, Long> sizesByKey, LocalDateTime runStart) {
+        Map<String, StorageObject> known = new HashMap<>();
+        for (StorageObject object : storageObjectRepository.findAllById(sizesByKey.keySet())) {
+            known.put(object.getObjectKey(), object);
+        }
+        if (!known.isEmpty()) {
+            storageObjectRepository.markVerified(known.keySet(), runStart);
+        }
+
+        List<StorageObject> changed = new ArrayList<>();
+        sizesByKey.forEach((key, size) -> {
+            StorageObject object = known.get(key);
+            if (object == null) {
+                object = new StorageObject(key, null, StorageObject.categoryFor(key), size);
+            } else if (object.getSizeBytes() == size) {
+                return;
+            }
+            object.setSizeBytes(size);
+            object.setVerifiedAt(runStart);
+            changed.add(object);
+        });
+        storageObjectRepository.saveAll(changed);
+    }
+
+    /**
+     * Drop up to batchSize ledger rows whose objects the run that started at runStart did not see
+     *
+     * @return number of rows removed
+     */
+    @Transactional
+    public int removeUnverified(LocalDateTime runStart, int batchSize) {
+        List<StorageObject> missing = storageObjectRepository.findNotVerifiedSince(runStart, PageRequest.of(0, batchSize));
+        storageObjectRepository.deleteAllInBatch(missing);
+        return missing.size();
+    }
+
+    /**
+     * Charge unattributed objects among the given keys to an organization
+     */
+    @Transactional
+    public int attribute(UUID organizationId, Collection<String> objectKeys) {
+        return objectKeys.isEmpty() ? 0 : storageObjectRepository.attribute(objectKeys, organizationId);
+    }
+
+    @Transactional(readOnly = true)
+    public long countUnattributed() {
+        return storageObjectRepository.countByOrganizationIdIsNull();
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return storageObjectRepository.count() == 0;
+    }
+
+    /**
+     * Rebuild every organization's running totals from the ledger
+     */
+    @Transactional
+    public void recomputeTotals() {
+        Map<UUID, long[]> totals = new HashMap<>();
+        for (Object[] row : storageObjectRepository.sumBytesByOrganizationAndCategory()) {
+            long[] orgTotals = totals.computeIfAbsent((UUID) row[0], id -> new long[3]);
+            orgTotals[((StorageObject.Category) row[1]).ordinal()] = ((Number) row[2]).longValue();
+        }
+
+        for (OrganizationMetrics metrics : metricsRepository.findAll()) {
+            UUID organizationId = metrics.getOrganization().getId();
+            long[] orgTotals = totals.getOrDefault(organizationId, new long[3]);
+            metricsRepository.setStorage(organizationId, orgTotals[0], orgTotals[1], orgTotals[2]);
+            totals.remove(organizationId);
+        }
+        // Organizations with storage but no metrics row yet
+        totals.forEach((organizationId, orgTotals) -> {
+            adjust(organizationId, StorageObject.Category.MEDIA, orgTotals[0]);
+            adjust(organizationId, StorageObject.Category.DOCUMENT, orgTotals[1]);
+            adjust(organizationId, StorageObject.Category.PROFILE_PIC, orgTotals[2]);
+        });
+    }
+
+    private void record(String objectKey, long sizeBytes, UUID organizationId) {
+        if (storageObjectRepository.existsById(objectKey)) {
+            // Upload completion retried by the client; already counted
+            return;
+        }
+        StorageObject.Category category = StorageObject.categoryFor(objectKey);
+        storageObjectRepository.save(new StorageObject(objectKey, organizationId, category, sizeBytes));
+        adjust(organizationId, category, sizeBytes);
+        log.debug("Storage ledger: {} ({} bytes, {}) charged to organization {}",
+                objectKey, sizeBytes, category, organizationId);
+    }
+
+    /**
+     * Add (or with a negative delta, subtract) bytes to an organization's running totals
+     */
+    private void adjust(UUID organizationId, StorageObject.Category category, long delta) {
+        if (organizationId == null || delta == 0) {
+            return;
+        }
+        long media = category == StorageObject.Category.MEDIA ? delta : 0;
+        long documents = category == StorageObject.Category.DOCUMENT ? delta : 0;
+        long profilePics = category == StorageObject.Category.PROFILE_PIC ? delta : 0;
+
+        if (metricsRepository.adjustStorage(organizationId, media, documents, profilePics) == 0) {
+            // First storage for an organization the metrics job hasn't visited yet; start its row at this delta
+            OrganizationMetrics metrics = new OrganizationMetrics();
+            metrics.setOrganization(organizationRepository.getReferenceById(organizationId));
+            metrics.setCalculatedAt(LocalDateTime.now());
+            metrics.setStorageMediaFiles(Math.max(0, media));
+            metrics.setStorageDocuments(Math.max(0, documents));
+            metrics.setStorageProfilePics(Math.max(0, profilePics));
+            metrics.setStorageUsed(Math.max(0, delta));
+            metricsRepository.save(metrics);
+        }
+    }
+
+    private UUID currentOrganizationId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
+            return null;
+        }
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+        return userRepository.findChurchPrimaryOrgIdByEmail(email);
+    }
+}
@@ -29,7 +29,8 @@ public class StorageLimitService {
     private static final int DEFAULT_ALERT_THRESHOLD = 80;
 
     public void evaluateStorageLimits() {
-        List<OrganizationMetrics> metricsList = organizationMetricsRepository.findAll();
+        // Storage totals are maintained by the storage ledger, so this is one fetch-joined read per organization
+        List<OrganizationMetrics> metricsList = organizationMetricsRepository.findAllWithOrganization();
 
         for (OrganizationMetrics metrics : metricsList) {
             Organization organization = metrics.getOrganization();
@@ -1,10 +1,12 @@
 package com.churchapp.service;
 
 import com.churchapp.entity.UserBlock;
+import com.churchapp.event.FeedContextChangedEvent;
 import com.churchapp.repository.UserBlockRepository;
 import com.churchapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -22,6 +24,7 @@ public class UserBlockService {
     private final UserBlockRepository userBlockRepository;
     private final UserRepository userRepository;
     private final UserFollowService userFollowService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Block a user
@@ -71,6 +74,8 @@ public class UserBlockService {
 
         userBlockRepository.save(userBlock);
         log.info("User {} blocked {}", blockerId, blockedId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(blockerId, "blocked user"));
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(blockedId, "blocked by user"));
     }
 
     /**
@@ -85,6 +90,8 @@ public class UserBlockService {
 
         userBlockRepository.deleteByBlockerIdAndBlockedId(blockerId, blockedId);
         log.info("User {} unblocked {}", blockerId, blockedId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(blockerId, "unblocked user"));
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(blockedId, "unblocked by user"));
     }
 
     /**
@@ -1,10 +1,12 @@
 package com.churchapp.service;
 
 import com.churchapp.entity.UserFollow;
+import com.churchapp.event.FeedContextChangedEvent;
 import com.churchapp.repository.UserFollowRepository;
 import com.churchapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,6 +23,7 @@ public class UserFollowService {
 
     private final UserFollowRepository userFollowRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Follow a user
@@ -58,6 +61,7 @@ public class UserFollowService {
 
         userFollowRepository.save(userFollow);
         log.info("User {} now follows {}", followerId, followingId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(followerId, "followed user"));
     }
 
     /**
@@ -72,6 +76,7 @@ public class UserFollowService {
 
         userFollowRepository.deleteByFollowerIdAndFollowingId(followerId, followingId);
         log.info("User {} unfollowed {}", followerId, followingId);
+        eventPublisher.publishEvent(FeedContextChangedEvent.forUser(followerId, "unfollowed user"));
     }
 
     /**
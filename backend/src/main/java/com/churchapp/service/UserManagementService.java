@@ -5,10 +5,12 @@ import com.churchapp.entity.User;
 import com.churchapp.entity.User.Role;
 import com.churchapp.entity.UserOrganizationMembership;
 import com.churchapp.entity.UserWarning;
+import com.churchapp.event.UserPrincipalChangedEvent;
 import com.churchapp.repository.UserRepository;
 import com.churchapp.repository.UserWarningRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -32,6 +34,7 @@ public class UserManagementService {
     private final UserRepository userRepository;
     private final UserWarningRepository userWarningRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get users with optional organization filtering
@@ -66,6 +69,7 @@ public class UserManagementService {
             Role newRole = Role.valueOf(roleName.toUpperCase());
             user.setRole(newRole);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail(), "role changed"));
 
             log.info("Updated user {} role to: {}", userId, newRole);
 
@@ -88,6 +92,7 @@ public class UserManagementService {
         // For now, all bans are permanent until unbanned
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail(), "banned"));
 
         log.info("Banned user {} for reason: {}", userId, reason);
     }
@@ -103,6 +108,7 @@ public class UserManagementService {
         user.setIsActive(true);
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail(), "unbanned"));
 
         log.info("Unbanned user {}", userId);
     }
@@ -160,6 +166,7 @@ public class UserManagementService {
             user.setBannedAt(LocalDateTime.now());
             user.setIsActive(false);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail(), "auto-banned"));
         }
 
         log.info("Issued warning to user {} (total warnings: {}). Reason: {}",
@@ -200,6 +207,7 @@ public class UserManagementService {
         user.setDeletedAt(LocalDateTime.now());
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail(), "deleted"));
 
         log.info("Soft deleted user {}", userId);
     }
@@ -4,10 +4,12 @@ import com.churchapp.dto.UserProfileRequest;
 import com.churchapp.dto.UserProfileResponse;
 import com.churchapp.entity.User;
 import com.churchapp.entity.UserLike;
+import com.churchapp.event.UserPrincipalChangedEvent;
 import com.churchapp.repository.UserRepository;
 import com.churchapp.repository.UserLikeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -32,6 +34,7 @@ public class UserProfileService {
     private final UserFollowService userFollowService;
     private final UserBlockService userBlockService;
     private final UserLikeRepository userLikeRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     public UserProfileResponse getUserProfile(UUID userId) {
         User user = userRepository.findById(userId)
@@ -89,6 +92,7 @@ public class UserProfileService {
                 if (existingUser.isPresent() && !existingUser.get().getId().equals(userId)) {
                     throw new RuntimeException("Email is already in use by another user");
                 }
+                eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail(), "email changed"));
                 user.setEmail(newEmail);
                 log.info("Email updated for user: {} to: {}", userId, newEmail);
             }
@@ -164,6 +168,9 @@ public class UserProfileService {
         
         // Only allow role updates for admins or specific business logic
         if (request.getRole() != null) {
+            if (request.getRole() != user.getRole()) {
+                eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail(), "role changed"));
+            }
             user.setRole(request.getRole());
         }
         
@@ -0,0 +1,203 @@
+package com.churchapp.service;
+
+import com.churchapp.dto.WorshipQueueEntryResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges worship queue changes (votes, songs added/removed) per room over a short window and
+ * publishes them as one compact QUEUE_DELTA on /topic/worship/rooms/{id}/queue.
+ *
+ * Vote counts are absolute, so only the latest count per entry is kept and re-applying a delta
+ * is harmless. Every delta carries a per-room sequence number; a client that sees a gap fetches
+ * GET /worship/rooms/{id}/queue/snapshot and discards deltas up to the snapshot's sequence.
+ *
+ * Sequences live in memory, so they restart when the instance restarts or the room's buffer is
+ * forgotten. Each numbering run is tagged with an epoch (instance id, instance start time and
+ * a per-buffer generation); a client that sees a different epoch than its snapshot's, or a sequence going
+ * backwards, must reload the snapshot rather than trust the numbers.
+ *
+ * Delta format: {"type":"QUEUE_DELTA","epoch":"...","seq":n,"votes":{"entryId":[upvotes,skips]},"added":[...],"removed":[...]}
+ */
+@Service
+@Slf4j
+public class WorshipBroadcastCoalescer {
+
+    private final RealtimeMessageBus messageBus;
+    private final long windowMillis;
+    // Instance id plus start time, so epochs never repeat across restarts or instances
+    private final String instanceEpoch = UUID.randomUUID() + "-" + System.currentTimeMillis();
+    private final AtomicLong bufferGeneration = new AtomicLong();
+    private final Map<UUID, RoomBuffer> rooms = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Counter changesReceived;
+    private final Counter deltasPublished;
+
+    public WorshipBroadcastCoalescer(RealtimeMessageBus messageBus,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${worship.broadcast.coalesce-window-ms:75}") long windowMillis) {
+        this.messageBus = messageBus;
+        this.windowMillis = windowMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worship-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.changesReceived = Counter.builder("worship.broadcast.changes").register(meterRegistry);
+        this.deltasPublished = Counter.builder("worship.broadcast.deltas").register(meterRegistry);
+    }
+
+    public void voteChanged(UUID roomId, UUID entryId, long upvotes, long skipVotes) {
+        buffer(roomId, buffer -> {
+            buffer.votes.put(entryId, new long[] { upvotes, skipVotes });
+        });
+    }
+
+    public void entryAdded(UUID roomId, WorshipQueueEntryResponse entry) {
+        buffer(roomId, buffer -> {
+            buffer.removed.remove(entry.getId());
+            buffer.added.put(entry.getId(), entry);
+        });
+    }
+
+    public void entryRemoved(UUID roomId, UUID entryId) {
+        buffer(roomId, buffer -> {
+            buffer.votes.remove(entryId);
+            // Added and removed within one window: nobody needs to hear about it
+            if (buffer.added.remove(entryId) == null) {
+                buffer.removed.add(entryId);
+            }
+        });
+    }
+
+    /**
+     * Sequence number of the last delta published for the room. A snapshot taken now is
+     * complete up to this number; later deltas may overlap it but are idempotent.
+     */
+    public long currentSequence(UUID roomId) {
+        RoomBuffer buffer = rooms.get(roomId);
+        if (buffer == null) {
+            return 0;
+        }
+        synchronized (buffer) {
+            return buffer.sequence;
+        }
+    }
+
+    /**
+     * Epoch of the room's current sequence numbering. Sequence numbers are only comparable
+     * within one epoch.
+     */
+    public String currentEpoch(UUID roomId) {
+        return rooms.computeIfAbsent(roomId, this::newBuffer).epoch;
+    }
+
+    /**
+     * Publish whatever is buffered for the room right away.
+     */
+    public void flush(UUID roomId) {
+        RoomBuffer buffer = rooms.get(roomId);
+        if (buffer == null) {
+            return;
+        }
+
+        Map<String, Object> delta;
+        synchronized (buffer) {
+            buffer.flushScheduled = false;
+            if (buffer.isEmpty()) {
+                return;
+            }
+            delta = new LinkedHashMap<>();
+            delta.put("type", "QUEUE_DELTA");
+            delta.put("epoch", buffer.epoch);
+            delta.put("seq", ++buffer.sequence);
+            if (!buffer.votes.isEmpty()) {
+                Map<UUID, long[]> votes = new LinkedHashMap<>(buffer.votes);
+                delta.put("votes", votes);
+            }
+            if (!buffer.added.isEmpty()) {
+                delta.put("added", new ArrayList<>(buffer.added.values()));
+            }
+            if (!buffer.removed.isEmpty()) {
+                delta.put("removed", new ArrayList<>(buffer.removed));
+            }
+            buffer.votes.clear();
+            buffer.added.clear();
+            buffer.removed.clear();
+            // Publish while holding the lock so deltas leave in sequence order
+            messageBus.publish("/topic/worship/rooms/" + roomId + "/queue", delta);
+        }
+        deltasPublished.increment();
+    }
+
+    /**
+     * Forget a room's buffer (e.g. when the room is deleted). Sequence numbering restarts at 0 in a new epoch.
+     */
+    public void forget(UUID roomId) {
+        flush(roomId);
+        rooms.remove(roomId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void buffer(UUID roomId, Consumer<RoomBuffer> change) {
+        changesReceived.increment();
+        RoomBuffer buffer = rooms.computeIfAbsent(roomId, this::newBuffer);
+        boolean schedule;
+        synchronized (buffer) {
+            change.accept(buffer);
+            schedule = !buffer.flushScheduled;
+            buffer.flushScheduled = true;
+        }
+        if (schedule) {
+            scheduler.schedule(() -> {
+                try {
+                    flush(roomId);
+                } catch (Exception e) {
+                    log.warn("Failed to publish worship queue delta for room {}: {}", roomId, e.getMessage());
+                }
+            }, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private RoomBuffer newBuffer(UUID roomId) {
+        return new RoomBuffer(instanceEpoch + "-" + bufferGeneration.incrementAndGet());
+    }
+
+    private static final class RoomBuffer {
+        private final String epoch;
+        private long sequence;
+        private boolean flushScheduled;
+        private final Map<UUID, long[]> votes = new LinkedHashMap<>();
+        private final Map<UUID, WorshipQueueEntryResponse> added = new LinkedHashMap<>();
+        private final Set<UUID> removed = new LinkedHashSet<>();
+
+        RoomBuffer(String epoch) {
+            this.epoch = epoch;
+        }
+
+        boolean isEmpty() {
+            return votes.isEmpty() && added.isEmpty() && removed.isEmpty();
+        }
+    }
+}
@@ -30,6 +30,13 @@ public class WorshipPermissionService {
      * Check if user can join a room
      */
     public boolean canJoinRoom(User user, WorshipRoom room) {
+        return canJoinRoom(user, room, user != null && participantRepository.isUserInRoom(room, user));
+    }
+
+    /**
+     * Check if user can join a room, when the caller already knows whether they are an active participant
+     */
+    public boolean canJoinRoom(User user, WorshipRoom room, boolean alreadyParticipant) {
         if (user == null || !user.getIsActive()) {
             return false;
         }
@@ -55,7 +62,7 @@ public class WorshipPermissionService {
         }
 
         // Check if already a participant
-        return !room.isParticipant(user);
+        return !alreadyParticipant;
     }
 
     /**
@@ -92,7 +99,7 @@ public class WorshipPermissionService {
         }
 
         // Must be a participant
-        if (!room.isParticipant(user)) {
+        if (!participantRepository.isUserInRoom(room, user)) {
             return false;
         }
 
@@ -181,7 +188,7 @@ public class WorshipPermissionService {
         }
 
         // Must be a participant
-        if (!room.isParticipant(user)) {
+        if (!participantRepository.isUserInRoom(room, user)) {
             return false;
         }
 
@@ -240,6 +247,6 @@ public class WorshipPermissionService {
      * Check if user is participant
      */
     public boolean isParticipant(User user, WorshipRoom room) {
-        return user != null && room != null && room.isParticipant(user);
+        return user != null && room != null && participantRepository.isUserInRoom(room, user);
     }
 }
@@ -5,11 +5,10 @@ import com.churchapp.entity.*;
 import com.churchapp.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -26,11 +25,12 @@ public class WorshipQueueService {
     private final WorshipSongVoteRepository voteRepository;
     private final WorshipRoomRepository roomRepository;
     private final WorshipRoomParticipantRepository participantRepository;
-    private final WorshipPlayHistoryRepository historyRepository;
     private final WorshipRoomSettingsRepository settingsRepository;
     private final UserRepository userRepository;
     private final WorshipPermissionService permissionService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
+    private final WorshipRoomEngine worshipRoomEngine;
+    private final WorshipBroadcastCoalescer broadcastCoalescer;
 
     private static final int POSITION_GAP = 10000; // Gap between queue positions for easy reordering
 
@@ -104,9 +104,10 @@ public class WorshipQueueService {
             entry.setStatus(WorshipQueueEntry.QueueStatus.WAITING);
 
             entry = queueRepository.save(entry);
+            worshipRoomEngine.entryAdded(entry);
 
             // Broadcast queue update
-            broadcastQueueUpdate(room.getId(), "SONG_ADDED", entry);
+            broadcastCoalescer.entryAdded(room.getId(), WorshipQueueEntryResponse.fromEntity(entry));
 
             return buildQueueEntryResponse(entry, user);
         } catch (Exception ex) {
@@ -129,259 +130,187 @@ public class WorshipQueueService {
             throw new RuntimeException("Insufficient permissions to remove this song");
         }
 
-        if (entry.getStatus() == WorshipQueueEntry.QueueStatus.PLAYING) {
-            throw new RuntimeException("Cannot remove currently playing song. Use skip instead");
-        }
+        // The engine holds the live status; this also drops votes still waiting to be written
+        worshipRoomEngine.removeEntry(room.getId(), queueEntryId);
 
         // Delete entry
         queueRepository.delete(entry);
 
         // Broadcast queue update
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + room.getId() + "/queue",
-            java.util.Map.of("type", "SONG_REMOVED", "queueEntryId", queueEntryId));
+        broadcastCoalescer.entryRemoved(room.getId(), queueEntryId);
     }
 
     @Transactional(readOnly = true)
     public List<WorshipQueueEntryResponse> getQueueForRoom(String userEmail, UUID roomId) {
         User user = getUserByEmail(userEmail);
-        WorshipRoom room = getRoomByIdOrThrow(roomId);
-
-        List<WorshipQueueEntry> queue = queueRepository.findWaitingQueueForRoom(room);
 
-        return queue.stream()
-            .map(entry -> buildQueueEntryResponse(entry, user))
-            .collect(Collectors.toList());
+        return worshipRoomEngine.execute(roomId, room -> room.getWaitingEntries().stream()
+            .map(entry -> buildQueueEntryResponse(room, entry, user.getId()))
+            .collect(Collectors.toList()));
     }
 
     @Transactional(readOnly = true)
     public Optional<WorshipQueueEntryResponse> getCurrentlyPlaying(String userEmail, UUID roomId) {
         User user = getUserByEmail(userEmail);
-        WorshipRoom room = getRoomByIdOrThrow(roomId);
 
-        Optional<WorshipQueueEntry> currentEntry = queueRepository.findByWorshipRoomAndStatus(
-            room, WorshipQueueEntry.QueueStatus.PLAYING
-        );
+        return worshipRoomEngine.execute(roomId, room -> room.getCurrentEntry()
+            .map(entry -> buildQueueEntryResponse(room, entry, user.getId())));
+    }
+
+    /**
+     * Full queue state for clients that missed a delta. Built on the room's engine actor, so it
+     * reflects every change up to the returned sequence number.
+     */
+    @Transactional(readOnly = true)
+    public WorshipQueueSnapshotResponse getQueueSnapshot(String userEmail, UUID roomId) {
+        User user = getUserByEmail(userEmail);
+
+        return worshipRoomEngine.execute(roomId, room -> {
+            WorshipQueueSnapshotResponse snapshot = new WorshipQueueSnapshotResponse();
+            snapshot.setEpoch(broadcastCoalescer.currentEpoch(roomId));
+            snapshot.setSeq(broadcastCoalescer.currentSequence(roomId));
+            snapshot.setQueue(room.getWaitingEntries().stream()
+                .map(entry -> buildQueueEntryResponse(room, entry, user.getId()))
+                .collect(Collectors.toList()));
+            snapshot.setNowPlaying(room.getCurrentEntry()
+                .map(entry -> buildQueueEntryResponse(room, entry, user.getId()))
+                .orElse(null));
+            return snapshot;
+        });
+    }
 
-        return currentEntry.map(entry -> buildQueueEntryResponse(entry, user));
+    /**
+     * Current playback state of a room, as held by the engine (the database copy lags by up to
+     * one write-behind interval).
+     */
+    public WorshipRoomState.PlaybackSnapshot getPlaybackSnapshot(UUID roomId) {
+        return worshipRoomEngine.execute(roomId, WorshipRoomState::getPlaybackSnapshot);
     }
 
     // ==================== VOTING OPERATIONS ====================
 
-    @Transactional
+    // Runs entirely on the room's engine actor: no transaction, no row locks
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public WorshipQueueEntryResponse vote(String userEmail, WorshipVoteRequest request) {
-        User user = getUserByEmail(userEmail);
-        WorshipQueueEntry entry = getQueueEntryByIdOrThrow(request.getQueueEntryId());
-        WorshipRoom room = entry.getWorshipRoom();
-
-        // Validate permissions
-        if (!permissionService.canVote(user, room)) {
-            throw new RuntimeException("Insufficient permissions to vote");
-        }
+        UUID roomId = worshipRoomEngine.roomIdForEntry(request.getQueueEntryId());
 
-        // Check if already voted
         WorshipSongVote.VoteType voteType = request.getVoteType() == WorshipVoteRequest.VoteType.UPVOTE
             ? WorshipSongVote.VoteType.UPVOTE
             : WorshipSongVote.VoteType.SKIP;
 
-        Optional<WorshipSongVote> existingVote = voteRepository.findByQueueEntryAndUserAndVoteType(
-            entry, user, voteType
-        );
-
-        if (existingVote.isPresent()) {
-            // Remove vote (toggle)
-            voteRepository.delete(existingVote.get());
-            voteRepository.flush(); // Ensure delete is committed
-        } else {
-            // Add vote
-            WorshipSongVote vote = new WorshipSongVote();
-            vote.setQueueEntry(entry);
-            vote.setUser(user);
-            vote.setVoteType(voteType);
-            voteRepository.save(vote);
-            voteRepository.flush(); // Ensure save is committed
-        }
+        return worshipRoomEngine.execute(roomId, room -> {
+            // Validate permissions
+            if (!room.canVote(userEmail)) {
+                throw new RuntimeException("Insufficient permissions to vote");
+            }
+            UUID userId = requireUserId(room, userEmail);
 
-        // Refresh the entry to get updated vote counts
-        queueRepository.flush();
-        entry = queueRepository.findById(entry.getId())
-            .orElseThrow(() -> new RuntimeException("Queue entry not found"));
+            WorshipRoomState.Entry entry = room.getEntry(request.getQueueEntryId())
+                .orElseThrow(() -> new RuntimeException("Queue entry not found"));
 
-        // Check skip threshold
-        if (voteType == WorshipSongVote.VoteType.SKIP &&
-            entry.getStatus() == WorshipQueueEntry.QueueStatus.PLAYING) {
-            checkSkipThreshold(entry, room);
-        }
+            // Add the vote, or remove it if the user already cast it (toggle)
+            room.toggleVote(entry, userId, voteType);
+
+            // Check skip threshold
+            if (voteType == WorshipSongVote.VoteType.SKIP && entry.isPlaying()) {
+                checkSkipThreshold(room, entry);
+            }
 
-        // Broadcast vote update with refreshed vote counts
-        WorshipQueueEntryResponse response = buildQueueEntryResponse(entry, user);
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + room.getId() + "/queue",
-            java.util.Map.of("type", "VOTE_UPDATED", "queueEntry", response));
+            // Broadcast the new vote counts; bursts of votes go out as one delta per window
+            WorshipQueueEntryResponse response = buildQueueEntryResponse(room, entry, userId);
+            broadcastCoalescer.voteChanged(roomId, entry.getId(), response.getUpvoteCount(),
+                response.getSkipVoteCount());
 
-        return response;
+            return response;
+        });
     }
 
     // ==================== PLAYBACK CONTROL ====================
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public WorshipQueueEntryResponse playNext(String userEmail, UUID roomId) {
-        User user = getUserByEmail(userEmail);
-        WorshipRoom room = getRoomByIdOrThrow(roomId);
-
-        // Validate permissions
-        if (!permissionService.canControlPlayback(user, room)) {
-            throw new RuntimeException("Insufficient permissions to control playback");
-        }
-
-        // Mark current song as completed if exists
-        Optional<WorshipQueueEntry> currentEntry = queueRepository.findByWorshipRoomAndStatus(
-            room, WorshipQueueEntry.QueueStatus.PLAYING
-        );
+        return worshipRoomEngine.execute(roomId, room -> {
+            // Validate permissions
+            if (!room.canControlPlayback(userEmail)) {
+                throw new RuntimeException("Insufficient permissions to control playback");
+            }
+            UUID userId = requireUserId(room, userEmail);
 
-        currentEntry.ifPresent(entry -> {
-            entry.markAsCompleted();
-            queueRepository.save(entry);
+            // Mark current song as completed if exists
+            room.getCurrentEntry().ifPresent(entry -> room.finishEntry(entry, false, userId, LocalDateTime.now()));
 
-            // Save to history
-            saveToHistory(entry, room, user, false);
+            return advance(room, userId, userEmail)
+                .orElseThrow(() -> new RuntimeException("No more songs in queue"));
         });
-
-        // Get next in queue
-        Optional<WorshipQueueEntry> nextEntry = queueRepository.findNextInQueue(room);
-
-        if (nextEntry.isEmpty()) {
-            // No more songs in queue - stop playback
-            room.stop();
-            roomRepository.save(room);
-
-            messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId + "/nowPlaying",
-                java.util.Map.of("type", "PLAYBACK_STOPPED"));
-
-            throw new RuntimeException("No more songs in queue");
-        }
-
-        // Play next song
-        WorshipQueueEntry entry = nextEntry.get();
-        entry.markAsPlaying();
-        queueRepository.save(entry);
-
-        // Update room state
-        room.play(entry.getVideoId(), entry.getVideoTitle(), entry.getVideoThumbnailUrl(), user);
-        roomRepository.save(room);
-
-        // Clear votes for new song
-        voteRepository.deleteByQueueEntry(entry);
-
-        // Broadcast playback update
-        WorshipQueueEntryResponse response = buildQueueEntryResponse(entry, user);
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId + "/nowPlaying",
-            java.util.Map.of(
-                "type", "NOW_PLAYING",
-                "queueEntry", response,
-                "scheduledPlayTime", System.currentTimeMillis() + 2000 // 2 second buffer for sync
-            ));
-
-        return response;
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void skipCurrentSong(String userEmail, UUID roomId) {
-        User user = getUserByEmail(userEmail);
-        WorshipRoom room = getRoomByIdOrThrow(roomId);
-
-        // Validate permissions
-        if (!permissionService.canControlPlayback(user, room)) {
-            throw new RuntimeException("Insufficient permissions to skip song");
-        }
-
-        // Get current song
-        Optional<WorshipQueueEntry> currentEntry = queueRepository.findByWorshipRoomAndStatus(
-            room, WorshipQueueEntry.QueueStatus.PLAYING
-        );
-
-        if (currentEntry.isEmpty()) {
-            throw new RuntimeException("No song is currently playing");
-        }
-
-        WorshipQueueEntry entry = currentEntry.get();
-        entry.markAsSkipped();
-        queueRepository.save(entry);
+        worshipRoomEngine.execute(roomId, room -> {
+            // Validate permissions
+            if (!room.canControlPlayback(userEmail)) {
+                throw new RuntimeException("Insufficient permissions to skip song");
+            }
+            UUID userId = requireUserId(room, userEmail);
 
-        // Save to history
-        saveToHistory(entry, room, user, true);
+            WorshipRoomState.Entry entry = room.getCurrentEntry()
+                .orElseThrow(() -> new RuntimeException("No song is currently playing"));
+            room.finishEntry(entry, true, userId, LocalDateTime.now());
 
-        // Play next song automatically
-        try {
-            playNext(userEmail, roomId);
-        } catch (RuntimeException e) {
-            // Queue is empty, already handled in playNext
-        }
+            // Play next song automatically (stops playback if the queue is empty)
+            advance(room, userId, userEmail);
+            return null;
+        });
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updatePlaybackState(String userEmail, UUID roomId, WorshipPlaybackCommand command) {
-        User user = getUserByEmail(userEmail);
-        WorshipRoom room = getRoomByIdOrThrow(roomId);
-
-        if (!permissionService.canControlPlayback(user, room)) {
-            throw new RuntimeException("Insufficient permissions to control playback");
-        }
+        worshipRoomEngine.execute(roomId, room -> {
+            if (!room.canControlPlayback(userEmail)) {
+                throw new RuntimeException("Insufficient permissions to control playback");
+            }
 
-        switch (command.getAction()) {
-            case PLAY -> {
-                double startPosition = resolveRequestedPosition(command, room, 0.0);
-                room.setCurrentLeader(user);
-                if (command.getVideoId() != null && !command.getVideoId().isBlank()) {
-                    room.setCurrentVideoId(command.getVideoId());
+            LocalDateTime now = LocalDateTime.now();
+            switch (command.getAction()) {
+                case PLAY -> {
+                    double startPosition = resolveRequestedPosition(command, 0.0);
+                    room.setLeader(requireUserId(room, userEmail), userEmail);
+                    room.setCurrentVideo(command.getVideoId(), command.getVideoTitle(), command.getVideoThumbnail());
+                    room.setPlayback("playing", startPosition, now);
+                    command.setSeekPosition(startPosition);
                 }
-                if (command.getVideoTitle() != null) {
-                    room.setCurrentVideoTitle(command.getVideoTitle());
+                case RESUME -> {
+                    double resumePosition = resolveRequestedPosition(command, room.calculateCurrentPlaybackPosition(now));
+                    room.setPlayback("playing", resumePosition, now);
+                    command.setSeekPosition(resumePosition);
                 }
-                if (command.getVideoThumbnail() != null) {
-                    room.setCurrentVideoThumbnail(command.getVideoThumbnail());
+                case PAUSE -> {
+                    double pausePosition = resolveRequestedPosition(command, room.calculateCurrentPlaybackPosition(now));
+                    room.setPlayback("paused", pausePosition, null);
+                    command.setSeekPosition(pausePosition);
                 }
-                room.setPlaybackStatus("playing");
-                room.setPlaybackPosition(startPosition);
-                room.setPlaybackStartedAt(LocalDateTime.now());
-                command.setSeekPosition(startPosition);
-            }
-            case RESUME -> {
-                double resumePosition = resolveRequestedPosition(command, room, calculateCurrentPlaybackPosition(room));
-                room.setPlaybackStatus("playing");
-                room.setPlaybackPosition(resumePosition);
-                room.setPlaybackStartedAt(LocalDateTime.now());
-                command.setSeekPosition(resumePosition);
-            }
-            case PAUSE -> {
-                double pausePosition = resolveRequestedPosition(command, room, calculateCurrentPlaybackPosition(room));
-                room.setPlaybackStatus("paused");
-                room.setPlaybackPosition(pausePosition);
-                room.setPlaybackStartedAt(null);
-                command.setSeekPosition(pausePosition);
-            }
-            case STOP -> {
-                room.stop();
-                command.setSeekPosition(0.0);
-                command.setVideoId(null);
-                command.setVideoTitle(null);
-                command.setVideoThumbnail(null);
-            }
-            case SEEK -> {
-                double targetPosition = resolveRequestedPosition(command, room, calculateCurrentPlaybackPosition(room));
-                room.setPlaybackPosition(targetPosition);
-                if ("playing".equals(room.getPlaybackStatus())) {
-                    room.setPlaybackStartedAt(LocalDateTime.now());
+                case STOP -> {
+                    room.stop();
+                    command.setSeekPosition(0.0);
+                    command.setVideoId(null);
+                    command.setVideoTitle(null);
+                    command.setVideoThumbnail(null);
+                }
+                case SEEK -> {
+                    double targetPosition = resolveRequestedPosition(command, room.calculateCurrentPlaybackPosition(now));
+                    boolean playing = "playing".equals(room.getPlaybackStatus());
+                    room.setPlayback(room.getPlaybackStatus(), targetPosition, playing ? now : null);
+                    command.setSeekPosition(targetPosition);
+                }
+                case SKIP -> {
+                    // Skip handled separately via skipCurrentSong
                 }
-                command.setSeekPosition(targetPosition);
-            }
-            case SKIP -> {
-                // Skip handled separately via skipCurrentSong
             }
-        }
-
-        roomRepository.save(room);
+            return null;
+        });
     }
 
-    private double resolveRequestedPosition(WorshipPlaybackCommand command, WorshipRoom room, double fallback) {
+    private double resolveRequestedPosition(WorshipPlaybackCommand command, double fallback) {
         if (command.getSeekPosition() != null) {
             return Math.max(0.0, command.getSeekPosition());
         }
@@ -389,111 +318,64 @@ public class WorshipQueueService {
         return Math.max(0.0, fallback);
     }
 
-    private double calculateCurrentPlaybackPosition(WorshipRoom room) {
-        double basePosition = Optional.ofNullable(room.getPlaybackPosition()).orElse(0.0);
+    // ==================== HELPER METHODS ====================
 
-        if ("playing".equals(room.getPlaybackStatus()) && room.getPlaybackStartedAt() != null) {
-            Duration elapsed = Duration.between(room.getPlaybackStartedAt(), LocalDateTime.now());
-            if (!elapsed.isNegative()) {
-                basePosition += elapsed.toMillis() / 1000.0;
-            }
+    /**
+     * Start the next waiting song, or stop playback if the queue is empty.
+     * Must run on the room's engine actor.
+     */
+    private Optional<WorshipQueueEntryResponse> advance(WorshipRoomState room, UUID leaderId, String leaderEmail) {
+        Optional<WorshipRoomState.Entry> nextEntry = room.getNextInQueue();
+
+        if (nextEntry.isEmpty()) {
+            // No more songs in queue - stop playback
+            room.stop();
+            messageBus.publish("/topic/worship/rooms/" + room.getRoomId() + "/nowPlaying",
+                java.util.Map.of("type", "PLAYBACK_STOPPED"));
+            return Optional.empty();
         }
 
-        return Math.max(0.0, basePosition);
-    }
+        // Play next song (clears its votes)
+        WorshipRoomState.Entry entry = nextEntry.get();
+        room.startEntry(entry, leaderId, leaderEmail, LocalDateTime.now());
 
-    // ==================== HELPER METHODS ====================
+        // Broadcast playback update
+        WorshipQueueEntryResponse response = buildQueueEntryResponse(room, entry, leaderId);
+        messageBus.publish("/topic/worship/rooms/" + room.getRoomId() + "/nowPlaying",
+            java.util.Map.of(
+                "type", "NOW_PLAYING",
+                "queueEntry", response,
+                "scheduledPlayTime", System.currentTimeMillis() + 2000 // 2 second buffer for sync
+            ));
 
-    private void checkSkipThreshold(WorshipQueueEntry entry, WorshipRoom room) {
-        long skipVotes = entry.getSkipVoteCount();
-        long participantCount = room.getActiveParticipantCount();
+        return Optional.of(response);
+    }
 
-        if (participantCount == 0) {
+    private void checkSkipThreshold(WorshipRoomState room, WorshipRoomState.Entry entry) {
+        if (!room.isSkipThresholdReached(entry)) {
             return;
         }
 
-        double skipPercentage = (double) skipVotes / participantCount;
-
-        if (skipPercentage >= room.getSkipThreshold()) {
-            // Skip threshold reached - skip song
-            entry.markAsSkipped();
-            queueRepository.save(entry);
-
-            // Save to history
-            saveToHistory(entry, room, room.getCurrentLeader(), true);
-
-            // Broadcast skip
-            messagingTemplate.convertAndSend("/topic/worship/rooms/" + room.getId() + "/nowPlaying",
-                java.util.Map.of("type", "SONG_SKIPPED", "reason", "Skip threshold reached"));
-
-            // Play next song (async to avoid recursion issues)
-            try {
-                Optional<WorshipQueueEntry> nextEntry = queueRepository.findNextInQueue(room);
-                if (nextEntry.isPresent()) {
-                    WorshipQueueEntry next = nextEntry.get();
-                    next.markAsPlaying();
-                    queueRepository.save(next);
-
-                    room.play(next.getVideoId(), next.getVideoTitle(), next.getVideoThumbnailUrl(),
-                        room.getCurrentLeader());
-                    roomRepository.save(room);
-
-                    messagingTemplate.convertAndSend("/topic/worship/rooms/" + room.getId() + "/nowPlaying",
-                        java.util.Map.of(
-                            "type", "NOW_PLAYING",
-                            "queueEntry", buildQueueEntryResponse(next, room.getCurrentLeader()),
-                            "scheduledPlayTime", System.currentTimeMillis() + 2000
-                        ));
-                }
-            } catch (Exception e) {
-                // Handle gracefully
-            }
-        }
-    }
+        // Skip threshold reached - skip song
+        room.finishEntry(entry, true, room.getLeaderId(), LocalDateTime.now());
 
-    private void saveToHistory(WorshipQueueEntry entry, WorshipRoom room, User leader, boolean wasSkipped) {
-        WorshipPlayHistory history = new WorshipPlayHistory();
-        history.setWorshipRoom(room);
-        history.setLeader(leader);
-        history.setVideoId(entry.getVideoId());
-        history.setVideoTitle(entry.getVideoTitle());
-        history.setVideoDuration(entry.getVideoDuration());
-        history.setVideoThumbnailUrl(entry.getVideoThumbnailUrl());
-        history.setWasSkipped(wasSkipped);
-
-        if (wasSkipped) {
-            history.markAsSkipped(
-                (int) entry.getUpvoteCount(),
-                (int) entry.getSkipVoteCount(),
-                (int) room.getActiveParticipantCount()
-            );
-        } else {
-            history.markAsCompleted(
-                (int) entry.getUpvoteCount(),
-                (int) entry.getSkipVoteCount(),
-                (int) room.getActiveParticipantCount()
-            );
-        }
+        // Broadcast skip
+        messageBus.publish("/topic/worship/rooms/" + room.getRoomId() + "/nowPlaying",
+            java.util.Map.of("type", "SONG_SKIPPED", "reason", "Skip threshold reached"));
 
-        historyRepository.save(history);
+        // Play next song under the current leader
+        advance(room, room.getLeaderId(), room.getLeaderEmail());
     }
 
-    private void broadcastQueueUpdate(UUID roomId, String type, WorshipQueueEntry entry) {
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId + "/queue",
-            java.util.Map.of(
-                "type", type,
-                "queueEntry", WorshipQueueEntryResponse.fromEntity(entry)
-            ));
+    private UUID requireUserId(WorshipRoomState room, String userEmail) {
+        return room.userIdFor(userEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     private WorshipQueueEntryResponse buildQueueEntryResponse(WorshipQueueEntry entry, User user) {
+        // Vote counts come from the entry's denormalized columns
         WorshipQueueEntryResponse response = WorshipQueueEntryResponse.fromEntity(entry);
 
-        // Use repository methods to get accurate vote counts from database
-        // (Entity's lazy-loaded votes collection may not include newly saved votes)
-        response.setUpvoteCount(voteRepository.countUpvotes(entry));
-        response.setSkipVoteCount(voteRepository.countSkipVotes(entry));
-
         // Use repository to check user's votes
         response.setUserHasUpvoted(voteRepository.hasUserVoted(entry, user, WorshipSongVote.VoteType.UPVOTE));
         response.setUserHasVotedSkip(voteRepository.hasUserVoted(entry, user, WorshipSongVote.VoteType.SKIP));
@@ -501,6 +383,29 @@ public class WorshipQueueService {
         return response;
     }
 
+    private WorshipQueueEntryResponse buildQueueEntryResponse(WorshipRoomState room, WorshipRoomState.Entry entry,
+                                                              UUID userId) {
+        WorshipQueueEntryResponse response = new WorshipQueueEntryResponse();
+        response.setId(entry.getId());
+        response.setRoomId(room.getRoomId());
+        response.setUserId(entry.getUserId());
+        response.setUserName(entry.getUserName());
+        response.setUserProfilePic(entry.getUserProfilePic());
+        response.setVideoId(entry.getVideoId());
+        response.setVideoTitle(entry.getVideoTitle());
+        response.setVideoDuration(entry.getVideoDuration());
+        response.setVideoThumbnailUrl(entry.getVideoThumbnailUrl());
+        response.setPosition(entry.getPosition());
+        response.setStatus(entry.getStatus().name());
+        response.setUpvoteCount((long) entry.getUpvoteCount());
+        response.setSkipVoteCount((long) entry.getSkipVoteCount());
+        response.setUserHasUpvoted(entry.hasVoted(userId, WorshipSongVote.VoteType.UPVOTE));
+        response.setUserHasVotedSkip(entry.hasVoted(userId, WorshipSongVote.VoteType.SKIP));
+        response.setQueuedAt(entry.getQueuedAt());
+        response.setPlayedAt(entry.getPlayedAt());
+        return response;
+    }
+
     private User getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found"));
@@ -0,0 +1,554 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.User;
+import com.churchapp.entity.WorshipPlayHistory;
+import com.churchapp.entity.WorshipQueueEntry;
+import com.churchapp.entity.WorshipRoom;
+import com.churchapp.entity.WorshipRoomParticipant;
+import com.churchapp.entity.WorshipSongVote;
+import com.churchapp.repository.UserRepository;
+import com.churchapp.repository.WorshipPlayHistoryRepository;
+import com.churchapp.repository.WorshipQueueRepository;
+import com.churchapp.repository.WorshipRoomParticipantRepository;
+import com.churchapp.repository.WorshipRoomRepository;
+import com.churchapp.repository.WorshipSongVoteRepository;
+import com.churchapp.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Actor-style engine for live worship rooms.
+ *
+ * Each room gets a mailbox; its commands run one at a time on the shared worshipRoomExecutor,
+ * against a {@link WorshipRoomState} loaded from the database on first use. Votes, seeks and
+ * queue advances therefore only touch memory (and broadcast), and never contend on rows.
+ * Recorded changes are persisted write-behind by a periodic flush that runs as a command on
+ * the same mailbox, so it is always ordered with the room's other commands.
+ *
+ * The in-memory state is authoritative, so every command for a room must reach the same
+ * instance: live worship rooms require a single backend instance. Running several instances
+ * behind the STOMP relay (websocket.broker.mode=relay) is not supported for worship rooms;
+ * each instance would accept votes, seeks and queue advances on its own copy, persist them
+ * independently and broadcast conflicting playback state.
+ */
+@Service
+@Slf4j
+public class WorshipRoomEngine {
+
+    private static final long COMMAND_TIMEOUT_SECONDS = 10;
+    private static final int MAX_COMMANDS_PER_DRAIN = 64;
+    // Failed flushes are retried with exponential backoff up to this delay
+    private static final long MAX_FLUSH_BACKOFF_MILLIS = 60_000;
+
+    private final WorshipRoomRepository roomRepository;
+    private final WorshipQueueRepository queueRepository;
+    private final WorshipSongVoteRepository voteRepository;
+    private final WorshipRoomParticipantRepository participantRepository;
+    private final WorshipPlayHistoryRepository historyRepository;
+    private final UserRepository userRepository;
+    private final Executor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Map<UUID, RoomActor> actors = new ConcurrentHashMap<>();
+    // Queue entry -> room, so vote requests (which only carry the entry ID) find their actor
+    private final Map<UUID, UUID> entryRooms = new ConcurrentHashMap<>();
+
+    @Value("${worship.engine.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    @Value("${worship.engine.flush-interval-ms:2000}")
+    private long flushIntervalMillis;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    public WorshipRoomEngine(WorshipRoomRepository roomRepository,
+                             WorshipQueueRepository queueRepository,
+                             WorshipSongVoteRepository voteRepository,
+                             WorshipRoomParticipantRepository participantRepository,
+                             WorshipPlayHistoryRepository historyRepository,
+                             UserRepository userRepository,
+                             @Qualifier("worshipRoomExecutor") Executor executor,
+                             PlatformTransactionManager transactionManager) {
+        this.roomRepository = roomRepository;
+        this.queueRepository = queueRepository;
+        this.voteRepository = voteRepository;
+        this.participantRepository = participantRepository;
+        this.historyRepository = historyRepository;
+        this.userRepository = userRepository;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void warnIfMultiInstance() {
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            log.warn("WebSocket broker runs in relay mode, but the worship room engine keeps room state " +
+                "in memory and requires a single instance; do not run more than one backend instance");
+        }
+    }
+
+    // ==================== COMMANDS ====================
+
+    /**
+     * Run a command against the room's state on its actor and wait for the result.
+     * RuntimeExceptions thrown by the command are rethrown to the caller unchanged.
+     */
+    public <T> T execute(UUID roomId, Function<WorshipRoomState, T> command) {
+        return await(submit(roomId, command));
+    }
+
+    /**
+     * Room a queue entry belongs to, from memory when its room is loaded.
+     */
+    public UUID roomIdForEntry(UUID entryId) {
+        UUID roomId = entryRooms.get(entryId);
+        if (roomId != null) {
+            return roomId;
+        }
+        return readOnlyTransactionTemplate.execute(status -> queueRepository.findById(entryId)
+            .map(entry -> entry.getWorshipRoom().getId())
+            .orElseThrow(() -> new RuntimeException("Queue entry not found")));
+    }
+
+    /**
+     * Make a newly inserted queue entry visible to a loaded room once the insert has committed.
+     */
+    public void entryAdded(WorshipQueueEntry entry) {
+        UUID roomId = entry.getWorshipRoom().getId();
+        WorshipRoomState.Entry state = toStateEntry(entry);
+        TransactionUtil.afterCommit(() -> {
+            if (actors.containsKey(roomId)) {
+                submit(roomId, room -> {
+                    room.putEntry(state);
+                    entryRooms.put(state.getId(), roomId);
+                    return null;
+                });
+            }
+        });
+    }
+
+    /**
+     * Drop a queue entry (and its pending writes) before its row is deleted.
+     * Refuses to remove the entry that is currently playing.
+     */
+    public void removeEntry(UUID roomId, UUID entryId) {
+        execute(roomId, room -> {
+            room.getEntry(entryId).ifPresent(entry -> {
+                if (entry.isPlaying()) {
+                    throw new RuntimeException("Cannot remove currently playing song. Use skip instead");
+                }
+            });
+            room.removeEntry(entryId);
+            entryRooms.remove(entryId);
+            return null;
+        });
+    }
+
+    /**
+     * Reload the participant list of a loaded room after a join/leave has committed.
+     */
+    public void participantsChanged(UUID roomId) {
+        TransactionUtil.afterCommit(() -> {
+            if (actors.containsKey(roomId)) {
+                submit(roomId, room -> {
+                    room.replaceMembers(loadMembers(roomId));
+                    return null;
+                });
+            }
+        });
+    }
+
+    /**
+     * Write back a room's pending changes before room-level changes are written directly to the
+     * database (settings, live event start/end, leader leaving, deletion), and unload it once
+     * the change commits so the next command reloads the new state. Callers check permissions
+     * first; a rolled-back change leaves the room loaded.
+     */
+    public void invalidate(UUID roomId) {
+        RoomActor actor = actors.get(roomId);
+        if (actor != null) {
+            await(actor.submit(room -> {
+                flush(actor, room);
+                return null;
+            }));
+        }
+        TransactionUtil.afterCommit(() -> evict(roomId));
+    }
+
+    private void evict(UUID roomId) {
+        RoomActor actor = actors.get(roomId);
+        if (actor == null) {
+            return;
+        }
+        await(actor.submit(room -> {
+            flush(actor, room);
+            unloadIfFlushed(actor, room);
+            return null;
+        }));
+    }
+
+    /**
+     * Unload a room unless writes are still pending after a failed flush; those stay queued
+     * on the loaded room until a later flush succeeds.
+     */
+    private boolean unloadIfFlushed(RoomActor actor, WorshipRoomState room) {
+        if (room.hasPendingWrites()) {
+            log.warn("Keeping worship room {} loaded: {} failed flushes, writes still pending",
+                actor.roomId, actor.flushFailures);
+            return false;
+        }
+        actor.close();
+        return true;
+    }
+
+    // ==================== WRITE-BEHIND ====================
+
+    /**
+     * Queue a flush on every loaded room, skipping rooms backing off after failed flushes.
+     * Runs on the actors, so this never blocks on a room.
+     */
+    @Scheduled(fixedDelayString = "${worship.engine.flush-interval-ms:2000}")
+    public void flushAll() {
+        long now = System.currentTimeMillis();
+        for (RoomActor actor : actors.values()) {
+            if (actor.nextFlushAt > now) {
+                continue;
+            }
+            actor.submit(room -> {
+                flush(actor, room);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Unload rooms nobody has sent a command to for a while.
+     */
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void evictIdleRooms() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictionMinutes);
+        for (RoomActor actor : actors.values()) {
+            if (actor.lastCommandAt < cutoff) {
+                actor.submit(room -> {
+                    flush(actor, room);
+                    if (unloadIfFlushed(actor, room)) {
+                        log.debug("Unloaded idle worship room {}", actor.roomId);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} worship rooms before shutdown", actors.size());
+        for (RoomActor actor : actors.values()) {
+            try {
+                await(actor.submit(room -> {
+                    flush(actor, room);
+                    return null;
+                }));
+            } catch (RuntimeException e) {
+                log.error("Failed to flush worship room {} on shutdown: {}", actor.roomId, e.getMessage());
+            }
+        }
+    }
+
+    private void flush(RoomActor actor, WorshipRoomState room) {
+        if (!room.hasPendingWrites()) {
+            return;
+        }
+
+        WorshipRoomState.Drained drained = room.drain();
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(room.getRoomId(), drained));
+            actor.flushFailures = 0;
+            actor.nextFlushAt = 0;
+        } catch (RuntimeException e) {
+            // Never drop writes the in-memory state already shows; keep them queued and back off
+            room.restore(drained);
+            int failures = ++actor.flushFailures;
+            long backoff = Math.min(MAX_FLUSH_BACKOFF_MILLIS,
+                flushIntervalMillis << Math.min(failures - 1, 16));
+            actor.nextFlushAt = System.currentTimeMillis() + backoff;
+            log.warn("Failed to flush {} worship room writes for room {} (attempt {}), retrying in {} ms: {}",
+                drained.writes().size(), room.getRoomId(), failures, backoff, e.getMessage());
+        }
+    }
+
+    private void persist(UUID roomId, WorshipRoomState.Drained drained) {
+        LocalDateTime now = LocalDateTime.now();
+        // Net change to each entry's denormalized [upvotes, skips], written once per entry below
+        Map<UUID, int[]> voteDeltas = new LinkedHashMap<>();
+
+        for (WorshipRoomState.PendingWrite write : drained.writes()) {
+            if (write instanceof WorshipRoomState.VoteAdded added) {
+                WorshipSongVote vote = new WorshipSongVote();
+                vote.setQueueEntry(queueRepository.getReferenceById(added.entryId()));
+                vote.setUser(userRepository.getReferenceById(added.userId()));
+                vote.setVoteType(added.voteType());
+                voteRepository.save(vote);
+                countVote(voteDeltas, added.entryId(), added.voteType(), 1);
+            } else if (write instanceof WorshipRoomState.VoteRemoved removed) {
+                if (voteRepository.deleteVote(removed.entryId(), removed.userId(), removed.voteType()) > 0) {
+                    countVote(voteDeltas, removed.entryId(), removed.voteType(), -1);
+                }
+            } else if (write instanceof WorshipRoomState.VotesCleared cleared) {
+                voteRepository.deleteByQueueEntryId(cleared.entryId());
+                queueRepository.resetVoteCounts(cleared.entryId());
+                voteDeltas.remove(cleared.entryId());
+            } else if (write instanceof WorshipRoomState.EntryStatusChanged changed) {
+                queueRepository.updateStatus(changed.entryId(), changed.status(), changed.playedAt(),
+                    changed.completedAt(), now);
+            } else if (write instanceof WorshipRoomState.HistoryRecorded recorded) {
+                WorshipPlayHistory history = new WorshipPlayHistory();
+                history.setWorshipRoom(roomRepository.getReferenceById(roomId));
+                history.setLeader(userRepository.getReferenceById(recorded.leaderId()));
+                history.setVideoId(recorded.videoId());
+                history.setVideoTitle(recorded.videoTitle());
+                history.setVideoDuration(recorded.videoDuration());
+                history.setVideoThumbnailUrl(recorded.videoThumbnailUrl());
+                if (recorded.wasSkipped()) {
+                    history.markAsSkipped(recorded.upvotes(), recorded.skipVotes(), recorded.participants());
+                } else {
+                    history.markAsCompleted(recorded.upvotes(), recorded.skipVotes(), recorded.participants());
+                }
+                historyRepository.save(history);
+            }
+        }
+
+        voteDeltas.forEach((entryId, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                queueRepository.adjustVoteCounts(entryId, delta[0], delta[1]);
+            }
+        });
+
+        WorshipRoomState.PlaybackSnapshot snapshot = drained.snapshot();
+        if (snapshot != null) {
+            User leader = snapshot.leaderId() != null ? userRepository.getReferenceById(snapshot.leaderId()) : null;
+            roomRepository.updatePlaybackSnapshot(roomId, leader, snapshot.currentVideoId(),
+                snapshot.currentVideoTitle(), snapshot.currentVideoThumbnail(), snapshot.playbackStatus(),
+                snapshot.playbackPosition(), snapshot.playbackStartedAt(), now);
+        }
+    }
+
+    private static void countVote(Map<UUID, int[]> voteDeltas, UUID entryId, WorshipSongVote.VoteType voteType,
+                                  int delta) {
+        int[] counts = voteDeltas.computeIfAbsent(entryId, id -> new int[2]);
+        counts[voteType == WorshipSongVote.VoteType.UPVOTE ? 0 : 1] += delta;
+    }
+
+    // ==================== LOADING ====================
+
+    private WorshipRoomState load(UUID roomId) {
+        WorshipRoomState state = readOnlyTransactionTemplate.execute(status -> {
+            WorshipRoom room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Worship room not found"));
+
+            User creator = room.getCreatedBy();
+            WorshipRoomState loaded = new WorshipRoomState(roomId, creator.getId(), creator.getEmail(),
+                room.getSkipThreshold());
+            User leader = room.getCurrentLeader();
+            loaded.restorePlayback(leader != null ? leader.getId() : null, leader != null ? leader.getEmail() : null,
+                room.getCurrentVideoId(), room.getCurrentVideoTitle(), room.getCurrentVideoThumbnail(),
+                room.getPlaybackStatus(), room.getPlaybackPosition(), room.getPlaybackStartedAt());
+            loaded.replaceMembers(loadMembers(room));
+
+            for (WorshipQueueEntry.QueueStatus queueStatus :
+                    List.of(WorshipQueueEntry.QueueStatus.PLAYING, WorshipQueueEntry.QueueStatus.WAITING)) {
+                for (WorshipQueueEntry entry : queueRepository.findByWorshipRoomAndStatusOrderByPositionAsc(room, queueStatus)) {
+                    loaded.putEntry(toStateEntry(entry));
+                }
+            }
+            for (Object[] vote : voteRepository.findActiveQueueVotesByRoomId(roomId)) {
+                loaded.restoreVote((UUID) vote[0], (UUID) vote[1], (WorshipSongVote.VoteType) vote[2]);
+            }
+            return loaded;
+        });
+
+        for (UUID entryId : state.getEntryIds()) {
+            entryRooms.put(entryId, roomId);
+        }
+        log.debug("Loaded worship room {} into the engine", roomId);
+        return state;
+    }
+
+    private List<WorshipRoomState.Member> loadMembers(UUID roomId) {
+        return readOnlyTransactionTemplate.execute(status ->
+            loadMembers(roomRepository.getReferenceById(roomId)));
+    }
+
+    private List<WorshipRoomState.Member> loadMembers(WorshipRoom room) {
+        return participantRepository.findByWorshipRoomAndIsActiveTrueOrderByJoinedAtAsc(room).stream()
+            .map(this::toMember)
+            .toList();
+    }
+
+    private WorshipRoomState.Member toMember(WorshipRoomParticipant participant) {
+        User user = participant.getUser();
+        return new WorshipRoomState.Member(user.getId(), user.getEmail(), Boolean.TRUE.equals(user.getIsActive()),
+            participant.canControlPlayback());
+    }
+
+    private WorshipRoomState.Entry toStateEntry(WorshipQueueEntry entry) {
+        User user = entry.getUser();
+        return new WorshipRoomState.Entry(entry.getId(), user.getId(), user.getName(), user.getProfilePicUrl(),
+            entry.getVideoId(), entry.getVideoTitle(), entry.getVideoDuration(), entry.getVideoThumbnailUrl(),
+            entry.getPosition(), entry.getQueuedAt(), entry.getStatus(), entry.getPlayedAt());
+    }
+
+    // ==================== ACTORS ====================
+
+    private <T> CompletableFuture<T> submit(UUID roomId, Function<WorshipRoomState, T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        dispatch(new Command<>(roomId, command, result));
+        return result;
+    }
+
+    private void dispatch(Command<?> command) {
+        actors.computeIfAbsent(command.roomId, RoomActor::new).enqueueCommand(command);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Worship room command failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Worship room is busy, please try again");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for worship room");
+        }
+    }
+
+    private record Command<T>(UUID roomId, Function<WorshipRoomState, T> body, CompletableFuture<T> result) {
+    }
+
+    /**
+     * Serial mailbox for one room. At most one drain is scheduled at a time, so commands run
+     * in order and never concurrently, without dedicating a thread per room.
+     */
+    private final class RoomActor {
+        private final UUID roomId;
+        private final Queue<Command<?>> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long lastCommandAt = System.currentTimeMillis();
+        // Only touched by the actor's own commands
+        private WorshipRoomState state;
+        private int flushFailures;
+        private volatile long nextFlushAt;
+
+        RoomActor(UUID roomId) {
+            this.roomId = roomId;
+        }
+
+        /**
+         * Queue internal work (flush, unload). Doesn't count as activity, so the periodic flush
+         * never keeps an idle room loaded.
+         */
+        <T> CompletableFuture<T> submit(Function<WorshipRoomState, T> body) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            enqueue(new Command<>(roomId, body, result));
+            return result;
+        }
+
+        /**
+         * Queue a user or room command, which keeps the room from being evicted as idle
+         */
+        void enqueueCommand(Command<?> command) {
+            lastCommandAt = System.currentTimeMillis();
+            enqueue(command);
+        }
+
+        private void enqueue(Command<?> command) {
+            mailbox.add(command);
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            actors.remove(roomId, this);
+            if (state != null) {
+                state.getEntryIds().forEach(entryId -> entryRooms.remove(entryId, roomId));
+            }
+            state = null;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Command<?> command;
+                int processed = 0;
+                while (processed++ < MAX_COMMANDS_PER_DRAIN && (command = mailbox.poll()) != null) {
+                    run(command);
+                }
+            } finally {
+                scheduled.set(false);
+                if (!mailbox.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private <T> void run(Command<T> command) {
+            if (closed) {
+                // Raced with an eviction: hand the command to the room's new actor
+                dispatch(command);
+                return;
+            }
+            if (state == null) {
+                try {
+                    state = load(roomId);
+                } catch (Throwable t) {
+                    // Unknown room: don't keep an empty actor around
+                    close();
+                    command.result().completeExceptionally(t);
+                    return;
+                }
+            }
+            try {
+                command.result().complete(command.body().apply(state));
+            } catch (Throwable t) {
+                command.result().completeExceptionally(t);
+            }
+        }
+    }
+}
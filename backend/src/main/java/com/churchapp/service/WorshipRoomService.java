@@ -3,11 +3,12 @@ package com.churchapp.service;
 import com.churchapp.dto.*;
 import com.churchapp.entity.*;
 import com.churchapp.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,7 +33,12 @@ public class WorshipRoomService {
     private final UserRepository userRepository;
     private final WorshipAvatarService avatarService;
     private final WorshipPermissionService permissionService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessageBus messageBus;
+    private final WorshipRoomEngine worshipRoomEngine;
+    private final WorshipBroadcastCoalescer broadcastCoalescer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // ==================== ROOM CRUD OPERATIONS ====================
 
@@ -117,13 +123,10 @@ public class WorshipRoomService {
         creatorParticipant.setUser(user);
         creatorParticipant.setRole(WorshipRoomParticipant.ParticipantRole.MODERATOR);
         creatorParticipant.setLastActiveAt(LocalDateTime.now());
-        creatorParticipant = participantRepository.save(creatorParticipant);
-
-        // Add participant to room's collection so isParticipant() works
-        room.getParticipants().add(creatorParticipant);
+        addParticipant(room, creatorParticipant);
 
         // Broadcast room creation
-        messagingTemplate.convertAndSend("/topic/worship/rooms",
+        messageBus.publish("/topic/worship/rooms",
             Map.of("type", "ROOM_CREATED", "room", WorshipRoomResponse.fromEntity(room)));
 
         return buildRoomResponse(room, user);
@@ -134,9 +137,7 @@ public class WorshipRoomService {
         User user = getUserByEmail(userEmail);
         List<WorshipRoom> rooms = roomRepository.findByIsActiveTrueOrderByCreatedAtDesc();
 
-        return rooms.stream()
-            .map(room -> buildRoomResponse(room, user))
-            .collect(Collectors.toList());
+        return buildRoomResponses(rooms, user);
     }
 
     @Transactional(readOnly = true)
@@ -146,9 +147,7 @@ public class WorshipRoomService {
         // Templates show in "Playlists" tab, Live Events show in "Live Events" tab
         List<WorshipRoom> rooms = roomRepository.findPublicLiveRoomsOnly();
 
-        return rooms.stream()
-            .map(room -> buildRoomResponse(room, user))
-            .collect(Collectors.toList());
+        return buildRoomResponses(rooms, user);
     }
 
     @Transactional(readOnly = true)
@@ -156,9 +155,7 @@ public class WorshipRoomService {
         User user = getUserByEmail(userEmail);
         List<WorshipRoom> rooms = roomRepository.findRoomsByParticipant(user);
 
-        return rooms.stream()
-            .map(room -> buildRoomResponse(room, user))
-            .collect(Collectors.toList());
+        return buildRoomResponses(rooms, user);
     }
 
     @Transactional(readOnly = true)
@@ -166,9 +163,7 @@ public class WorshipRoomService {
         User user = getUserByEmail(userEmail);
         List<WorshipRoom> rooms = roomRepository.findCurrentlyPlayingRooms();
 
-        return rooms.stream()
-            .map(room -> buildRoomResponse(room, user))
-            .collect(Collectors.toList());
+        return buildRoomResponses(rooms, user);
     }
 
     @Transactional(readOnly = true)
@@ -189,6 +184,9 @@ public class WorshipRoomService {
             throw new RuntimeException("Insufficient permissions to edit this room");
         }
 
+        // Room-level change: write back the live engine state first; it is unloaded once this commits
+        invalidateLiveState(room);
+
         // Update room
         room.setName(request.getName());
         room.setDescription(request.getDescription());
@@ -200,7 +198,7 @@ public class WorshipRoomService {
         room = roomRepository.save(room);
 
         // Broadcast update
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId,
+        messageBus.publish("/topic/worship/rooms/" + roomId,
             Map.of("type", "ROOM_UPDATED", "room", WorshipRoomResponse.fromEntity(room)));
 
         return buildRoomResponse(room, user);
@@ -216,13 +214,17 @@ public class WorshipRoomService {
             throw new RuntimeException("Insufficient permissions to delete this room");
         }
 
+        // Room-level change: write back the live engine state first; it is unloaded once this commits
+        invalidateLiveState(room);
+
         // Soft delete
         room.setIsActive(false);
         roomRepository.save(room);
 
         // Broadcast deletion
-        messagingTemplate.convertAndSend("/topic/worship/rooms",
+        messageBus.publish("/topic/worship/rooms",
             Map.of("type", "ROOM_DELETED", "roomId", roomId));
+        broadcastCoalescer.forget(roomId);
     }
 
     // ==================== PARTICIPANT OPERATIONS ====================
@@ -231,6 +233,8 @@ public class WorshipRoomService {
     public WorshipRoomResponse joinRoom(String userEmail, UUID roomId) {
         User user = getUserByEmail(userEmail);
         WorshipRoom room = getRoomByIdOrThrow(roomId);
+        // Refresh the live engine's participant list once this join commits
+        worshipRoomEngine.participantsChanged(roomId);
 
         // Check if already a participant
         Optional<WorshipRoomParticipant> existingParticipant =
@@ -241,14 +245,20 @@ public class WorshipRoomService {
 
             // If participant was inactive, reactivate them
             if (!participant.getIsActive()) {
+                // Conditional update, so concurrent rejoins are only counted (and broadcast) once
+                LocalDateTime now = LocalDateTime.now();
+                boolean reactivated = participantRepository.reactivate(participant.getId(), now) > 0;
                 participant.setIsActive(true);
                 participant.setLeftAt(null);
-                participant.setLastActiveAt(LocalDateTime.now());
-                participantRepository.save(participant);
+                participant.setLastActiveAt(now);
+
+                if (reactivated) {
+                    adjustActiveParticipants(room, 1);
 
-                // Broadcast rejoin
-                messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId,
-                    Map.of("type", "USER_JOINED", "participant", WorshipRoomParticipantResponse.fromEntity(participant)));
+                    // Broadcast rejoin
+                    messageBus.publish("/topic/worship/rooms/" + roomId,
+                        Map.of("type", "USER_JOINED", "participant", WorshipRoomParticipantResponse.fromEntity(participant)));
+                }
             } else {
                 // Already an active participant - just update activity timestamp
                 participant.updateActivity();
@@ -269,10 +279,10 @@ public class WorshipRoomService {
         participant.setUser(user);
         participant.setRole(WorshipRoomParticipant.ParticipantRole.LISTENER);
         participant.setLastActiveAt(LocalDateTime.now());
-        participantRepository.save(participant);
+        addParticipant(room, participant);
 
         // Broadcast join
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId,
+        messageBus.publish("/topic/worship/rooms/" + roomId,
             Map.of("type", "USER_JOINED", "participant", WorshipRoomParticipantResponse.fromEntity(participant)));
 
         return buildRoomResponse(room, user);
@@ -281,6 +291,16 @@ public class WorshipRoomService {
     @Transactional
     public void leaveRoom(String userEmail, UUID roomId) {
         User user = getUserByEmail(userEmail);
+
+        // The live engine state knows the current leader. Only a leader leaving is a room-level change
+        // (write back first, unload once this commits); anyone else just changes the participant list.
+        boolean leader = worshipRoomEngine.execute(roomId, state -> user.getId().equals(state.getLeaderId()));
+        if (leader) {
+            worshipRoomEngine.invalidate(roomId);
+        } else {
+            worshipRoomEngine.participantsChanged(roomId);
+        }
+
         WorshipRoom room = getRoomByIdOrThrow(roomId);
 
         // Find participant
@@ -289,17 +309,18 @@ public class WorshipRoomService {
             .orElseThrow(() -> new RuntimeException("Not a participant in this room"));
 
         // If user is current leader, stop playback and clear leader
-        if (room.isCurrentLeader(user)) {
+        if (leader && room.isCurrentLeader(user)) {
             room.stop();
             roomRepository.save(room);
         }
 
-        // Mark as inactive
-        participant.leave();
-        participantRepository.save(participant);
+        // Mark as inactive (conditional, so a double leave only counts once)
+        if (participantRepository.deactivate(participant.getId(), LocalDateTime.now()) > 0) {
+            adjustActiveParticipants(room, -1);
+        }
 
         // Broadcast leave
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId,
+        messageBus.publish("/topic/worship/rooms/" + roomId,
             Map.of("type", "USER_LEFT", "userId", user.getId()));
     }
 
@@ -345,7 +366,7 @@ public class WorshipRoomService {
         participantRepository.save(participant);
 
         // Broadcast waitlist update
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId + "/waitlist",
+        messageBus.publish("/topic/worship/rooms/" + roomId + "/waitlist",
             Map.of("type", "USER_JOINED_WAITLIST", "participant", WorshipRoomParticipantResponse.fromEntity(participant)));
     }
 
@@ -368,7 +389,7 @@ public class WorshipRoomService {
         participantRepository.save(participant);
 
         // Broadcast waitlist update
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId + "/waitlist",
+        messageBus.publish("/topic/worship/rooms/" + roomId + "/waitlist",
             Map.of("type", "USER_LEFT_WAITLIST", "userId", user.getId()));
     }
 
@@ -391,14 +412,13 @@ public class WorshipRoomService {
         User user = getUserByEmail(userEmail);
         List<WorshipRoom> rooms = roomRepository.findAvailableTemplateRooms();
 
-        return rooms.stream()
-            .map(room -> {
-                WorshipRoomResponse response = buildRoomResponse(room, user);
-                // Template rooms can be started by any user if allowUserStart is true
-                response.setCanStart(room.getAllowUserStart() != null && room.getAllowUserStart());
-                return response;
-            })
-            .collect(Collectors.toList());
+        List<WorshipRoomResponse> responses = buildRoomResponses(rooms, user);
+        for (int i = 0; i < rooms.size(); i++) {
+            // Template rooms can be started by any user if allowUserStart is true
+            WorshipRoom room = rooms.get(i);
+            responses.get(i).setCanStart(room.getAllowUserStart() != null && room.getAllowUserStart());
+        }
+        return responses;
     }
 
     @Transactional(readOnly = true)
@@ -406,9 +426,7 @@ public class WorshipRoomService {
         User user = getUserByEmail(userEmail);
         List<WorshipRoom> rooms = roomRepository.findLiveEventRooms();
 
-        return rooms.stream()
-            .map(room -> buildRoomResponse(room, user))
-            .collect(Collectors.toList());
+        return buildRoomResponses(rooms, user);
     }
 
     @Transactional(readOnly = true)
@@ -416,9 +434,7 @@ public class WorshipRoomService {
         User user = getUserByEmail(userEmail);
         List<WorshipRoom> rooms = roomRepository.findUpcomingLiveEvents(LocalDateTime.now());
 
-        return rooms.stream()
-            .map(room -> buildRoomResponse(room, user))
-            .collect(Collectors.toList());
+        return buildRoomResponses(rooms, user);
     }
 
     /**
@@ -481,7 +497,7 @@ public class WorshipRoomService {
         participant.setUser(user);
         participant.setRole(WorshipRoomParticipant.ParticipantRole.MODERATOR);
         participant.setLastActiveAt(LocalDateTime.now());
-        participantRepository.save(participant);
+        addParticipant(liveRoom, participant);
 
         // Populate queue from playlist if available
         if (templateRoom.getPlaylist() != null) {
@@ -510,7 +526,7 @@ public class WorshipRoomService {
         }
 
         // Broadcast room creation
-        messagingTemplate.convertAndSend("/topic/worship/rooms",
+        messageBus.publish("/topic/worship/rooms",
             Map.of("type", "ROOM_CREATED", "room", WorshipRoomResponse.fromEntity(liveRoom)));
 
         return buildRoomResponse(liveRoom, user);
@@ -534,6 +550,9 @@ public class WorshipRoomService {
             throw new RuntimeException("You don't have permission to start this live event");
         }
 
+        // Room-level change: write back the live engine state first; it is unloaded once this commits
+        invalidateLiveState(room);
+
         // Extract video ID from live stream URL
         String videoId = extractYouTubeVideoId(room.getLiveStreamUrl());
         if (videoId == null) {
@@ -551,7 +570,7 @@ public class WorshipRoomService {
         room = roomRepository.save(room);
 
         // Broadcast the live event start
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId,
+        messageBus.publish("/topic/worship/rooms/" + roomId,
             Map.of("type", "LIVE_EVENT_STARTED", "room", WorshipRoomResponse.fromEntity(room)));
 
         return buildRoomResponse(room, user);
@@ -575,6 +594,9 @@ public class WorshipRoomService {
             throw new RuntimeException("You don't have permission to end this live event");
         }
 
+        // Room-level change: write back the live engine state first; it is unloaded once this commits
+        invalidateLiveState(room);
+
         // End the live stream
         room.setIsLiveStreamActive(false);
         room.setPlaybackStatus("stopped");
@@ -590,7 +612,7 @@ public class WorshipRoomService {
         roomRepository.save(room);
 
         // Broadcast the live event end
-        messagingTemplate.convertAndSend("/topic/worship/rooms/" + roomId,
+        messageBus.publish("/topic/worship/rooms/" + roomId,
             Map.of("type", "LIVE_EVENT_ENDED", "roomId", roomId));
     }
 
@@ -647,31 +669,77 @@ public class WorshipRoomService {
         return user;
     }
 
+    /**
+     * Write back the live engine state of a room the caller is allowed to change, and re-read the
+     * room so the direct update starts from the flushed playback state
+     */
+    private void invalidateLiveState(WorshipRoom room) {
+        worshipRoomEngine.invalidate(room.getId());
+        entityManager.refresh(room);
+    }
+
     private WorshipRoom getRoomByIdOrThrow(UUID roomId) {
         return roomRepository.findById(roomId)
             .orElseThrow(() -> new RuntimeException("Worship room not found"));
     }
 
+    /**
+     * Save a new (active) participant and count it on the room.
+     */
+    private void addParticipant(WorshipRoom room, WorshipRoomParticipant participant) {
+        participantRepository.save(participant);
+        adjustActiveParticipants(room, 1);
+    }
+
+    private void adjustActiveParticipants(WorshipRoom room, int delta) {
+        roomRepository.adjustActiveParticipants(room.getId(), delta);
+        // Keep the loaded entity in step for the response; the column itself is never written from it
+        room.setActiveParticipants((int) room.getActiveParticipantCount() + delta);
+    }
+
     private WorshipRoomResponse buildRoomResponse(WorshipRoom room, User user) {
+        return buildRoomResponse(room, user, participantRepository.findByWorshipRoomAndUser(room, user).orElse(null));
+    }
+
+    /**
+     * Build responses for a listing page, loading the user's participant rows for all rooms in one query.
+     */
+    private List<WorshipRoomResponse> buildRoomResponses(List<WorshipRoom> rooms, User user) {
+        if (rooms.isEmpty()) {
+            return new java.util.ArrayList<>();
+        }
+
+        List<UUID> roomIds = rooms.stream().map(WorshipRoom::getId).collect(Collectors.toList());
+        java.util.Map<UUID, WorshipRoomParticipant> participants = participantRepository
+            .findByUserAndRoomIds(user, roomIds).stream()
+            .collect(Collectors.toMap(participant -> participant.getWorshipRoom().getId(),
+                participant -> participant, (first, second) -> first));
+
+        return rooms.stream()
+            .map(room -> buildRoomResponse(room, user, participants.get(room.getId())))
+            .collect(Collectors.toList());
+    }
+
+    // participant is the user's row for this room (active or not), or null if they never joined
+    private WorshipRoomResponse buildRoomResponse(WorshipRoom room, User user, WorshipRoomParticipant participant) {
         WorshipRoomResponse response = WorshipRoomResponse.fromEntity(room);
+        boolean isParticipant = participant != null && Boolean.TRUE.equals(participant.getIsActive());
 
         // Add user context
-        response.setIsParticipant(room.isParticipant(user));
+        response.setIsParticipant(isParticipant);
         response.setIsCreator(room.isCreator(user));
         response.setIsCurrentLeader(room.isCurrentLeader(user));
-        response.setCanJoin(permissionService.canJoinRoom(user, room));
-        response.setUserRole(permissionService.getParticipantRole(user, room).name());
+        response.setCanJoin(permissionService.canJoinRoom(user, room, isParticipant));
+        response.setUserRole((participant != null ? participant.getRole()
+            : WorshipRoomParticipant.ParticipantRole.LISTENER).name());
         response.setCanEdit(permissionService.canEditRoom(user, room));
         response.setCanDelete(permissionService.canDeleteRoom(user, room));
 
         // Check if user is in waitlist
-        Optional<WorshipRoomParticipant> participantOpt =
-            participantRepository.findByWorshipRoomAndUser(room, user);
-
-        participantOpt.ifPresent(participant -> {
+        if (participant != null) {
             response.setIsInWaitlist(participant.getIsInWaitlist());
             response.setWaitlistPosition(participant.getWaitlistPosition());
-        });
+        }
 
         return response;
     }
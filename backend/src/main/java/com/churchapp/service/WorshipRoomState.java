@@ -0,0 +1,445 @@
+package com.churchapp.service;
+
+import com.churchapp.entity.WorshipQueueEntry;
+import com.churchapp.entity.WorshipSongVote;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Authoritative in-memory state of one live worship room: playback clock, leader,
+ * active participants, the waiting/playing queue and its vote tallies.
+ *
+ * Owned by a single WorshipRoomEngine actor, so it is never touched by two threads at once
+ * and needs no locking. Every mutation that must reach the database is recorded as a
+ * {@link PendingWrite} (or marks the playback snapshot dirty) and persisted write-behind.
+ */
+public class WorshipRoomState {
+
+    private final UUID roomId;
+    private final UUID creatorId;
+    private final String creatorEmail;
+    private double skipThreshold;
+
+    private UUID leaderId;
+    private String leaderEmail;
+    private String currentVideoId;
+    private String currentVideoTitle;
+    private String currentVideoThumbnail;
+    private String playbackStatus;
+    private double playbackPosition;
+    private LocalDateTime playbackStartedAt;
+
+    // Active participants, keyed by email (the STOMP/JWT principal name)
+    private final Map<String, Member> members = new HashMap<>();
+    // WAITING and PLAYING entries only; finished entries leave the state
+    private final Map<UUID, Entry> entries = new HashMap<>();
+
+    private boolean snapshotDirty;
+    private final List<PendingWrite> pendingWrites = new ArrayList<>();
+
+    public WorshipRoomState(UUID roomId, UUID creatorId, String creatorEmail, Double skipThreshold) {
+        this.roomId = roomId;
+        this.creatorId = creatorId;
+        this.creatorEmail = creatorEmail;
+        this.skipThreshold = skipThreshold != null ? skipThreshold : 0.5;
+    }
+
+    public record Member(UUID userId, String email, boolean userActive, boolean canControlPlayback) {
+    }
+
+    public static class Entry {
+        private final UUID id;
+        private final UUID userId;
+        private final String userName;
+        private final String userProfilePic;
+        private final String videoId;
+        private final String videoTitle;
+        private final Integer videoDuration;
+        private final String videoThumbnailUrl;
+        private final Integer position;
+        private final LocalDateTime queuedAt;
+        private WorshipQueueEntry.QueueStatus status;
+        private LocalDateTime playedAt;
+        private final Set<UUID> upvoters = new LinkedHashSet<>();
+        private final Set<UUID> skipVoters = new LinkedHashSet<>();
+
+        public Entry(UUID id, UUID userId, String userName, String userProfilePic, String videoId, String videoTitle,
+                     Integer videoDuration, String videoThumbnailUrl, Integer position, LocalDateTime queuedAt,
+                     WorshipQueueEntry.QueueStatus status, LocalDateTime playedAt) {
+            this.id = id;
+            this.userId = userId;
+            this.userName = userName;
+            this.userProfilePic = userProfilePic;
+            this.videoId = videoId;
+            this.videoTitle = videoTitle;
+            this.videoDuration = videoDuration;
+            this.videoThumbnailUrl = videoThumbnailUrl;
+            this.position = position;
+            this.queuedAt = queuedAt;
+            this.status = status;
+            this.playedAt = playedAt;
+        }
+
+        public UUID getId() { return id; }
+        public UUID getUserId() { return userId; }
+        public String getUserName() { return userName; }
+        public String getUserProfilePic() { return userProfilePic; }
+        public String getVideoId() { return videoId; }
+        public String getVideoTitle() { return videoTitle; }
+        public Integer getVideoDuration() { return videoDuration; }
+        public String getVideoThumbnailUrl() { return videoThumbnailUrl; }
+        public Integer getPosition() { return position; }
+        public LocalDateTime getQueuedAt() { return queuedAt; }
+        public WorshipQueueEntry.QueueStatus getStatus() { return status; }
+        public LocalDateTime getPlayedAt() { return playedAt; }
+        public int getUpvoteCount() { return upvoters.size(); }
+        public int getSkipVoteCount() { return skipVoters.size(); }
+
+        public boolean isPlaying() {
+            return status == WorshipQueueEntry.QueueStatus.PLAYING;
+        }
+
+        public boolean hasVoted(UUID userId, WorshipSongVote.VoteType voteType) {
+            return votersFor(voteType).contains(userId);
+        }
+
+        private Set<UUID> votersFor(WorshipSongVote.VoteType voteType) {
+            return voteType == WorshipSongVote.VoteType.UPVOTE ? upvoters : skipVoters;
+        }
+    }
+
+    /**
+     * Everything that must be written back, in the order it happened.
+     */
+    public sealed interface PendingWrite
+        permits VoteAdded, VoteRemoved, VotesCleared, EntryStatusChanged, HistoryRecorded {
+        UUID entryId();
+    }
+
+    public record VoteAdded(UUID entryId, UUID userId, WorshipSongVote.VoteType voteType) implements PendingWrite {
+    }
+
+    public record VoteRemoved(UUID entryId, UUID userId, WorshipSongVote.VoteType voteType) implements PendingWrite {
+    }
+
+    public record VotesCleared(UUID entryId) implements PendingWrite {
+    }
+
+    public record EntryStatusChanged(UUID entryId, WorshipQueueEntry.QueueStatus status,
+                                     LocalDateTime playedAt, LocalDateTime completedAt) implements PendingWrite {
+    }
+
+    public record HistoryRecorded(UUID entryId, UUID leaderId, String videoId, String videoTitle, Integer videoDuration,
+                                  String videoThumbnailUrl, boolean wasSkipped, int upvotes, int skipVotes,
+                                  int participants) implements PendingWrite {
+    }
+
+    public record PlaybackSnapshot(UUID leaderId, String currentVideoId, String currentVideoTitle,
+                                   String currentVideoThumbnail, String playbackStatus, double playbackPosition,
+                                   LocalDateTime playbackStartedAt) {
+    }
+
+    // ==================== LOADING ====================
+
+    public void restorePlayback(UUID leaderId, String leaderEmail, String videoId, String videoTitle,
+                                String videoThumbnail, String status, Double position, LocalDateTime startedAt) {
+        this.leaderId = leaderId;
+        this.leaderEmail = leaderEmail;
+        this.currentVideoId = videoId;
+        this.currentVideoTitle = videoTitle;
+        this.currentVideoThumbnail = videoThumbnail;
+        this.playbackStatus = status != null ? status : "stopped";
+        this.playbackPosition = position != null ? position : 0.0;
+        this.playbackStartedAt = startedAt;
+    }
+
+    public void replaceMembers(List<Member> activeMembers) {
+        members.clear();
+        for (Member member : activeMembers) {
+            members.put(member.email(), member);
+        }
+    }
+
+    public void setSkipThreshold(Double skipThreshold) {
+        this.skipThreshold = skipThreshold != null ? skipThreshold : 0.5;
+    }
+
+    /**
+     * Add an entry loaded from or just inserted into the database (no write recorded).
+     */
+    public void putEntry(Entry entry) {
+        entries.put(entry.getId(), entry);
+    }
+
+    /**
+     * Restore a persisted vote (no write recorded).
+     */
+    public void restoreVote(UUID entryId, UUID userId, WorshipSongVote.VoteType voteType) {
+        Entry entry = entries.get(entryId);
+        if (entry != null) {
+            entry.votersFor(voteType).add(userId);
+        }
+    }
+
+    // ==================== PERMISSIONS ====================
+
+    /**
+     * Mirrors WorshipPermissionService.canControlPlayback: creator, current leader,
+     * or an active participant whose role allows playback control.
+     */
+    public boolean canControlPlayback(String email) {
+        Member member = members.get(email);
+        if (member != null && !member.userActive()) {
+            return false;
+        }
+        if (email.equals(creatorEmail) || email.equals(leaderEmail)) {
+            return true;
+        }
+        return member != null && member.canControlPlayback();
+    }
+
+    /**
+     * Mirrors WorshipPermissionService.canVote: active participants only.
+     */
+    public boolean canVote(String email) {
+        Member member = members.get(email);
+        return member != null && member.userActive();
+    }
+
+    public Optional<UUID> userIdFor(String email) {
+        Member member = members.get(email);
+        if (member != null) {
+            return Optional.of(member.userId());
+        }
+        if (email.equals(creatorEmail)) {
+            return Optional.of(creatorId);
+        }
+        if (email.equals(leaderEmail)) {
+            return Optional.ofNullable(leaderId);
+        }
+        return Optional.empty();
+    }
+
+    public int getParticipantCount() {
+        return members.size();
+    }
+
+    // ==================== QUEUE ====================
+
+    public Optional<Entry> getEntry(UUID entryId) {
+        return Optional.ofNullable(entries.get(entryId));
+    }
+
+    public Optional<Entry> getCurrentEntry() {
+        return entries.values().stream().filter(Entry::isPlaying).findFirst();
+    }
+
+    public Optional<Entry> getNextInQueue() {
+        return getWaitingEntries().stream().findFirst();
+    }
+
+    public List<Entry> getWaitingEntries() {
+        return entries.values().stream()
+            .filter(entry -> entry.getStatus() == WorshipQueueEntry.QueueStatus.WAITING)
+            .sorted(Comparator.comparing(Entry::getPosition))
+            .toList();
+    }
+
+    public java.util.Collection<UUID> getEntryIds() {
+        return List.copyOf(entries.keySet());
+    }
+
+    /**
+     * Drop an entry that is being deleted, together with any writes still pending for it,
+     * so a later flush never references a deleted row.
+     */
+    public void removeEntry(UUID entryId) {
+        entries.remove(entryId);
+        pendingWrites.removeIf(write -> entryId.equals(write.entryId()));
+    }
+
+    /**
+     * Toggle a vote, like the original find-then-delete-or-insert on worship_song_votes.
+     * @return true if the vote was added, false if it was removed
+     */
+    public boolean toggleVote(Entry entry, UUID userId, WorshipSongVote.VoteType voteType) {
+        Set<UUID> voters = entry.votersFor(voteType);
+        if (voters.remove(userId)) {
+            pendingWrites.add(new VoteRemoved(entry.getId(), userId, voteType));
+            return false;
+        }
+        voters.add(userId);
+        pendingWrites.add(new VoteAdded(entry.getId(), userId, voteType));
+        return true;
+    }
+
+    public boolean isSkipThresholdReached(Entry entry) {
+        int participants = getParticipantCount();
+        if (participants == 0) {
+            return false;
+        }
+        return (double) entry.getSkipVoteCount() / participants >= skipThreshold;
+    }
+
+    /**
+     * Mark an entry as playing, point the room at it and reset its votes.
+     */
+    public void startEntry(Entry entry, UUID leaderId, String leaderEmail, LocalDateTime now) {
+        entry.status = WorshipQueueEntry.QueueStatus.PLAYING;
+        entry.playedAt = now;
+        entry.upvoters.clear();
+        entry.skipVoters.clear();
+        pendingWrites.add(new EntryStatusChanged(entry.getId(), entry.status, now, null));
+        pendingWrites.add(new VotesCleared(entry.getId()));
+
+        play(entry.getVideoId(), entry.getVideoTitle(), entry.getVideoThumbnailUrl(), leaderId, leaderEmail, now);
+    }
+
+    /**
+     * Mark an entry as completed or skipped, record its play history and drop it from the queue.
+     */
+    public void finishEntry(Entry entry, boolean skipped, UUID historyLeaderId, LocalDateTime now) {
+        entry.status = skipped ? WorshipQueueEntry.QueueStatus.SKIPPED : WorshipQueueEntry.QueueStatus.COMPLETED;
+        pendingWrites.add(new EntryStatusChanged(entry.getId(), entry.status, entry.getPlayedAt(), now));
+        // worship_play_history.leader_id is NOT NULL; fall back to the creator when nobody leads
+        UUID leader = historyLeaderId != null ? historyLeaderId : creatorId;
+        pendingWrites.add(new HistoryRecorded(entry.getId(), leader, entry.getVideoId(), entry.getVideoTitle(),
+            entry.getVideoDuration(), entry.getVideoThumbnailUrl(), skipped, entry.getUpvoteCount(),
+            entry.getSkipVoteCount(), getParticipantCount()));
+        entries.remove(entry.getId());
+    }
+
+    // ==================== PLAYBACK ====================
+
+    public UUID getLeaderId() {
+        return leaderId;
+    }
+
+    public String getLeaderEmail() {
+        return leaderEmail;
+    }
+
+    public String getPlaybackStatus() {
+        return playbackStatus;
+    }
+
+    public void play(String videoId, String videoTitle, String videoThumbnail, UUID leaderId, String leaderEmail,
+                     LocalDateTime now) {
+        this.currentVideoId = videoId;
+        this.currentVideoTitle = videoTitle;
+        this.currentVideoThumbnail = videoThumbnail;
+        setLeader(leaderId, leaderEmail);
+        this.playbackStatus = "playing";
+        this.playbackPosition = 0.0;
+        this.playbackStartedAt = now;
+        this.snapshotDirty = true;
+    }
+
+    public void setLeader(UUID leaderId, String leaderEmail) {
+        this.leaderId = leaderId;
+        this.leaderEmail = leaderEmail;
+        this.snapshotDirty = true;
+    }
+
+    public void setCurrentVideo(String videoId, String videoTitle, String videoThumbnail) {
+        if (videoId != null && !videoId.isBlank()) {
+            this.currentVideoId = videoId;
+        }
+        if (videoTitle != null) {
+            this.currentVideoTitle = videoTitle;
+        }
+        if (videoThumbnail != null) {
+            this.currentVideoThumbnail = videoThumbnail;
+        }
+        this.snapshotDirty = true;
+    }
+
+    /**
+     * Set the clock: position is the playback position at {@code startedAt} (null when not playing).
+     */
+    public void setPlayback(String status, double position, LocalDateTime startedAt) {
+        this.playbackStatus = status;
+        this.playbackPosition = position;
+        this.playbackStartedAt = startedAt;
+        this.snapshotDirty = true;
+    }
+
+    public void stop() {
+        this.playbackStatus = "stopped";
+        this.playbackPosition = 0.0;
+        this.currentVideoId = null;
+        this.currentVideoTitle = null;
+        this.currentVideoThumbnail = null;
+        this.playbackStartedAt = null;
+        this.snapshotDirty = true;
+    }
+
+    /**
+     * Position the clients should be at right now: the stored position plus time elapsed since
+     * playback (re)started, if playing.
+     */
+    public double calculateCurrentPlaybackPosition(LocalDateTime now) {
+        double basePosition = playbackPosition;
+
+        if ("playing".equals(playbackStatus) && playbackStartedAt != null) {
+            Duration elapsed = Duration.between(playbackStartedAt, now);
+            if (!elapsed.isNegative()) {
+                basePosition += elapsed.toMillis() / 1000.0;
+            }
+        }
+
+        return Math.max(0.0, basePosition);
+    }
+
+    public PlaybackSnapshot getPlaybackSnapshot() {
+        return new PlaybackSnapshot(leaderId, currentVideoId, currentVideoTitle, currentVideoThumbnail,
+            playbackStatus, playbackPosition, playbackStartedAt);
+    }
+
+    // ==================== WRITE-BEHIND ====================
+
+    public UUID getRoomId() {
+        return roomId;
+    }
+
+    public boolean hasPendingWrites() {
+        return snapshotDirty || !pendingWrites.isEmpty();
+    }
+
+    /**
+     * Hand over everything recorded since the last drain. The snapshot is null when playback
+     * did not change.
+     */
+    public Drained drain() {
+        Drained drained = new Drained(snapshotDirty ? getPlaybackSnapshot() : null, List.copyOf(pendingWrites));
+        snapshotDirty = false;
+        pendingWrites.clear();
+        return drained;
+    }
+
+    /**
+     * Put back writes whose flush failed, ahead of anything recorded since.
+     */
+    public void restore(Drained drained) {
+        if (drained.snapshot() != null) {
+            snapshotDirty = true;
+        }
+        pendingWrites.addAll(0, drained.writes());
+    }
+
+    public record Drained(PlaybackSnapshot snapshot, List<PendingWrite> writes) {
+        public boolean isEmpty() {
+            return snapshot == null && writes.isEmpty();
+        }
+    }
+}
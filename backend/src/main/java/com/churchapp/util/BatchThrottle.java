@@ -0,0 +1,30 @@
+package com.churchapp.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces a batch loop to at most ratePerSecond items per second.
+ * A rate of 0 or less disables pacing.
+ */
+public final class BatchThrottle {
+
+    private final long nanosPerItem;
+    private long windowStart = System.nanoTime();
+
+    public BatchThrottle(int ratePerSecond) {
+        this.nanosPerItem = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0;
+    }
+
+    /**
+     * Sleep as long as needed for the items handled since the previous call to stay within the rate
+     */
+    public void pace(int items) throws InterruptedException {
+        if (nanosPerItem > 0) {
+            long wait = windowStart + items * nanosPerItem - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+        windowStart = System.nanoTime();
+    }
+}
@@ -0,0 +1,108 @@
+package com.churchapp.util;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer multi-consumer queue on a power-of-two ring of slots.
+ *
+ * Each slot carries a sequence number saying whose turn it is: producers claim the slot at the
+ * tail with a CAS once its sequence equals their position, publish the value and advance the
+ * sequence; consumers do the same at the head. offer never blocks and fails when the ring is full,
+ * leaving the overflow policy to the caller.
+ */
+public final class BoundedRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity minimum number of slots; rounded up to a power of two
+     */
+    public BoundedRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.slots = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the ring is full
+     */
+    public boolean offer(T value) {
+        Objects.requireNonNull(value, "value");
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, value);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (lag < 0) {
+                // The slot still holds the value from one lap ago
+                return false;
+            }
+            // Another producer claimed this position first; retry at the new tail
+        }
+    }
+
+    /**
+     * @return the oldest value, or null if the ring is empty
+     */
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - (position + 1);
+            if (lag == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T value = slots.getAndSet(index, null);
+                    // Hand the slot to the producer one lap ahead
+                    sequences.set(index, position + mask + 1);
+                    return value;
+                }
+            } else if (lag < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Move up to max values, oldest first, into the target list
+     *
+     * @return the number of values moved
+     */
+    public int drainTo(List<? super T> target, int max) {
+        int drained = 0;
+        T value;
+        while (drained < max && (value = poll()) != null) {
+            target.add(value);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of queued values
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
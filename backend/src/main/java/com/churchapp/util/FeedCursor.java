@@ -0,0 +1,53 @@
+package com.churchapp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a feed ordered by (createdAt DESC, id DESC).
+ * Serialized as an opaque URL-safe token so clients never depend on its contents.
+ */
+public record FeedCursor(LocalDateTime createdAt, UUID id) {
+
+    // Position before every real post, used for the first page
+    private static final FeedCursor START = new FeedCursor(
+        LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+        new UUID(-1L, -1L)
+    );
+
+    public static FeedCursor start() {
+        return START;
+    }
+
+    public static FeedCursor after(LocalDateTime createdAt, UUID id) {
+        return new FeedCursor(createdAt, id);
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}; null or blank means the first page.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static FeedCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new FeedCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid feed cursor");
+        }
+    }
+}
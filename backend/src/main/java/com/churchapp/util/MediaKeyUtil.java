@@ -0,0 +1,46 @@
+package com.churchapp.util;
+
+/**
+ * Normalizes media URLs to their canonical S3 object key.
+ *
+ * CloudFront URLs and virtual-hosted S3 URLs (bucket.s3.region.amazonaws.com) both carry the
+ * object key as the URL path, so stripping scheme, host and query gives the same key for
+ * every format a MediaFile URL may have been stored in.
+ *
+ * Must stay in sync with the backfill expression in V53__add_storage_keys_to_media_files.sql.
+ */
+public final class MediaKeyUtil {
+
+    private MediaKeyUtil() {
+    }
+
+    /**
+     * @return the object key for an http(s) URL, or null if the URL has no usable path
+     */
+    public static String toStorageKey(String url) {
+        if (url == null) {
+            return null;
+        }
+        String trimmed = url.trim();
+        int hostStart;
+        if (trimmed.startsWith("https://")) {
+            hostStart = "https://".length();
+        } else if (trimmed.startsWith("http://")) {
+            hostStart = "http://".length();
+        } else {
+            return null;
+        }
+
+        int pathStart = trimmed.indexOf('/', hostStart);
+        if (pathStart < 0) {
+            return null;
+        }
+
+        String key = trimmed.substring(pathStart + 1);
+        int queryIndex = key.indexOf('?');
+        if (queryIndex >= 0) {
+            key = key.substring(0, queryIndex);
+        }
+        return key.isEmpty() ? null : key;
+    }
+}
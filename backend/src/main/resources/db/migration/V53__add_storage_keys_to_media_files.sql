@@ -0,0 +1,21 @@
+-- Add canonical S3 object keys to media_files
+-- Media URLs are stored as either CloudFront or S3 URLs; the key is the URL path in both cases.
+-- Batched URL resolution (MediaUrlService.resolveMedia) looks files up by key with a single IN query.
+
+ALTER TABLE media_files ADD COLUMN IF NOT EXISTS original_key VARCHAR(500);
+ALTER TABLE media_files ADD COLUMN IF NOT EXISTS optimized_key VARCHAR(500);
+
+-- Backfill: strip scheme + host and any query string (mirrors MediaKeyUtil.toStorageKey)
+UPDATE media_files
+SET original_key = NULLIF(split_part(regexp_replace(original_url, '^https?://[^/]+/', ''), '?', 1), '')
+WHERE original_key IS NULL AND original_url ~ '^https?://[^/]+/';
+
+UPDATE media_files
+SET optimized_key = NULLIF(split_part(regexp_replace(optimized_url, '^https?://[^/]+/', ''), '?', 1), '')
+WHERE optimized_key IS NULL AND optimized_url ~ '^https?://[^/]+/';
+
+CREATE INDEX IF NOT EXISTS idx_media_files_original_key ON media_files(original_key);
+CREATE INDEX IF NOT EXISTS idx_media_files_optimized_key ON media_files(optimized_key);
+
+COMMENT ON COLUMN media_files.original_key IS 'S3 object key of original_url (URL path without host or query)';
+COMMENT ON COLUMN media_files.optimized_key IS 'S3 object key of optimized_url (URL path without host or query)';
@@ -0,0 +1,27 @@
+-- Denormalized last-message pointer on chat_groups
+-- Lets the chat inbox (ChatService.getUserChatGroups) load every group's preview in one
+-- set-based query instead of one "latest message" query per group.
+-- No FK on last_message_id: messages are bulk-deleted by retention cleanup.
+
+ALTER TABLE chat_groups ADD COLUMN IF NOT EXISTS last_message_id UUID;
+ALTER TABLE chat_groups ADD COLUMN IF NOT EXISTS last_message_at TIMESTAMP;
+
+-- Backfill from the latest non-deleted message per group
+UPDATE chat_groups g
+SET last_message_id = lm.id,
+    last_message_at = lm.timestamp
+FROM (
+    SELECT DISTINCT ON (chat_group_id) chat_group_id, id, timestamp
+    FROM messages
+    WHERE is_deleted = false
+    ORDER BY chat_group_id, timestamp DESC
+) lm
+WHERE lm.chat_group_id = g.id;
+
+-- Supports per-group unread counts (messages newer than the member's last_read_at)
+CREATE INDEX IF NOT EXISTS idx_message_group_timestamp_active
+    ON messages(chat_group_id, timestamp)
+    WHERE is_deleted = false;
+
+COMMENT ON COLUMN chat_groups.last_message_id IS 'Latest non-deleted message in the group (maintained by ChatService)';
+COMMENT ON COLUMN chat_groups.last_message_at IS 'Timestamp of last_message_id';
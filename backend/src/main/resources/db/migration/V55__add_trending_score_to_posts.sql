@@ -0,0 +1,23 @@
+-- Precomputed, time-decayed trending score for posts
+-- trending_score = log2(1 + likes + comments + shares) + epoch(created_at) / half-life (24h)
+-- Anchoring decay to the epoch means the score only changes when counters change, so trending
+-- feeds can walk an index in score order instead of sorting the whole 7-day window per request.
+-- Keep in sync with Post.computeTrendingScore and PostRepository.recomputeTrendingScores.
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS trending_score DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+UPDATE posts
+SET trending_score = LN(1 + COALESCE(likes_count, 0) + COALESCE(comments_count, 0) + COALESCE(shares_count, 0)) / LN(2)
+                   + EXTRACT(EPOCH FROM created_at) / 86400.0;
+
+-- Organization trending feed (PostRepository.findTrendingPostsByOrganization)
+CREATE INDEX IF NOT EXISTS idx_posts_org_trending_score
+    ON posts (organization_id, trending_score DESC)
+    WHERE is_hidden = false;
+
+-- Global trending feed (PostRepository.findTrendingPosts)
+CREATE INDEX IF NOT EXISTS idx_posts_trending_score
+    ON posts (trending_score DESC)
+    WHERE is_hidden = false;
+
+COMMENT ON COLUMN posts.trending_score IS 'log2(1 + likes + comments + shares) + created_at epoch / 86400; ordered DESC for trending feeds';
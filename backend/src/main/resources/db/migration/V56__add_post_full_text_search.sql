@@ -0,0 +1,91 @@
+-- Full-text search for posts (PostgresPostSearchIndex)
+-- Replaces LOWER(...) LIKE '%term%' scans over content, author name, category, location and
+-- hashtags with a GIN-indexed tsvector. The 'simple' configuration is used so names and
+-- hashtags are matched as written (no stemming / stop words).
+-- Author names are left out of anonymous posts so search cannot reveal who wrote them.
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION post_search_document(
+    p_post_id UUID,
+    p_user_id UUID,
+    p_is_anonymous BOOLEAN,
+    p_content TEXT,
+    p_category TEXT,
+    p_location TEXT
+) RETURNS tsvector AS $$
+    SELECT setweight(to_tsvector('simple', COALESCE(p_content, '')), 'A')
+        || setweight(to_tsvector('simple', COALESCE((
+               SELECT string_agg(h.tag, ' ')
+               FROM post_hashtags ph
+               JOIN hashtags h ON h.id = ph.hashtag_id
+               WHERE ph.post_id = p_post_id), '')), 'A')
+        || setweight(to_tsvector('simple', CASE WHEN p_is_anonymous THEN '' ELSE COALESCE((
+               SELECT u.name FROM users u WHERE u.id = p_user_id), '') END), 'B')
+        || setweight(to_tsvector('simple', COALESCE(p_category, '') || ' ' || COALESCE(p_location, '')), 'C');
+$$ LANGUAGE sql STABLE;
+
+-- Posts: rebuild only when an indexed field changes (counter updates rewrite every column)
+CREATE OR REPLACE FUNCTION posts_search_vector_trigger() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT'
+       OR NEW.content IS DISTINCT FROM OLD.content
+       OR NEW.category IS DISTINCT FROM OLD.category
+       OR NEW.location IS DISTINCT FROM OLD.location
+       OR NEW.is_anonymous IS DISTINCT FROM OLD.is_anonymous
+       OR NEW.user_id IS DISTINCT FROM OLD.user_id
+       OR NEW.search_vector IS NULL THEN
+        NEW.search_vector := post_search_document(NEW.id, NEW.user_id, NEW.is_anonymous,
+                                                  NEW.content, NEW.category, NEW.location);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_posts_search_vector ON posts;
+CREATE TRIGGER trg_posts_search_vector
+    BEFORE INSERT OR UPDATE ON posts
+    FOR EACH ROW EXECUTE FUNCTION posts_search_vector_trigger();
+
+-- Hashtags are linked after the post row is inserted
+CREATE OR REPLACE FUNCTION post_hashtags_search_vector_trigger() RETURNS trigger AS $$
+DECLARE
+    target_post_id UUID;
+BEGIN
+    target_post_id := CASE WHEN TG_OP = 'DELETE' THEN OLD.post_id ELSE NEW.post_id END;
+    UPDATE posts p
+    SET search_vector = post_search_document(p.id, p.user_id, p.is_anonymous, p.content, p.category, p.location)
+    WHERE p.id = target_post_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_post_hashtags_search_vector ON post_hashtags;
+CREATE TRIGGER trg_post_hashtags_search_vector
+    AFTER INSERT OR DELETE ON post_hashtags
+    FOR EACH ROW EXECUTE FUNCTION post_hashtags_search_vector_trigger();
+
+-- Author renames
+CREATE OR REPLACE FUNCTION users_name_search_vector_trigger() RETURNS trigger AS $$
+BEGIN
+    UPDATE posts p
+    SET search_vector = post_search_document(p.id, p.user_id, p.is_anonymous, p.content, p.category, p.location)
+    WHERE p.user_id = NEW.id AND p.is_anonymous = false;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_users_name_search_vector ON users;
+CREATE TRIGGER trg_users_name_search_vector
+    AFTER UPDATE OF name ON users
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name)
+    EXECUTE FUNCTION users_name_search_vector_trigger();
+
+-- Backfill existing posts
+UPDATE posts p
+SET search_vector = post_search_document(p.id, p.user_id, p.is_anonymous, p.content, p.category, p.location);
+
+CREATE INDEX IF NOT EXISTS idx_posts_search_vector ON posts USING GIN (search_vector);
+
+COMMENT ON COLUMN posts.search_vector IS 'Full-text document (content, hashtags, author name, category, location); maintained by triggers';
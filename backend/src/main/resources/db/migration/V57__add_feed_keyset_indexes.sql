@@ -0,0 +1,24 @@
+-- Composite indexes for keyset (cursor) feed pagination (PostService.getMultiTenantFeedSlice)
+-- Every feed query orders by (created_at DESC, id DESC) over visible main posts, and is
+-- positioned by "created_at <= cursor". One index per filter branch lets each branch of the
+-- feed's OR read only the rows before the cursor, already in feed order.
+
+-- EVERYTHING filter (findMainPostsForFeedBefore)
+CREATE INDEX IF NOT EXISTS idx_posts_feed_keyset
+    ON posts (created_at DESC, id DESC)
+    WHERE is_reply = false AND is_hidden = false;
+
+-- Primary / secondary / org-as-group / global organization posts
+CREATE INDEX IF NOT EXISTS idx_posts_feed_keyset_org
+    ON posts (organization_id, created_at DESC, id DESC)
+    WHERE is_reply = false AND is_hidden = false AND group_id IS NULL;
+
+-- Group posts
+CREATE INDEX IF NOT EXISTS idx_posts_feed_keyset_group
+    ON posts (group_id, created_at DESC, id DESC)
+    WHERE is_reply = false AND is_hidden = false AND group_id IS NOT NULL;
+
+-- Followed users
+CREATE INDEX IF NOT EXISTS idx_posts_feed_keyset_user
+    ON posts (user_id, created_at DESC, id DESC)
+    WHERE is_reply = false AND is_hidden = false;
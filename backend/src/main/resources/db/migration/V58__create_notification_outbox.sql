@@ -0,0 +1,23 @@
+-- Push notification outbox: rows are written with the post/message that triggers them
+-- and fanned out asynchronously by NotificationOutboxProcessor.
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    audience_type VARCHAR(30) NOT NULL,
+    audience_id UUID NOT NULL,
+    exclude_user_id UUID,
+    title VARCHAR(255) NOT NULL,
+    body TEXT,
+    data JSONB,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_at TIMESTAMP,
+    processed_at TIMESTAMP,
+    tokens_sent INTEGER,
+    tokens_failed INTEGER,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_status_available
+    ON notification_outbox(status, available_at);
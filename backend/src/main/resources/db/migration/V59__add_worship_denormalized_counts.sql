@@ -0,0 +1,31 @@
+-- Denormalized counters so room listings and vote paths never load participant or vote collections.
+-- worship_rooms.active_participant_count is kept in step by WorshipRoomService with conditional
+-- UPDATEs on participant activation; the queue entry vote counts are written by WorshipRoomEngine
+-- in the same transaction as the vote rows.
+
+ALTER TABLE worship_rooms
+    ADD COLUMN IF NOT EXISTS active_participant_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE worship_rooms r
+SET active_participant_count = (
+    SELECT COUNT(*) FROM worship_room_participants p
+    WHERE p.worship_room_id = r.id AND p.is_active = true
+);
+
+ALTER TABLE worship_queue_entries
+    ADD COLUMN IF NOT EXISTS upvote_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS skip_vote_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE worship_queue_entries q
+SET upvote_count = (
+        SELECT COUNT(*) FROM worship_song_votes v
+        WHERE v.queue_entry_id = q.id AND v.vote_type = 'UPVOTE'
+    ),
+    skip_vote_count = (
+        SELECT COUNT(*) FROM worship_song_votes v
+        WHERE v.queue_entry_id = q.id AND v.vote_type = 'SKIP'
+    );
+
+-- Batch lookup of the viewer's participant rows for a page of rooms
+CREATE INDEX IF NOT EXISTS idx_worship_participant_user_room
+    ON worship_room_participants (user_id, worship_room_id);
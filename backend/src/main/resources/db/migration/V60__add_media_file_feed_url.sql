@@ -0,0 +1,2 @@
+-- Feed-sized rendition produced by ImageProcessingService alongside the full image and thumbnail
+ALTER TABLE media_files ADD COLUMN IF NOT EXISTS feed_url VARCHAR(500);
@@ -0,0 +1,13 @@
+-- Storage ledger: one row per S3 object with its size and the organization it is charged to.
+-- Rows are written at upload completion and removed on deletion; organization_metrics storage
+-- columns are kept as running totals of these rows, so no S3 calls are needed to report usage.
+CREATE TABLE IF NOT EXISTS storage_objects (
+    object_key VARCHAR(1024) PRIMARY KEY,
+    organization_id UUID REFERENCES organizations(id) ON DELETE SET NULL,
+    category VARCHAR(20) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    verified_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_storage_objects_organization ON storage_objects(organization_id);
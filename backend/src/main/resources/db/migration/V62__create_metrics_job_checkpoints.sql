@@ -0,0 +1,12 @@
+-- Progress of batch jobs that walk every organization (see OrganizationMetricsBatchJob).
+-- last_organization_id is the highest organization ID below which every partition of the
+-- day's run has completed, so an interrupted run resumes there instead of starting over.
+CREATE TABLE IF NOT EXISTS metrics_job_checkpoints (
+    job_name VARCHAR(100) PRIMARY KEY,
+    run_date DATE NOT NULL,
+    last_organization_id UUID,
+    organizations_processed INTEGER NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,14 @@
+-- Progress of batched retention cleanups (chat messages, processed media originals).
+-- A run walks its rows in (timestamp, id) order; last_timestamp/last_id is the keyset cursor of
+-- the last committed batch, so an interrupted run resumes there with the same cutoff.
+CREATE TABLE IF NOT EXISTS cleanup_checkpoints (
+    job_name VARCHAR(100) PRIMARY KEY,
+    cutoff TIMESTAMP NOT NULL,
+    last_timestamp TIMESTAMP,
+    last_id UUID,
+    processed_count BIGINT NOT NULL DEFAULT 0,
+    retained_count BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
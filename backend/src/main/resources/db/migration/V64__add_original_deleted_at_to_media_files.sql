@@ -0,0 +1,12 @@
+-- Track which processed originals have been deleted from S3 so the nightly cleanup only visits
+-- originals that are still stored, instead of every completed media file on every run.
+-- Existing rows start as NULL; their first cleanup re-issues deletes, which S3 treats as no-ops
+-- for objects that are already gone.
+ALTER TABLE media_files ADD COLUMN IF NOT EXISTS original_deleted_at TIMESTAMP;
+
+-- Keyset order of FileCleanupService batches, limited to originals still awaiting cleanup
+CREATE INDEX IF NOT EXISTS idx_media_files_cleanup_pending
+    ON media_files(processing_completed_at, id)
+    WHERE processing_status = 'COMPLETED' AND original_deleted_at IS NULL;
+
+COMMENT ON COLUMN media_files.original_deleted_at IS 'When the original was deleted from S3 by FileCleanupService (maintained by MediaFileRepository.markOriginalsDeleted)';
@@ -0,0 +1,38 @@
+-- Materialized per-reaction counts so post pages no longer GROUP BY post_likes on every request.
+-- Like the other posts counters they are written only by PostEngagementCounters, which flushes
+-- buffered deltas as relative UPDATEs (column = column + delta).
+
+ALTER TABLE posts
+    ADD COLUMN IF NOT EXISTS heart_reactions_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS like_reactions_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS dislike_reactions_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS laugh_reactions_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS wow_reactions_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS sad_reactions_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS angry_reactions_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from post_likes; likes_count is re-synced too, since concurrent read-modify-write
+-- saves may have lost updates
+UPDATE posts p
+SET heart_reactions_count = c.heart,
+    like_reactions_count = c.liked,
+    dislike_reactions_count = c.dislike,
+    laugh_reactions_count = c.laugh,
+    wow_reactions_count = c.wow,
+    sad_reactions_count = c.sad,
+    angry_reactions_count = c.angry,
+    likes_count = c.total
+FROM (
+    SELECT post_id,
+           COUNT(*) FILTER (WHERE reaction_type = 'HEART') AS heart,
+           COUNT(*) FILTER (WHERE reaction_type = 'LIKE') AS liked,
+           COUNT(*) FILTER (WHERE reaction_type = 'DISLIKE') AS dislike,
+           COUNT(*) FILTER (WHERE reaction_type = 'LAUGH') AS laugh,
+           COUNT(*) FILTER (WHERE reaction_type = 'WOW') AS wow,
+           COUNT(*) FILTER (WHERE reaction_type = 'SAD') AS sad,
+           COUNT(*) FILTER (WHERE reaction_type = 'ANGRY') AS angry,
+           COUNT(*) AS total
+    FROM post_likes
+    GROUP BY post_id
+) c
+WHERE c.post_id = p.id;
@@ -0,0 +1,22 @@
+-- Background bulk moderation jobs (see BulkModerationEngine), polled by the admin UI for progress.
+-- errors holds a capped, newline-separated list of per-item failures.
+CREATE TABLE IF NOT EXISTS bulk_moderation_jobs (
+    id UUID PRIMARY KEY,
+    moderator_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    action VARCHAR(20) NOT NULL,
+    reason TEXT,
+    content_type VARCHAR(50),
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    total_items INTEGER NOT NULL DEFAULT 0,
+    processed_items INTEGER NOT NULL DEFAULT 0,
+    succeeded_items INTEGER NOT NULL DEFAULT 0,
+    failed_items INTEGER NOT NULL DEFAULT 0,
+    errors TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_bulk_moderation_jobs_status_updated ON bulk_moderation_jobs(status, updated_at);
+CREATE INDEX IF NOT EXISTS idx_bulk_moderation_jobs_moderator ON bulk_moderation_jobs(moderator_id, created_at DESC);
@@ -0,0 +1,149 @@
+package com.churchapp;
+
+import com.churchapp.service.AuditLogWriter;
+import com.churchapp.service.AuditLogWriter.AuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditLogWriterTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path spillDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void eventsAreWrittenInBatchesAndFlushedOnShutdown() throws Exception {
+        AuditLogWriter writer = writer(1024, 100);
+        for (int i = 0; i < 250; i++) {
+            writer.submit(event("BULK_MODERATE"));
+        }
+        writer.shutdown();
+
+        assertEquals(250, insertedIds().size());
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith("INSERT INTO audit_log_details"), anyList());
+        assertEquals(250.0, meterRegistry.get("audit.writer.events.written").counter().count());
+        assertTrue(meterRegistry.get("audit.writer.batch.size").summary().max() <= 100);
+        assertEquals(0.0, meterRegistry.get("audit.writer.queue.depth").gauge().value());
+    }
+
+    @Test
+    void overflowIsSpilledToDiskAndReplayed() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO audit_logs"), anyList()))
+                .thenAnswer(invocation -> {
+                    writing.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new int[0];
+                });
+
+        AuditLogWriter writer = writer(2, 1);
+        writer.submit(event("FIRST"));
+        // The writer thread is now stuck on the first insert, so the ring fills up
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            writer.submit(event("OVERFLOW"));
+        }
+        assertEquals(3.0, meterRegistry.get("audit.writer.events.spilled").counter().count());
+        assertEquals(3, Files.readAllLines(spillDir.resolve("audit-spill.jsonl")).size());
+
+        release.countDown();
+        // Once the ring is drained the idle writer replays the spill file
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("audit.writer.events.replayed").counter().count() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        writer.shutdown();
+
+        assertEquals(6, insertedIds().size());
+        assertEquals(3.0, meterRegistry.get("audit.writer.events.replayed").counter().count());
+        assertFalse(Files.exists(spillDir.resolve("audit-spill.jsonl")));
+        assertFalse(Files.exists(spillDir.resolve("audit-replay.jsonl")));
+        assertEquals(0.0, meterRegistry.get("audit.writer.events.dropped").counter().count());
+    }
+
+    @Test
+    void rowsTheDatabaseRejectsAreQuarantinedWithoutHoldingBackTheBatch() throws Exception {
+        AuditEvent bad = event("BAD");
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO audit_logs"), anyList()))
+                .thenAnswer(invocation -> {
+                    List<Object[]> rows = invocation.getArgument(1);
+                    if (rows.stream().anyMatch(row -> bad.id().equals(row[0]))) {
+                        throw new DataIntegrityViolationException("value too long for type character varying(45)");
+                    }
+                    return new int[rows.size()];
+                });
+
+        AuditLogWriter writer = writer(1024, 100);
+        writer.submit(event("GOOD"));
+        writer.submit(bad);
+        writer.submit(event("GOOD"));
+        writer.shutdown();
+
+        assertEquals(2.0, meterRegistry.get("audit.writer.events.written").counter().count());
+        assertEquals(1.0, meterRegistry.get("audit.writer.events.dropped").counter().count());
+        assertEquals(0.0, meterRegistry.get("audit.writer.events.spilled").counter().count());
+        assertFalse(Files.exists(spillDir.resolve("audit-spill.jsonl")));
+        List<String> quarantined = Files.readAllLines(spillDir.resolve("audit-rejected.jsonl"));
+        assertEquals(1, quarantined.size());
+        assertTrue(quarantined.get(0).contains(bad.id().toString()));
+    }
+
+    private AuditLogWriter writer(int capacity, int batchSize) {
+        return new AuditLogWriter(jdbcTemplate, transactionManager, objectMapper, meterRegistry,
+                capacity, batchSize, 50, 0, spillDir.toString());
+    }
+
+    private static AuditEvent event(String action) {
+        return new AuditEvent(UUID.randomUUID(), UUID.randomUUID(), action, Map.of("reason", "spam"),
+                "POST", UUID.randomUUID(), "10.0.0.1", "JUnit", LocalDateTime.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<UUID> insertedIds() {
+        Set<UUID> ids = new HashSet<>();
+        mockingDetails(jdbcTemplate).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("batchUpdate"))
+                .filter(invocation -> ((String) invocation.getArgument(0)).startsWith("INSERT INTO audit_logs"))
+                .forEach(invocation -> ((List<Object[]>) invocation.getArgument(1))
+                        .forEach(row -> ids.add((UUID) row[0])));
+        return ids;
+    }
+}
@@ -0,0 +1,139 @@
+package com.churchapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fan-out throughput of one worship room broadcast to 1,000 subscribers.
+ *
+ * "simple" runs the in-memory broker exactly as websocket.broker.mode=simple does.
+ * "relay" stands in for an external STOMP broker: the publishing node encodes a SEND frame,
+ * the broker decodes it and fans out one encoded MESSAGE frame per subscriber, and each
+ * frame is decoded again on the node that owns the socket - the wire work the relay adds.
+ * Network latency is not modelled, so relay numbers are an upper bound.
+ *
+ * Run with: mvn test -Dtest=BrokerFanoutBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class BrokerFanoutBenchmarkTest {
+
+    private static final int SUBSCRIBERS = 1000;
+    private static final int WARMUP_BROADCASTS = 200;
+    private static final int BROADCASTS = 2000;
+    private static final String DESTINATION = "/topic/worship/rooms/3f1c2a9e-0000-0000-0000-000000000001/playback";
+    private static final byte[] PAYLOAD =
+        "{\"type\":\"PLAYBACK_COMMAND\",\"action\":\"PLAY\",\"videoId\":\"dQw4w9WgXcQ\",\"seekPosition\":42.5}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void simpleBrokerFanout() {
+        AtomicLong delivered = new AtomicLong();
+        SimpleBrokerMessageHandler broker = startBroker(message -> delivered.incrementAndGet());
+
+        run("simple", delivered, () -> broker.handleMessage(brokerMessage()));
+        broker.stop();
+    }
+
+    @Test
+    void relayStandInFanout() {
+        StompEncoder encoder = new StompEncoder();
+        StompDecoder decoder = new StompDecoder();
+        AtomicLong delivered = new AtomicLong();
+
+        // Broker -> node hop: every subscriber gets its own MESSAGE frame over the wire
+        SimpleBrokerMessageHandler broker = startBroker(message -> {
+            SimpMessageHeaderAccessor source = SimpMessageHeaderAccessor.wrap(message);
+            StompHeaderAccessor frame = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            frame.setNativeHeader("destination", source.getDestination());
+            frame.setNativeHeader("subscription", source.getSubscriptionId());
+            frame.setNativeHeader("message-id", Long.toString(delivered.get()));
+            byte[] wire = encoder.encode(MessageBuilder.createMessage((byte[]) message.getPayload(), frame.getMessageHeaders()));
+            List<Message<byte[]>> received = decoder.decode(ByteBuffer.wrap(wire));
+            delivered.addAndGet(received.size());
+        });
+
+        // Node -> broker hop: the publisher sends one SEND frame
+        run("relay", delivered, () -> {
+            StompHeaderAccessor send = StompHeaderAccessor.create(StompCommand.SEND);
+            send.setNativeHeader("destination", DESTINATION);
+            byte[] wire = encoder.encode(MessageBuilder.createMessage(PAYLOAD, send.getMessageHeaders()));
+            for (Message<byte[]> frame : decoder.decode(ByteBuffer.wrap(wire))) {
+                broker.handleMessage(frame);
+            }
+        });
+        broker.stop();
+    }
+
+    private void run(String label, AtomicLong delivered, Runnable broadcast) {
+        for (int i = 0; i < WARMUP_BROADCASTS; i++) {
+            broadcast.run();
+        }
+        delivered.set(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BROADCASTS; i++) {
+            broadcast.run();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertEquals((long) BROADCASTS * SUBSCRIBERS, delivered.get());
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%-6s broker: %,d broadcasts x %,d subscribers in %.2fs -> %,.0f deliveries/s, %.3f ms per broadcast%n",
+            label, BROADCASTS, SUBSCRIBERS, seconds, delivered.get() / seconds,
+            elapsedNanos / 1_000_000.0 / BROADCASTS);
+    }
+
+    private static SimpleBrokerMessageHandler startBroker(MessageHandler outbound) {
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        // Only count broadcasts, not CONNECT_ACKs
+        clientOutbound.subscribe(message -> {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                outbound.handleMessage(message);
+            }
+        });
+
+        SimpleBrokerMessageHandler broker =
+            new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic", "/queue"));
+        broker.start();
+
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId("session-" + i);
+            connect.setHeader(SimpMessageHeaderAccessor.HEART_BEAT_HEADER, new long[] { 0, 0 });
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId("session-" + i);
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(DESTINATION);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+        }
+        return broker;
+    }
+
+    private static Message<byte[]> brokerMessage() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(DESTINATION);
+        return MessageBuilder.createMessage(PAYLOAD, accessor.getMessageHeaders());
+    }
+}
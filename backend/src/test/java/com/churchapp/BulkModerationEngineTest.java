@@ -0,0 +1,207 @@
+package com.churchapp;
+
+import com.churchapp.entity.BulkModerationJob;
+import com.churchapp.entity.MarketplaceListingStatus;
+import com.churchapp.entity.User;
+import com.churchapp.repository.*;
+import com.churchapp.service.AuditLogService;
+import com.churchapp.service.BulkModerationEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkModerationEngineTest {
+
+    @Mock private BulkModerationJobRepository jobRepository;
+    @Mock private PostRepository postRepository;
+    @Mock private PostCommentRepository postCommentRepository;
+    @Mock private PostLikeRepository postLikeRepository;
+    @Mock private PostBookmarkRepository postBookmarkRepository;
+    @Mock private PostShareRepository postShareRepository;
+    @Mock private PostHashtagRepository postHashtagRepository;
+    @Mock private MessageRepository messageRepository;
+    @Mock private MarketplaceListingRepository marketplaceListingRepository;
+    @Mock private ContentReportRepository contentReportRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private AuditLogService auditLogService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private BulkModerationEngine engine;
+
+    private final Map<UUID, BulkModerationJob> jobs = new HashMap<>();
+    private final UUID moderatorId = UUID.randomUUID();
+    private final User moderator = new User();
+
+    @BeforeEach
+    void setUp() {
+        // Jobs run on the submitting thread
+        engine = new BulkModerationEngine(jobRepository, postRepository, postCommentRepository, postLikeRepository,
+                postBookmarkRepository, postShareRepository, postHashtagRepository, messageRepository,
+                marketplaceListingRepository, contentReportRepository, userRepository, auditLogService,
+                transactionManager, Runnable::run);
+        ReflectionTestUtils.setField(engine, "chunkSize", 2);
+        ReflectionTestUtils.setField(engine, "maxItems", 100);
+
+        moderator.setId(moderatorId);
+    }
+
+    @Test
+    void groupsIdsByTypeAndModeratesEachChunkWithSetBasedStatements() {
+        UUID p1 = UUID.randomUUID(), p2 = UUID.randomUUID(), p3 = UUID.randomUUID();
+        UUID message = UUID.randomUUID(), listing = UUID.randomUUID(), missing = UUID.randomUUID();
+        existing(postRepository.findExistingIds(anyList()), List.of(p1, p2, p3));
+        existing(messageRepository.findExistingIds(anyList()), List.of(message));
+        existing(marketplaceListingRepository.findExistingIds(anyList()), List.of(listing));
+        stubJobs();
+        progressUpdates(1);
+
+        BulkModerationJob job = engine.submit(
+                List.of(p1.toString(), message.toString(), p2.toString(), "not-a-uuid", listing.toString(),
+                        p3.toString(), missing.toString(), p1.toString()),
+                null, "hide", "Spam wave", moderatorId, "10.0.0.1", "JUnit");
+
+        assertEquals(BulkModerationJob.Status.COMPLETED, job.getStatus());
+        assertEquals(7, job.getTotalItems());
+        assertEquals(5, job.getSucceededItems());
+        assertEquals(2, job.getFailedItems());
+        assertEquals(7, job.getProcessedItems());
+        assertTrue(job.getErrors().contains("not-a-uuid"));
+        assertTrue(job.getErrors().contains(missing.toString()));
+
+        verify(postRepository).hideByIds(eq(List.of(p1, p2)), any(), eq(moderator));
+        verify(postRepository).hideByIds(eq(List.of(p3)), any(), eq(moderator));
+        verify(messageRepository).softDeleteByIds(eq(List.of(message)), any());
+        verify(marketplaceListingRepository).updateStatusByIds(eq(List.of(listing)), eq(MarketplaceListingStatus.REMOVED), any());
+        verify(contentReportRepository).resolveOpenReports(eq("POST"), eq(List.of(p1, p2)), eq("HIDE"),
+                eq("Spam wave"), eq(moderator), any());
+        verify(contentReportRepository, times(4)).resolveOpenReports(anyString(), anyList(), anyString(), anyString(), any(), any());
+        verify(postRepository, never()).deleteByIdIn(anyList());
+
+        verify(auditLogService, times(5)).logAction(eq(moderatorId), eq("MODERATE_CONTENT"), anyMap(), anyString(),
+                any(UUID.class), eq("10.0.0.1"), eq("JUnit"));
+        verify(auditLogService).logAction(eq(moderatorId), eq("BULK_MODERATE"), anyMap(), eq("CONTENT"), isNull(),
+                eq("10.0.0.1"), eq("JUnit"));
+    }
+
+    @Test
+    void failedChunkIsRetriedOneItemAtATime() {
+        UUID p1 = UUID.randomUUID(), referenced = UUID.randomUUID();
+        stubJobs();
+        progressUpdates(1);
+        when(postRepository.deleteByIdIn(anyList())).thenAnswer(invocation -> {
+            List<UUID> ids = invocation.getArgument(0);
+            if (ids.contains(referenced)) {
+                throw new DataIntegrityViolationException("post is quoted");
+            }
+            return ids.size();
+        });
+
+        BulkModerationJob job = engine.submit(List.of(p1.toString(), referenced.toString()), "post", "REMOVE",
+                null, moderatorId, null, null);
+
+        assertEquals(BulkModerationJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getSucceededItems());
+        assertEquals(1, job.getFailedItems());
+        assertTrue(job.getErrors().contains(referenced.toString()));
+        verify(postRepository).deleteByIdIn(List.of(p1, referenced));
+        verify(postRepository).deleteByIdIn(List.of(p1));
+        verify(postRepository).deleteByIdIn(List.of(referenced));
+        verify(postCommentRepository).deleteByPostIds(List.of(p1));
+        verify(postRepository).deleteMediaUrlsByPostIds(List.of(p1));
+        // Only the item that committed is audited
+        verify(auditLogService).logAction(eq(moderatorId), eq("MODERATE_CONTENT"), anyMap(), eq("POST"), eq(p1),
+                isNull(), isNull());
+        verify(auditLogService, never()).logAction(any(), eq("MODERATE_CONTENT"), anyMap(), anyString(), eq(referenced),
+                any(), any());
+    }
+
+    @Test
+    void messagesCannotBeUnhidden() {
+        UUID message = UUID.randomUUID();
+        stubJobs();
+        progressUpdates(1);
+
+        BulkModerationJob job = engine.submit(List.of(message.toString()), "MESSAGE", "UNHIDE", null,
+                moderatorId, null, null);
+
+        assertEquals(0, job.getSucceededItems());
+        assertEquals(1, job.getFailedItems());
+        verifyNoInteractions(messageRepository, contentReportRepository);
+    }
+
+    @Test
+    void jobFailedByTheStalledSweepIsNotRevivedAndStops() {
+        UUID p1 = UUID.randomUUID(), p2 = UUID.randomUUID(), p3 = UUID.randomUUID();
+        stubJobs();
+        // The sweep fails the job after its first chunk
+        progressUpdates(1, 0);
+
+        engine.submit(List.of(p1.toString(), p2.toString(), p3.toString()), "POST", "HIDE", null,
+                moderatorId, null, null);
+
+        verify(postRepository).hideByIds(eq(List.of(p1, p2)), any(), eq(moderator));
+        verify(postRepository, never()).hideByIds(eq(List.of(p3)), any(), any());
+        verify(jobRepository, times(2)).updateProgress(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any());
+        verify(jobRepository, never()).updateProgress(any(), any(), eq(BulkModerationJob.Status.COMPLETED), any(),
+                any(), any(), any(), any(), any(), any(), any());
+        verify(auditLogService, never()).logAction(any(), eq("BULK_MODERATE"), anyMap(), anyString(), any(),
+                any(), any());
+    }
+
+    @Test
+    void rejectsActionsThatCannotBeAppliedInBulk() {
+        List<String> ids = List.of(UUID.randomUUID().toString());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.submit(ids, null, "WARN", null, moderatorId, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.submit(ids, "PRAYER", "HIDE", null, moderatorId, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.submit(List.of(), null, "HIDE", null, moderatorId, null, null));
+        verify(jobRepository, never()).save(any());
+    }
+
+    private void stubJobs() {
+        when(userRepository.findById(moderatorId)).thenReturn(Optional.of(moderator));
+        when(jobRepository.save(any(BulkModerationJob.class))).thenAnswer(invocation -> {
+            BulkModerationJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.getArgument(0))));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    /**
+     * Rows matched by each progress save in turn; 0 once the stalled job sweep has failed the job
+     */
+    private void progressUpdates(Integer first, Integer... more) {
+        when(jobRepository.updateProgress(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(first, more);
+    }
+
+    private static void existing(List<UUID> call, List<UUID> existing) {
+        when(call).thenAnswer(invocation -> {
+            List<UUID> ids = invocation.getArgument(0);
+            return ids.stream().filter(existing::contains).toList();
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package com.churchapp;
+
+import com.churchapp.entity.CleanupCheckpoint;
+import com.churchapp.repository.CleanupCheckpointRepository;
+import com.churchapp.repository.MessageRepository;
+import com.churchapp.service.ChatCleanupService;
+import com.churchapp.service.S3BatchDeleteService;
+import com.churchapp.service.StorageLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChatCleanupServiceTest {
+
+    private static final String CDN = "https://d123.cloudfront.net/";
+
+    @Mock private MessageRepository messageRepository;
+    @Mock private CleanupCheckpointRepository checkpointRepository;
+    @Mock private S3Client s3Client;
+    @Mock private StorageLedgerService storageLedgerService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private S3BatchDeleteService s3BatchDeleteService;
+    private ChatCleanupService chatCleanupService;
+
+    private final LocalDateTime old = LocalDateTime.now().minusDays(30);
+
+    @BeforeEach
+    void setUp() {
+        s3BatchDeleteService = new S3BatchDeleteService(s3Client, storageLedgerService);
+        ReflectionTestUtils.setField(s3BatchDeleteService, "bucketName", "bucket");
+        chatCleanupService = new ChatCleanupService(messageRepository, checkpointRepository,
+                s3BatchDeleteService, transactionManager);
+        ReflectionTestUtils.setField(chatCleanupService, "retentionDays", 7);
+        ReflectionTestUtils.setField(chatCleanupService, "batchSize", 2);
+        ReflectionTestUtils.setField(chatCleanupService, "maxMessagesPerSecond", 0);
+    }
+
+    @Test
+    void mediaIsDeletedInBulkAndMessagesWithFailedDeletesAreKept() {
+        UUID first = id(1), second = id(2), third = id(3);
+        stubCleanupWrites();
+        when(checkpointRepository.findById(any())).thenReturn(Optional.empty());
+        when(messageRepository.findCleanupBatch(any(), any(Pageable.class))).thenReturn(rows(
+                new Object[]{first, old, CDN + "chat-media/a.jpg"},
+                new Object[]{second, old.plusMinutes(1), CDN + "chat-media/b.jpg"}));
+        when(messageRepository.findCleanupBatchAfter(any(), eq(old.plusMinutes(1)), eq(second), any(Pageable.class)))
+                .thenReturn(rows(new Object[]{third, old.plusMinutes(2), null}));
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("chat-media/b.jpg").code("AccessDenied").build())
+                .build());
+
+        assertEquals(2, chatCleanupService.cleanupOldMessages());
+
+        ArgumentCaptor<DeleteObjectsRequest> request = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client, times(1)).deleteObjects(request.capture());
+        assertEquals(2, request.getValue().delete().objects().size());
+        assertTrue(request.getValue().delete().quiet());
+        verify(storageLedgerService).recordDeletions(List.of("chat-media/a.jpg"));
+
+        verify(messageRepository).deleteByIdIn(List.of(first));
+        verify(messageRepository).deleteByIdIn(List.of(third));
+
+        ArgumentCaptor<CleanupCheckpoint> checkpoint = ArgumentCaptor.forClass(CleanupCheckpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(checkpoint.capture());
+        assertEquals(third, checkpoint.getValue().getLastId());
+        assertEquals(2L, checkpoint.getValue().getProcessedCount());
+        assertEquals(1L, checkpoint.getValue().getRetainedCount());
+        assertNotNull(checkpoint.getValue().getCompletedAt());
+    }
+
+    @Test
+    void interruptedRunResumesFromItsCursorAndCutoff() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(9);
+        CleanupCheckpoint checkpoint = new CleanupCheckpoint("chat-messages");
+        checkpoint.start(cutoff, LocalDateTime.now().minusDays(2));
+        checkpoint.advance(old, id(5), 40, 0);
+        stubCleanupWrites();
+        when(checkpointRepository.findById(any())).thenReturn(Optional.of(checkpoint));
+        when(messageRepository.findCleanupBatchAfter(eq(cutoff), eq(old), eq(id(5)), any(Pageable.class)))
+                .thenReturn(rows(new Object[]{id(6), old.plusMinutes(1), null}));
+
+        assertEquals(1, chatCleanupService.cleanupOldMessages());
+
+        verify(messageRepository, never()).findCleanupBatch(any(), any(Pageable.class));
+        verifyNoInteractions(s3Client);
+        assertEquals(41L, checkpoint.getProcessedCount());
+        assertNotNull(checkpoint.getCompletedAt());
+    }
+
+    @Test
+    void deleteRequestsCarryAtMostAThousandKeys() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            keys.add("chat-media/" + i + ".jpg");
+        }
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder().build());
+
+        assertTrue(s3BatchDeleteService.deleteObjects(keys).isEmpty());
+
+        ArgumentCaptor<DeleteObjectsRequest> requests = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client, times(3)).deleteObjects(requests.capture());
+        assertEquals(List.of(1000, 1000, 500), requests.getAllValues().stream()
+                .map(r -> r.delete().objects().size())
+                .toList());
+    }
+
+    private void stubCleanupWrites() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(checkpointRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(messageRepository.deleteByIdIn(any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+    }
+
+    private static UUID id(int n) {
+        return new UUID(0, n);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -0,0 +1,121 @@
+package com.churchapp;
+
+import com.churchapp.dto.DonationAnalyticsResponse;
+import com.churchapp.dto.MonthlyTrendResponse;
+import com.churchapp.entity.DonationCategory;
+import com.churchapp.repository.DonationRepository;
+import com.churchapp.repository.DonationSubscriptionRepository;
+import com.churchapp.repository.UserRepository;
+import com.churchapp.service.DonationAnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DonationAnalyticsServiceTest {
+
+    @Mock private DonationRepository donationRepository;
+    @Mock private DonationSubscriptionRepository subscriptionRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private DonationAnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DonationAnalyticsService(donationRepository, subscriptionRepository, userRepository,
+                jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(service, "exportFetchSize", 100);
+    }
+
+    @Test
+    void analyticsAreBuiltFromAggregateRows() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 15, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 3, 10, 0, 0);
+        UUID donor = UUID.randomUUID();
+        // Previous period: no donations
+        when(donationRepository.summarizeByDateRange(any(), any())).thenReturn(rows());
+        when(donationRepository.summarizeByDateRange(start, end)).thenReturn(rows(
+                new Object[]{4L, new BigDecimal("400.00"), 2L, 1L, new BigDecimal("50.00")}));
+        when(donationRepository.summarizeByCategory(start, end)).thenReturn(rows(
+                new Object[]{DonationCategory.TITHES, 3L, new BigDecimal("300.00"), 2L},
+                new Object[]{DonationCategory.MISSIONS, 1L, new BigDecimal("100.00"), 1L}));
+        when(donationRepository.summarizeByMonth(eq(LocalDateTime.of(2026, 1, 1, 0, 0)), eq(end))).thenReturn(rows(
+                new Object[]{2026, 1, 1L, new BigDecimal("100.00"), 1L, BigDecimal.ZERO},
+                new Object[]{2026, 3, 3L, new BigDecimal("300.00"), 2L, new BigDecimal("50.00")}));
+        when(donationRepository.summarizeTopDonors(eq(start), eq(end), any(Pageable.class))).thenReturn(rows(
+                new Object[]{donor, "Ruth", new BigDecimal("300.00"), 3L, end, 1}));
+
+        DonationAnalyticsResponse analytics = service.getAnalytics("custom", start.toString(), end.toString());
+
+        assertEquals(4, analytics.getTotalDonations());
+        assertEquals(new BigDecimal("100.00"), analytics.getAverageDonation());
+        assertEquals(2, analytics.getDonorCount());
+        assertEquals(75.0, analytics.getCategoryBreakdown().get(0).getPercentage());
+
+        List<MonthlyTrendResponse> trends = analytics.getMonthlyTrends();
+        assertEquals(List.of("January", "February", "March"), trends.stream().map(MonthlyTrendResponse::getMonth).toList());
+        assertEquals(0, trends.get(1).getDonationCount());
+        assertEquals(new BigDecimal("100.00"), trends.get(2).getAverageDonation());
+
+        assertEquals("Ruth", analytics.getTopDonors().get(0).getDonorName());
+        assertTrue(analytics.getTopDonors().get(0).getIsRecurringDonor());
+        assertEquals(100.0, analytics.getPeriodComparison().getGrowth().getAmountGrowth());
+        verify(donationRepository, never()).findAll();
+    }
+
+    @Test
+    void exportStreamsRowsFromTheCursorAsCsv() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getTimestamp("timestamp")).thenReturn(Timestamp.valueOf(LocalDateTime.of(2026, 2, 1, 9, 30)));
+        when(resultSet.getString("name")).thenReturn("Smith, John");
+        when(resultSet.getBigDecimal("amount")).thenReturn(new BigDecimal("25.00"));
+        when(resultSet.getString("category")).thenReturn("TITHES");
+        when(resultSet.getString("purpose")).thenReturn("Say \"thanks\"");
+        when(resultSet.getString("transaction_id")).thenReturn("txn_1");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportDonations("csv", "30d", null, null).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("Date,Donor,Amount,Category,Purpose,Transaction ID", lines[0]);
+        assertEquals("2026-02-01,\"Smith, John\",25.00," + DonationCategory.TITHES.getDisplayName()
+                + ",\"Say \"\"thanks\"\"\",txn_1", lines[1]);
+        verify(transactionManager).commit(any());
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -0,0 +1,85 @@
+package com.churchapp;
+
+import com.churchapp.dto.ProcessingStatus;
+import com.churchapp.repository.MediaFileRepository;
+import com.churchapp.service.FileCleanupService;
+import com.churchapp.service.S3BatchDeleteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FileCleanupServiceTest {
+
+    @Mock
+    private MediaFileRepository mediaFileRepository;
+
+    @Mock
+    private S3BatchDeleteService s3BatchDeleteService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FileCleanupService fileCleanupService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fileCleanupService = new FileCleanupService(mediaFileRepository, s3BatchDeleteService, Runnable::run, meterRegistry);
+        ReflectionTestUtils.setField(fileCleanupService, "retentionHours", 24);
+        ReflectionTestUtils.setField(fileCleanupService, "cleanupEnabled", true);
+        ReflectionTestUtils.setField(fileCleanupService, "batchSize", 2);
+    }
+
+    @Test
+    void pagesByKeysetAndOnlyStampsOriginalsThatWereDeleted() {
+        LocalDateTime completed = LocalDateTime.now().minusDays(3);
+        UUID first = new UUID(0, 1), second = new UUID(0, 2), third = new UUID(0, 3);
+        when(mediaFileRepository.findCleanupBatch(eq(ProcessingStatus.COMPLETED), any(),
+                argThat((Collection<String> folders) -> folders.contains("profile-pictures")), any(Pageable.class)))
+                .thenReturn(rows(
+                        new Object[]{first, completed, "media/posts/originals/1.jpg"},
+                        new Object[]{second, completed, "media/posts/originals/2.jpg"}));
+        when(mediaFileRepository.findCleanupBatchAfter(eq(ProcessingStatus.COMPLETED), any(), anyCollection(),
+                eq(completed), eq(second), any(Pageable.class)))
+                .thenReturn(rows(new Object[]{third, completed.plusMinutes(1), "media/posts/originals/3.mp4"}));
+        when(s3BatchDeleteService.deleteObjects(List.of("media/posts/originals/1.jpg", "media/posts/originals/2.jpg")))
+                .thenReturn(Set.of("media/posts/originals/2.jpg"));
+        when(s3BatchDeleteService.deleteObjects(List.of("media/posts/originals/3.mp4"))).thenReturn(Set.of());
+
+        assertEquals(2, fileCleanupService.cleanupProcessedOriginals());
+
+        verify(mediaFileRepository).markOriginalsDeleted(eq(List.of(first)), any());
+        verify(mediaFileRepository).markOriginalsDeleted(eq(List.of(third)), any());
+        assertEquals(2.0, meterRegistry.get("media.cleanup.originals.deleted").counter().count());
+        assertEquals(1.0, meterRegistry.get("media.cleanup.originals.failed").counter().count());
+        assertEquals(1, meterRegistry.get("media.cleanup.run.duration").timer().count());
+    }
+
+    @Test
+    void disabledCleanupDoesNothing() {
+        ReflectionTestUtils.setField(fileCleanupService, "cleanupEnabled", false);
+
+        assertEquals(0, fileCleanupService.cleanupProcessedOriginals());
+
+        verifyNoInteractions(mediaFileRepository, s3BatchDeleteService);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -0,0 +1,94 @@
+package com.churchapp;
+
+import com.churchapp.dto.ImageProcessingResult;
+import com.churchapp.service.ImageProcessingService;
+import com.churchapp.util.InMemoryMultipartFile;
+import net.coobird.thumbnailator.Thumbnails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput and allocation per megapixel of ImageProcessingService against the previous
+ * full-resolution approach (decode at 100% through Thumbnailator, resize, encode one JPEG).
+ *
+ * Allocation is measured per thread with com.sun.management.ThreadMXBean, so it counts every
+ * byte the pipeline allocates (decoded rasters, resize buffers, encoder output), which is an
+ * upper bound on its peak heap use.
+ *
+ * Run with: mvn test -Dtest=ImagePipelineBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class ImagePipelineBenchmarkTest {
+
+    private static final int WIDTH = 8000;
+    private static final int HEIGHT = 6000; // 48MP phone photo
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+
+    @Test
+    void subsampledMultiSizePipeline() throws Exception {
+        ImageProcessingService service = new ImageProcessingService(1920, 1920, 1080, 320, 0.85, 1024);
+        InMemoryMultipartFile photo = photo();
+
+        run("streaming (full+feed+thumb)", () -> {
+            ImageProcessingResult result = service.processImage(photo);
+            assertEquals(3, result.getVariants().size());
+        });
+    }
+
+    @Test
+    void fullResolutionBaseline() throws Exception {
+        InMemoryMultipartFile photo = photo();
+
+        run("full decode (one jpeg)", () -> {
+            BufferedImage decoded = Thumbnails.of(photo.getInputStream())
+                .scale(1.0)
+                .useExifOrientation(true)
+                .asBufferedImage();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Thumbnails.of(decoded)
+                .size(1920, 1920)
+                .outputFormat("jpg")
+                .outputQuality(0.85)
+                .toOutputStream(out);
+        });
+    }
+
+    private void run(String label, Pipeline pipeline) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            pipeline.run();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            pipeline.run();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        double megapixels = (double) WIDTH * HEIGHT / 1_000_000 * ITERATIONS;
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%-28s %.1f MP/s, %.0f ms per image, %.2f MB allocated per MP%n",
+            label, megapixels / seconds, elapsedNanos / 1_000_000.0 / ITERATIONS,
+            allocated / 1_048_576.0 / megapixels);
+    }
+
+    private static InMemoryMultipartFile photo() throws IOException {
+        return ImageProcessingServiceTest.image("photo.jpg", "jpg", WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @FunctionalInterface
+    private interface Pipeline {
+        void run() throws Exception;
+    }
+}
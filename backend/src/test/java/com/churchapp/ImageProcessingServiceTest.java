@@ -0,0 +1,76 @@
+package com.churchapp;
+
+import com.churchapp.dto.ImageProcessingResult;
+import com.churchapp.service.ImageProcessingService;
+import com.churchapp.util.InMemoryMultipartFile;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageProcessingServiceTest {
+
+    private final ImageProcessingService service = new ImageProcessingService(1920, 1920, 1080, 320, 0.85, 64);
+
+    @Test
+    void largeImageProducesAllRenditionsWithinTheirBoxes() throws IOException {
+        ImageProcessingResult result = service.processImage(image("photo.jpg", "jpg", 4000, 3000, BufferedImage.TYPE_INT_RGB));
+
+        assertEquals(4000, result.getOriginalWidth());
+        assertEquals(3000, result.getOriginalHeight());
+        assertEquals(3, result.getVariants().size());
+        assertVariant(result, ImageProcessingResult.Variant.FULL, 1920, 1440);
+        assertVariant(result, ImageProcessingResult.Variant.FEED, 1080, 810);
+        assertVariant(result, ImageProcessingResult.Variant.THUMBNAIL, 320, 240);
+        assertArrayEquals(result.getVariant(ImageProcessingResult.Variant.FULL).getData(), result.getProcessedImageData());
+    }
+
+    @Test
+    void smallImageIsNeverUpscaled() throws IOException {
+        ImageProcessingResult result = service.processImage(image("icon.png", "png", 200, 100, BufferedImage.TYPE_INT_ARGB));
+
+        assertEquals("image/jpeg", result.getContentType());
+        assertVariant(result, ImageProcessingResult.Variant.FULL, 200, 100);
+        assertVariant(result, ImageProcessingResult.Variant.THUMBNAIL, 200, 100);
+        // Same size as the full rendition, so the bytes are shared rather than encoded again
+        assertSame(result.getVariant(ImageProcessingResult.Variant.FULL).getData(),
+                result.getVariant(ImageProcessingResult.Variant.THUMBNAIL).getData());
+    }
+
+    @Test
+    void unreadableFileIsRejected() {
+        InMemoryMultipartFile file = new InMemoryMultipartFile("broken.jpg", "image/jpeg", new byte[] { 1, 2, 3, 4 });
+
+        assertThrows(IOException.class, () -> service.processImage(file));
+    }
+
+    private static void assertVariant(ImageProcessingResult result, String name, int width, int height) throws IOException {
+        ImageProcessingResult.Variant variant = result.getVariant(name);
+        assertNotNull(variant, name);
+        assertEquals(width, variant.getWidth(), name + " width");
+        assertEquals(height, variant.getHeight(), name + " height");
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(variant.getData()));
+        assertEquals(width, decoded.getWidth(), name + " encoded width");
+        assertEquals(height, decoded.getHeight(), name + " encoded height");
+    }
+
+    static InMemoryMultipartFile image(String name, String format, int width, int height, int type) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new java.awt.GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return new InMemoryMultipartFile(name, "image/" + (format.equals("jpg") ? "jpeg" : format), out.toByteArray());
+    }
+}
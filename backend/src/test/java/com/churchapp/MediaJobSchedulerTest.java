@@ -0,0 +1,134 @@
+package com.churchapp;
+
+import com.churchapp.service.MediaJobScheduler;
+import com.churchapp.service.MediaJobScheduler.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MediaJobSchedulerTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MediaJobScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // One worker and a 100MB memory budget, 10MB of queued payloads
+        scheduler = new MediaJobScheduler(meterRegistry, 1, 100, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void interactiveJobsRunAheadOfQueuedBulkJobs() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        scheduler.submit(UUID.randomUUID(), Priority.BULK, 0, 0, () -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        scheduler.submit(UUID.randomUUID(), Priority.BULK, 0, 0, record(order, "bulk", done));
+        scheduler.submit(UUID.randomUUID(), Priority.STANDARD, 0, 0, record(order, "standard", done));
+        scheduler.submit(UUID.randomUUID(), Priority.INTERACTIVE, 0, 0, record(order, "interactive", done));
+        scheduler.submit(UUID.randomUUID(), Priority.BULK, 0, 0, () -> done.countDown());
+        assertEquals(2.0, queued("bulk"));
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("interactive", "standard", "bulk"), order);
+        assertEquals(0.0, queued("bulk"));
+        assertTrue(meterRegistry.get("media.jobs.wait").tag("priority", "interactive").timer().count() > 0);
+    }
+
+    @Test
+    void jobIsNotQueuedTwiceForTheSameMediaFile() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        UUID mediaFileId = UUID.randomUUID();
+
+        assertTrue(scheduler.submit(mediaFileId, Priority.STANDARD, 0, 0, () -> await(release)));
+        assertTrue(scheduler.isScheduled(mediaFileId));
+        assertFalse(scheduler.submit(mediaFileId, Priority.STANDARD, 0, 0, () -> fail("duplicate ran")));
+
+        release.countDown();
+        waitUntilIdle(mediaFileId);
+        assertFalse(scheduler.isScheduled(mediaFileId));
+    }
+
+    @Test
+    void inMemoryPayloadsOverBudgetAreRefused() {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(UUID.randomUUID(), Priority.BULK, 0, 0, () -> await(release));
+
+        assertTrue(scheduler.submit(UUID.randomUUID(), Priority.BULK, 0, 8 * MB, () -> { }));
+        assertFalse(scheduler.submit(UUID.randomUUID(), Priority.BULK, 0, 4 * MB, () -> { }));
+        // Jobs that read from S3 hold nothing while queued
+        assertTrue(scheduler.submit(UUID.randomUUID(), Priority.BULK, 0, 0, () -> { }));
+        release.countDown();
+    }
+
+    @Test
+    void jobsOverTheMemoryBudgetDoNotRunTogether() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler = new MediaJobScheduler(meterRegistry, 2, 100, 10);
+
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondRan = new CountDownLatch(1);
+        scheduler.submit(UUID.randomUUID(), Priority.STANDARD, 60 * MB, 0, () -> {
+            firstRunning.countDown();
+            await(release);
+        });
+        assertTrue(firstRunning.await(5, TimeUnit.SECONDS));
+        scheduler.submit(UUID.randomUUID(), Priority.STANDARD, 60 * MB, 0, secondRan::countDown);
+
+        // A worker is free, but the second job has to wait for memory
+        assertFalse(secondRan.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(secondRan.await(5, TimeUnit.SECONDS));
+    }
+
+    private double queued(String priority) {
+        return meterRegistry.get("media.jobs.queued").tag("priority", priority).gauge().value();
+    }
+
+    private void waitUntilIdle(UUID mediaFileId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.isScheduled(mediaFileId) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static Runnable record(List<String> order, String name, CountDownLatch done) {
+        return () -> {
+            order.add(name);
+            done.countDown();
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.churchapp;
+
+import com.churchapp.entity.MetricsJobCheckpoint;
+import com.churchapp.entity.Organization;
+import com.churchapp.entity.OrganizationMetrics;
+import com.churchapp.entity.OrganizationMetricsHistory;
+import com.churchapp.repository.*;
+import com.churchapp.service.OrganizationMetricsBatchJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrganizationMetricsBatchJobTest {
+
+    @Mock private OrganizationRepository organizationRepository;
+    @Mock private OrganizationMetricsRepository metricsRepository;
+    @Mock private OrganizationMetricsHistoryRepository historyRepository;
+    @Mock private PostRepository postRepository;
+    @Mock private PrayerRequestRepository prayerRequestRepository;
+    @Mock private EventRepository eventRepository;
+    @Mock private AnnouncementRepository announcementRepository;
+    @Mock private UserOrganizationMembershipRepository membershipRepository;
+    @Mock private MetricsJobCheckpointRepository checkpointRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrganizationMetricsBatchJob job;
+
+    private final UUID orgA = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private final UUID orgB = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+    private final UUID orgC = UUID.fromString("00000000-0000-0000-0000-00000000000c");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new OrganizationMetricsBatchJob(organizationRepository, metricsRepository, historyRepository,
+                postRepository, prayerRequestRepository, eventRepository, announcementRepository,
+                membershipRepository, checkpointRepository, Runnable::run, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(job, "partitionSize", 2);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(checkpointRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(metricsRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(organizationRepository.getReferenceById(any())).thenAnswer(invocation -> organization(invocation.getArgument(0)));
+    }
+
+    @Test
+    void countsComeFromGroupedQueriesAndSnapshotsAreTakenOncePerDay() {
+        when(checkpointRepository.findById(any())).thenReturn(Optional.empty());
+        when(organizationRepository.findActiveIds(any(Pageable.class))).thenReturn(List.of(orgA, orgB));
+        when(organizationRepository.findActiveIdsAfter(eq(orgB), any(Pageable.class))).thenReturn(List.of(orgC));
+        when(postRepository.countGroupedByOrganizationIdIn(List.of(orgA, orgB)))
+                .thenReturn(rows(new Object[]{orgA, 7L}));
+        when(membershipRepository.countActiveGroupedByOrganizationIdIn(eq(List.of(orgA, orgB)), any()))
+                .thenReturn(rows(new Object[]{orgB, 3L}));
+        when(historyRepository.findOrganizationIdsWithSnapshotSince(eq(List.of(orgA, orgB)), any()))
+                .thenReturn(List.of(orgA));
+
+        assertEquals(3, job.run());
+
+        ArgumentCaptor<List<OrganizationMetrics>> saved = ArgumentCaptor.forClass(List.class);
+        verify(metricsRepository, times(2)).saveAll(saved.capture());
+        List<OrganizationMetrics> firstPartition = saved.getAllValues().get(0);
+        assertEquals(7, firstPartition.get(0).getPostsCount());
+        assertEquals(0, firstPartition.get(0).getActiveUsersCount());
+        assertEquals(0, firstPartition.get(1).getPostsCount());
+        assertEquals(3, firstPartition.get(1).getActiveUsersCount());
+
+        ArgumentCaptor<List<OrganizationMetricsHistory>> snapshots = ArgumentCaptor.forClass(List.class);
+        verify(historyRepository, times(2)).saveAll(snapshots.capture());
+        assertEquals(1, snapshots.getAllValues().get(0).size());
+        assertEquals(orgB, snapshots.getAllValues().get(0).get(0).getOrganization().getId());
+
+        assertEquals(3.0, meterRegistry.get("organization.metrics.job.organizations.processed").gauge().value());
+        assertEquals(1, meterRegistry.get("organization.metrics.job.duration").timer().count());
+    }
+
+    @Test
+    void interruptedRunResumesAfterItsCheckpoint() {
+        MetricsJobCheckpoint checkpoint = new MetricsJobCheckpoint("organization-metrics");
+        checkpoint.start(LocalDate.now(), LocalDateTime.now().minusHours(1));
+        checkpoint.setLastOrganizationId(orgB);
+        checkpoint.setOrganizationsProcessed(2);
+        when(checkpointRepository.findById(any())).thenReturn(Optional.of(checkpoint));
+        when(organizationRepository.findActiveIdsAfter(eq(orgB), any(Pageable.class))).thenReturn(List.of(orgC));
+
+        assertEquals(1, job.resumeInterrupted());
+
+        verify(organizationRepository, never()).findActiveIds(any(Pageable.class));
+        assertEquals(orgC, checkpoint.getLastOrganizationId());
+        assertEquals(3, checkpoint.getOrganizationsProcessed());
+        assertNotNull(checkpoint.getCompletedAt());
+        // Completed today, so nothing left to resume
+        assertEquals(0, job.resumeInterrupted());
+    }
+
+    @Test
+    void failedPartitionHoldsTheCheckpointBack() {
+        when(checkpointRepository.findById(any())).thenReturn(Optional.empty());
+        when(organizationRepository.findActiveIds(any(Pageable.class))).thenReturn(List.of(orgA, orgB));
+        when(organizationRepository.findActiveIdsAfter(eq(orgB), any(Pageable.class))).thenReturn(List.of(orgC));
+        when(postRepository.countGroupedByOrganizationIdIn(List.of(orgA, orgB)))
+                .thenThrow(new RuntimeException("connection reset"));
+
+        assertEquals(1, job.run());
+
+        ArgumentCaptor<MetricsJobCheckpoint> saved = ArgumentCaptor.forClass(MetricsJobCheckpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(saved.capture());
+        MetricsJobCheckpoint checkpoint = saved.getValue();
+        assertNull(checkpoint.getLastOrganizationId());
+        assertNull(checkpoint.getCompletedAt());
+        assertEquals(1.0, meterRegistry.get("organization.metrics.job.partition.failures").counter().count());
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static Organization organization(UUID id) {
+        Organization organization = new Organization();
+        organization.setId(id);
+        return organization;
+    }
+}
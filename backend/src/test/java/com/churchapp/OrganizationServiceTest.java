@@ -23,6 +23,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -55,6 +56,7 @@ public class OrganizationServiceTest {
     @Mock private DonationSubscriptionRepository donationSubscriptionRepository;
     @Mock private GroupRepository groupRepository;
     @Mock private EmailService emailService;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private OrganizationService organizationService;
@@ -0,0 +1,119 @@
+package com.churchapp;
+
+import com.churchapp.entity.PostReactionType;
+import com.churchapp.service.PostEngagementCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PostEngagementCountersTest {
+
+    // Slots in the flush statement: likes, comments, shares, bookmarks, views, then reactions in enum order
+    private static final int LIKES = 0;
+    private static final int COMMENTS = 1;
+    private static final int VIEWS = 4;
+    private static final int REACTIONS = 5;
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private PostEngagementCounters counters;
+
+    private final UUID post = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        counters = new PostEngagementCounters(jdbcTemplate, transactionManager);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void concurrentReactionsAreFlushedAsOneRelativeUpdate() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                counters.reactionAdded(post, PostReactionType.HEART);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        counters.reactionChanged(post, PostReactionType.HEART, PostReactionType.WOW);
+        counters.commentsChanged(post, 2);
+        counters.viewed(List.of(post, post));
+
+        counters.flush();
+
+        Object[] args = flushedRows().get(0);
+        assertTrue(sqlCaptor().getValue().contains("likes_count = GREATEST(likes_count + ?, 0)"));
+        assertEquals(1000L, args[LIKES]);
+        assertEquals(2L, args[COMMENTS]);
+        assertEquals(2L, args[VIEWS]);
+        assertEquals(999L, args[REACTIONS + PostReactionType.HEART.ordinal()]);
+        assertEquals(1L, args[REACTIONS + PostReactionType.WOW.ordinal()]);
+        assertEquals(post, args[args.length - 1]);
+    }
+
+    @Test
+    void flushesOnlyWhatChangedSinceTheLastFlush() {
+        counters.reactionAdded(post, PostReactionType.LIKE);
+        counters.flush();
+        counters.reactionRemoved(post, PostReactionType.LIKE);
+        counters.flush();
+        // Nothing new: no statement, and the idle post is evicted
+        counters.flush();
+        counters.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        assertEquals(-1L, flushedRows().get(0)[LIKES]);
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+        counters.sharesChanged(post, 1);
+
+        counters.flush();
+        counters.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture());
+        assertEquals(1L, rows.getAllValues().get(1).get(0)[2]);
+    }
+
+    private List<Object[]> flushedRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), rows.capture());
+        return rows.getValue();
+    }
+
+    private ArgumentCaptor<String> sqlCaptor() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(sql.capture(), anyList());
+        return sql;
+    }
+}
@@ -0,0 +1,67 @@
+package com.churchapp;
+
+import com.churchapp.entity.Post;
+import com.churchapp.repository.PostRepository;
+import com.churchapp.service.PostgresPostSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PostgresPostSearchIndexTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private PostgresPostSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new PostgresPostSearchIndex(postRepository);
+    }
+
+    @Test
+    void search_buildsPrefixQueryAndPassesFilters() {
+        UUID viewerId = UUID.randomUUID();
+        Pageable pageable = PageRequest.of(1, 20);
+        when(postRepository.searchFullText(anyString(), any(), any(), any()))
+            .thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+        searchIndex.search("  Sunday #Worship  ", Post.PostType.PRAYER, viewerId, pageable);
+
+        verify(postRepository).searchFullText("sunday:* & worship:*", "PRAYER", viewerId.toString(), pageable);
+    }
+
+    @Test
+    void search_stripsTsQueryOperatorsAndDuplicates() {
+        when(postRepository.searchFullText(anyString(), any(), any(), any()))
+            .thenReturn(Page.empty());
+
+        searchIndex.search("faith & (hope | !love) faith's", null, null, PageRequest.of(0, 20));
+
+        verify(postRepository).searchFullText("faith:* & hope:* & love:* & s:*", null, null, PageRequest.of(0, 20));
+    }
+
+    @Test
+    void search_returnsEmptyPageWithoutQueryingWhenNoTerms() {
+        Page<Post> results = searchIndex.search("#!?", null, null, PageRequest.of(0, 20));
+
+        assertTrue(results.isEmpty());
+        assertEquals(0, results.getTotalElements());
+        verifyNoInteractions(postRepository);
+    }
+}
@@ -0,0 +1,96 @@
+package com.churchapp;
+
+import com.churchapp.entity.PrayerRequest;
+import com.churchapp.event.PrayerSheetChangedEvent;
+import com.churchapp.repository.PrayerRequestRepository;
+import com.churchapp.service.PrayerSheetCache;
+import com.churchapp.service.PrayerSheetCache.PrayerSheetEntry;
+import com.churchapp.util.FeedCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PrayerSheetCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 9, 0);
+
+    @Mock
+    private PrayerRequestRepository prayerRequestRepository;
+
+    private PrayerSheetCache cache;
+
+    private final UUID church = UUID.randomUUID();
+    private final UUID family = UUID.randomUUID();
+    private final UUID viewer = UUID.randomUUID();
+    private final UUID someoneElse = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cache = new PrayerSheetCache(prayerRequestRepository, 100, 600, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void mergesOrganizationsNewestFirstAndPagesByCursor() {
+        UUID c1 = new UUID(0, 1), c2 = new UUID(0, 2), f1 = new UUID(0, 3), f2 = new UUID(0, 4), hidden = new UUID(0, 5);
+        when(prayerRequestRepository.findActiveSheetRowsByOrganizationId(church)).thenReturn(rows(
+                row(c1, someoneElse, false, NOW.minusHours(1)),
+                row(hidden, someoneElse, true, NOW.minusHours(2)),
+                row(c2, viewer, true, NOW.minusHours(4))));
+        when(prayerRequestRepository.findActiveSheetRowsByOrganizationId(family)).thenReturn(rows(
+                row(f1, someoneElse, false, NOW.minusMinutes(30)),
+                row(f2, someoneElse, false, NOW.minusHours(3))));
+
+        List<PrayerSheetEntry> first = cache.slice(List.of(church, family), FeedCursor.start(), viewer, 2);
+        assertEquals(List.of(f1, c1), ids(first));
+
+        FeedCursor next = FeedCursor.decode(first.get(1).cursor().encode());
+        List<PrayerSheetEntry> second = cache.slice(List.of(church, family), next, viewer, 10);
+        // Someone else's anonymous prayer is skipped; the viewer's own anonymous prayer is shown with their name
+        assertEquals(List.of(f2, c2), ids(second));
+        assertEquals("Name", second.get(1).toResponse(viewer).getUserName());
+
+        // Both slices were served from one load per organization
+        verify(prayerRequestRepository, times(1)).findActiveSheetRowsByOrganizationId(church);
+        verify(prayerRequestRepository, times(1)).findActiveSheetRowsByOrganizationId(family);
+    }
+
+    @Test
+    void committedChangeEvictsOnlyThatOrganization() {
+        when(prayerRequestRepository.findActiveSheetRowsByOrganizationId(any())).thenReturn(rows());
+        cache.getActivePrayers(church);
+        cache.getActivePrayers(family);
+
+        cache.onPrayerSheetChanged(PrayerSheetChangedEvent.forOrganization(church, "updated prayer request"));
+        cache.getActivePrayers(church);
+        cache.getActivePrayers(family);
+
+        verify(prayerRequestRepository, times(2)).findActiveSheetRowsByOrganizationId(church);
+        verify(prayerRequestRepository, times(1)).findActiveSheetRowsByOrganizationId(family);
+    }
+
+    private static Object[] row(UUID id, UUID userId, boolean anonymous, LocalDateTime createdAt) {
+        return new Object[]{id, userId, "Name", null, "Title", null, null, anonymous,
+                PrayerRequest.PrayerCategory.GENERAL, PrayerRequest.PrayerStatus.ACTIVE, createdAt, createdAt};
+    }
+
+    private static List<UUID> ids(List<PrayerSheetEntry> entries) {
+        return entries.stream().map(PrayerSheetEntry::id).toList();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
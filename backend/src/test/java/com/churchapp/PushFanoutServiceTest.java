@@ -0,0 +1,118 @@
+package com.churchapp;
+
+import com.churchapp.entity.NotificationOutbox;
+import com.churchapp.repository.ChatGroupMemberRepository;
+import com.churchapp.repository.UserGroupMembershipRepository;
+import com.churchapp.repository.UserRepository;
+import com.churchapp.service.PushFanoutService;
+import com.churchapp.service.PushNotificationSender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PushFanoutServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserGroupMembershipRepository userGroupMembershipRepository;
+
+    @Mock
+    private ChatGroupMemberRepository chatGroupMemberRepository;
+
+    private StubSender sender;
+    private PushFanoutService pushFanoutService;
+
+    @BeforeEach
+    void setUp() {
+        sender = new StubSender();
+        pushFanoutService = new PushFanoutService(userRepository, userGroupMembershipRepository,
+            chatGroupMemberRepository, sender);
+    }
+
+    @Test
+    void deliver_splitsAudienceIntoMulticastBatches() {
+        UUID orgId = UUID.randomUUID();
+        UUID authorId = UUID.randomUUID();
+        when(userRepository.findFcmTokensByChurchPrimaryOrganizationId(orgId, authorId)).thenReturn(tokens(1203));
+
+        PushFanoutService.FanoutResult result = pushFanoutService.deliver(
+            outbox(NotificationOutbox.AudienceType.ORGANIZATION_MEMBERS, orgId, authorId));
+
+        assertEquals(List.of(500, 500, 203), sender.batchSizes);
+        assertEquals(1203, result.tokens());
+        assertEquals(1203, result.successCount());
+        verify(userRepository, never()).clearFcmTokens(anyCollection());
+    }
+
+    @Test
+    void sendToTokens_prunesInvalidTokensAndDropsDuplicates() {
+        sender.invalid.add("token-2");
+        when(userRepository.clearFcmTokens(List.of("token-2"))).thenReturn(1);
+
+        PushFanoutService.FanoutResult result = pushFanoutService.sendToTokens(
+            List.of("token-1", "token-2", "token-1", "token-3"), "Title", "Body", Map.of());
+
+        assertEquals(List.of(3), sender.batchSizes);
+        assertEquals(2, result.successCount());
+        assertEquals(1, result.failureCount());
+        assertEquals(1, result.prunedTokens());
+        verify(userRepository).clearFcmTokens(List.of("token-2"));
+    }
+
+    @Test
+    void sendToTokens_rethrowsWhenEveryBatchFails() {
+        sender.failAll = true;
+
+        assertThrows(RuntimeException.class,
+            () -> pushFanoutService.sendToTokens(tokens(10), "Title", "Body", Map.of()));
+    }
+
+    private static NotificationOutbox outbox(NotificationOutbox.AudienceType type, UUID audienceId, UUID excludeUserId) {
+        NotificationOutbox notification = new NotificationOutbox();
+        notification.setAudienceType(type);
+        notification.setAudienceId(audienceId);
+        notification.setExcludeUserId(excludeUserId);
+        notification.setTitle("📝 Pastor");
+        notification.setBody("Sunday service moved to 10am");
+        return notification;
+    }
+
+    private static List<String> tokens(int count) {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tokens.add("token-" + i);
+        }
+        return tokens;
+    }
+
+    private static class StubSender implements PushNotificationSender {
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final List<String> invalid = new ArrayList<>();
+        private boolean failAll;
+
+        @Override
+        public MulticastResult sendMulticast(List<String> tokens, String title, String body, Map<String, String> data) {
+            assertTrue(tokens.size() <= MAX_TOKENS_PER_MULTICAST);
+            batchSizes.add(tokens.size());
+            if (failAll) {
+                throw new RuntimeException("FCM unavailable");
+            }
+            List<String> rejected = tokens.stream().filter(invalid::contains).toList();
+            return new MulticastResult(tokens.size() - rejected.size(), rejected.size(), rejected);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.churchapp;
+
+import com.churchapp.entity.OrganizationMetrics;
+import com.churchapp.entity.StorageObject;
+import com.churchapp.repository.*;
+import com.churchapp.service.StorageLedgerReconciler;
+import com.churchapp.service.StorageLedgerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StorageLedgerServiceTest {
+
+    @Mock
+    private StorageObjectRepository storageObjectRepository;
+
+    @Mock
+    private OrganizationMetricsRepository metricsRepository;
+
+    @Mock
+    private OrganizationRepository organizationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private StorageLedgerService ledger;
+
+    private final UUID orgId = UUID.randomUUID();
+
+    @Test
+    void derivedObjectIsChargedToTheOrganizationOfItsSource() {
+        String source = "media/posts/originals/a.jpg";
+        String derived = "media/posts/optimized/a.jpg";
+        when(storageObjectRepository.findById(source))
+                .thenReturn(Optional.of(new StorageObject(source, orgId, StorageObject.Category.MEDIA, 5_000_000L)));
+        when(metricsRepository.adjustStorage(orgId, 400_000L, 0L, 0L)).thenReturn(1);
+
+        ledger.recordDerived(source, derived, 400_000L);
+
+        ArgumentCaptor<StorageObject> saved = ArgumentCaptor.forClass(StorageObject.class);
+        verify(storageObjectRepository).save(saved.capture());
+        assertEquals(derived, saved.getValue().getObjectKey());
+        assertEquals(orgId, saved.getValue().getOrganizationId());
+        verify(metricsRepository).adjustStorage(orgId, 400_000L, 0L, 0L);
+    }
+
+    @Test
+    void repeatedUploadCompletionIsCountedOnce() {
+        String key = "media/resources/originals/b.pdf";
+        when(storageObjectRepository.existsById(key)).thenReturn(true);
+
+        ledger.recordDerived("unknown", key, 1_000L);
+
+        verify(storageObjectRepository, never()).save(any());
+        verifyNoInteractions(metricsRepository);
+    }
+
+    @Test
+    void deletionSubtractsFromTheRightCategory() {
+        String key = "media/resources/originals/c.pdf";
+        when(storageObjectRepository.findAllById(List.of(key)))
+                .thenReturn(List.of(new StorageObject(key, orgId, StorageObject.Category.DOCUMENT, 2_048L)));
+        when(metricsRepository.adjustStorage(orgId, 0L, -2_048L, 0L)).thenReturn(1);
+
+        ledger.recordDeletion(key);
+
+        verify(storageObjectRepository).delete(any(StorageObject.class));
+        verify(metricsRepository).adjustStorage(orgId, 0L, -2_048L, 0L);
+    }
+
+    @Test
+    void firstStorageForAnOrganizationCreatesItsMetricsRow() {
+        String source = "media/profile-pictures/originals/d.jpg";
+        when(storageObjectRepository.findById(source))
+                .thenReturn(Optional.of(new StorageObject(source, orgId, StorageObject.Category.PROFILE_PIC, 1L)));
+        when(metricsRepository.adjustStorage(any(), anyLong(), anyLong(), anyLong())).thenReturn(0);
+
+        ledger.recordDerived(source, "media/profile-pictures/thumbnails/d.jpg", 300L);
+
+        ArgumentCaptor<OrganizationMetrics> created = ArgumentCaptor.forClass(OrganizationMetrics.class);
+        verify(metricsRepository).save(created.capture());
+        assertEquals(300L, created.getValue().getStorageProfilePics());
+        assertEquals(300L, created.getValue().getStorageUsed());
+    }
+
+    @Test
+    void reconcilerWalksEveryListingPage() {
+        S3Client s3Client = mock(S3Client.class);
+        StorageLedgerService ledgerService = mock(StorageLedgerService.class);
+        StorageLedgerReconciler reconciler = new StorageLedgerReconciler(s3Client, ledgerService,
+                organizationRepository, null, null, null, null, null);
+        ReflectionTestUtils.setField(reconciler, "bucketName", "bucket");
+        ReflectionTestUtils.setField(reconciler, "prefix", "media/");
+        ReflectionTestUtils.setField(reconciler, "attributeUnowned", true);
+
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(
+                ListObjectsV2Response.builder()
+                        .contents(S3Object.builder().key("media/posts/originals/1.jpg").size(10L).build())
+                        .isTruncated(true)
+                        .nextContinuationToken("next")
+                        .build(),
+                ListObjectsV2Response.builder()
+                        .contents(S3Object.builder().key("media/posts/originals/2.jpg").size(20L).build())
+                        .isTruncated(false)
+                        .build());
+        when(ledgerService.removeUnverified(any(), anyInt())).thenReturn(3);
+
+        assertEquals(2, reconciler.reconcile());
+
+        ArgumentCaptor<ListObjectsV2Request> requests = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(s3Client, times(2)).listObjectsV2(requests.capture());
+        assertNull(requests.getAllValues().get(0).continuationToken());
+        assertEquals("next", requests.getAllValues().get(1).continuationToken());
+        verify(ledgerService).applyListing(eq(Map.of("media/posts/originals/1.jpg", 10L)), any(LocalDateTime.class));
+        verify(ledgerService).applyListing(eq(Map.of("media/posts/originals/2.jpg", 20L)), any(LocalDateTime.class));
+        verify(ledgerService).removeUnverified(any(), anyInt());
+        verify(ledgerService).recomputeTotals();
+    }
+}
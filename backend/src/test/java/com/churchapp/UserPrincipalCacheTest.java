@@ -0,0 +1,68 @@
+package com.churchapp;
+
+import com.churchapp.event.UserPrincipalChangedEvent;
+import com.churchapp.security.UserPrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserPrincipalCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserPrincipalCache cache;
+    private AtomicInteger loads;
+    private Function<String, UserDetails> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserPrincipalCache(100, 300, meterRegistry);
+        loads = new AtomicInteger();
+        loader = email -> {
+            loads.incrementAndGet();
+            return User.withUsername(email).password("").roles("USER").build();
+        };
+    }
+
+    @Test
+    void get_loadsOnceAndServesRepeatedRequestsFromCache() {
+        cache.get("member@church.com", loader);
+        cache.get("member@church.com", loader);
+        cache.get("member@church.com", loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets")
+            .tag("cache", "userPrincipals").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void principalChangedEvent_evictsEntry() {
+        cache.get("member@church.com", loader);
+
+        cache.onUserPrincipalChanged(new UserPrincipalChangedEvent("member@church.com", "banned"));
+        cache.get("member@church.com", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_doesNotCacheUnknownUsers() {
+        Function<String, UserDetails> missing = email -> {
+            loads.incrementAndGet();
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        };
+
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost@church.com", missing));
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost@church.com", missing));
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,118 @@
+package com.churchapp;
+
+import com.churchapp.dto.WorshipQueueEntryResponse;
+import com.churchapp.service.RealtimeMessageBus;
+import com.churchapp.service.WorshipBroadcastCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WorshipBroadcastCoalescerTest {
+
+    @Mock
+    private RealtimeMessageBus messageBus;
+
+    private WorshipBroadcastCoalescer coalescer;
+    private final UUID roomId = UUID.randomUUID();
+    private final String topic = "/topic/worship/rooms/" + roomId + "/queue";
+
+    @BeforeEach
+    void setUp() {
+        // Window far longer than the test, so only explicit flushes publish
+        coalescer = new WorshipBroadcastCoalescer(messageBus, new SimpleMeterRegistry(), 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void burstOfVotesIsPublishedOnceWithLatestCounts() {
+        UUID entryId = UUID.randomUUID();
+        for (int i = 1; i <= 50; i++) {
+            coalescer.voteChanged(roomId, entryId, i, 0);
+        }
+        coalescer.flush(roomId);
+
+        Map<String, Object> delta = publishedDeltas(1).get(0);
+        assertEquals("QUEUE_DELTA", delta.get("type"));
+        assertEquals(1L, delta.get("seq"));
+        long[] counts = votes(delta).get(entryId);
+        assertArrayEquals(new long[] { 50, 0 }, counts);
+        assertFalse(delta.containsKey("added"));
+        assertFalse(delta.containsKey("removed"));
+    }
+
+    @Test
+    void sequenceAdvancesOnlyWhenSomethingIsPublished() {
+        coalescer.voteChanged(roomId, UUID.randomUUID(), 1, 0);
+        coalescer.flush(roomId);
+        coalescer.flush(roomId);
+        coalescer.entryRemoved(roomId, UUID.randomUUID());
+        coalescer.flush(roomId);
+
+        List<Map<String, Object>> deltas = publishedDeltas(2);
+        assertEquals(1L, deltas.get(0).get("seq"));
+        assertEquals(2L, deltas.get(1).get("seq"));
+        assertEquals(2L, coalescer.currentSequence(roomId));
+    }
+
+    @Test
+    void deltasCarryTheSnapshotEpochAndForgettingARoomStartsANewOne() {
+        String epoch = coalescer.currentEpoch(roomId);
+        coalescer.voteChanged(roomId, UUID.randomUUID(), 1, 0);
+        coalescer.flush(roomId);
+
+        coalescer.forget(roomId);
+        coalescer.voteChanged(roomId, UUID.randomUUID(), 1, 0);
+        coalescer.flush(roomId);
+
+        List<Map<String, Object>> deltas = publishedDeltas(2);
+        assertEquals(epoch, deltas.get(0).get("epoch"));
+        assertEquals(1L, deltas.get(1).get("seq"));
+        assertNotEquals(epoch, deltas.get(1).get("epoch"));
+        assertEquals(deltas.get(1).get("epoch"), coalescer.currentEpoch(roomId));
+    }
+
+    @Test
+    void entryAddedAndRemovedWithinOneWindowIsNotPublished() {
+        WorshipQueueEntryResponse entry = new WorshipQueueEntryResponse();
+        entry.setId(UUID.randomUUID());
+
+        coalescer.entryAdded(roomId, entry);
+        coalescer.voteChanged(roomId, entry.getId(), 1, 0);
+        coalescer.entryRemoved(roomId, entry.getId());
+        coalescer.flush(roomId);
+
+        verify(messageBus, never()).publish(any(), any());
+        assertEquals(0L, coalescer.currentSequence(roomId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> publishedDeltas(int expected) {
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messageBus, times(expected)).publish(eq(topic), payloads.capture());
+        return payloads.getAllValues().stream().map(p -> (Map<String, Object>) p).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, long[]> votes(Map<String, Object> delta) {
+        return (Map<UUID, long[]>) delta.get("votes");
+    }
+}
@@ -0,0 +1,118 @@
+package com.churchapp;
+
+import com.churchapp.entity.WorshipQueueEntry;
+import com.churchapp.entity.WorshipSongVote;
+import com.churchapp.service.WorshipRoomState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorshipRoomStateTest {
+
+    private final UUID creatorId = UUID.randomUUID();
+    private final UUID memberA = UUID.randomUUID();
+    private final UUID memberB = UUID.randomUUID();
+    private WorshipRoomState room;
+
+    @BeforeEach
+    void setUp() {
+        room = new WorshipRoomState(UUID.randomUUID(), creatorId, "creator@church.com", 0.5);
+        room.restorePlayback(null, null, null, null, null, "stopped", 0.0, null);
+        room.replaceMembers(List.of(
+            new WorshipRoomState.Member(memberA, "a@church.com", true, false),
+            new WorshipRoomState.Member(memberB, "b@church.com", true, true)
+        ));
+    }
+
+    @Test
+    void playbackClock_advancesOnlyWhilePlaying() {
+        LocalDateTime startedAt = LocalDateTime.of(2026, 1, 4, 10, 0, 0);
+        room.setPlayback("playing", 30.0, startedAt);
+
+        assertEquals(42.5, room.calculateCurrentPlaybackPosition(startedAt.plusNanos(12_500_000_000L)), 0.001);
+
+        room.setPlayback("paused", 42.5, null);
+        assertEquals(42.5, room.calculateCurrentPlaybackPosition(startedAt.plusMinutes(10)), 0.001);
+    }
+
+    @Test
+    void permissions_followRolesCreatorAndLeader() {
+        assertTrue(room.canVote("a@church.com"));
+        assertFalse(room.canVote("stranger@church.com"));
+        assertFalse(room.canControlPlayback("a@church.com"));
+        assertTrue(room.canControlPlayback("b@church.com"));
+        assertTrue(room.canControlPlayback("creator@church.com"));
+
+        room.setLeader(memberA, "a@church.com");
+        assertTrue(room.canControlPlayback("a@church.com"));
+    }
+
+    @Test
+    void toggleVote_recordsAddThenRemove() {
+        WorshipRoomState.Entry entry = entry(10000, WorshipQueueEntry.QueueStatus.WAITING);
+        room.putEntry(entry);
+        room.drain();
+
+        assertTrue(room.toggleVote(entry, memberA, WorshipSongVote.VoteType.UPVOTE));
+        assertFalse(room.toggleVote(entry, memberA, WorshipSongVote.VoteType.UPVOTE));
+
+        assertEquals(0, entry.getUpvoteCount());
+        List<WorshipRoomState.PendingWrite> writes = room.drain().writes();
+        assertEquals(2, writes.size());
+        assertInstanceOf(WorshipRoomState.VoteAdded.class, writes.get(0));
+        assertInstanceOf(WorshipRoomState.VoteRemoved.class, writes.get(1));
+        assertFalse(room.hasPendingWrites());
+    }
+
+    @Test
+    void skipThreshold_finishEntryRecordsHistoryAndStartsNext() {
+        WorshipRoomState.Entry playing = entry(10000, WorshipQueueEntry.QueueStatus.WAITING);
+        WorshipRoomState.Entry next = entry(20000, WorshipQueueEntry.QueueStatus.WAITING);
+        room.putEntry(playing);
+        room.putEntry(next);
+
+        LocalDateTime now = LocalDateTime.now();
+        room.startEntry(room.getNextInQueue().orElseThrow(), memberB, "b@church.com", now);
+        assertSame(playing, room.getCurrentEntry().orElseThrow());
+        assertEquals("playing", room.getPlaybackStatus());
+
+        room.toggleVote(playing, memberA, WorshipSongVote.VoteType.SKIP);
+        assertTrue(room.isSkipThresholdReached(playing)); // 1 of 2 participants, threshold 50%
+
+        room.finishEntry(playing, true, room.getLeaderId(), now);
+        assertTrue(room.getCurrentEntry().isEmpty());
+        assertSame(next, room.getNextInQueue().orElseThrow());
+
+        WorshipRoomState.Drained drained = room.drain();
+        assertNotNull(drained.snapshot());
+        WorshipRoomState.HistoryRecorded history = drained.writes().stream()
+            .filter(WorshipRoomState.HistoryRecorded.class::isInstance)
+            .map(WorshipRoomState.HistoryRecorded.class::cast)
+            .findFirst().orElseThrow();
+        assertTrue(history.wasSkipped());
+        assertEquals(1, history.skipVotes());
+        assertEquals(memberB, history.leaderId());
+    }
+
+    @Test
+    void removeEntry_dropsItsPendingWrites() {
+        WorshipRoomState.Entry entry = entry(10000, WorshipQueueEntry.QueueStatus.WAITING);
+        room.putEntry(entry);
+        room.toggleVote(entry, memberA, WorshipSongVote.VoteType.UPVOTE);
+
+        room.removeEntry(entry.getId());
+
+        assertTrue(room.getEntry(entry.getId()).isEmpty());
+        assertFalse(room.hasPendingWrites());
+    }
+
+    private WorshipRoomState.Entry entry(int position, WorshipQueueEntry.QueueStatus status) {
+        return new WorshipRoomState.Entry(UUID.randomUUID(), memberA, "Member A", null, "video-" + position,
+            "Song " + position, 240, null, position, LocalDateTime.now(), status, null);
+    }
+}
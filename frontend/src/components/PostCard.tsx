@@ -803,7 +803,7 @@ const PostCard: React.FC<PostCardProps> = ({
           >
             {isImage ? (
               <img
-                src={post.mediaUrls[0]}
+                src={post.feedMediaUrls?.[0] || post.mediaUrls[0]}
                 alt="Post media"
                 className="media-image"
                 loading="lazy"
@@ -1000,7 +1000,7 @@ const PostCard: React.FC<PostCardProps> = ({
               >
                 {isImage ? (
                   <img
-                    src={url}
+                    src={post.feedMediaUrls?.[index] || url}
                     alt={`Post media ${index + 1}`}
                     className="media-image"
                     loading="lazy"
@@ -1,10 +1,11 @@
-import React, { useState, useEffect, useCallback } from 'react';
+import React, { useState, useEffect, useCallback, useRef } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { worshipAPI } from '../services/worshipApi';
 import websocketService from '../services/websocketService';
 import {
   WorshipRoom as WorshipRoomType,
   WorshipQueueEntry,
+  WorshipQueueDelta,
   WorshipRoomParticipant,
   WorshipPlayHistory,
   PlaybackAction,
@@ -36,6 +37,10 @@ const WorshipRoom: React.FC = () => {
   const [history, setHistory] = useState<WorshipPlayHistory[]>([]);
   const [historyLoading, setHistoryLoading] = useState(false);
   const [userRole, setUserRole] = useState<ParticipantRole>(ParticipantRole.LISTENER);
+  // Sequence of the last queue delta applied; null until the first snapshot arrives
+  const queueSeqRef = useRef<number | null>(null);
+  const queueEpochRef = useRef<string | null>(null);
+  const snapshotSeqRef = useRef<number | null>(null);
 
   // Settings form state
   const [settingsName, setSettingsName] = useState('');
@@ -122,19 +127,21 @@ const WorshipRoom: React.FC = () => {
       // First, join the room to become a participant
       await worshipAPI.joinRoom(roomId);
 
-      const [roomResponse, queueResponse, participantsResponse, currentlyPlayingResponse] = await Promise.all([
+      const [roomResponse, snapshotResponse, participantsResponse] = await Promise.all([
         worshipAPI.getRoomById(roomId),
-        worshipAPI.getQueue(roomId),
+        worshipAPI.getQueueSnapshot(roomId),
         worshipAPI.getParticipants(roomId),
-        worshipAPI.getCurrentlyPlaying(roomId),
       ]);
 
       setRoom(roomResponse.data);
-      setQueue(queueResponse.data);
+      setQueue(snapshotResponse.data.queue);
       setParticipants(participantsResponse.data);
+      queueEpochRef.current = snapshotResponse.data.epoch;
+      queueSeqRef.current = snapshotResponse.data.seq;
+      snapshotSeqRef.current = snapshotResponse.data.seq;
 
-      if (currentlyPlayingResponse.data && 'id' in currentlyPlayingResponse.data) {
-        setCurrentSong(currentlyPlayingResponse.data as WorshipQueueEntry);
+      if (snapshotResponse.data.nowPlaying) {
+        setCurrentSong(snapshotResponse.data.nowPlaying);
       }
 
       // Determine user role from room response
@@ -193,7 +200,9 @@ const WorshipRoom: React.FC = () => {
 
   const handleQueueUpdate = (update: any) => {
     console.log('Queue update:', update);
-    if (update.type === 'SONG_ADDED' || update.type === 'SONG_REMOVED') {
+    if (update.type === 'QUEUE_DELTA') {
+      applyQueueDelta(update as WorshipQueueDelta);
+    } else if (update.type === 'SONG_ADDED' || update.type === 'SONG_REMOVED') {
       loadQueue();
     } else if (update.type === 'VOTE_UPDATED' && update.queueEntry) {
       const updatedEntry = update.queueEntry as WorshipQueueEntry;
@@ -229,6 +238,45 @@ const WorshipRoom: React.FC = () => {
     }
   };
 
+  const applyQueueDelta = (delta: WorshipQueueDelta) => {
+    const lastSeq = queueSeqRef.current;
+    if (lastSeq === null) {
+      // Snapshot still loading; it will include this change
+      return;
+    }
+    if (delta.epoch !== queueEpochRef.current) {
+      // Server restarted or renumbered the room: sequences are not comparable
+      loadQueue();
+      return;
+    }
+    if (snapshotSeqRef.current !== null && delta.seq <= snapshotSeqRef.current) {
+      // Already covered by the snapshot we loaded
+      return;
+    }
+    if (delta.seq <= lastSeq || delta.seq > lastSeq + 1) {
+      // Sequence went backwards or skipped a delta: the snapshot brings us back in step
+      loadQueue();
+      return;
+    }
+    queueSeqRef.current = delta.seq;
+
+    const votes = delta.votes || {};
+    const removed = new Set(delta.removed || []);
+    const withVotes = (entry: WorshipQueueEntry): WorshipQueueEntry => {
+      const counts = votes[entry.id];
+      return counts ? { ...entry, upvoteCount: counts[0], skipVoteCount: counts[1] } : entry;
+    };
+
+    setQueue((prevQueue) => {
+      const known = new Set(prevQueue.map((entry) => entry.id));
+      const added = (delta.added || []).filter((entry) => !known.has(entry.id));
+      return [...prevQueue, ...added]
+        .filter((entry) => !removed.has(entry.id))
+        .map(withVotes);
+    });
+    setCurrentSong((prevSong) => (prevSong ? withVotes(prevSong) : prevSong));
+  };
+
   const handleNowPlayingUpdate = (update: any) => {
     console.log('Now playing update:', update);
     if (update.type === 'NOW_PLAYING' && update.queueEntry) {
@@ -301,16 +349,16 @@ const WorshipRoom: React.FC = () => {
   const loadQueue = async () => {
     if (!roomId) return;
     try {
-      const [queueResponse, currentlyPlayingResponse] = await Promise.all([
-        worshipAPI.getQueue(roomId),
-        worshipAPI.getCurrentlyPlaying(roomId),
-      ]);
+      const snapshotResponse = await worshipAPI.getQueueSnapshot(roomId);
 
-      setQueue(queueResponse.data);
+      setQueue(snapshotResponse.data.queue);
+      queueEpochRef.current = snapshotResponse.data.epoch;
+      queueSeqRef.current = snapshotResponse.data.seq;
+      snapshotSeqRef.current = snapshotResponse.data.seq;
 
       // Also update current song to reflect vote changes
-      if (currentlyPlayingResponse.data && 'id' in currentlyPlayingResponse.data) {
-        setCurrentSong(currentlyPlayingResponse.data as WorshipQueueEntry);
+      if (snapshotResponse.data.nowPlaying) {
+        setCurrentSong(snapshotResponse.data.nowPlaying);
       }
     } catch (err) {
       console.error('Error loading queue:', err);
@@ -382,24 +382,42 @@ export const getFlaggedContent = async (params: {
   return response.data;
 };
 
+export interface BulkModerationJob {
+  jobId: string;
+  status: 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+  action: string;
+  contentType?: string;
+  totalItems: number;
+  processedItems: number;
+  succeededItems: number;
+  failedItems: number;
+  errors: string[];
+  createdAt: string;
+  startedAt?: string;
+  completedAt?: string;
+}
+
+// Starts a background job; poll getBulkModerationJob until it is COMPLETED or FAILED
 export const bulkModerate = async (
   contentIds: string[],
   action: string,
-  reason?: string
-): Promise<{
-  totalProcessed: number;
-  successful: number;
-  failed: number;
-  errors: string[];
-}> => {
+  reason?: string,
+  contentType?: string
+): Promise<BulkModerationJob> => {
   const response = await adminApi.post(`${API_URL}/moderation/bulk-moderate`, {
     contentIds,
     action,
-    reason
+    reason,
+    contentType
   });
   return response.data;
 };
 
+export const getBulkModerationJob = async (jobId: string): Promise<BulkModerationJob> => {
+  const response = await adminApi.get(`${API_URL}/moderation/bulk-moderate/${jobId}`);
+  return response.data;
+};
+
 export const updateModerationSettings = async (
   settings: Record<string, any>
 ): Promise<{ message: string }> => {
@@ -456,6 +474,7 @@ const adminServiceApi = {
   getModerationStats,
   getFlaggedContent,
   bulkModerate,
+  getBulkModerationJob,
   updateModerationSettings,
   getModerationHistory,
 
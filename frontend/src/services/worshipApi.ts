@@ -4,6 +4,7 @@ import {
   WorshipRoomRequest,
   WorshipQueueEntry,
   WorshipQueueEntryRequest,
+  WorshipQueueSnapshot,
   WorshipRoomParticipant,
   WorshipVoteRequest,
   WorshipRoomSettings,
@@ -96,6 +97,10 @@ export const worshipAPI = {
   getQueue: (roomId: string): Promise<{ data: WorshipQueueEntry[] }> =>
     api.get(`/worship/rooms/${roomId}/queue`),
 
+  // Get queue and now playing together, with the delta sequence they are current to
+  getQueueSnapshot: (roomId: string): Promise<{ data: WorshipQueueSnapshot }> =>
+    api.get(`/worship/rooms/${roomId}/queue/snapshot`),
+
   // Get currently playing song
   getNowPlaying: (roomId: string): Promise<{ data: WorshipQueueEntry | { message: string } }> =>
     api.get(`/worship/rooms/${roomId}/queue/now-playing`),
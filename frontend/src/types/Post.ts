@@ -68,6 +68,7 @@ export interface Post {
   mediaUrls: string[];
   mediaTypes: string[];
   thumbnailUrls?: string[]; // Optional thumbnail URLs for videos
+  feedMediaUrls?: string[]; // Feed-size image renditions, same order as mediaUrls
   parentPostId?: string;
   quotedPostId?: string;
   isReply: boolean;
@@ -130,6 +130,24 @@ export interface WorshipQueueEntry {
   updatedAt: string;
 }
 
+// Batched queue changes for one room; vote counts are absolute [upvotes, skips]
+export interface WorshipQueueDelta {
+  type: 'QUEUE_DELTA';
+  epoch: string;
+  seq: number;
+  votes?: Record<string, [number, number]>;
+  added?: WorshipQueueEntry[];
+  removed?: string[];
+}
+
+// Full queue state, current up to delta `seq` of `epoch`
+export interface WorshipQueueSnapshot {
+  epoch: string;
+  seq: number;
+  queue: WorshipQueueEntry[];
+  nowPlaying?: WorshipQueueEntry | null;
+}
+
 export interface WorshipQueueEntryRequest {
   roomId: string;
   videoId: string;
@@ -320,6 +338,7 @@ export enum WorshipMessageType {
   SONG_ADDED = 'SONG_ADDED',
   SONG_REMOVED = 'SONG_REMOVED',
   VOTE_UPDATED = 'VOTE_UPDATED',
+  QUEUE_DELTA = 'QUEUE_DELTA',
 
   // Playback events
   NOW_PLAYING = 'NOW_PLAYING',